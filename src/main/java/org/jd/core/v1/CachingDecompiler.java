@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1;
+
+import org.jd.core.v1.api.Decompiler;
+import org.jd.core.v1.api.loader.ByteBufferLoader;
+import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.api.printer.Printer;
+import org.jd.core.v1.model.message.Message;
+import org.jd.core.v1.printer.RecordingPrinter;
+import org.jd.core.v1.service.converter.classfiletojavasyntax.util.TypeIndex;
+import org.jd.core.v1.service.deserializer.classfile.ClassFileReader;
+import org.jd.core.v1.util.DiskLruCache;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * Decompiler keeping the printer calls of its decompilations in a {@link DiskLruCache}: a type decompiled again is
+ * replayed into the printer, without running the pipeline. An entry that can not be decoded is removed and the type
+ * is decompiled again. A decompilation with methods written as byte code past a time limit (see 'classTimeout' and
+ * 'methodTimeout') is not kept.<br><br>
+ *
+ * The key is a digest of the class file, of the inner class files loaded with it, of the configuration and of the
+ * version of JD-Core. Configuration values other than strings, numbers and booleans, the shared caches for example,
+ * are not part of the key. The version is read from the manifest of the JD-Core jar; pass it to the constructor when
+ * JD-Core is not run from its jar.<br><br>
+ *
+ * Instances are thread safe if the decompiler is thread safe.
+ */
+public class CachingDecompiler implements Decompiler {
+    protected static final String UNKNOWN_VERSION = "unknown";
+
+    protected Decompiler decompiler;
+    protected DiskLruCache cache;
+    protected String version;
+    protected LongAdder hitCount = new LongAdder();
+    protected LongAdder missCount = new LongAdder();
+
+    public CachingDecompiler(Path directory, long maxSize) throws IOException {
+        this(new ClassFileToJavaSourceDecompiler(), new DiskLruCache(directory, maxSize));
+    }
+
+    public CachingDecompiler(Decompiler decompiler, DiskLruCache cache) {
+        this(decompiler, cache, getJdCoreVersion());
+    }
+
+    /**
+     * @param version version of JD-Core, part of the keys
+     */
+    public CachingDecompiler(Decompiler decompiler, DiskLruCache cache, String version) {
+        this.decompiler = decompiler;
+        this.cache = cache;
+        this.version = version;
+    }
+
+    public DiskLruCache getCache() {
+        return cache;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    @Override
+    public void decompile(Loader loader, Printer printer, String internalName) throws Exception {
+        decompile(loader, printer, internalName, null);
+    }
+
+    @Override
+    public void decompile(Loader loader, Printer printer, String internalName, Map<String, Object> configuration) throws Exception {
+        String key = computeKey(loader, internalName, configuration);
+
+        if (key == null) {
+            // Type not found: fail as the decompiler does
+            decompiler.decompile(loader, printer, internalName, configuration);
+            return;
+        }
+
+        byte[] data = cache.get(key);
+
+        if (data != null) {
+            try {
+                RecordingPrinter.replay(data, printer);
+                hitCount.increment();
+                return;
+            } catch (IllegalArgumentException e) {
+                // Corrupted entry, nothing printed: decompile again
+                cache.remove(key);
+            }
+        }
+
+        missCount.increment();
+
+        RecordingPrinter recorder = new RecordingPrinter(printer);
+        List<String> degradedMembers = decompile(decompiler, loader, recorder, internalName, configuration);
+
+        if (degradedMembers.isEmpty()) {
+            try {
+                cache.put(key, recorder.toByteArray());
+            } catch (IOException ignore) {
+                // The source has been printed: a cache failure is not a decompilation failure
+            }
+        }
+    }
+
+    /**
+     * @return the methods written as byte code past a time limit (see the header 'degradedMembers' of
+     *         {@link ClassFileToJavaSourceDecompiler#decompile(Message)}), empty if 'decompiler' does not report them
+     */
+    protected static List<String> decompile(Decompiler decompiler, Loader loader, Printer printer, String internalName, Map<String, Object> configuration) throws Exception {
+        if (decompiler instanceof ClassFileToJavaSourceDecompiler) {
+            Message message = new Message();
+
+            message.setHeader("mainInternalTypeName", internalName);
+            message.setHeader("configuration", configuration);
+            message.setHeader("loader", loader);
+            message.setHeader("printer", printer);
+
+            ((ClassFileToJavaSourceDecompiler)decompiler).decompile(message);
+
+            List<String> degradedMembers = message.getHeader("degradedMembers");
+
+            return (degradedMembers == null) ? Collections.emptyList() : degradedMembers;
+        }
+
+        decompiler.decompile(loader, printer, internalName, configuration);
+
+        return Collections.emptyList();
+    }
+
+    /**
+     * @return a hexadecimal digest, or null if the type is not found
+     */
+    protected String computeKey(Loader loader, String internalName, Map<String, Object> configuration) throws Exception {
+        return computeKey(version, loader, internalName, configuration);
+    }
+
+    /**
+     * @return a hexadecimal digest of 'version', of the configuration and of the class files, or null if the type is
+     *         not found
+     */
+    protected static String computeKey(String version, Loader loader, String internalName, Map<String, Object> configuration) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+        update(digest, version);
+        update(digest, String.valueOf(RecordingPrinter.FORMAT_VERSION));
+        update(digest, internalName);
+
+        if (configuration != null) {
+            TreeMap<String, Object> sortedConfiguration = new TreeMap<>(configuration);
+
+            for (Map.Entry<String, Object> entry : sortedConfiguration.entrySet()) {
+                Object value = entry.getValue();
+
+                if ((value instanceof CharSequence) || (value instanceof Number) || (value instanceof Boolean)) {
+                    update(digest, entry.getKey());
+                    update(digest, value.toString());
+                }
+            }
+        }
+
+        if (!updateClassFiles(digest, loader, internalName, new HashSet<>())) {
+            return null;
+        }
+
+        return toHexString(digest.digest());
+    }
+
+    /**
+     * Digest the class file and the inner class files loaded with it by the deserializer.
+     *
+     * @return false if the type is not found
+     */
+    protected static boolean updateClassFiles(MessageDigest digest, Loader loader, String internalTypeName, HashSet<String> internalTypeNames) throws Exception {
+        ClassFileReader reader;
+
+        if (!internalTypeNames.add(internalTypeName)) {
+            return true;
+        }
+
+        if (loader instanceof ByteBufferLoader) {
+            ByteBuffer buffer = ((ByteBufferLoader)loader).loadByteBuffer(internalTypeName);
+
+            if (buffer == null) {
+                update(digest, "");
+                return false;
+            }
+
+            update(digest, String.valueOf(buffer.remaining()));
+            digest.update(buffer.duplicate());
+            reader = new ClassFileReader(buffer);
+        } else {
+            byte[] data = loader.load(internalTypeName);
+
+            if (data == null) {
+                update(digest, "");
+                return false;
+            }
+
+            update(digest, String.valueOf(data.length));
+            digest.update(data);
+            reader = new ClassFileReader(data);
+        }
+
+        TypeIndex.Entry entry = TypeIndex.read(reader);
+        String[] innerTypeNames = entry.getInnerTypeNames();
+
+        if (innerTypeNames != null) {
+            String[] outerTypeNames = entry.getOuterTypeNames();
+            String innerTypePrefix = internalTypeName + '$';
+
+            for (int i=0, len=innerTypeNames.length; i<len; i++) {
+                String innerTypeName = innerTypeNames[i];
+
+                // Same selection as the deserializer
+                if (!internalTypeName.equals(innerTypeName) && (internalTypeName.equals(outerTypeNames[i]) || innerTypeName.startsWith(innerTypePrefix))) {
+                    update(digest, innerTypeName);
+                    updateClassFiles(digest, loader, innerTypeName, internalTypeNames);
+                }
+            }
+        }
+
+        return true;
+    }
+
+    protected static String toHexString(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 15, 16));
+            sb.append(Character.forDigit(b & 15, 16));
+        }
+
+        return sb.toString();
+    }
+
+    protected static void update(MessageDigest digest, String string) {
+        digest.update(string.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte)0);
+    }
+
+    protected static String getJdCoreVersion() {
+        try {
+            URL location = CachingDecompiler.class.getProtectionDomain().getCodeSource().getLocation();
+            File file = new File(location.toURI());
+
+            if (file.isFile()) {
+                try (JarFile jarFile = new JarFile(file)) {
+                    Manifest manifest = jarFile.getManifest();
+                    String version = (manifest == null) ? null : manifest.getMainAttributes().getValue("JD-Core-Version");
+
+                    if (version != null) {
+                        return version;
+                    }
+                }
+            }
+        } catch (Exception ignore) {
+        }
+
+        return UNKNOWN_VERSION;
+    }
+}
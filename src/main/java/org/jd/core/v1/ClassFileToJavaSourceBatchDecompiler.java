@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1;
+
+import org.jd.core.v1.api.BatchDecompiler;
+import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.api.printer.Printer;
+import org.jd.core.v1.api.printer.PrinterFactory;
+import org.jd.core.v1.loader.ZipFileLoader;
+import org.jd.core.v1.service.converter.classfiletojavasyntax.util.TypeMakerCache;
+import org.jd.core.v1.service.deserializer.classfile.Utf8InternTable;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Decompile a set of types in parallel.<br><br>
+ *
+ * Types are dispatched to the workers of a work-stealing {@link ForkJoinPool}; each worker owns its own
+ * {@link ClassFileToJavaSourceDecompiler}, and all workers share a {@link TypeMakerCache} and a
+ * {@link Utf8InternTable}. At most 'maxPendingTypes' types are queued or in progress: beyond, the calling thread
+ * waits for a worker to be free. The loader and the printer factory must be thread safe.
+ */
+public class ClassFileToJavaSourceBatchDecompiler implements BatchDecompiler {
+    protected int parallelism;
+    protected int maxPendingTypes;
+
+    public ClassFileToJavaSourceBatchDecompiler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ClassFileToJavaSourceBatchDecompiler(int parallelism) {
+        this(parallelism, parallelism * 4);
+    }
+
+    public ClassFileToJavaSourceBatchDecompiler(int parallelism, int maxPendingTypes) {
+        if ((parallelism < 1) || (maxPendingTypes < 1))
+            throw new IllegalArgumentException("Invalid parallelism level or maximum number of pending types");
+
+        this.parallelism = parallelism;
+        this.maxPendingTypes = maxPendingTypes;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getMaxPendingTypes() {
+        return maxPendingTypes;
+    }
+
+    public void decompile(Loader loader, PrinterFactory printerFactory, Collection<String> internalNames) throws Exception {
+        decompile(loader, printerFactory, internalNames, null);
+    }
+
+    public void decompile(Loader loader, PrinterFactory printerFactory, Collection<String> internalNames, Map<String, Object> configuration) throws Exception {
+        HashMap<String, Object> sharedConfiguration = (configuration == null) ? new HashMap<>() : new HashMap<>(configuration);
+
+        if (sharedConfiguration.get("typeMakerCache") == null) {
+            sharedConfiguration.put("typeMakerCache", new TypeMakerCache(loader));
+        }
+
+        if (sharedConfiguration.get("utf8InternTable") == null) {
+            sharedConfiguration.put("utf8InternTable", new Utf8InternTable());
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        Semaphore pendingTypes = new Semaphore(maxPendingTypes);
+        ThreadLocal<ClassFileToJavaSourceDecompiler> decompilers = ThreadLocal.withInitial(this::newDecompiler);
+
+        try {
+            for (String internalName : internalNames) {
+                pendingTypes.acquire();
+
+                pool.execute(() -> {
+                    try {
+                        decompile(decompilers.get(), loader, printerFactory, internalName, sharedConfiguration);
+                    } finally {
+                        pendingTypes.release();
+                    }
+                });
+            }
+
+            // Wait for the last types
+            pendingTypes.acquire(maxPendingTypes);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    public void decompile(Path archivePath, PrinterFactory printerFactory) throws Exception {
+        decompile(archivePath, printerFactory, null);
+    }
+
+    public void decompile(Path archivePath, PrinterFactory printerFactory, Map<String, Object> configuration) throws Exception {
+        try (ZipFileLoader loader = new ZipFileLoader(archivePath)) {
+            decompile(loader, printerFactory, loader.getTopLevelTypeNames(), configuration);
+        }
+    }
+
+    protected ClassFileToJavaSourceDecompiler newDecompiler() {
+        return new ClassFileToJavaSourceDecompiler();
+    }
+
+    protected void decompile(ClassFileToJavaSourceDecompiler decompiler, Loader loader, PrinterFactory printerFactory, String internalName, Map<String, Object> configuration) {
+        Printer printer = null;
+        Throwable failure = null;
+
+        try {
+            printer = printerFactory.newPrinter(internalName);
+            decompiler.decompile(loader, printer, internalName, configuration);
+        } catch (Throwable t) {
+            failure = t;
+        }
+
+        printerFactory.done(internalName, printer, failure);
+    }
+}
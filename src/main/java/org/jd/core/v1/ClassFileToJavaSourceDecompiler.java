@@ -16,8 +16,10 @@ import org.jd.core.v1.service.deserializer.classfile.DeserializeClassFileProcess
 import org.jd.core.v1.service.fragmenter.javasyntaxtojavafragment.JavaSyntaxToJavaFragmentProcessor;
 import org.jd.core.v1.service.layouter.LayoutFragmentProcessor;
 import org.jd.core.v1.service.tokenizer.javafragmenttotoken.JavaFragmentToTokenProcessor;
+import org.jd.core.v1.service.writer.WriteJavaFragmentStream;
 import org.jd.core.v1.service.writer.WriteTokenProcessor;
 
+import java.util.HashMap;
 import java.util.Map;
 
 public class ClassFileToJavaSourceDecompiler implements Decompiler {
@@ -49,12 +51,58 @@ public class ClassFileToJavaSourceDecompiler implements Decompiler {
         decompile(message);
     }
 
-    protected void decompile(Message message) throws Exception {
+    /**
+     * Decompile a member of a type: the declaration of the type is printed with this member only, and the imports
+     * it needs. The other methods are not decompiled and the member types are not loaded.
+     *
+     * @param descriptor descriptor of the member, null to print all the members named 'name'
+     */
+    public void decompileMember(Loader loader, Printer printer, String internalName, String name, String descriptor, Map<String, Object> configuration) throws Exception {
+        HashMap<String, Object> memberConfiguration = (configuration == null) ? new HashMap<>() : new HashMap<>(configuration);
+
+        memberConfiguration.put("memberName", name);
+
+        if (descriptor == null) {
+            memberConfiguration.remove("memberDescriptor");
+        } else {
+            memberConfiguration.put("memberDescriptor", descriptor);
+        }
+
+        decompile(loader, printer, internalName, memberConfiguration);
+    }
+
+    /**
+     * Decompile the type named by the header 'mainInternalTypeName', with the headers 'loader', 'printer' and
+     * 'configuration'. On return, the header 'degradedMembers' lists the methods written as byte code past a time
+     * limit (see 'classTimeout' and 'methodTimeout').
+     */
+    public void decompile(Message message) throws Exception {
         this.deserializer.process(message);
+        convertAndWrite(message);
+    }
+
+    /**
+     * Convert and write the class file deserialized in the body of 'message'.
+     */
+    protected void convertAndWrite(Message message) throws Exception {
         this.converter.process(message);
-        this.fragmenter.process(message);
-        this.layouter.process(message);
-        this.tokenizer.process(message);
-        this.writer.process(message);
+
+        Map<String, Object> configuration = message.getHeader("configuration");
+        Object realignLineNumbersConfiguration = (configuration == null) ? "false" : configuration.get("realignLineNumbers");
+        boolean realignLineNumbers = (realignLineNumbersConfiguration == null) ? false : !"false".equals(realignLineNumbersConfiguration.toString());
+
+        if (realignLineNumbers) {
+            this.fragmenter.process(message);
+            this.layouter.process(message);
+            this.tokenizer.process(message);
+            this.writer.process(message);
+        } else {
+            // Fragments are not laid out: write each top-level member as soon as its fragments are built
+            WriteJavaFragmentStream stream = new WriteJavaFragmentStream(message);
+
+            message.setHeader("fragmentConsumer", stream);
+            this.fragmenter.process(message);
+            stream.end();
+        }
     }
 }
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1;
+
+import org.jd.core.v1.api.ProgressiveDecompiler;
+import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.api.printer.MemberPrinterFactory;
+import org.jd.core.v1.api.printer.Printer;
+import org.jd.core.v1.model.classfile.ClassFile;
+import org.jd.core.v1.model.classfile.Method;
+import org.jd.core.v1.model.message.Message;
+import org.jd.core.v1.service.converter.classfiletojavasyntax.util.TypeMakerCache;
+import org.jd.core.v1.service.deserializer.classfile.Utf8InternTable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.jd.core.v1.model.classfile.Constants.*;
+
+/**
+ * Decompile a type in two phases.<br><br>
+ *
+ * The declarations of the type are printed first, on the calling thread, with the bodies of the methods left out
+ * (see the 'outline' configuration option). The methods of the type are then decompiled in parallel, each one as
+ * by {@link ClassFileToJavaSourceDecompiler#decompileMember}, and printed into the printers of 'memberPrinterFactory'
+ * as soon as they are done. The methods of the member types stay left out.<br><br>
+ *
+ * Methods are dispatched to the workers of a {@link ForkJoinPool} created for the type; the workers share a
+ * {@link TypeMakerCache} and a {@link Utf8InternTable}. The loader and the member printer factory must be thread
+ * safe.
+ */
+public class ClassFileToJavaSourceProgressiveDecompiler implements ProgressiveDecompiler {
+    protected int parallelism;
+
+    public ClassFileToJavaSourceProgressiveDecompiler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ClassFileToJavaSourceProgressiveDecompiler(int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Invalid parallelism level");
+
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public CompletableFuture<Void> decompile(Loader loader, Printer printer, MemberPrinterFactory memberPrinterFactory, String internalName) throws Exception {
+        return decompile(loader, printer, memberPrinterFactory, internalName, null);
+    }
+
+    /**
+     * @return a future completed once all the methods have been passed to {@link MemberPrinterFactory#done}, failed
+     *         ones included
+     */
+    public CompletableFuture<Void> decompile(Loader loader, Printer printer, MemberPrinterFactory memberPrinterFactory, String internalName, Map<String, Object> configuration) throws Exception {
+        HashMap<String, Object> sharedConfiguration = (configuration == null) ? new HashMap<>() : new HashMap<>(configuration);
+
+        sharedConfiguration.remove("outline");
+        sharedConfiguration.remove("memberName");
+        sharedConfiguration.remove("memberDescriptor");
+
+        if (sharedConfiguration.get("typeMakerCache") == null) {
+            sharedConfiguration.put("typeMakerCache", new TypeMakerCache(loader));
+        }
+
+        if (sharedConfiguration.get("utf8InternTable") == null) {
+            sharedConfiguration.put("utf8InternTable", new Utf8InternTable());
+        }
+
+        // First phase: declarations
+        HashMap<String, Object> outlineConfiguration = new HashMap<>(sharedConfiguration);
+        ClassFileToJavaSourceDecompiler decompiler = newDecompiler();
+        Message message = new Message();
+
+        outlineConfiguration.put("outline", "true");
+
+        message.setHeader("mainInternalTypeName", internalName);
+        message.setHeader("configuration", outlineConfiguration);
+        message.setHeader("loader", loader);
+        message.setHeader("printer", printer);
+
+        decompiler.deserializer.process(message);
+
+        ClassFile classFile = message.getBody();
+
+        decompiler.convertAndWrite(message);
+
+        // Second phase: bodies
+        ArrayList<Method> methods = new ArrayList<>();
+
+        if (classFile.getMethods() != null) {
+            for (Method method : classFile.getMethods()) {
+                if (hasBody(classFile, method)) {
+                    methods.add(method);
+                }
+            }
+        }
+
+        if (methods.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Math.min(parallelism, methods.size()));
+        ThreadLocal<ClassFileToJavaSourceDecompiler> decompilers = ThreadLocal.withInitial(this::newDecompiler);
+        CompletableFuture<?>[] futures = new CompletableFuture[methods.size()];
+
+        for (int i=0, len=methods.size(); i<len; i++) {
+            Method method = methods.get(i);
+
+            futures[i] = CompletableFuture.runAsync(() -> decompile(decompilers.get(), loader, memberPrinterFactory, internalName, method, sharedConfiguration), pool);
+        }
+
+        CompletableFuture<Void> future = CompletableFuture.allOf(futures);
+
+        future.whenComplete((v, t) -> pool.shutdown());
+
+        return future;
+    }
+
+    protected ClassFileToJavaSourceDecompiler newDecompiler() {
+        return new ClassFileToJavaSourceDecompiler();
+    }
+
+    /**
+     * @return false for the abstract and native methods, for the static initializer, and for the methods generated by
+     *         the compiler, 'values' and 'valueOf' of the enums included
+     */
+    protected static boolean hasBody(ClassFile classFile, Method method) {
+        String name = method.getName();
+
+        if (((method.getAccessFlags() & (ACC_ABSTRACT|ACC_NATIVE|ACC_SYNTHETIC|ACC_BRIDGE)) != 0) || (name.indexOf('$') != -1) || "<clinit>".equals(name)) {
+            return false;
+        }
+
+        if ((classFile.getAccessFlags() & ACC_ENUM) != 0) {
+            String descriptor = method.getDescriptor();
+            String typeDescriptor = 'L' + classFile.getInternalTypeName() + ';';
+
+            if ("values".equals(name) && descriptor.equals("()[" + typeDescriptor)) {
+                return false;
+            }
+            if ("valueOf".equals(name) && descriptor.equals("(Ljava/lang/String;)" + typeDescriptor)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    protected void decompile(ClassFileToJavaSourceDecompiler decompiler, Loader loader, MemberPrinterFactory memberPrinterFactory, String internalName, Method method, Map<String, Object> configuration) {
+        String name = method.getName();
+        String descriptor = method.getDescriptor();
+        Printer printer = null;
+        Throwable failure = null;
+
+        try {
+            printer = memberPrinterFactory.newPrinter(internalName, name, descriptor);
+            decompiler.decompileMember(loader, printer, internalName, name, descriptor, configuration);
+        } catch (Throwable t) {
+            failure = t;
+        }
+
+        memberPrinterFactory.done(internalName, name, descriptor, printer, failure);
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1;
+
+import org.jd.core.v1.api.Decompiler;
+import org.jd.core.v1.api.loader.BatchLoader;
+import org.jd.core.v1.api.loader.ByteBufferLoader;
+import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.api.printer.Printer;
+import org.jd.core.v1.api.printer.PrinterFactory;
+import org.jd.core.v1.loader.RecordingBatchLoader;
+import org.jd.core.v1.loader.RecordingLoader;
+import org.jd.core.v1.service.converter.classfiletojavasyntax.util.TypeIndex;
+import org.jd.core.v1.service.deserializer.classfile.ClassFileReader;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decompiler of successive snapshots of an archive, decompiling again only the types whose output may have
+ * changed.<br><br>
+ *
+ * Each decompilation records the types consulted through the loader. The output of a type depends on its class file,
+ * on the inner class files loaded with it, and on the relations of the consulted types: existence, access flags,
+ * super type, interfaces and 'InnerClasses' entries, used by the type hierarchy and outer type searches. A type is
+ * decompiled again if its class files, the configuration or the version of JD-Core changed, or if the relations of
+ * one of its consulted types changed. Types of the platform, searched when the loader does not find them, are not
+ * tracked. A decompilation with methods written as byte code past a time limit (see 'classTimeout' and
+ * 'methodTimeout') is not recorded: the type is decompiled again next time.<br><br>
+ *
+ * A shared 'typeMakerCache' would hide the searches: it is removed from the configuration. The records can be saved
+ * between snapshots with {@link #save(Path)} and {@link #load(Path)}. Instances are thread safe if the decompiler is
+ * thread safe.
+ */
+public class IncrementalDecompiler {
+    public static final int MAGIC_NUMBER = 0x4A444444; // "JDDD"
+    public static final int VERSION = 1;
+
+    protected static final String NOT_FOUND = "-";
+    protected static final String INVALID = "!";
+
+    protected Decompiler decompiler;
+    protected String version;
+    protected ConcurrentHashMap<String, Record> records = new ConcurrentHashMap<>();
+
+    public IncrementalDecompiler() {
+        this(new ClassFileToJavaSourceDecompiler(), CachingDecompiler.getJdCoreVersion());
+    }
+
+    /**
+     * @param version version of JD-Core, part of the records
+     */
+    public IncrementalDecompiler(Decompiler decompiler, String version) {
+        this.decompiler = decompiler;
+        this.version = version;
+    }
+
+    /**
+     * @return the names of the types consulted by the last decompilation of 'internalName', null if not recorded
+     */
+    public Set<String> getDependencies(String internalName) {
+        Record record = records.get(internalName);
+        return (record == null) ? null : new HashSet<>(Arrays.asList(record.dependencyNames));
+    }
+
+    /**
+     * Decompile the types of 'internalNames' not up to date in 'loader'. The records of the types absent from
+     * 'internalNames' are removed.
+     *
+     * @return the names of the decompiled types, failed ones included
+     */
+    public List<String> decompile(Loader loader, PrinterFactory printerFactory, Collection<String> internalNames, Map<String, Object> configuration) throws Exception {
+        HashMap<String, String> entryDigests = new HashMap<>();
+        ArrayList<String> decompiledNames = new ArrayList<>();
+
+        records.keySet().retainAll(new HashSet<>(internalNames));
+
+        for (String internalName : internalNames) {
+            String key = CachingDecompiler.computeKey(version, loader, internalName, configuration);
+
+            if ((key == null) || !isUpToDate(loader, internalName, key, entryDigests)) {
+                Printer printer = null;
+                Throwable failure = null;
+
+                try {
+                    printer = printerFactory.newPrinter(internalName);
+                    decompile(loader, printer, internalName, key, configuration, entryDigests);
+                } catch (Throwable t) {
+                    failure = t;
+                }
+
+                printerFactory.done(internalName, printer, failure);
+                decompiledNames.add(internalName);
+            }
+        }
+
+        return decompiledNames;
+    }
+
+    /**
+     * Decompile 'internalName' if it is not up to date in 'loader'.
+     *
+     * @return true if the type has been printed
+     */
+    public boolean decompile(Loader loader, Printer printer, String internalName, Map<String, Object> configuration) throws Exception {
+        HashMap<String, String> entryDigests = new HashMap<>();
+        String key = CachingDecompiler.computeKey(version, loader, internalName, configuration);
+
+        if ((key != null) && isUpToDate(loader, internalName, key, entryDigests)) {
+            return false;
+        }
+
+        decompile(loader, printer, internalName, key, configuration, entryDigests);
+        return true;
+    }
+
+    public boolean isUpToDate(Loader loader, String internalName, Map<String, Object> configuration) throws Exception {
+        String key = CachingDecompiler.computeKey(version, loader, internalName, configuration);
+        return (key != null) && isUpToDate(loader, internalName, key, new HashMap<>());
+    }
+
+    public void clear() {
+        records.clear();
+    }
+
+    protected boolean isUpToDate(Loader loader, String internalName, String key, HashMap<String, String> entryDigests) {
+        Record record = records.get(internalName);
+
+        if ((record == null) || !record.key.equals(key)) {
+            return false;
+        }
+
+        for (int i=0, len=record.dependencyNames.length; i<len; i++) {
+            if (!record.dependencyDigests[i].equals(digestEntry(loader, record.dependencyNames[i], entryDigests))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    protected void decompile(Loader loader, Printer printer, String internalName, String key, Map<String, Object> configuration, HashMap<String, String> entryDigests) throws Exception {
+        RecordingLoader recordingLoader = (loader instanceof BatchLoader) ? new RecordingBatchLoader((BatchLoader)loader) : new RecordingLoader(loader);
+
+        records.remove(internalName);
+
+        if ((configuration != null) && configuration.containsKey("typeMakerCache")) {
+            configuration = new HashMap<>(configuration);
+            configuration.remove("typeMakerCache");
+        }
+
+        List<String> degradedMembers = CachingDecompiler.decompile(decompiler, recordingLoader, printer, internalName, configuration);
+
+        if ((key != null) && degradedMembers.isEmpty()) {
+            String[] dependencyNames = recordingLoader.getInternalNames().toArray(new String[0]);
+            String[] dependencyDigests = new String[dependencyNames.length];
+
+            for (int i=0, len=dependencyNames.length; i<len; i++) {
+                dependencyDigests[i] = digestEntry(loader, dependencyNames[i], entryDigests);
+            }
+
+            records.put(internalName, new Record(key, dependencyNames, dependencyDigests));
+        }
+    }
+
+    /**
+     * @return a digest of the relations of the type, {@link #NOT_FOUND} or {@link #INVALID}
+     */
+    protected static String digestEntry(Loader loader, String internalName, HashMap<String, String> entryDigests) {
+        String digest = entryDigests.get(internalName);
+
+        if (digest == null) {
+            try {
+                ClassFileReader reader;
+
+                if (loader instanceof ByteBufferLoader) {
+                    ByteBuffer buffer = ((ByteBufferLoader)loader).loadByteBuffer(internalName);
+                    reader = (buffer == null) ? null : new ClassFileReader(buffer);
+                } else {
+                    byte[] data = loader.load(internalName);
+                    reader = (data == null) ? null : new ClassFileReader(data);
+                }
+
+                if (reader == null) {
+                    digest = NOT_FOUND;
+                } else {
+                    TypeIndex.Entry entry = TypeIndex.read(reader);
+                    MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+
+                    CachingDecompiler.update(messageDigest, String.valueOf(entry.getAccessFlags()));
+                    update(messageDigest, entry.getSuperClassAndInterfaceNames());
+                    update(messageDigest, entry.getInnerTypeNames());
+                    update(messageDigest, entry.getOuterTypeNames());
+                    digest = CachingDecompiler.toHexString(messageDigest.digest());
+                }
+            } catch (Exception e) {
+                digest = INVALID;
+            }
+
+            entryDigests.put(internalName, digest);
+        }
+
+        return digest;
+    }
+
+    protected static void update(MessageDigest digest, String[] strings) {
+        if (strings == null) {
+            CachingDecompiler.update(digest, NOT_FOUND);
+        } else {
+            CachingDecompiler.update(digest, String.valueOf(strings.length));
+
+            for (String string : strings) {
+                CachingDecompiler.update(digest, (string == null) ? "" : string);
+            }
+        }
+    }
+
+    /**
+     * Write the records to 'path'. The file is replaced atomically.
+     */
+    public void save(Path path) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+
+        Files.createDirectories(directory);
+
+        Path temporaryPath = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+
+        try {
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temporaryPath))) {
+                HashMap<String, Record> snapshot = new HashMap<>(records);
+
+                out.writeInt(MAGIC_NUMBER);
+                out.writeInt(VERSION);
+                out.writeInt(snapshot.size());
+
+                for (Map.Entry<String, Record> entry : snapshot.entrySet()) {
+                    Record record = entry.getValue();
+
+                    out.writeUTF(entry.getKey());
+                    out.writeUTF(record.key);
+                    out.writeInt(record.dependencyNames.length);
+
+                    for (int i=0, len=record.dependencyNames.length; i<len; i++) {
+                        out.writeUTF(record.dependencyNames[i]);
+                        out.writeUTF(record.dependencyDigests[i]);
+                    }
+                }
+            }
+
+            Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryPath);
+        }
+    }
+
+    /**
+     * Replace the records by the records of 'path'. Nothing is read if the file does not exist or has an unknown
+     * format: all the types will be decompiled.
+     */
+    public void load(Path path) throws IOException {
+        records.clear();
+
+        if (!Files.isRegularFile(path)) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            if ((in.readInt() != MAGIC_NUMBER) || (in.readInt() != VERSION)) {
+                return;
+            }
+
+            int count = in.readInt();
+            HashMap<String, String> strings = new HashMap<>();
+
+            for (int i=0; i<count; i++) {
+                String internalName = in.readUTF();
+                String key = in.readUTF();
+                int dependencyCount = in.readInt();
+                String[] dependencyNames = new String[dependencyCount];
+                String[] dependencyDigests = new String[dependencyCount];
+
+                for (int j=0; j<dependencyCount; j++) {
+                    // Share the names and digests of the dependencies
+                    dependencyNames[j] = strings.computeIfAbsent(in.readUTF(), s -> s);
+                    dependencyDigests[j] = strings.computeIfAbsent(in.readUTF(), s -> s);
+                }
+
+                records.put(internalName, new Record(key, dependencyNames, dependencyDigests));
+            }
+        }
+    }
+
+    protected static class Record {
+        protected String key;
+        protected String[] dependencyNames;
+        protected String[] dependencyDigests;
+
+        public Record(String key, String[] dependencyNames, String[] dependencyDigests) {
+            this.key = key;
+            this.dependencyNames = dependencyNames;
+            this.dependencyDigests = dependencyDigests;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.api;
+
+import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.api.printer.PrinterFactory;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+
+public interface BatchDecompiler {
+    void decompile(Loader loader, PrinterFactory printerFactory, Collection<String> internalNames) throws Exception;
+
+    void decompile(Loader loader, PrinterFactory printerFactory, Collection<String> internalNames, Map<String, Object> configuration) throws Exception;
+
+    void decompile(Path archivePath, PrinterFactory printerFactory) throws Exception;
+
+    void decompile(Path archivePath, PrinterFactory printerFactory, Map<String, Object> configuration) throws Exception;
+}
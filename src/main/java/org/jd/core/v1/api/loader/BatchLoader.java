@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.api.loader;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Loader able to load several class files at once, for example in parallel from a remote or compressed storage.
+ * The deserializer requests the inner classes of a type in one call, and the type maker prefetches the super types,
+ * the interfaces and the types referenced by the constant pool before converting the methods.
+ */
+public interface BatchLoader extends Loader {
+    /**
+     * Start loading the class files without waiting for them.
+     *
+     * @return a future per name, completed with the class file, with null if the type is not found, or exceptionally
+     *         with a {@link LoaderException}
+     */
+    Map<String, CompletableFuture<byte[]>> loadAll(Collection<String> internalNames);
+}
@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.api.loader;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Loader returning class files without copying them to new arrays, for example as slices of a memory-mapped
+ * archive.
+ */
+public interface ByteBufferLoader extends Loader {
+    /**
+     * @return a read-only buffer, heap or direct, whose remaining bytes are the class file; null if the type is not
+     *         found. The buffer is not modified by the callers.
+     */
+    ByteBuffer loadByteBuffer(String internalName) throws LoaderException;
+}
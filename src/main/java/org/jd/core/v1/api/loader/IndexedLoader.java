@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.api.loader;
+
+import java.util.Set;
+
+/**
+ * Loader knowing the packages of its class files without loading them, for example from the central directory of an
+ * archive. Used to route the searches of composite loaders.
+ */
+public interface IndexedLoader extends Loader {
+    /**
+     * @return the internal names of the packages containing at least one class file, "" for the unnamed package
+     */
+    Set<String> getPackageNames();
+}
@@ -0,0 +1,18 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.api.printer;
+
+public interface PrinterFactory {
+    Printer newPrinter(String internalName);
+
+    /**
+     * Called once the decompilation of a type is over, on the thread having decompiled it.
+     * @param failure null on success
+     */
+    default void done(String internalName, Printer printer, Throwable failure) {}
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.loader;
+
+import org.jd.core.v1.api.loader.BatchLoader;
+import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.api.loader.LoaderException;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Batch loader running the loads of a thread safe loader on an executor: the round trips of a remote or slow loader
+ * overlap instead of being serialized.
+ */
+public class AsyncLoader implements BatchLoader {
+    protected Loader loader;
+    protected Executor executor;
+
+    public AsyncLoader(Loader loader, Executor executor) {
+        this.loader = loader;
+        this.executor = executor;
+    }
+
+    public Loader getLoader() {
+        return loader;
+    }
+
+    @Override
+    public boolean canLoad(String internalName) {
+        return loader.canLoad(internalName);
+    }
+
+    @Override
+    public byte[] load(String internalName) throws LoaderException {
+        return loader.load(internalName);
+    }
+
+    @Override
+    public Map<String, CompletableFuture<byte[]>> loadAll(Collection<String> internalNames) {
+        HashMap<String, CompletableFuture<byte[]>> futures = new HashMap<>();
+
+        for (String internalName : internalNames) {
+            futures.computeIfAbsent(internalName, name -> CompletableFuture.supplyAsync(() -> {
+                try {
+                    return loader.load(name);
+                } catch (LoaderException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor));
+        }
+
+        return futures;
+    }
+}
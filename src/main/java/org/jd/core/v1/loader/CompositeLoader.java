@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.loader;
+
+import org.jd.core.v1.api.loader.ByteBufferLoader;
+import org.jd.core.v1.api.loader.IndexedLoader;
+import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.api.loader.LoaderException;
+import org.jd.core.v1.util.ConcurrentLruCache;
+import org.jd.core.v1.util.DefaultList;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Loader searching a class path: a list of loaders, the first one able to load a type wins.<br><br>
+ *
+ * A routing index, built at construction from the {@link IndexedLoader}s, maps each package to the loaders
+ * containing it, and the other loaders are searched for all packages: a search costs one hash lookup and, most of
+ * the time, one probe, whatever the number of archives. {@link ZipFileLoader}, {@link JarLoader} and
+ * {@link PlatformLoader} are indexed; a class path with other loaders pays one probe per such loader on each search.
+ * Names not found and the loaders of the last types found are memoized.<br><br>
+ *
+ * Instances are thread safe if the loaders are thread safe.
+ */
+public class CompositeLoader implements ByteBufferLoader, Closeable {
+    protected static final int DEFAULT_CACHE_SIZE = 1024 * 4;
+
+    protected Loader[] loaders;
+    protected HashMap<String, Loader[]> routes = new HashMap<>();
+    protected Loader[] defaultRoute;
+    protected ConcurrentLruCache<String, Boolean> notFound;
+    protected ConcurrentLruCache<String, Loader> found;
+    protected LongAdder hitCount = new LongAdder();
+    protected LongAdder missCount = new LongAdder();
+    protected LongAdder probeCount = new LongAdder();
+
+    public CompositeLoader(Loader... loaders) {
+        this(Arrays.asList(loaders), DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param loaders   loaders in search order
+     * @param cacheSize maximum number of names memoized
+     */
+    public CompositeLoader(List<? extends Loader> loaders, int cacheSize) {
+        this.loaders = loaders.toArray(new Loader[loaders.size()]);
+        this.notFound = new ConcurrentLruCache<>(cacheSize);
+        this.found = new ConcurrentLruCache<>(cacheSize);
+
+        // Index packages
+        HashMap<String, boolean[]> packageToLoaders = new HashMap<>();
+        DefaultList<Loader> defaultRoute = new DefaultList<>();
+        int length = this.loaders.length;
+
+        for (int i=0; i<length; i++) {
+            Loader loader = this.loaders[i];
+
+            if (loader instanceof IndexedLoader) {
+                for (String packageName : ((IndexedLoader)loader).getPackageNames()) {
+                    packageToLoaders.computeIfAbsent(packageName, k -> new boolean[length])[i] = true;
+                }
+            } else {
+                defaultRoute.add(loader);
+            }
+        }
+
+        this.defaultRoute = defaultRoute.toArray(new Loader[defaultRoute.size()]);
+
+        // Build routes, keeping the search order
+        for (Map.Entry<String, boolean[]> entry : packageToLoaders.entrySet()) {
+            boolean[] contains = entry.getValue();
+            DefaultList<Loader> route = new DefaultList<>();
+
+            for (int i=0; i<length; i++) {
+                if (contains[i] || !(this.loaders[i] instanceof IndexedLoader)) {
+                    route.add(this.loaders[i]);
+                }
+            }
+
+            routes.put(entry.getKey(), route.toArray(new Loader[route.size()]));
+        }
+    }
+
+    public List<Loader> getLoaders() {
+        return Arrays.asList(loaders);
+    }
+
+    /**
+     * @return the number of searches, by {@link #canLoad(String)} or a load method, that found the type
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return the number of searches that did not find the type, memoized names included
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return the number of calls to {@link Loader#canLoad(String)} on the loaders of the class path
+     */
+    public long getProbeCount() {
+        return probeCount.sum();
+    }
+
+    @Override
+    public boolean canLoad(String internalName) {
+        return find(internalName) != null;
+    }
+
+    @Override
+    public byte[] load(String internalName) throws LoaderException {
+        Loader loader = find(internalName);
+        return (loader == null) ? null : loader.load(internalName);
+    }
+
+    @Override
+    public ByteBuffer loadByteBuffer(String internalName) throws LoaderException {
+        Loader loader = find(internalName);
+
+        if (loader == null) {
+            return null;
+        } else if (loader instanceof ByteBufferLoader) {
+            return ((ByteBufferLoader)loader).loadByteBuffer(internalName);
+        } else {
+            byte[] data = loader.load(internalName);
+            return (data == null) ? null : ByteBuffer.wrap(data);
+        }
+    }
+
+    /**
+     * Close the loaders that are {@link Closeable}.
+     */
+    @Override
+    public void close() throws IOException {
+        IOException exception = null;
+
+        for (Loader loader : loaders) {
+            if (loader instanceof Closeable) {
+                try {
+                    ((Closeable)loader).close();
+                } catch (IOException e) {
+                    if (exception == null) {
+                        exception = e;
+                    } else {
+                        exception.addSuppressed(e);
+                    }
+                }
+            }
+        }
+
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    protected Loader find(String internalName) {
+        Loader loader = found.get(internalName);
+
+        if (loader == null) {
+            if (notFound.get(internalName) != null) {
+                missCount.increment();
+                return null;
+            }
+
+            for (Loader l : route(internalName)) {
+                probeCount.increment();
+
+                if (l.canLoad(internalName)) {
+                    loader = l;
+                    break;
+                }
+            }
+
+            if (loader == null) {
+                notFound.put(internalName, Boolean.TRUE);
+                missCount.increment();
+                return null;
+            }
+
+            found.put(internalName, loader);
+        }
+
+        hitCount.increment();
+        return loader;
+    }
+
+    protected Loader[] route(String internalName) {
+        int lastSlash = internalName.lastIndexOf('/');
+        Loader[] route = routes.get((lastSlash == -1) ? "" : internalName.substring(0, lastSlash));
+        return (route == null) ? defaultRoute : route;
+    }
+}
@@ -0,0 +1,412 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.loader;
+
+import org.jd.core.v1.api.loader.ByteBufferLoader;
+import org.jd.core.v1.api.loader.IndexedLoader;
+import org.jd.core.v1.api.loader.LoaderException;
+import org.jd.core.v1.util.ConcurrentLruCache;
+import org.jd.core.v1.util.DefaultList;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+
+/**
+ * Loader of the class files of a jar, of its multi-release variants and of the jars nested in it, without
+ * extraction.<br><br>
+ *
+ * The archive is memory-mapped. Classes are searched in the archive, its directories 'BOOT-INF/classes/' and
+ * 'WEB-INF/classes/' included, then in the jars of 'BOOT-INF/lib/' and 'WEB-INF/lib/', in archive order. A nested
+ * jar is opened when a search first reaches it: a stored jar is a slice of the mapped archive, and only its central
+ * directory is read. A nested jar that can not be read is ignored.<br><br>
+ *
+ * The packages of the opened nested jars are indexed: a search only probes the opened jars containing the package,
+ * then opens the next jars, in order, until the type is found. Once all the nested jars are opened, by a miss or by
+ * {@link #getPackageNames()}, a search costs one hash lookup.<br><br>
+ *
+ * For multi-release jars, the variant of 'META-INF/versions/N/' with the highest version N not greater than the
+ * target version replaces the base class file.<br><br>
+ *
+ * Names not found are memoized, and the last inflated class files are cached. Instances are thread safe.
+ */
+public class JarLoader implements ByteBufferLoader, IndexedLoader, Closeable {
+    protected static final int DEFAULT_CACHE_SIZE = 256;
+    protected static final String[] CLASS_DIRECTORIES = { "BOOT-INF/classes/", "WEB-INF/classes/" };
+    protected static final String[] LIBRARY_DIRECTORIES = { "BOOT-INF/lib/", "WEB-INF/lib/" };
+    protected static final String VERSIONS_DIRECTORY = "META-INF/versions/";
+
+    protected int targetVersion;
+    protected Jar jar;
+    protected Library[] libraries;
+    protected int openedLibraryCount;
+    protected HashMap<String, DefaultList<Jar>> packageToLibraryJars = new HashMap<>();
+    protected volatile Set<String> packageNames;
+    protected ConcurrentLruCache<String, ByteBuffer> cache;
+    protected ConcurrentLruCache<String, Boolean> notFound = new ConcurrentLruCache<>(1024 * 4);
+
+    /**
+     * Load the class files for the running platform version.
+     */
+    public JarLoader(Path path) throws IOException {
+        this(path, getRuntimeVersion());
+    }
+
+    /**
+     * @param targetVersion feature version of the platform, 8 for Java 8, used to select the multi-release variants
+     */
+    public JarLoader(Path path, int targetVersion) throws IOException {
+        this(map(path), targetVersion, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param cacheSize maximum number of inflated class files kept in memory
+     */
+    public JarLoader(ByteBuffer buffer, int targetVersion, int cacheSize) throws IOException {
+        this.targetVersion = targetVersion;
+        this.jar = new Jar(new ZipArchive(buffer), CLASS_DIRECTORIES, targetVersion);
+        this.cache = new ConcurrentLruCache<>(cacheSize);
+
+        DefaultList<Library> list = new DefaultList<>();
+
+        for (ZipArchive.Entry entry : jar.archive.getEntries()) {
+            String name = entry.getName();
+
+            if (name.endsWith(".jar") && startsWith(name, LIBRARY_DIRECTORIES)) {
+                list.add(new Library(entry));
+            }
+        }
+
+        this.libraries = list.toArray(new Library[list.size()]);
+    }
+
+    public int getTargetVersion() {
+        return targetVersion;
+    }
+
+    /**
+     * @return the internal names of the classes of the archive that are not nested, nested jars excluded
+     */
+    public DefaultList<String> getTopLevelTypeNames() {
+        DefaultList<String> internalNames = new DefaultList<>();
+
+        for (String internalName : jar.classes.keySet()) {
+            if (internalName.indexOf('$') == -1) {
+                internalNames.add(internalName);
+            }
+        }
+
+        return internalNames;
+    }
+
+    /**
+     * Open all the nested jars, once.
+     *
+     * @return the packages of the archive and of its nested jars
+     */
+    @Override
+    public Set<String> getPackageNames() {
+        Set<String> packageNames = this.packageNames;
+
+        if (packageNames == null) {
+            synchronized (this) {
+                packageNames = this.packageNames;
+
+                if (packageNames == null) {
+                    openLibraries(libraries.length);
+
+                    HashSet<String> set = new HashSet<>(jar.packageNames);
+
+                    set.addAll(packageToLibraryJars.keySet());
+                    this.packageNames = packageNames = Collections.unmodifiableSet(set);
+                }
+            }
+        }
+
+        return packageNames;
+    }
+
+    @Override
+    public boolean canLoad(String internalName) {
+        if (cache.get(internalName) != null) {
+            return true;
+        }
+
+        return find(internalName) != null;
+    }
+
+    @Override
+    public byte[] load(String internalName) throws LoaderException {
+        ByteBuffer buffer = loadByteBuffer(internalName);
+
+        if (buffer == null) {
+            return null;
+        }
+
+        byte[] data = new byte[buffer.remaining()];
+        buffer.get(data);
+        return data;
+    }
+
+    @Override
+    public ByteBuffer loadByteBuffer(String internalName) throws LoaderException {
+        ByteBuffer buffer = cache.get(internalName);
+
+        if (buffer == null) {
+            Jar jar = find(internalName);
+
+            if (jar == null) {
+                return null;
+            }
+
+            try {
+                buffer = jar.archive.read(jar.classes.get(internalName));
+            } catch (IOException e) {
+                throw new LoaderException(e);
+            }
+
+            cache.put(internalName, buffer);
+        }
+
+        // Each caller gets its own position
+        return buffer.duplicate();
+    }
+
+    @Override
+    public void close() {
+        // The mapping is released by the garbage collector
+        cache.clear();
+        notFound.clear();
+    }
+
+    protected Jar find(String internalName) {
+        if (notFound.get(internalName) != null) {
+            return null;
+        }
+
+        if (jar.classes.containsKey(internalName)) {
+            return jar;
+        }
+
+        Jar libraryJar = (libraries.length == 0) ? null : findInLibraries(internalName);
+
+        if (libraryJar == null) {
+            notFound.put(internalName, Boolean.TRUE);
+        }
+
+        return libraryJar;
+    }
+
+    protected synchronized Jar findInLibraries(String internalName) {
+        // Opened jars containing the package
+        DefaultList<Jar> jars = packageToLibraryJars.get(Jar.getPackageName(internalName));
+
+        if (jars != null) {
+            for (Jar jar : jars) {
+                if (jar.classes.containsKey(internalName)) {
+                    return jar;
+                }
+            }
+        }
+
+        // Next jars, in archive order
+        while (openedLibraryCount < libraries.length) {
+            Jar jar = openLibraries(openedLibraryCount + 1);
+
+            if (jar.classes.containsKey(internalName)) {
+                return jar;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Open and index the nested jars up to 'count'.
+     *
+     * @return the last jar opened
+     */
+    protected synchronized Jar openLibraries(int count) {
+        Jar jar = null;
+
+        while (openedLibraryCount < count) {
+            jar = libraries[openedLibraryCount++].getJar();
+
+            for (String packageName : jar.packageNames) {
+                packageToLibraryJars.computeIfAbsent(packageName, k -> new DefaultList<>()).add(jar);
+            }
+        }
+
+        return jar;
+    }
+
+    protected static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Archive larger than 2 GB: " + path);
+            }
+
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    protected static int getRuntimeVersion() {
+        // "1.8" for Java 8, "9" for Java 9
+        String version = System.getProperty("java.specification.version", "1.8");
+
+        try {
+            return Integer.parseInt(version.startsWith("1.") ? version.substring(2) : version);
+        } catch (NumberFormatException e) {
+            return 8;
+        }
+    }
+
+    protected static boolean startsWith(String name, String[] directories) {
+        for (String directory : directories) {
+            if (name.startsWith(directory)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    protected static class Jar {
+        protected static final String[] NO_DIRECTORIES = {};
+        protected static final Jar EMPTY = new Jar();
+
+        protected ZipArchive archive;
+        protected LinkedHashMap<String, ZipArchive.Entry> classes = new LinkedHashMap<>();
+        protected HashSet<String> packageNames = new HashSet<>();
+
+        protected Jar() {}
+
+        public Jar(ZipArchive archive, String[] classDirectories, int targetVersion) throws IOException {
+            this.archive = archive;
+
+            boolean multiRelease = isMultiRelease(archive);
+            TreeMap<Integer, HashMap<String, ZipArchive.Entry>> versions = new TreeMap<>();
+
+            for (ZipArchive.Entry entry : archive.getEntries()) {
+                String name = entry.getName();
+
+                if (!name.endsWith(".class") || entry.isDirectory()) {
+                    continue;
+                }
+
+                if (name.startsWith(VERSIONS_DIRECTORY)) {
+                    if (multiRelease) {
+                        int slash = name.indexOf('/', VERSIONS_DIRECTORY.length());
+                        int version = parseVersion(name.substring(VERSIONS_DIRECTORY.length(), Math.max(slash, VERSIONS_DIRECTORY.length())));
+
+                        if ((version >= 9) && (version <= targetVersion)) {
+                            versions.computeIfAbsent(version, k -> new HashMap<>()).put(toInternalName(name, slash + 1), entry);
+                        }
+                    }
+                } else {
+                    int start = 0;
+
+                    for (String directory : classDirectories) {
+                        if (name.startsWith(directory)) {
+                            start = directory.length();
+                            break;
+                        }
+                    }
+
+                    classes.put(toInternalName(name, start), entry);
+                }
+            }
+
+            // Ascending versions: the highest version applicable wins
+            for (Map<String, ZipArchive.Entry> variants : versions.values()) {
+                classes.putAll(variants);
+            }
+
+            for (String internalName : classes.keySet()) {
+                packageNames.add(getPackageName(internalName));
+            }
+        }
+
+        protected static String getPackageName(String internalName) {
+            int lastSlash = internalName.lastIndexOf('/');
+            return (lastSlash == -1) ? "" : internalName.substring(0, lastSlash);
+        }
+
+        protected static boolean isMultiRelease(ZipArchive archive) throws IOException {
+            ZipArchive.Entry entry = archive.getEntry("META-INF/MANIFEST.MF");
+
+            if (entry == null) {
+                return false;
+            }
+
+            ByteBuffer buffer = archive.read(entry);
+            byte[] data = new byte[buffer.remaining()];
+
+            buffer.get(data);
+
+            String value = new Manifest(new ByteArrayInputStream(data)).getMainAttributes().getValue(new Attributes.Name("Multi-Release"));
+            return "true".equalsIgnoreCase(value);
+        }
+
+        protected static int parseVersion(String version) {
+            try {
+                return Integer.parseInt(version);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        protected static String toInternalName(String name, int start) {
+            return name.substring(start, name.length() - 6); // 6 = ".class".length()
+        }
+    }
+
+    protected class Library {
+        protected ZipArchive.Entry entry;
+        protected volatile Jar jar;
+
+        public Library(ZipArchive.Entry entry) {
+            this.entry = entry;
+        }
+
+        public Jar getJar() {
+            Jar jar = this.jar;
+
+            if (jar == null) {
+                synchronized (this) {
+                    jar = this.jar;
+
+                    if (jar == null) {
+                        try {
+                            jar = new Jar(new ZipArchive(JarLoader.this.jar.archive.read(entry)), Jar.NO_DIRECTORIES, targetVersion);
+                        } catch (IOException | RuntimeException e) {
+                            jar = Jar.EMPTY;
+                        }
+
+                        this.jar = jar;
+                    }
+                }
+            }
+
+            return jar;
+        }
+    }
+}
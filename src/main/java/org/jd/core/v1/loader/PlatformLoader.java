@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.loader;
+
+import org.jd.core.v1.api.loader.IndexedLoader;
+import org.jd.core.v1.api.loader.LoaderException;
+import org.jd.core.v1.util.ConcurrentLruCache;
+import org.jd.core.v1.util.DefaultList;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.*;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Loader of the class files of the Java platform, read as bytes from the 'jrt:/' file system (Java 9 and above) or
+ * from 'lib/rt.jar' (Java 8 and below). Classes are never defined in the JVM.<br><br>
+ *
+ * The packages are listed from the directory '/packages' of the 'jrt:/' file system, or from the entries of
+ * 'lib/rt.jar', so that composite loaders route only the platform packages to this loader.<br><br>
+ *
+ * Names not found are memoized. Instances are thread safe.
+ */
+public class PlatformLoader implements IndexedLoader, Closeable {
+    protected static final String[] NO_MODULES = {};
+
+    protected FileSystem fileSystem;
+    protected boolean closeFileSystem;
+    protected ZipFile runtimeJar;
+    protected ConcurrentHashMap<String, String[]> packageToModules = new ConcurrentHashMap<>();
+    protected ConcurrentLruCache<String, Boolean> notFound = new ConcurrentLruCache<>(1024 * 4);
+    protected volatile Set<String> packageNames;
+
+    /**
+     * Load the class files of the running platform.
+     */
+    public PlatformLoader() {
+        try {
+            fileSystem = FileSystems.getFileSystem(URI.create("jrt:/"));
+        } catch (ProviderNotFoundException | FileSystemNotFoundException ignore) {
+            // Java 8 and below
+            openRuntimeJar(System.getProperty("java.home"));
+        }
+    }
+
+    /**
+     * Load the class files of the platform installed in 'javaHome'.
+     */
+    public PlatformLoader(String javaHome) throws IOException {
+        if (!openRuntimeJar(javaHome)) {
+            fileSystem = FileSystems.newFileSystem(URI.create("jrt:/"), Collections.singletonMap("java.home", javaHome));
+            closeFileSystem = true;
+        }
+    }
+
+    protected boolean openRuntimeJar(String javaHome) {
+        if (javaHome != null) {
+            Path path = Paths.get(javaHome, "lib", "rt.jar");
+
+            if (Files.isRegularFile(path)) {
+                try {
+                    runtimeJar = new ZipFile(path.toFile());
+                    return true;
+                } catch (IOException ignore) {
+                }
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public Set<String> getPackageNames() {
+        Set<String> packageNames = this.packageNames;
+
+        if (packageNames == null) {
+            HashSet<String> set = new HashSet<>();
+
+            if (runtimeJar != null) {
+                for (Enumeration<? extends ZipEntry> entries = runtimeJar.entries(); entries.hasMoreElements(); ) {
+                    String name = entries.nextElement().getName();
+                    int lastSlash = name.lastIndexOf('/');
+
+                    if ((lastSlash != -1) && name.endsWith(".class")) {
+                        set.add(name.substring(0, lastSlash));
+                    }
+                }
+            } else if (fileSystem != null) {
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(fileSystem.getPath("/packages"))) {
+                    for (Path path : stream) {
+                        set.add(path.getFileName().toString().replace('.', '/'));
+                    }
+                } catch (IOException ignore) {
+                }
+            }
+
+            this.packageNames = packageNames = Collections.unmodifiableSet(set);
+        }
+
+        return packageNames;
+    }
+
+    @Override
+    public boolean canLoad(String internalName) {
+        if (notFound.get(internalName) != null) {
+            return false;
+        }
+
+        if (runtimeJar != null) {
+            if (runtimeJar.getEntry(internalName + ".class") != null) {
+                return true;
+            }
+        } else if ((fileSystem != null) && (getModulePath(internalName) != null)) {
+            return true;
+        }
+
+        notFound.put(internalName, Boolean.TRUE);
+        return false;
+    }
+
+    @Override
+    public byte[] load(String internalName) throws LoaderException {
+        if (notFound.get(internalName) != null) {
+            return null;
+        }
+
+        try {
+            if (runtimeJar != null) {
+                ZipEntry entry = runtimeJar.getEntry(internalName + ".class");
+
+                if (entry != null) {
+                    try (InputStream in=runtimeJar.getInputStream(entry); ByteArrayOutputStream out=new ByteArrayOutputStream()) {
+                        byte[] buffer = new byte[1024 * 4];
+                        int read = in.read(buffer);
+
+                        while (read > 0) {
+                            out.write(buffer, 0, read);
+                            read = in.read(buffer);
+                        }
+
+                        return out.toByteArray();
+                    }
+                }
+            } else if (fileSystem != null) {
+                Path path = getModulePath(internalName);
+
+                if (path != null) {
+                    return Files.readAllBytes(path);
+                }
+            }
+        } catch (IOException e) {
+            throw new LoaderException(e);
+        }
+
+        notFound.put(internalName, Boolean.TRUE);
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (runtimeJar != null) {
+            runtimeJar.close();
+        }
+        if (closeFileSystem) {
+            fileSystem.close();
+        }
+    }
+
+    protected Path getModulePath(String internalName) {
+        int lastSlash = internalName.lastIndexOf('/');
+
+        if (lastSlash == -1) {
+            // Types of the unnamed package are not part of the platform
+            return null;
+        }
+
+        String packageName = internalName.substring(0, lastSlash);
+        String[] modules = packageToModules.computeIfAbsent(packageName, this::searchModules);
+        String fileName = internalName + ".class";
+
+        for (String module : modules) {
+            Path path = fileSystem.getPath("/modules", module, fileName);
+
+            if (Files.isRegularFile(path)) {
+                return path;
+            }
+        }
+
+        return null;
+    }
+
+    protected String[] searchModules(String packageName) {
+        // Directory '/packages/<package>' contains a link per module exporting or containing the package
+        Path path = fileSystem.getPath("/packages", packageName.replace('/', '.'));
+
+        if (!Files.isDirectory(path)) {
+            return NO_MODULES;
+        }
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+            DefaultList<String> modules = new DefaultList<>();
+
+            for (Path module : stream) {
+                modules.add(module.getFileName().toString());
+            }
+
+            return modules.toArray(new String[modules.size()]);
+        } catch (IOException e) {
+            return NO_MODULES;
+        }
+    }
+}
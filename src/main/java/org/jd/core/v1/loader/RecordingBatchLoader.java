@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.loader;
+
+import org.jd.core.v1.api.loader.BatchLoader;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link RecordingLoader} keeping the batch loads of the wrapped loader.
+ */
+public class RecordingBatchLoader extends RecordingLoader implements BatchLoader {
+    public RecordingBatchLoader(BatchLoader loader) {
+        super(loader);
+    }
+
+    @Override
+    public Map<String, CompletableFuture<byte[]>> loadAll(Collection<String> internalNames) {
+        this.internalNames.addAll(internalNames);
+        return ((BatchLoader)loader).loadAll(internalNames);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.loader;
+
+import org.jd.core.v1.api.loader.ByteBufferLoader;
+import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.api.loader.LoaderException;
+
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loader recording the names of the types searched or loaded through it, found or not. Instances are thread safe if
+ * the wrapped loader is thread safe. Wrap a {@link org.jd.core.v1.api.loader.BatchLoader} with a
+ * {@link RecordingBatchLoader}.
+ */
+public class RecordingLoader implements ByteBufferLoader {
+    protected Loader loader;
+    protected Set<String> internalNames = ConcurrentHashMap.newKeySet();
+
+    public RecordingLoader(Loader loader) {
+        this.loader = loader;
+    }
+
+    public Loader getLoader() {
+        return loader;
+    }
+
+    /**
+     * @return a live view of the recorded names
+     */
+    public Set<String> getInternalNames() {
+        return internalNames;
+    }
+
+    @Override
+    public boolean canLoad(String internalName) {
+        internalNames.add(internalName);
+        return loader.canLoad(internalName);
+    }
+
+    @Override
+    public byte[] load(String internalName) throws LoaderException {
+        internalNames.add(internalName);
+        return loader.load(internalName);
+    }
+
+    @Override
+    public ByteBuffer loadByteBuffer(String internalName) throws LoaderException {
+        internalNames.add(internalName);
+
+        if (loader instanceof ByteBufferLoader) {
+            return ((ByteBufferLoader)loader).loadByteBuffer(internalName);
+        } else {
+            byte[] data = loader.load(internalName);
+            return (data == null) ? null : ByteBuffer.wrap(data);
+        }
+    }
+}
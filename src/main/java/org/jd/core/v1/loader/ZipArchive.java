@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.loader;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Zip archive read from a buffer: a memory-mapped file, a slice of an enclosing archive for the stored nested
+ * archives, or an inflated array. Only the central directory is read at construction; entries are read by
+ * {@link #read(Entry)}, stored entries being slices of the buffer, without copy.<br><br>
+ *
+ * Bytes preceding the archive, a launch script for example, are supported. Instances are thread safe: the buffer
+ * is only read with absolute positions.
+ */
+public class ZipArchive {
+    protected static final int END_SIGNATURE = 0x06054b50;
+    protected static final int END_SIZE = 22;
+    protected static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    protected static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    protected static final int CENTRAL_SIGNATURE = 0x02014b50;
+    protected static final int CENTRAL_HEADER_SIZE = 46;
+    protected static final int LOCAL_SIGNATURE = 0x04034b50;
+    protected static final int LOCAL_HEADER_SIZE = 30;
+    protected static final int ZIP64_EXTRA_ID = 0x0001;
+
+    protected static final int STORED = 0;
+    protected static final int DEFLATED = 8;
+
+    protected ByteBuffer buffer;
+    protected long base;
+    protected LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    public ZipArchive(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        readCentralDirectory();
+    }
+
+    public Entry getEntry(String name) {
+        return entries.get(name);
+    }
+
+    /**
+     * @return the entries, in central directory order
+     */
+    public Collection<Entry> getEntries() {
+        return entries.values();
+    }
+
+    /**
+     * @return a read-only buffer whose remaining bytes are the uncompressed content of the entry
+     */
+    public ByteBuffer read(Entry entry) throws IOException {
+        int offset = checkedInt(base + entry.localHeaderOffset);
+
+        if ((offset < 0) || (offset + LOCAL_HEADER_SIZE > buffer.limit()) || (buffer.getInt(offset) != LOCAL_SIGNATURE)) {
+            throw new ZipException("Invalid local header for entry '" + entry.name + "'");
+        }
+
+        int start = offset + LOCAL_HEADER_SIZE + (buffer.getShort(offset + 26) & 0xFFFF) + (buffer.getShort(offset + 28) & 0xFFFF);
+        int end = checkedInt(start + entry.compressedSize);
+
+        if (end > buffer.limit()) {
+            throw new ZipException("Truncated entry '" + entry.name + "'");
+        }
+
+        ByteBuffer data = buffer.duplicate();
+        ((Buffer)data).limit(end);
+        ((Buffer)data).position(start);
+        data = data.slice();
+
+        switch (entry.method) {
+            case STORED:
+                return data.asReadOnlyBuffer();
+            case DEFLATED:
+                return ByteBuffer.wrap(inflate(entry, data)).asReadOnlyBuffer();
+            default:
+                throw new ZipException("Unsupported compression method " + entry.method + " for entry '" + entry.name + "'");
+        }
+    }
+
+    protected void readCentralDirectory() throws IOException {
+        int end = findEnd();
+        long count = buffer.getShort(end + 10) & 0xFFFF;
+        long size = buffer.getInt(end + 12) & 0xFFFFFFFFL;
+        long offset = buffer.getInt(end + 16) & 0xFFFFFFFFL;
+        int position = end - 20; // 20 = ZIP64 end locator size
+
+        if ((position >= 0) && (buffer.getInt(position) == ZIP64_LOCATOR_SIGNATURE)) {
+            // Usually just before the locator; the locator records its position without the preceding bytes
+            int zip64End = position - 56; // 56 = ZIP64 end size
+
+            if ((zip64End < 0) || (buffer.getInt(zip64End) != ZIP64_END_SIGNATURE)) {
+                zip64End = checkedInt(buffer.getLong(position + 8));
+
+                if ((zip64End < 0) || (zip64End + 56 > position) || (buffer.getInt(zip64End) != ZIP64_END_SIGNATURE)) {
+                    throw new ZipException("Invalid ZIP64 end of central directory");
+                }
+            }
+
+            count = buffer.getLong(zip64End + 32);
+            size = buffer.getLong(zip64End + 40);
+            offset = buffer.getLong(zip64End + 48);
+            position = zip64End;
+        } else {
+            position = end;
+        }
+
+        // The central directory ends where the end records begin
+        base = position - size - offset;
+
+        int p = checkedInt(base + offset);
+
+        for (long i=0; i<count; i++) {
+            if ((p < 0) || (p + CENTRAL_HEADER_SIZE > position) || (buffer.getInt(p) != CENTRAL_SIGNATURE)) {
+                throw new ZipException("Invalid central directory");
+            }
+
+            int nameLength = buffer.getShort(p + 28) & 0xFFFF;
+            int extraLength = buffer.getShort(p + 30) & 0xFFFF;
+            int commentLength = buffer.getShort(p + 32) & 0xFFFF;
+            Entry entry = new Entry(
+                readName(p + CENTRAL_HEADER_SIZE, nameLength),
+                buffer.getShort(p + 10) & 0xFFFF,
+                buffer.getInt(p + 20) & 0xFFFFFFFFL,
+                buffer.getInt(p + 24) & 0xFFFFFFFFL,
+                buffer.getInt(p + 42) & 0xFFFFFFFFL);
+
+            readZip64Extra(entry, p + CENTRAL_HEADER_SIZE + nameLength, extraLength);
+            entries.put(entry.name, entry);
+            p += CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+        }
+    }
+
+    protected int findEnd() throws ZipException {
+        int limit = buffer.limit();
+        int min = Math.max(0, limit - END_SIZE - 0xFFFF); // 0xFFFF = maximum comment length
+
+        for (int i=limit-END_SIZE; i>=min; i--) {
+            if ((buffer.getInt(i) == END_SIGNATURE) && (i + END_SIZE + (buffer.getShort(i + 20) & 0xFFFF) == limit)) {
+                return i;
+            }
+        }
+
+        throw new ZipException("End of central directory not found");
+    }
+
+    protected String readName(int offset, int length) {
+        byte[] bytes = new byte[length];
+
+        for (int i=0; i<length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    protected void readZip64Extra(Entry entry, int offset, int length) {
+        int end = offset + length;
+
+        while (offset + 4 <= end) {
+            int id = buffer.getShort(offset) & 0xFFFF;
+            int size = buffer.getShort(offset + 2) & 0xFFFF;
+
+            if (id == ZIP64_EXTRA_ID) {
+                // Only the values saturated in the central header are present, in this order
+                int p = offset + 4;
+
+                if (entry.size == 0xFFFFFFFFL) {
+                    entry.size = buffer.getLong(p);
+                    p += 8;
+                }
+                if (entry.compressedSize == 0xFFFFFFFFL) {
+                    entry.compressedSize = buffer.getLong(p);
+                    p += 8;
+                }
+                if (entry.localHeaderOffset == 0xFFFFFFFFL) {
+                    entry.localHeaderOffset = buffer.getLong(p);
+                }
+                return;
+            }
+
+            offset += 4 + size;
+        }
+    }
+
+    protected static byte[] inflate(Entry entry, ByteBuffer data) throws IOException {
+        byte[] input;
+        int inputOffset;
+
+        if (data.hasArray()) {
+            input = data.array();
+            inputOffset = data.arrayOffset() + data.position();
+        } else {
+            input = new byte[data.remaining()];
+            inputOffset = 0;
+            data.get(input);
+        }
+
+        byte[] output = new byte[checkedInt(entry.size)];
+        Inflater inflater = new Inflater(true);
+
+        try {
+            inflater.setInput(input, inputOffset, (int)entry.compressedSize);
+
+            int length = 0;
+
+            while (length < output.length) {
+                int read = inflater.inflate(output, length, output.length - length);
+
+                if (read == 0) {
+                    throw new ZipException("Truncated entry '" + entry.name + "'");
+                }
+
+                length += read;
+            }
+
+            return output;
+        } catch (DataFormatException e) {
+            throw new ZipException("Invalid deflated data for entry '" + entry.name + "': " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    protected static int checkedInt(long value) throws ZipException {
+        if ((value < Integer.MIN_VALUE) || (value > Integer.MAX_VALUE)) {
+            throw new ZipException("Archive entry larger than 2 GB");
+        }
+
+        return (int)value;
+    }
+
+    public static class Entry {
+        protected String name;
+        protected int method;
+        protected long compressedSize;
+        protected long size;
+        protected long localHeaderOffset;
+
+        public Entry(String name, int method, long compressedSize, long size, long localHeaderOffset) {
+            this.name = name;
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isDirectory() {
+            return name.endsWith("/");
+        }
+
+        public long getSize() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.loader;
+
+import org.jd.core.v1.api.loader.ByteBufferLoader;
+import org.jd.core.v1.api.loader.IndexedLoader;
+import org.jd.core.v1.api.loader.LoaderException;
+import org.jd.core.v1.util.ConcurrentLruCache;
+import org.jd.core.v1.util.DefaultList;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Loader of the class files of a jar or zip archive. The central directory is read once, at construction, to index
+ * the '.class' entries: {@link #canLoad(String)} never inflates anything, and entries are inflated by
+ * {@link #load(String)}. The last inflated class files are kept in a bounded cache, inner classes and types being
+ * loaded several times by the converter.<br><br>
+ *
+ * Instances are thread safe.
+ */
+public class ZipFileLoader implements ByteBufferLoader, IndexedLoader, Closeable {
+    protected static final int DEFAULT_CACHE_SIZE = 256;
+
+    protected ZipFile zipFile;
+    protected HashMap<String, ZipEntry> entries = new HashMap<>();
+    protected ConcurrentLruCache<String, byte[]> cache;
+
+    public ZipFileLoader(Path path) throws IOException {
+        this(path.toFile(), DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param cacheSize maximum number of inflated class files kept in memory
+     */
+    public ZipFileLoader(File file, int cacheSize) throws IOException {
+        this(new ZipFile(file), cacheSize);
+    }
+
+    /**
+     * @param zipFile archive closed by {@link #close()}
+     */
+    public ZipFileLoader(ZipFile zipFile, int cacheSize) {
+        this.zipFile = zipFile;
+        this.cache = new ConcurrentLruCache<>(cacheSize);
+
+        Enumeration<? extends ZipEntry> enumeration = zipFile.entries();
+
+        while (enumeration.hasMoreElements()) {
+            ZipEntry entry = enumeration.nextElement();
+            String name = entry.getName();
+
+            if (!entry.isDirectory() && name.endsWith(".class")) {
+                entries.put(name.substring(0, name.length() - 6), entry); // 6 = ".class".length()
+            }
+        }
+    }
+
+    /**
+     * @return the internal names of the classes that are not nested, in archive order
+     */
+    public DefaultList<String> getTopLevelTypeNames() {
+        DefaultList<String> internalNames = new DefaultList<>();
+        Enumeration<? extends ZipEntry> enumeration = zipFile.entries();
+
+        while (enumeration.hasMoreElements()) {
+            String name = enumeration.nextElement().getName();
+
+            if (name.endsWith(".class") && (name.indexOf('$') == -1)) {
+                internalNames.add(name.substring(0, name.length() - 6)); // 6 = ".class".length()
+            }
+        }
+
+        return internalNames;
+    }
+
+    @Override
+    public Set<String> getPackageNames() {
+        HashSet<String> packageNames = new HashSet<>();
+
+        for (String internalName : entries.keySet()) {
+            int lastSlash = internalName.lastIndexOf('/');
+            packageNames.add((lastSlash == -1) ? "" : internalName.substring(0, lastSlash));
+        }
+
+        return packageNames;
+    }
+
+    @Override
+    public boolean canLoad(String internalName) {
+        return entries.containsKey(internalName);
+    }
+
+    @Override
+    public byte[] load(String internalName) throws LoaderException {
+        byte[] data = loadData(internalName);
+        // Copy: the cached array is shared
+        return (data == null) ? null : data.clone();
+    }
+
+    @Override
+    public ByteBuffer loadByteBuffer(String internalName) throws LoaderException {
+        byte[] data = loadData(internalName);
+        return (data == null) ? null : ByteBuffer.wrap(data).asReadOnlyBuffer();
+    }
+
+    @Override
+    public void close() throws IOException {
+        cache.clear();
+        zipFile.close();
+    }
+
+    protected byte[] loadData(String internalName) throws LoaderException {
+        byte[] data = cache.get(internalName);
+
+        if (data == null) {
+            ZipEntry entry = entries.get(internalName);
+
+            if (entry == null) {
+                return null;
+            }
+
+            try {
+                data = inflate(entry);
+            } catch (IOException e) {
+                throw new LoaderException(e);
+            }
+
+            cache.put(internalName, data);
+        }
+
+        return data;
+    }
+
+    protected byte[] inflate(ZipEntry entry) throws IOException {
+        long size = entry.getSize();
+
+        try (InputStream in = zipFile.getInputStream(entry)) {
+            if ((size >= 0) && (size <= Integer.MAX_VALUE)) {
+                // Size known from the central directory: read directly into the result
+                byte[] data = new byte[(int)size];
+                int offset = 0;
+
+                while (offset < data.length) {
+                    int read = in.read(data, offset, data.length - offset);
+
+                    if (read == -1) {
+                        throw new EOFException("Truncated entry '" + entry.getName() + "'");
+                    }
+
+                    offset += read;
+                }
+
+                return data;
+            }
+
+            try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+                byte[] buffer = new byte[1024 * 4];
+                int read = in.read(buffer);
+
+                while (read > 0) {
+                    out.write(buffer, 0, read);
+                    read = in.read(buffer);
+                }
+
+                return out.toByteArray();
+            }
+        }
+    }
+}
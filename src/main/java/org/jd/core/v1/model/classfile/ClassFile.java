@@ -9,9 +9,9 @@ package org.jd.core.v1.model.classfile;
 
 
 import org.jd.core.v1.model.classfile.attribute.Attribute;
+import org.jd.core.v1.model.classfile.attribute.Attributes;
 
 import java.util.List;
-import java.util.Map;
 
 public class ClassFile {
     protected int majorVersion;
@@ -22,12 +22,12 @@ public class ClassFile {
     protected String[] interfaceTypeNames;
     protected Field[] fields;
     protected Method[] methods;
-    protected Map<String, Attribute> attributes;
+    protected Attributes attributes;
 
     protected ClassFile outerClassFile;
     protected List<ClassFile> innerClassFiles;
 
-    public ClassFile(int majorVersion, int minorVersion, int accessFlags, String internalTypeName, String superTypeName, String[] interfaceTypeNames, Field[] fields, Method[] methods, Map<String, Attribute> attributes) {
+    public ClassFile(int majorVersion, int minorVersion, int accessFlags, String internalTypeName, String superTypeName, String[] interfaceTypeNames, Field[] fields, Method[] methods, Attributes attributes) {
         this.majorVersion = majorVersion;
         this.minorVersion = minorVersion;
         this.accessFlags = accessFlags;
@@ -73,9 +73,15 @@ public class ClassFile {
         return methods;
     }
 
-    @SuppressWarnings("unchecked")
     public <T extends Attribute> T getAttribute(String name) {
-        return (attributes == null) ? null : (T)attributes.get(name);
+        return (attributes == null) ? null : attributes.get(name);
+    }
+
+    /**
+     * @param id identifier of a known attribute, for example {@link Attributes#CODE}
+     */
+    public <T extends Attribute> T getAttribute(int id) {
+        return (attributes == null) ? null : attributes.get(id);
     }
 
     public ClassFile getOuterClassFile() {
@@ -17,33 +17,40 @@ public class ConstantPool {
         this.constants = constants;
     }
 
+    /**
+     * @return the number of entries, entry 0 included
+     */
+    public int size() {
+        return (constants == null) ? 0 : constants.length;
+    }
+
     @SuppressWarnings("unchecked")
     public <T extends Constant> T getConstant(int index) {
         return (T)constants[index];
     }
 
     public String getConstantTypeName(int index) {
-        ConstantClass cc = (ConstantClass)constants[index];
-        ConstantUtf8 cutf8 = (ConstantUtf8)constants[cc.getNameIndex()];
+        ConstantClass cc = getConstant(index);
+        ConstantUtf8 cutf8 = getConstant(cc.getNameIndex());
         return cutf8.getValue();
     }
 
     public String getConstantString(int index) {
-        ConstantString cString = (ConstantString)constants[index];
-        ConstantUtf8 cutf8 = (ConstantUtf8)constants[cString.getStringIndex()];
+        ConstantString cString = getConstant(index);
+        ConstantUtf8 cutf8 = getConstant(cString.getStringIndex());
         return cutf8.getValue();
     }
 
     public String getConstantUtf8(int index) {
-        ConstantUtf8 cutf8 = (ConstantUtf8)constants[index];
+        ConstantUtf8 cutf8 = getConstant(index);
         return cutf8.getValue();
     }
 
     public ConstantValue getConstantValue(int index) {
-        Constant constant = constants[index];
+        Constant constant = getConstant(index);
 
         if ((constant != null) && (constant.getTag() == Constant.CONSTANT_String)) {
-            constant = constants[((ConstantString)constant).getStringIndex()];
+            constant = getConstant(((ConstantString)constant).getStringIndex());
         }
 
         return (ConstantValue)constant;
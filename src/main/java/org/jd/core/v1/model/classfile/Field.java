@@ -8,16 +8,15 @@
 package org.jd.core.v1.model.classfile;
 
 import org.jd.core.v1.model.classfile.attribute.Attribute;
-
-import java.util.Map;
+import org.jd.core.v1.model.classfile.attribute.Attributes;
 
 public class Field {
     protected int accessFlags;
     protected String name;
     protected String descriptor;
-    protected Map<String, Attribute> attributes;
+    protected Attributes attributes;
 
-    public Field(int accessFlags, String name, String descriptor, Map<String, Attribute> attributes) {
+    public Field(int accessFlags, String name, String descriptor, Attributes attributes) {
         this.accessFlags = accessFlags;
         this.name = name;
         this.descriptor = descriptor;
@@ -28,6 +27,10 @@ public class Field {
         return accessFlags;
     }
 
+    public void setAccessFlags(int accessFlags) {
+        this.accessFlags = accessFlags;
+    }
+
     public String getName() {
         return name;
     }
@@ -36,9 +39,15 @@ public class Field {
         return descriptor;
     }
 
-    @SuppressWarnings("unchecked")
     public <T extends Attribute> T getAttribute(String name) {
-        return (attributes == null) ? null : (T)attributes.get(name);
+        return (attributes == null) ? null : attributes.get(name);
+    }
+
+    /**
+     * @param id identifier of a known attribute, for example {@link Attributes#CODE}
+     */
+    public <T extends Attribute> T getAttribute(int id) {
+        return (attributes == null) ? null : attributes.get(id);
     }
 
     @Override
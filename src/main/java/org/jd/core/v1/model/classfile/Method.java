@@ -8,17 +8,16 @@
 package org.jd.core.v1.model.classfile;
 
 import org.jd.core.v1.model.classfile.attribute.Attribute;
-
-import java.util.Map;
+import org.jd.core.v1.model.classfile.attribute.Attributes;
 
 public class Method {
     protected int accessFlags;
     protected String name;
     protected String descriptor;
-    protected Map<String, Attribute> attributes;
+    protected Attributes attributes;
     protected ConstantPool constants;
 
-    public Method(int accessFlags, String name, String descriptor, Map<String, Attribute> attributes, ConstantPool constants) {
+    public Method(int accessFlags, String name, String descriptor, Attributes attributes, ConstantPool constants) {
         this.accessFlags = accessFlags;
         this.name = name;
         this.descriptor = descriptor;
@@ -33,6 +32,10 @@ public class Method {
         return accessFlags;
     }
 
+    public void setAccessFlags(int accessFlags) {
+        this.accessFlags = accessFlags;
+    }
+
     public String getName() {
         return name;
     }
@@ -41,9 +44,15 @@ public class Method {
         return descriptor;
     }
 
-    @SuppressWarnings("unchecked")
     public <T extends Attribute> T getAttribute(String name) {
-        return (attributes == null) ? null : (T)attributes.get(name);
+        return (attributes == null) ? null : attributes.get(name);
+    }
+
+    /**
+     * @param id identifier of a known attribute, for example {@link Attributes#CODE}
+     */
+    public <T extends Attribute> T getAttribute(int id) {
+        return (attributes == null) ? null : attributes.get(id);
     }
 
     public ConstantPool getConstants() {
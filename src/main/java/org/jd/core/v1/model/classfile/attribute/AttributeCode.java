@@ -7,16 +7,14 @@
 
 package org.jd.core.v1.model.classfile.attribute;
 
-import java.util.Map;
-
 public class AttributeCode implements Attribute {
     protected int maxStack;
     protected int maxLocals;
     protected byte[] code;
     protected CodeException[] exceptionTable;
-    protected Map<String, Attribute> attributes;
+    protected Attributes attributes;
 
-    public AttributeCode(int maxStack, int maxLocals, byte[] code, CodeException[] exceptionTable, Map<String, Attribute> attributes) {
+    public AttributeCode(int maxStack, int maxLocals, byte[] code, CodeException[] exceptionTable, Attributes attributes) {
         this.maxStack = maxStack;
         this.maxLocals = maxLocals;
         this.code = code;
@@ -40,8 +38,14 @@ public class AttributeCode implements Attribute {
         return exceptionTable;
     }
 
-    @SuppressWarnings("unchecked")
     public <T extends Attribute> T getAttribute(String name) {
-        return (attributes == null) ? null : (T)attributes.get(name);
+        return (attributes == null) ? null : attributes.get(name);
+    }
+
+    /**
+     * @param id identifier of a known attribute, for example {@link Attributes#CODE}
+     */
+    public <T extends Attribute> T getAttribute(int id) {
+        return (attributes == null) ? null : attributes.get(id);
     }
 }
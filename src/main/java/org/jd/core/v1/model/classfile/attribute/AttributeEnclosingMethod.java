@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.model.classfile.attribute;
+
+public class AttributeEnclosingMethod implements Attribute {
+    protected String internalTypeName;
+    protected String name;
+    protected String descriptor;
+
+    /**
+     * @param name       null if the class is not enclosed by a method or a constructor
+     * @param descriptor null if the class is not enclosed by a method or a constructor
+     */
+    public AttributeEnclosingMethod(String internalTypeName, String name, String descriptor) {
+        this.internalTypeName = internalTypeName;
+        this.name = name;
+        this.descriptor = descriptor;
+    }
+
+    public String getInternalTypeName() {
+        return internalTypeName;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescriptor() {
+        return descriptor;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.model.classfile.attribute;
+
+import java.util.Arrays;
+
+/**
+ * Attributes of a class, a field, a method or a code attribute. Most members have one to three attributes: they are
+ * stored in small arrays and known attributes are searched by identifier, without hashing their name. Unknown
+ * attributes are searched by name.
+ */
+public class Attributes {
+    public static final int UNKNOWN                                 = 0;
+    public static final int ANNOTATION_DEFAULT                      = 1;
+    public static final int BOOTSTRAP_METHODS                       = 2;
+    public static final int CODE                                    = 3;
+    public static final int CONSTANT_VALUE                          = 4;
+    public static final int DEPRECATED                              = 5;
+    public static final int EXCEPTIONS                              = 6;
+    public static final int INNER_CLASSES                           = 7;
+    public static final int LINE_NUMBER_TABLE                       = 8;
+    public static final int LOCAL_VARIABLE_TABLE                    = 9;
+    public static final int LOCAL_VARIABLE_TYPE_TABLE               = 10;
+    public static final int METHOD_PARAMETERS                       = 11;
+    public static final int MODULE                                  = 12;
+    public static final int MODULE_MAIN_CLASS                       = 13;
+    public static final int MODULE_PACKAGES                         = 14;
+    public static final int RUNTIME_INVISIBLE_ANNOTATIONS           = 15;
+    public static final int RUNTIME_INVISIBLE_PARAMETER_ANNOTATIONS = 16;
+    public static final int RUNTIME_VISIBLE_ANNOTATIONS             = 17;
+    public static final int RUNTIME_VISIBLE_PARAMETER_ANNOTATIONS   = 18;
+    public static final int SIGNATURE                               = 19;
+    public static final int SOURCE_FILE                             = 20;
+    public static final int SYNTHETIC                               = 21;
+    public static final int ENCLOSING_METHOD                        = 22;
+
+    protected static final String[] NAMES = {
+        null, "AnnotationDefault", "BootstrapMethods", "Code", "ConstantValue", "Deprecated", "Exceptions",
+        "InnerClasses", "LineNumberTable", "LocalVariableTable", "LocalVariableTypeTable", "MethodParameters", "Module",
+        "ModuleMainClass", "ModulePackages", "RuntimeInvisibleAnnotations", "RuntimeInvisibleParameterAnnotations",
+        "RuntimeVisibleAnnotations", "RuntimeVisibleParameterAnnotations", "Signature", "SourceFile", "Synthetic",
+        "EnclosingMethod"
+    };
+
+    protected byte[] ids;
+    protected String[] unknownNames;
+    protected Attribute[] attributes;
+    protected int size;
+
+    public Attributes(int capacity) {
+        this.ids = new byte[capacity];
+        this.attributes = new Attribute[capacity];
+    }
+
+    /**
+     * @return the identifier of a known attribute, {@link #UNKNOWN} otherwise
+     */
+    public static int getId(String name) {
+        switch (name) {
+            case "AnnotationDefault": return ANNOTATION_DEFAULT;
+            case "BootstrapMethods": return BOOTSTRAP_METHODS;
+            case "Code": return CODE;
+            case "ConstantValue": return CONSTANT_VALUE;
+            case "Deprecated": return DEPRECATED;
+            case "Exceptions": return EXCEPTIONS;
+            case "InnerClasses": return INNER_CLASSES;
+            case "LineNumberTable": return LINE_NUMBER_TABLE;
+            case "LocalVariableTable": return LOCAL_VARIABLE_TABLE;
+            case "LocalVariableTypeTable": return LOCAL_VARIABLE_TYPE_TABLE;
+            case "MethodParameters": return METHOD_PARAMETERS;
+            case "Module": return MODULE;
+            case "ModuleMainClass": return MODULE_MAIN_CLASS;
+            case "ModulePackages": return MODULE_PACKAGES;
+            case "RuntimeInvisibleAnnotations": return RUNTIME_INVISIBLE_ANNOTATIONS;
+            case "RuntimeInvisibleParameterAnnotations": return RUNTIME_INVISIBLE_PARAMETER_ANNOTATIONS;
+            case "RuntimeVisibleAnnotations": return RUNTIME_VISIBLE_ANNOTATIONS;
+            case "RuntimeVisibleParameterAnnotations": return RUNTIME_VISIBLE_PARAMETER_ANNOTATIONS;
+            case "Signature": return SIGNATURE;
+            case "SourceFile": return SOURCE_FILE;
+            case "Synthetic": return SYNTHETIC;
+            case "EnclosingMethod": return ENCLOSING_METHOD;
+            default: return UNKNOWN;
+        }
+    }
+
+    /**
+     * @return the index of the attribute, the index of the previous attribute with the same name if any
+     */
+    public int add(String name, Attribute attribute) {
+        int id = getId(name);
+        int index = (id == UNKNOWN) ? indexOf(name) : indexOf(id);
+
+        if (index == -1) {
+            if (size == ids.length) {
+                int capacity = (size == 0) ? 2 : size << 1;
+
+                ids = Arrays.copyOf(ids, capacity);
+                attributes = Arrays.copyOf(attributes, capacity);
+                if (unknownNames != null)
+                    unknownNames = Arrays.copyOf(unknownNames, capacity);
+            }
+
+            index = size++;
+            ids[index] = (byte)id;
+
+            if (id == UNKNOWN) {
+                if (unknownNames == null)
+                    unknownNames = new String[ids.length];
+                unknownNames[index] = name;
+            }
+        }
+
+        attributes[index] = attribute;
+        return index;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getNameAt(int index) {
+        return (ids[index] == UNKNOWN) ? unknownNames[index] : NAMES[ids[index]];
+    }
+
+    /**
+     * @param id identifier of a known attribute, for example {@link #CODE}
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Attribute> T get(int id) {
+        int index = indexOf(id);
+        return (index == -1) ? null : (T)getAttributeAt(index);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T extends Attribute> T get(String name) {
+        int id = getId(name);
+        int index = (id == UNKNOWN) ? indexOf(name) : indexOf(id);
+        return (index == -1) ? null : (T)getAttributeAt(index);
+    }
+
+    public Attribute getAttributeAt(int index) {
+        return attributes[index];
+    }
+
+    protected int indexOf(int id) {
+        byte[] ids = this.ids;
+
+        for (int i=0, len=size; i<len; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    protected int indexOf(String name) {
+        if (unknownNames != null) {
+            for (int i=0, len=size; i<len; i++) {
+                if (name.equals(unknownNames[i])) {
+                    return i;
+                }
+            }
+        }
+
+        return -1;
+    }
+}
@@ -8,7 +8,7 @@
 package org.jd.core.v1.model.classfile.constant;
 
 public class ConstantUtf8 extends ConstantValue {
-    protected String value;
+    protected final String value;
 
     public ConstantUtf8(String value) {
         super(CONSTANT_Utf8);
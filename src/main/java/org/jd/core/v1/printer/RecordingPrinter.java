@@ -0,0 +1,381 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.printer;
+
+import org.jd.core.v1.api.printer.Printer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Printer recording its calls in a compact binary stream, replayed into any printer by
+ * {@link #replay(byte[], Printer)}. Calls can be forwarded to another printer while they are recorded.<br><br>
+ *
+ * Integers are variable length, and each distinct string is written once: the next occurrences are indexes. The
+ * stream ends with a CRC-32 of the previous bytes.
+ */
+public class RecordingPrinter implements Printer {
+    public static final int MAGIC_NUMBER = 0x4A445043; // "JDPC"
+    public static final int FORMAT_VERSION = 2;
+
+    protected static final int START = 1;
+    protected static final int END = 2;
+    protected static final int TEXT = 3;
+    protected static final int NUMERIC_CONSTANT = 4;
+    protected static final int STRING_CONSTANT = 5;
+    protected static final int KEYWORD = 6;
+    protected static final int DECLARATION = 7;
+    protected static final int REFERENCE = 8;
+    protected static final int INDENT = 9;
+    protected static final int UNINDENT = 10;
+    protected static final int START_LINE = 11;
+    protected static final int END_LINE = 12;
+    protected static final int EXTRA_LINE = 13;
+    protected static final int START_MARKER = 14;
+    protected static final int END_MARKER = 15;
+
+    // String codes: null, new string, then indexes of the strings already written
+    protected static final int NULL_STRING = 0;
+    protected static final int NEW_STRING = 1;
+    protected static final int FIRST_STRING_INDEX = 2;
+
+    protected static final Printer NULL_PRINTER = new NullPrinter();
+
+    protected Printer printer;
+    protected byte[] bytes = new byte[1024 * 4];
+    protected int length;
+    protected HashMap<String, Integer> stringIndexes = new HashMap<>();
+
+    public RecordingPrinter() {
+        this(null);
+    }
+
+    /**
+     * @param printer printer receiving the calls while they are recorded, may be null
+     */
+    public RecordingPrinter(Printer printer) {
+        this.printer = printer;
+        writeInt(MAGIC_NUMBER);
+        writeVarInt(FORMAT_VERSION);
+    }
+
+    public byte[] toByteArray() {
+        CRC32 crc = new CRC32();
+        byte[] data = Arrays.copyOf(bytes, length + 4);
+        int value;
+
+        crc.update(bytes, 0, length);
+        value = (int)crc.getValue();
+        data[length] = (byte)(value >>> 24);
+        data[length+1] = (byte)(value >>> 16);
+        data[length+2] = (byte)(value >>> 8);
+        data[length+3] = (byte)value;
+
+        return data;
+    }
+
+    /**
+     * Replay the calls recorded in 'data' into 'printer'. 'data' is decoded entirely before the first call: an invalid
+     * recording prints nothing.
+     *
+     * @throws IllegalArgumentException if 'data' is not a recording of this format
+     */
+    public static void replay(byte[] data, Printer printer) {
+        new Replayer(data).replay(NULL_PRINTER);
+        new Replayer(data).replay(printer);
+    }
+
+    // --- Printer --- //
+    @Override
+    public void start(int maxLineNumber, int majorVersion, int minorVersion) {
+        writeVarInt(START);
+        writeVarInt(maxLineNumber);
+        writeVarInt(majorVersion);
+        writeVarInt(minorVersion);
+        if (printer != null) printer.start(maxLineNumber, majorVersion, minorVersion);
+    }
+
+    @Override
+    public void end() {
+        writeVarInt(END);
+        if (printer != null) printer.end();
+    }
+
+    @Override
+    public void printText(String text) {
+        writeVarInt(TEXT);
+        writeString(text);
+        if (printer != null) printer.printText(text);
+    }
+
+    @Override
+    public void printNumericConstant(String constant) {
+        writeVarInt(NUMERIC_CONSTANT);
+        writeString(constant);
+        if (printer != null) printer.printNumericConstant(constant);
+    }
+
+    @Override
+    public void printStringConstant(String constant, String ownerInternalName) {
+        writeVarInt(STRING_CONSTANT);
+        writeString(constant);
+        writeString(ownerInternalName);
+        if (printer != null) printer.printStringConstant(constant, ownerInternalName);
+    }
+
+    @Override
+    public void printKeyword(String keyword) {
+        writeVarInt(KEYWORD);
+        writeString(keyword);
+        if (printer != null) printer.printKeyword(keyword);
+    }
+
+    @Override
+    public void printDeclaration(int type, String internalTypeName, String name, String descriptor) {
+        writeVarInt(DECLARATION);
+        writeVarInt(type);
+        writeString(internalTypeName);
+        writeString(name);
+        writeString(descriptor);
+        if (printer != null) printer.printDeclaration(type, internalTypeName, name, descriptor);
+    }
+
+    @Override
+    public void printReference(int type, String internalTypeName, String name, String descriptor, String ownerInternalName) {
+        writeVarInt(REFERENCE);
+        writeVarInt(type);
+        writeString(internalTypeName);
+        writeString(name);
+        writeString(descriptor);
+        writeString(ownerInternalName);
+        if (printer != null) printer.printReference(type, internalTypeName, name, descriptor, ownerInternalName);
+    }
+
+    @Override
+    public void indent() {
+        writeVarInt(INDENT);
+        if (printer != null) printer.indent();
+    }
+
+    @Override
+    public void unindent() {
+        writeVarInt(UNINDENT);
+        if (printer != null) printer.unindent();
+    }
+
+    @Override
+    public void startLine(int lineNumber) {
+        writeVarInt(START_LINE);
+        writeVarInt(lineNumber);
+        if (printer != null) printer.startLine(lineNumber);
+    }
+
+    @Override
+    public void endLine() {
+        writeVarInt(END_LINE);
+        if (printer != null) printer.endLine();
+    }
+
+    @Override
+    public void extraLine(int count) {
+        writeVarInt(EXTRA_LINE);
+        writeVarInt(count);
+        if (printer != null) printer.extraLine(count);
+    }
+
+    @Override
+    public void startMarker(int type) {
+        writeVarInt(START_MARKER);
+        writeVarInt(type);
+        if (printer != null) printer.startMarker(type);
+    }
+
+    @Override
+    public void endMarker(int type) {
+        writeVarInt(END_MARKER);
+        writeVarInt(type);
+        if (printer != null) printer.endMarker(type);
+    }
+
+    // --- Encoding --- //
+    protected void ensureCapacity(int count) {
+        if (length + count > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(length + count, bytes.length * 2));
+        }
+    }
+
+    protected void writeInt(int value) {
+        ensureCapacity(4);
+        bytes[length++] = (byte)(value >>> 24);
+        bytes[length++] = (byte)(value >>> 16);
+        bytes[length++] = (byte)(value >>> 8);
+        bytes[length++] = (byte)value;
+    }
+
+    protected void writeVarInt(int value) {
+        ensureCapacity(5);
+
+        while ((value & ~0x7F) != 0) {
+            bytes[length++] = (byte)((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        bytes[length++] = (byte)value;
+    }
+
+    protected void writeString(String string) {
+        if (string == null) {
+            writeVarInt(NULL_STRING);
+        } else {
+            Integer index = stringIndexes.get(string);
+
+            if (index == null) {
+                byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+
+                stringIndexes.put(string, stringIndexes.size());
+                writeVarInt(NEW_STRING);
+                writeVarInt(utf8.length);
+                ensureCapacity(utf8.length);
+                System.arraycopy(utf8, 0, bytes, length, utf8.length);
+                length += utf8.length;
+            } else {
+                writeVarInt(FIRST_STRING_INDEX + index);
+            }
+        }
+    }
+
+    protected static class Replayer {
+        protected byte[] bytes;
+        protected int length;
+        protected int offset;
+        protected String[] strings = new String[256];
+        protected int stringCount;
+
+        public Replayer(byte[] bytes) {
+            this.bytes = bytes;
+            this.length = bytes.length - 4;
+        }
+
+        public void replay(Printer printer) {
+            try {
+                if ((length < 5) || (readInt() != MAGIC_NUMBER) || (readVarInt() != FORMAT_VERSION)) {
+                    throw new IllegalArgumentException("Invalid recording");
+                }
+
+                CRC32 crc = new CRC32();
+                int start = offset;
+
+                crc.update(bytes, 0, length);
+                offset = length;
+
+                if (readInt() != (int)crc.getValue()) {
+                    throw new IllegalArgumentException("Corrupted recording");
+                }
+
+                offset = start;
+
+                while (offset < length) {
+                    int code = readVarInt();
+
+                    switch (code) {
+                        case START: printer.start(readVarInt(), readVarInt(), readVarInt()); break;
+                        case END: printer.end(); break;
+                        case TEXT: printer.printText(readString()); break;
+                        case NUMERIC_CONSTANT: printer.printNumericConstant(readString()); break;
+                        case STRING_CONSTANT: printer.printStringConstant(readString(), readString()); break;
+                        case KEYWORD: printer.printKeyword(readString()); break;
+                        case DECLARATION: printer.printDeclaration(readVarInt(), readString(), readString(), readString()); break;
+                        case REFERENCE: printer.printReference(readVarInt(), readString(), readString(), readString(), readString()); break;
+                        case INDENT: printer.indent(); break;
+                        case UNINDENT: printer.unindent(); break;
+                        case START_LINE: printer.startLine(readVarInt()); break;
+                        case END_LINE: printer.endLine(); break;
+                        case EXTRA_LINE: printer.extraLine(readVarInt()); break;
+                        case START_MARKER: printer.startMarker(readVarInt()); break;
+                        case END_MARKER: printer.endMarker(readVarInt()); break;
+                        default: throw new IllegalArgumentException("Invalid recording");
+                    }
+                }
+            } catch (IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Truncated recording");
+            }
+        }
+
+        protected int readInt() {
+            int value = ((bytes[offset] & 255) << 24) | ((bytes[offset+1] & 255) << 16) | ((bytes[offset+2] & 255) << 8) | (bytes[offset+3] & 255);
+            offset += 4;
+            return value;
+        }
+
+        protected int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            int b;
+
+            do {
+                b = bytes[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+
+            return value;
+        }
+
+        protected String readString() {
+            int code = readVarInt();
+
+            if (code == NULL_STRING) {
+                return null;
+            } else if (code == NEW_STRING) {
+                int length = readVarInt();
+
+                if ((length < 0) || (length > this.length - offset)) {
+                    throw new IllegalArgumentException("Truncated recording");
+                }
+
+                String string = new String(bytes, offset, length, StandardCharsets.UTF_8);
+
+                offset += length;
+
+                if (stringCount == strings.length) {
+                    strings = Arrays.copyOf(strings, stringCount * 2);
+                }
+
+                return strings[stringCount++] = string;
+            } else {
+                int index = code - FIRST_STRING_INDEX;
+
+                if ((index < 0) || (index >= stringCount)) {
+                    throw new IllegalArgumentException("Invalid recording");
+                }
+
+                return strings[index];
+            }
+        }
+    }
+
+    protected static class NullPrinter implements Printer {
+        @Override public void start(int maxLineNumber, int majorVersion, int minorVersion) {}
+        @Override public void end() {}
+        @Override public void printText(String text) {}
+        @Override public void printNumericConstant(String constant) {}
+        @Override public void printStringConstant(String constant, String ownerInternalName) {}
+        @Override public void printKeyword(String keyword) {}
+        @Override public void printDeclaration(int type, String internalTypeName, String name, String descriptor) {}
+        @Override public void printReference(int type, String internalTypeName, String name, String descriptor, String ownerInternalName) {}
+        @Override public void indent() {}
+        @Override public void unindent() {}
+        @Override public void startLine(int lineNumber) {}
+        @Override public void endLine() {}
+        @Override public void extraLine(int count) {}
+        @Override public void startMarker(int type) {}
+        @Override public void endMarker(int type) {}
+    }
+}
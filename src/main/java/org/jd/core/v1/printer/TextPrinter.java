@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.printer;
+
+import org.jd.core.v1.api.printer.Printer;
+
+/**
+ * Printer of plain source code, without line numbers nor markers. Indentations are precomputed: printing a token
+ * allocates nothing.
+ */
+public abstract class TextPrinter implements Printer {
+    public static final String DEFAULT_INDENTATION = "    ";
+    public static final String DEFAULT_LINE_SEPARATOR = "\n";
+
+    protected String indentation;
+    protected String lineSeparator;
+    protected String[] indentations = new String[16];
+    protected int indentationCount;
+
+    protected TextPrinter() {
+        this(DEFAULT_INDENTATION, DEFAULT_LINE_SEPARATOR);
+    }
+
+    /**
+     * @param indentation   text of one indentation level, for example 4 spaces or a tabulation
+     * @param lineSeparator line separator, for example "\n" or "\r\n"
+     */
+    protected TextPrinter(String indentation, String lineSeparator) {
+        this.indentation = indentation;
+        this.lineSeparator = lineSeparator;
+
+        StringBuilder sb = new StringBuilder();
+
+        for (int i=0; i<indentations.length; i++) {
+            indentations[i] = sb.toString();
+            sb.append(indentation);
+        }
+    }
+
+    protected abstract void append(String text);
+
+    // --- Printer --- //
+    @Override
+    public void start(int maxLineNumber, int majorVersion, int minorVersion) {
+        indentationCount = 0;
+    }
+
+    @Override
+    public void end() {}
+
+    @Override
+    public void printText(String text) { append(text); }
+
+    @Override
+    public void printNumericConstant(String constant) { append(constant); }
+
+    @Override
+    public void printStringConstant(String constant, String ownerInternalName) { append(constant); }
+
+    @Override
+    public void printKeyword(String keyword) { append(keyword); }
+
+    @Override
+    public void printDeclaration(int type, String internalTypeName, String name, String descriptor) { append(name); }
+
+    @Override
+    public void printReference(int type, String internalTypeName, String name, String descriptor, String ownerInternalName) { append(name); }
+
+    @Override
+    public void indent() {
+        indentationCount++;
+    }
+
+    @Override
+    public void unindent() {
+        if (indentationCount > 0)
+            indentationCount--;
+    }
+
+    @Override
+    public void startLine(int lineNumber) {
+        append(getIndentation(indentationCount));
+    }
+
+    @Override
+    public void endLine() {
+        append(lineSeparator);
+    }
+
+    @Override
+    public void extraLine(int count) {
+        while (count-- > 0) {
+            append(lineSeparator);
+        }
+    }
+
+    @Override
+    public void startMarker(int type) {}
+
+    @Override
+    public void endMarker(int type) {}
+
+    protected String getIndentation(int count) {
+        if (count >= indentations.length) {
+            String[] array = new String[Math.max(count + 1, indentations.length * 2)];
+
+            System.arraycopy(indentations, 0, array, 0, indentations.length);
+
+            for (int i=indentations.length; i<array.length; i++) {
+                array[i] = array[i - 1] + indentation;
+            }
+
+            indentations = array;
+        }
+
+        return indentations[count];
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.printer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Printer encoding the source code in UTF-8 into a byte array, without intermediate strings. With an output stream,
+ * the array is written each time it is full and by {@link #end()}; the stream is not closed. Without output stream,
+ * the array grows and the result is read with {@link #toByteBuffer()}.<br><br>
+ *
+ * To avoid allocating an array per type, reuse an instance with {@link #reset(OutputStream)}, or pass an array taken
+ * from a pool. I/O errors are thrown as {@link UncheckedIOException}s.
+ */
+public class Utf8Printer extends TextPrinter {
+    protected static final int DEFAULT_CAPACITY = 1024 * 16;
+
+    protected byte[] bytes;
+    protected int length;
+    protected OutputStream out;
+
+    public Utf8Printer() {
+        this(new byte[DEFAULT_CAPACITY], null);
+    }
+
+    public Utf8Printer(OutputStream out) {
+        this(new byte[DEFAULT_CAPACITY], out);
+    }
+
+    /**
+     * @param bytes array used as buffer, at least 4 bytes long
+     * @param out   output stream, may be null
+     */
+    public Utf8Printer(byte[] bytes, OutputStream out) {
+        this(bytes, out, DEFAULT_INDENTATION, DEFAULT_LINE_SEPARATOR);
+    }
+
+    public Utf8Printer(byte[] bytes, OutputStream out, String indentation, String lineSeparator) {
+        super(indentation, lineSeparator);
+
+        if (bytes.length < 4)
+            throw new IllegalArgumentException("Buffer too small");
+
+        this.bytes = bytes;
+        this.out = out;
+    }
+
+    /**
+     * Forget the bytes not yet written, and print another type to 'out'.
+     */
+    public void reset(OutputStream out) {
+        this.length = 0;
+        this.out = out;
+    }
+
+    /**
+     * @return the bytes not yet written to the output stream, all the bytes without output stream
+     */
+    public ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(bytes, 0, length).asReadOnlyBuffer();
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void end() {
+        if (out != null) {
+            try {
+                flush();
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    protected void append(String text) {
+        byte[] bytes = this.bytes;
+        int length = this.length;
+
+        for (int i=0, len=text.length(); i<len; i++) {
+            if (length + 4 > bytes.length) {
+                this.length = length;
+                overflow();
+                bytes = this.bytes;
+                length = this.length;
+            }
+
+            char c = text.charAt(i);
+
+            if (c < 0x80) {
+                bytes[length++] = (byte)c;
+            } else if (c < 0x800) {
+                bytes[length++] = (byte)(0xC0 | (c >> 6));
+                bytes[length++] = (byte)(0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && (i + 1 < len) && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, text.charAt(++i));
+
+                    bytes[length++] = (byte)(0xF0 | (codePoint >> 18));
+                    bytes[length++] = (byte)(0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[length++] = (byte)(0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[length++] = (byte)(0x80 | (codePoint & 0x3F));
+                } else {
+                    // Unpaired surrogate, replaced as by String.getBytes()
+                    bytes[length++] = '?';
+                }
+            } else {
+                bytes[length++] = (byte)(0xE0 | (c >> 12));
+                bytes[length++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+                bytes[length++] = (byte)(0x80 | (c & 0x3F));
+            }
+        }
+
+        this.length = length;
+    }
+
+    protected void overflow() {
+        if (out == null) {
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        } else {
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    protected void flush() throws IOException {
+        out.write(bytes, 0, length);
+        length = 0;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.printer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Printer writing the source code to a {@link Writer}, flushed by {@link #end()} and not closed. I/O errors are
+ * thrown as {@link UncheckedIOException}s.
+ */
+public class WriterPrinter extends TextPrinter {
+    protected Writer writer;
+
+    public WriterPrinter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public WriterPrinter(Writer writer, String indentation, String lineSeparator) {
+        super(indentation, lineSeparator);
+        this.writer = writer;
+    }
+
+    public Writer getWriter() {
+        return writer;
+    }
+
+    /**
+     * Print another type to 'writer'.
+     */
+    public void setWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void end() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    protected void append(String text) {
+        try {
+            writer.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
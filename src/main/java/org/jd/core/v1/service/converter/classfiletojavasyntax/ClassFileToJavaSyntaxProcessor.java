@@ -13,6 +13,9 @@ import org.jd.core.v1.model.processor.Processor;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.processor.ConvertClassFileProcessor;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.processor.UpdateJavaSyntaxTreeProcessor;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.util.TypeMaker;
+import org.jd.core.v1.service.converter.classfiletojavasyntax.util.TypeMakerCache;
+
+import java.util.Map;
 
 /**
  * Convert ClassFile model to Java syntax model.<br><br>
@@ -28,9 +31,12 @@ public class ClassFileToJavaSyntaxProcessor implements Processor {
 
     public void process(Message message) throws Exception {
         Loader loader = message.getHeader("loader");
+        Map<String, Object> configuration = message.getHeader("configuration");
+        TypeMakerCache typeMakerCache = (configuration == null) ? null : (TypeMakerCache)configuration.get("typeMakerCache");
 
-        TypeMaker typeMaker = new TypeMaker(loader);
+        TypeMaker typeMaker = new TypeMaker(loader, typeMakerCache);
 
+        typeMaker.prefetch(message.getBody());
         message.setHeader("typeMaker", typeMaker);
 
         CONVERT_CLASS_FILE_PROCESSOR.process(message);
@@ -10,6 +10,7 @@ package org.jd.core.v1.service.converter.classfiletojavasyntax.model.cfg;
 import org.jd.core.v1.util.DefaultList;
 
 import java.util.HashSet;
+import java.util.Set;
 import java.util.Iterator;
 
 public class BasicBlock {
@@ -86,13 +87,13 @@ public class BasicBlock {
     protected BasicBlock sub2;
     protected DefaultList<ExceptionHandler> exceptionHandlers = EMPTY_EXCEPTION_HANDLERS;
     protected DefaultList<SwitchCase> switchCases = EMPTY_SWITCH_CASES;
-    protected HashSet<BasicBlock> predecessors;
+    protected Set<BasicBlock> predecessors;
 
     public BasicBlock(ControlFlowGraph controlFlowGraph, int index, BasicBlock original) {
-        this(controlFlowGraph, index, original, new HashSet<>());
+        this(controlFlowGraph, index, original, new BasicBlockSet());
     }
 
-    public BasicBlock(ControlFlowGraph controlFlowGraph, int index, BasicBlock original, HashSet<BasicBlock> predecessors) {
+    public BasicBlock(ControlFlowGraph controlFlowGraph, int index, BasicBlock original, Set<BasicBlock> predecessors) {
         this.controlFlowGraph = controlFlowGraph;
         this.index = index;
         this.type = original.type;
@@ -110,10 +111,10 @@ public class BasicBlock {
     }
 
     public BasicBlock(ControlFlowGraph controlFlowGraph, int index, int type, int fromOffset, int toOffset, boolean inverseCondition) {
-        this(controlFlowGraph, index, type, fromOffset, toOffset, inverseCondition, new HashSet<>());
+        this(controlFlowGraph, index, type, fromOffset, toOffset, inverseCondition, new BasicBlockSet());
     }
 
-    public BasicBlock(ControlFlowGraph controlFlowGraph, int index, int type, int fromOffset, int toOffset, boolean inverseCondition, HashSet<BasicBlock> predecessors) {
+    public BasicBlock(ControlFlowGraph controlFlowGraph, int index, int type, int fromOffset, int toOffset, boolean inverseCondition, Set<BasicBlock> predecessors) {
         this.controlFlowGraph = controlFlowGraph;
         this.index = index;
         this.type = type;
@@ -216,7 +217,7 @@ public class BasicBlock {
         this.sub2 = sub2;
     }
 
-    public HashSet<BasicBlock> getPredecessors() {
+    public Set<BasicBlock> getPredecessors() {
         return predecessors;
     }
 
@@ -501,7 +502,7 @@ public class BasicBlock {
         public ImmutableBasicBlock(int type) {
             super(
                 null, -1, type, 0, 0, true,
-                new HashSet<BasicBlock>() {
+                new BasicBlockSet() {
                     public boolean add(BasicBlock e) { return false; }
                 }
             );
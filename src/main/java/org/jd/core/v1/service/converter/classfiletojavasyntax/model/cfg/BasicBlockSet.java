@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.service.converter.classfiletojavasyntax.model.cfg;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Set of basic blocks stored in an inline array, in insertion order. Basic blocks are compared by index, like in
+ * {@link java.util.HashSet}, and most sets of predecessors hold one or two elements: a linear search is cheaper than
+ * hashing and the set needs no entry object per element. Past {@link #INDEXED_SIZE} elements, a bit set of the
+ * indexes answers 'add' and 'contains'.
+ */
+public class BasicBlockSet extends AbstractSet<BasicBlock> {
+    protected static final BasicBlock[] EMPTY_ELEMENTS = {};
+    protected static final int INDEXED_SIZE = 8;
+
+    protected BasicBlock[] elements;
+    protected int size;
+    protected int modCount;
+    protected BitSet indexes;
+
+    public BasicBlockSet() {
+        this.elements = EMPTY_ELEMENTS;
+    }
+
+    public BasicBlockSet(int capacity) {
+        this.elements = (capacity == 0) ? EMPTY_ELEMENTS : new BasicBlock[capacity];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return contains(((BasicBlock)o).getIndex());
+    }
+
+    @Override
+    public boolean add(BasicBlock basicBlock) {
+        int index = basicBlock.getIndex();
+
+        if (contains(index)) {
+            return false;
+        }
+
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, (size == 0) ? 2 : size << 1);
+        }
+
+        elements[size++] = basicBlock;
+        modCount++;
+
+        if (indexes != null) {
+            if (index >= 0) {
+                indexes.set(index);
+            }
+        } else if (size > INDEXED_SIZE) {
+            indexes = new BitSet();
+
+            for (int i=0; i<size; i++) {
+                int elementIndex = elements[i].getIndex();
+
+                if (elementIndex >= 0) {
+                    indexes.set(elementIndex);
+                }
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int index = ((BasicBlock)o).getIndex();
+        int i = ((indexes != null) && (index >= 0) && !indexes.get(index)) ? -1 : indexOf(index);
+
+        if (i == -1) {
+            return false;
+        }
+
+        removeAt(i);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(elements, 0, size, null);
+        size = 0;
+        indexes = null;
+        modCount++;
+    }
+
+    @Override
+    public Iterator<BasicBlock> iterator() {
+        return new Iterator<BasicBlock>() {
+            protected int cursor = 0;
+            protected int last = -1;
+            protected int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return cursor < size;
+            }
+
+            @Override
+            public BasicBlock next() {
+                if (expectedModCount != modCount)
+                    throw new ConcurrentModificationException();
+                if (cursor >= size)
+                    throw new NoSuchElementException();
+                last = cursor++;
+                return elements[last];
+            }
+
+            @Override
+            public void remove() {
+                if (last == -1)
+                    throw new IllegalStateException();
+                if (expectedModCount != modCount)
+                    throw new ConcurrentModificationException();
+                removeAt(last);
+                cursor = last;
+                last = -1;
+                expectedModCount = modCount;
+            }
+        };
+    }
+
+    protected boolean contains(int index) {
+        if ((indexes != null) && (index >= 0)) {
+            return indexes.get(index);
+        }
+
+        return indexOf(index) != -1;
+    }
+
+    protected int indexOf(int index) {
+        BasicBlock[] elements = this.elements;
+
+        for (int i=0, len=size; i<len; i++) {
+            if (elements[i].getIndex() == index) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    protected void removeAt(int i) {
+        int moved = size - i - 1;
+
+        if (indexes != null) {
+            int index = elements[i].getIndex();
+
+            if (index >= 0) {
+                indexes.clear(index);
+            }
+        }
+
+        if (moved > 0) {
+            System.arraycopy(elements, i + 1, elements, i, moved);
+        }
+
+        elements[--size] = null;
+        modCount++;
+    }
+}
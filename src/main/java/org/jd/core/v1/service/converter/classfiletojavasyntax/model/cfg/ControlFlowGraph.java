@@ -8,9 +8,10 @@
 package org.jd.core.v1.service.converter.classfiletojavasyntax.model.cfg;
 
 import org.jd.core.v1.model.classfile.Method;
+import org.jd.core.v1.service.converter.classfiletojavasyntax.util.Deadline;
 import org.jd.core.v1.util.DefaultList;
 
-import java.util.HashSet;
+import java.util.Set;
 
 public class ControlFlowGraph {
     protected Method method;
@@ -20,6 +21,7 @@ public class ControlFlowGraph {
         }
     };
     protected int[] offsetToLineNumbers = null;
+    protected Deadline deadline = Deadline.NONE;
 
     public ControlFlowGraph(Method method) {
         this.method = method;
@@ -29,6 +31,14 @@ public class ControlFlowGraph {
         return method;
     }
 
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(Deadline deadline) {
+        this.deadline = deadline;
+    }
+
     public DefaultList<BasicBlock> getBasicBlocks() {
         return list;
     }
@@ -59,7 +69,7 @@ public class ControlFlowGraph {
         return basicBlock;
     }
 
-    public BasicBlock newBasicBlock(int type, int fromOffset, int toOffset, HashSet<BasicBlock> predecessors) {
+    public BasicBlock newBasicBlock(int type, int fromOffset, int toOffset, Set<BasicBlock> predecessors) {
         BasicBlock basicBlock = new BasicBlock(this, list.size(), type, fromOffset, toOffset, true, predecessors);
         list.add(basicBlock);
         return basicBlock;
@@ -28,6 +28,14 @@ import org.jd.core.v1.util.DefaultList;
 
 import java.util.List;
 
+import static org.jd.core.v1.model.classfile.attribute.Attributes.ANNOTATION_DEFAULT;
+import static org.jd.core.v1.model.classfile.attribute.Attributes.CODE;
+import static org.jd.core.v1.model.classfile.attribute.Attributes.CONSTANT_VALUE;
+import static org.jd.core.v1.model.classfile.attribute.Attributes.LINE_NUMBER_TABLE;
+import static org.jd.core.v1.model.classfile.attribute.Attributes.MODULE;
+import static org.jd.core.v1.model.classfile.attribute.Attributes.RUNTIME_INVISIBLE_ANNOTATIONS;
+import static org.jd.core.v1.model.classfile.attribute.Attributes.RUNTIME_VISIBLE_ANNOTATIONS;
+
 /**
  * Convert ClassFile model to Java syntax model.<br><br>
  *
@@ -150,18 +158,18 @@ public class ConvertClassFileProcessor implements Processor {
             for (Method method : methods) {
                 String name = method.getName();
                 BaseAnnotationReference annotationReferences = convertAnnotationReferences(converter, method);
-                AttributeAnnotationDefault annotationDefault = method.getAttribute("AnnotationDefault");
+                AttributeAnnotationDefault annotationDefault = method.getAttribute(ANNOTATION_DEFAULT);
                 ElementValue defaultAnnotationValue = null;
 
                 if (annotationDefault != null) {
                     defaultAnnotationValue = converter.convert(annotationDefault.getDefaultValue());
                 }
 
-                AttributeCode code = method.getAttribute("Code");
+                AttributeCode code = method.getAttribute(CODE);
                 int firstLineNumber = 0;
 
                 if (code != null) {
-                    AttributeLineNumberTable lineNumberTable = code.getAttribute("LineNumberTable");
+                    AttributeLineNumberTable lineNumberTable = code.getAttribute(LINE_NUMBER_TABLE);
                     if (lineNumberTable != null) {
                         firstLineNumber = lineNumberTable.getLineNumberTable()[0].getLineNumber();
                     }
@@ -224,28 +232,28 @@ public class ConvertClassFileProcessor implements Processor {
     }
 
     protected BaseAnnotationReference convertAnnotationReferences(AnnotationConverter converter, ClassFile classFile) {
-        Annotations visibles = classFile.getAttribute("RuntimeVisibleAnnotations");
-        Annotations invisibles = classFile.getAttribute("RuntimeInvisibleAnnotations");
+        Annotations visibles = classFile.getAttribute(RUNTIME_VISIBLE_ANNOTATIONS);
+        Annotations invisibles = classFile.getAttribute(RUNTIME_INVISIBLE_ANNOTATIONS);
 
         return converter.convert(visibles, invisibles);
     }
 
     protected BaseAnnotationReference convertAnnotationReferences(AnnotationConverter converter, Field field) {
-        Annotations visibles = field.getAttribute("RuntimeVisibleAnnotations");
-        Annotations invisibles = field.getAttribute("RuntimeInvisibleAnnotations");
+        Annotations visibles = field.getAttribute(RUNTIME_VISIBLE_ANNOTATIONS);
+        Annotations invisibles = field.getAttribute(RUNTIME_INVISIBLE_ANNOTATIONS);
 
         return converter.convert(visibles, invisibles);
     }
 
     protected BaseAnnotationReference convertAnnotationReferences(AnnotationConverter converter, Method method) {
-        Annotations visibles = method.getAttribute("RuntimeVisibleAnnotations");
-        Annotations invisibles = method.getAttribute("RuntimeInvisibleAnnotations");
+        Annotations visibles = method.getAttribute(RUNTIME_VISIBLE_ANNOTATIONS);
+        Annotations invisibles = method.getAttribute(RUNTIME_INVISIBLE_ANNOTATIONS);
 
         return converter.convert(visibles, invisibles);
     }
 
     protected ExpressionVariableInitializer convertFieldInitializer(Field field, Type typeField) {
-        AttributeConstantValue acv = field.getAttribute("ConstantValue");
+        AttributeConstantValue acv = field.getAttribute(CONSTANT_VALUE);
 
         if (acv == null) {
             return null;
@@ -278,7 +286,7 @@ public class ConvertClassFileProcessor implements Processor {
     }
 
     protected ModuleDeclaration convertModuleDeclaration(ClassFile classFile) {
-        AttributeModule attributeModule = classFile.getAttribute("Module");
+        AttributeModule attributeModule = classFile.getAttribute(MODULE);
         List<ModuleDeclaration.ModuleInfo> requires = convertModuleDeclarationModuleInfo(attributeModule.getRequires());
         List<ModuleDeclaration.PackageInfo> exports = convertModuleDeclarationPackageInfo(attributeModule.getExports());
         List<ModuleDeclaration.PackageInfo> opens = convertModuleDeclarationPackageInfo(attributeModule.getOpens());
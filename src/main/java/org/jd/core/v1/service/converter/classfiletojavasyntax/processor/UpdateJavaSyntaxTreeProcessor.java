@@ -10,13 +10,27 @@ package org.jd.core.v1.service.converter.classfiletojavasyntax.processor;
 import org.jd.core.v1.model.javasyntax.CompilationUnit;
 import org.jd.core.v1.model.message.Message;
 import org.jd.core.v1.model.processor.Processor;
+import org.jd.core.v1.service.converter.classfiletojavasyntax.util.CreateInstructionsOptions;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.util.TypeMaker;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.visitor.UpdateJavaSyntaxTreeStep1Visitor;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.visitor.UpdateJavaSyntaxTreeStep2Visitor;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Create statements, init fields, merge declarations.<br><br>
  *
+ * If the configuration option 'outline' is set, method bodies are not decompiled, except the ones of the default
+ * constructors and of the static initializers of the enums.<br>
+ * If the configuration option 'memberName' is set, member types are removed and the empty default constructor of the
+ * type is kept.<br>
+ * The configuration options 'classTimeout' and 'methodTimeout' limit, in milliseconds, the time spent creating the
+ * bodies of the type and the body of each method: past the limit, methods are written as byte code. The header
+ * 'degradedMembers' receives a {@link List} of "internalTypeName.nameDescriptor", one for each method written as
+ * byte code past a limit.<br><br>
+ *
  * Input:  {@link CompilationUnit}<br>
  * Output: {@link CompilationUnit}<br>
  */
@@ -26,11 +40,18 @@ public class UpdateJavaSyntaxTreeProcessor implements Processor {
     public void process(Message message) throws Exception {
         TypeMaker typeMaker = message.getHeader("typeMaker");
         CompilationUnit compilationUnit = message.getBody();
+        Map<String, Object> configuration = message.getHeader("configuration");
+        ArrayList<String> degradedMembers = new ArrayList<>();
+        CreateInstructionsOptions options = new CreateInstructionsOptions(configuration, degradedMembers);
 
-        UpdateJavaSyntaxTreeStep1Visitor updateJavaSyntaxTreeStep1Visitor = new UpdateJavaSyntaxTreeStep1Visitor(typeMaker);
+        UpdateJavaSyntaxTreeStep1Visitor updateJavaSyntaxTreeStep1Visitor = new UpdateJavaSyntaxTreeStep1Visitor(typeMaker, options);
         updateJavaSyntaxTreeStep1Visitor.visit(compilationUnit);
 
-        UpdateJavaSyntaxTreeStep2Visitor updateJavaSyntaxTreeStep2Visitor = new UpdateJavaSyntaxTreeStep2Visitor();
+        boolean member = (configuration != null) && (configuration.get("memberName") != null);
+
+        UpdateJavaSyntaxTreeStep2Visitor updateJavaSyntaxTreeStep2Visitor = new UpdateJavaSyntaxTreeStep2Visitor(member, options.isOutline());
         updateJavaSyntaxTreeStep2Visitor.visit(compilationUnit);
+
+        message.setHeader("degradedMembers", degradedMembers);
     }
 }
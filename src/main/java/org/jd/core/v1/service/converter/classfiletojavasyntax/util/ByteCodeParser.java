@@ -47,6 +47,8 @@ import static org.jd.core.v1.model.javasyntax.type.ObjectType.TYPE_CLASS;
 import static org.jd.core.v1.model.javasyntax.type.ObjectType.TYPE_OBJECT;
 import static org.jd.core.v1.model.javasyntax.type.ObjectType.TYPE_UNDEFINED_OBJECT;
 import static org.jd.core.v1.model.javasyntax.type.PrimitiveType.*;
+import static org.jd.core.v1.model.classfile.attribute.Attributes.BOOTSTRAP_METHODS;
+import static org.jd.core.v1.model.classfile.attribute.Attributes.CODE;
 
 public class ByteCodeParser {
     private static final JsrReturnAddressExpression JSR_RETURN_ADDRESS_EXPRESSION = new JsrReturnAddressExpression();
@@ -67,7 +69,7 @@ public class ByteCodeParser {
         this.typeMaker = typeMaker;
         this.localVariableMaker = localVariableMaker;
         this.internalTypeName = internalTypeName;
-        this.attributeBootstrapMethods = classFile.getAttribute("BootstrapMethods");
+        this.attributeBootstrapMethods = classFile.getAttribute(BOOTSTRAP_METHODS);
         this.bodyDeclaration = bodyDeclaration;
         this.returnedType = returnedType;
     }
@@ -80,7 +82,7 @@ public class ByteCodeParser {
 
         Method method = cfg.getMethod();
         ConstantPool constants = method.getConstants();
-        byte[] code = method.<AttributeCode>getAttribute("Code").getCode();
+        byte[] code = method.<AttributeCode>getAttribute(CODE).getCode();
 
         Expression indexRef, arrayRef, valueRef, expression1, expression2, expression3;
         Type type1, type2, type3;
@@ -1986,7 +1988,7 @@ public class ByteCodeParser {
             return false;
 
         Method method = cfg.getMethod();
-        byte[] code = method.<AttributeCode>getAttribute("Code").getCode();
+        byte[] code = method.<AttributeCode>getAttribute(CODE).getCode();
         int opcode = code[offset] & 255;
 
         if (opcode != 178) // GETSTATIC
@@ -2021,7 +2023,7 @@ public class ByteCodeParser {
         }
 
         Method method = cfg.getMethod();
-        byte[] code = method.<AttributeCode>getAttribute("Code").getCode();
+        byte[] code = method.<AttributeCode>getAttribute(CODE).getCode();
         int opcode = code[offset] & 255;
 
         switch (opcode) {
@@ -2038,7 +2040,7 @@ public class ByteCodeParser {
     }
 
     public static int searchNextOpcode(BasicBlock basicBlock, int maxOffset) {
-        byte[] code = basicBlock.getControlFlowGraph().getMethod().<AttributeCode>getAttribute("Code").getCode();
+        byte[] code = basicBlock.getControlFlowGraph().getMethod().<AttributeCode>getAttribute(CODE).getCode();
         int offset = basicBlock.getFromOffset();
         int toOffset = basicBlock.getToOffset();
 
@@ -2139,7 +2141,7 @@ public class ByteCodeParser {
     }
 
     public static int getLastOpcode(BasicBlock basicBlock) {
-        byte[] code = basicBlock.getControlFlowGraph().getMethod().<AttributeCode>getAttribute("Code").getCode();
+        byte[] code = basicBlock.getControlFlowGraph().getMethod().<AttributeCode>getAttribute(CODE).getCode();
         int offset = basicBlock.getFromOffset();
         int toOffset = basicBlock.getToOffset();
 
@@ -2242,7 +2244,7 @@ public class ByteCodeParser {
     public static int evalStackDepth(BasicBlock bb) {
         Method method = bb.getControlFlowGraph().getMethod();
         ConstantPool constants = method.getConstants();
-        AttributeCode attributeCode = method.getAttribute("Code");
+        AttributeCode attributeCode = method.getAttribute(CODE);
         byte[] code = attributeCode.getCode();
         return evalStackDepth(constants, code, bb);
     }
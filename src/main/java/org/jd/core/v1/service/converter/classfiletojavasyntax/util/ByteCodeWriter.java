@@ -12,6 +12,11 @@ import org.jd.core.v1.model.classfile.Method;
 import org.jd.core.v1.model.classfile.attribute.*;
 import org.jd.core.v1.model.classfile.constant.*;
 
+import static org.jd.core.v1.model.classfile.attribute.Attributes.CODE;
+import static org.jd.core.v1.model.classfile.attribute.Attributes.LINE_NUMBER_TABLE;
+import static org.jd.core.v1.model.classfile.attribute.Attributes.LOCAL_VARIABLE_TABLE;
+import static org.jd.core.v1.model.classfile.attribute.Attributes.LOCAL_VARIABLE_TYPE_TABLE;
+
 /**
  * Example:
  // Byte code:
@@ -97,7 +102,7 @@ import org.jd.core.v1.model.classfile.constant.*;
 public class ByteCodeWriter {
 
     public static String write(String linePrefix, Method method) {
-        AttributeCode attributeCode = method.getAttribute("Code");
+        AttributeCode attributeCode = method.getAttribute(CODE);
 
         if (attributeCode == null) {
             return null;
@@ -115,7 +120,7 @@ public class ByteCodeWriter {
     }
 
     public static String write(String linePrefix, Method method, int fromOffset, int toOffset) {
-        AttributeCode attributeCode = method.getAttribute("Code");
+        AttributeCode attributeCode = method.getAttribute(CODE);
 
         if (attributeCode == null) {
             return null;
@@ -321,7 +326,7 @@ public class ByteCodeWriter {
     }
 
     protected static void writeLineNumberTable(String linePrefix, StringBuilder sb, AttributeCode attributeCode) {
-        AttributeLineNumberTable lineNumberTable = attributeCode.getAttribute("LineNumberTable");
+        AttributeLineNumberTable lineNumberTable = attributeCode.getAttribute(LINE_NUMBER_TABLE);
 
         if (lineNumberTable != null) {
             sb.append(linePrefix).append("Line number table:\n");
@@ -336,7 +341,7 @@ public class ByteCodeWriter {
     }
 
     protected static void writeLocalVariableTable(String linePrefix, StringBuilder sb, AttributeCode attributeCode) {
-        AttributeLocalVariableTable localVariableTable = attributeCode.getAttribute("LocalVariableTable");
+        AttributeLocalVariableTable localVariableTable = attributeCode.getAttribute(LOCAL_VARIABLE_TABLE);
 
         if (localVariableTable != null) {
             sb.append(linePrefix).append("Local variable table:\n");
@@ -352,7 +357,7 @@ public class ByteCodeWriter {
             }
         }
 
-        AttributeLocalVariableTypeTable localVariableTypeTable = attributeCode.getAttribute("LocalVariableTypeTable");
+        AttributeLocalVariableTypeTable localVariableTypeTable = attributeCode.getAttribute(LOCAL_VARIABLE_TYPE_TABLE);
 
         if (localVariableTypeTable != null) {
             sb.append(linePrefix).append("Local variable type table:\n");
@@ -8,6 +8,7 @@
 package org.jd.core.v1.service.converter.classfiletojavasyntax.util;
 
 import org.jd.core.v1.service.converter.classfiletojavasyntax.model.cfg.BasicBlock;
+import org.jd.core.v1.service.converter.classfiletojavasyntax.model.cfg.BasicBlockSet;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.model.cfg.ControlFlowGraph;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.model.cfg.Loop;
 import org.jd.core.v1.util.DefaultList;
@@ -20,49 +21,32 @@ public class ControlFlowGraphLoopReducer {
     protected static final LoopComparator LOOP_COMPARATOR = new LoopComparator();
 
     public static BitSet[] buildDominatorIndexes(ControlFlowGraph cfg) {
-        List<BasicBlock> list = cfg.getBasicBlocks();
-        int length = list.size();
+        DominatorTree dominatorTree = new DominatorTree(cfg);
+        int length = cfg.getBasicBlocks().size();
         BitSet[] arrayOfDominatorIndexes = new BitSet[length];
 
-        BitSet initial = new BitSet(length);
-        initial.set(0);
-        arrayOfDominatorIndexes[0] = initial;
-
         for (int i=0; i<length; i++) {
-            initial = new BitSet(length);
-            initial.flip(0, length);
-            arrayOfDominatorIndexes[i] = initial;
+            arrayOfDominatorIndexes[i] = dominatorTree.getDominatorIndexes(i);
         }
 
-        initial = arrayOfDominatorIndexes[0];
-        initial.clear();
-        initial.set(0);
-
-        boolean change;
-
-        do {
-            change = false;
-
-            for (BasicBlock basicBlock : list) {
-                int index = basicBlock.getIndex();
-
-                BitSet dominatorIndexes = arrayOfDominatorIndexes[index];
-
-                initial = (BitSet)dominatorIndexes.clone();
-
-                for (BasicBlock predecessorBB : basicBlock.getPredecessors()) {
-                    dominatorIndexes.and(arrayOfDominatorIndexes[predecessorBB.getIndex()]);
-                }
+        return arrayOfDominatorIndexes;
+    }
 
-                dominatorIndexes.set(index);
-                change |= (! initial.equals(dominatorIndexes));
+    public static List<Loop> identifyNaturalLoops(ControlFlowGraph cfg, BitSet[] arrayOfDominatorIndexes) {
+        return identifyNaturalLoops(cfg, new DominatorTree() {
+            @Override
+            public boolean dominates(int dominatorIndex, int index) {
+                return arrayOfDominatorIndexes[index].get(dominatorIndex);
             }
-        } while (change);
 
-        return arrayOfDominatorIndexes;
+            @Override
+            public BitSet getDominatorIndexes(int index) {
+                return arrayOfDominatorIndexes[index];
+            }
+        });
     }
 
-    public static List<Loop> identifyNaturalLoops(ControlFlowGraph cfg, BitSet[] arrayOfDominatorIndexes) {
+    public static List<Loop> identifyNaturalLoops(ControlFlowGraph cfg, DominatorTree dominatorTree) {
         List<BasicBlock> list = cfg.getBasicBlocks();
         int length = list.size();
         BitSet[] arrayOfMemberIndexes = new BitSet[length];
@@ -70,13 +54,12 @@ public class ControlFlowGraphLoopReducer {
         // Identify loop members
         for (int i=0; i<length; i++) {
             BasicBlock current = list.get(i);
-            BitSet dominatorIndexes = arrayOfDominatorIndexes[i];
 
             switch (current.getType()) {
                 case TYPE_CONDITIONAL_BRANCH:
                     int index = current.getBranch().getIndex();
 
-                    if ((index >= 0) && dominatorIndexes.get(index)) {
+                    if ((index >= 0) && dominatorTree.dominates(index, i)) {
                         // 'branch' is a dominator -> Back edge found
                         arrayOfMemberIndexes[index] = searchLoopMemberIndexes(length, arrayOfMemberIndexes[index], current, current.getBranch());
                     }
@@ -84,7 +67,7 @@ public class ControlFlowGraphLoopReducer {
                 case TYPE_GOTO:
                     index = current.getNext().getIndex();
 
-                    if ((index >= 0) && dominatorIndexes.get(index)) {
+                    if ((index >= 0) && dominatorTree.dominates(index, i)) {
                         // 'next' is a dominator -> Back edge found
                         arrayOfMemberIndexes[index] = searchLoopMemberIndexes(length, arrayOfMemberIndexes[index], current, current.getNext());
                     }
@@ -93,7 +76,7 @@ public class ControlFlowGraphLoopReducer {
                     for (SwitchCase switchCase : current.getSwitchCases()) {
                         index = switchCase.getBasicBlock().getIndex();
 
-                        if ((index >= 0) && dominatorIndexes.get(index)) {
+                        if ((index >= 0) && dominatorTree.dominates(index, i)) {
                             // 'switchCase' is a dominator -> Back edge found
                             arrayOfMemberIndexes[index] = searchLoopMemberIndexes(length, arrayOfMemberIndexes[index], current, switchCase.getBasicBlock());
                         }
@@ -118,12 +101,11 @@ public class ControlFlowGraphLoopReducer {
                 }
 
                 BasicBlock start = list.get(i);
-                BitSet startDominatorIndexes = arrayOfDominatorIndexes[i];
 
                 if ((start.getType() == TYPE_TRY_DECLARATION) && (maxOffset != start.getFromOffset()) && (maxOffset < start.getExceptionHandlers().getFirst().getBasicBlock().getFromOffset())) {
                     // 'try' statement outside the loop
                     BasicBlock newStart = start.getNext();
-                    HashSet<BasicBlock> newStartPredecessors = newStart.getPredecessors();
+                    Set<BasicBlock> newStartPredecessors = newStart.getPredecessors();
 
                     // Loop in 'try' statement
                     Iterator<BasicBlock> iterator = start.getPredecessors().iterator();
@@ -131,7 +113,7 @@ public class ControlFlowGraphLoopReducer {
                     while (iterator.hasNext()) {
                         BasicBlock predecessor = iterator.next();
 
-                        if (!startDominatorIndexes.get(predecessor.getIndex())) {
+                        if (!dominatorTree.dominates(predecessor.getIndex(), i)) {
                             iterator.remove();
                             predecessor.replace(start, newStart);
                             newStartPredecessors.add(predecessor);
@@ -154,10 +136,8 @@ public class ControlFlowGraphLoopReducer {
 
                 // Unoptimize loop
                 BasicBlock start = list.get(i);
-                BitSet startDominatorIndexes = arrayOfDominatorIndexes[i];
-
                 BitSet searchZoneIndexes = new BitSet(length);
-                searchZoneIndexes.or(startDominatorIndexes);
+                searchZoneIndexes.or(dominatorTree.getDominatorIndexes(i));
                 searchZoneIndexes.flip(0, length);
                 searchZoneIndexes.set(start.getIndex());
 
@@ -648,7 +628,7 @@ public class ControlFlowGraphLoopReducer {
     }
 
     protected static BasicBlock newJumpBasicBlock(BasicBlock bb, BasicBlock target) {
-        HashSet<BasicBlock> predecessors = new HashSet<>();
+        BasicBlockSet predecessors = new BasicBlockSet(1);
 
         predecessors.add(bb);
         target.getPredecessors().remove(bb);
@@ -657,10 +637,12 @@ public class ControlFlowGraphLoopReducer {
     }
 
     public static void reduce(ControlFlowGraph cfg) {
-        BitSet[] arrayOfDominatorIndexes = buildDominatorIndexes(cfg);
-        List<Loop> loops = identifyNaturalLoops(cfg, arrayOfDominatorIndexes);
+        List<Loop> loops = identifyNaturalLoops(cfg, new DominatorTree(cfg));
+        Deadline deadline = cfg.getDeadline();
 
         for (int i=0, loopsLength=loops.size(); i<loopsLength; i++) {
+            deadline.check();
+
             Loop loop = loops.get(i);
             BasicBlock startBB = loop.getStart();
             BasicBlock loopBB = reduceLoop(loop);
@@ -22,6 +22,8 @@ import org.jd.core.v1.util.DefaultList;
 import java.util.*;
 
 import static org.jd.core.v1.service.converter.classfiletojavasyntax.model.cfg.BasicBlock.*;
+import static org.jd.core.v1.model.classfile.attribute.Attributes.CODE;
+import static org.jd.core.v1.model.classfile.attribute.Attributes.LINE_NUMBER_TABLE;
 
 public class ControlFlowGraphMaker {
     protected static final BasicBlock MARK = END;
@@ -29,7 +31,7 @@ public class ControlFlowGraphMaker {
     protected static final CodeExceptionComparator CODE_EXCEPTION_COMPARATOR = new CodeExceptionComparator();
 
     public static ControlFlowGraph make(Method method) {
-        AttributeCode attributeCode = method.getAttribute("Code");
+        AttributeCode attributeCode = method.getAttribute(CODE);
 
         if (attributeCode == null) {
             return null;
@@ -329,7 +331,7 @@ public class ControlFlowGraphMaker {
 
             // --- Create line numbers --- //
             ControlFlowGraph cfg = new ControlFlowGraph(method);
-            AttributeLineNumberTable attributeLineNumberTable = attributeCode.getAttribute("LineNumberTable");
+            AttributeLineNumberTable attributeLineNumberTable = attributeCode.getAttribute(LINE_NUMBER_TABLE);
 
             if (attributeLineNumberTable != null) {
                 // Parse line numbers
@@ -10,11 +10,14 @@ package org.jd.core.v1.service.converter.classfiletojavasyntax.util;
 import org.jd.core.v1.model.classfile.attribute.AttributeCode;
 import org.jd.core.v1.model.javasyntax.expression.Expression;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.model.cfg.BasicBlock;
+import org.jd.core.v1.service.converter.classfiletojavasyntax.model.cfg.BasicBlockSet;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.model.cfg.ControlFlowGraph;
+import org.jd.core.v1.util.DefaultList;
 
 import java.util.*;
 
 import static org.jd.core.v1.service.converter.classfiletojavasyntax.model.cfg.BasicBlock.*;
+import static org.jd.core.v1.model.classfile.attribute.Attributes.CODE;
 
 public class ControlFlowGraphReducer {
 
@@ -27,50 +30,7 @@ public class ControlFlowGraphReducer {
     }
 
     public static boolean reduce(BitSet visited, BasicBlock basicBlock, BitSet jsrTargets) {
-        if (!basicBlock.matchType(GROUP_END) && (visited.get(basicBlock.getIndex()) == false)) {
-            visited.set(basicBlock.getIndex());
-
-            switch (basicBlock.getType()) {
-                case TYPE_START:
-                case TYPE_STATEMENTS:
-                case TYPE_IF:
-                case TYPE_IF_ELSE:
-                case TYPE_SWITCH:
-                case TYPE_TRY:
-                case TYPE_TRY_JSR:
-                case TYPE_TRY_ECLIPSE:
-                case TYPE_GOTO_IN_TERNARY_OPERATOR:
-                    return reduce(visited, basicBlock.getNext(), jsrTargets);
-                case TYPE_CONDITIONAL_BRANCH:
-                case TYPE_CONDITION:
-                case TYPE_CONDITION_OR:
-                case TYPE_CONDITION_AND:
-                case TYPE_CONDITION_TERNARY_OPERATOR:
-                    return reduceConditionalBranch(visited, basicBlock, jsrTargets);
-                case TYPE_SWITCH_DECLARATION:
-                    return reduceSwitchDeclaration(visited, basicBlock, jsrTargets);
-                case TYPE_TRY_DECLARATION:
-                    return reduceTryDeclaration(visited, basicBlock, jsrTargets);
-                case TYPE_JSR:
-                    return reduceJsr(visited, basicBlock, jsrTargets);
-                case TYPE_LOOP:
-                    return reduceLoop(visited, basicBlock, jsrTargets);
-            }
-        }
-
-        return true;
-    }
-
-    protected static boolean reduceConditionalBranch(BitSet visited, BasicBlock basicBlock, BitSet jsrTargets) {
-        while (aggregateConditionalBranches(basicBlock));
-
-        assert basicBlock.matchType(GROUP_CONDITION);
-
-        if (reduce(visited, basicBlock.getNext(), jsrTargets) & reduce(visited, basicBlock.getBranch(), jsrTargets)) {
-            return reduceConditionalBranch(basicBlock);
-        }
-
-        return false;
+        return new Reducer(jsrTargets).reduce(visited, basicBlock);
     }
 
     protected static boolean reduceConditionalBranch(BasicBlock basicBlock) {
@@ -477,7 +437,7 @@ public class ControlFlowGraphReducer {
 
     protected static boolean checkJdk118TernaryOperatorPattern(BasicBlock next, BasicBlock nextNext, int ifByteCode) {
         if ((nextNext.getToOffset() - nextNext.getFromOffset()) == 3) {
-            byte[] code = next.getControlFlowGraph().getMethod().<AttributeCode>getAttribute("Code").getCode();
+            byte[] code = next.getControlFlowGraph().getMethod().<AttributeCode>getAttribute(CODE).getCode();
             int nextFromOffset = next.getFromOffset();
             int nextNextFromOffset = nextNext.getFromOffset();
             return (code[nextFromOffset] == 3) &&                                                               // ICONST_0
@@ -489,7 +449,7 @@ public class ControlFlowGraphReducer {
         return false;
     }
 
-    protected static boolean reduceSwitchDeclaration(BitSet visited, BasicBlock basicBlock, BitSet jsrTargets) {
+    protected static BasicBlock prepareSwitchDeclaration(BasicBlock basicBlock) {
         SwitchCase defaultSC = null;
         SwitchCase lastSC = null;
         int maxOffset = -1;
@@ -572,12 +532,10 @@ public class ControlFlowGraphReducer {
             }
         }
 
-        boolean reduced = true;
-
-        for (SwitchCase switchCase : basicBlock.getSwitchCases()) {
-            reduced &= reduce(visited, switchCase.getBasicBlock(), jsrTargets);
-        }
+        return end;
+    }
 
+    protected static void updateSwitchDeclaration(BasicBlock basicBlock, BasicBlock end) {
         for (SwitchCase switchCase : basicBlock.getSwitchCases()) {
             BasicBlock bb = switchCase.getBasicBlock();
 
@@ -602,9 +560,7 @@ public class ControlFlowGraphReducer {
         // Change type
         basicBlock.setType(TYPE_SWITCH);
         basicBlock.setNext(end);
-        endPredecessors.add(basicBlock);
-
-        return reduced & reduce(visited, basicBlock.getNext(), jsrTargets);
+        end.getPredecessors().add(basicBlock);
     }
 
     protected static boolean searchLoopStart(BasicBlock basicBlock, int maxOffset) {
@@ -653,70 +609,7 @@ public class ControlFlowGraphReducer {
         return false;
     }
 
-    protected static boolean reduceTryDeclaration(BitSet visited, BasicBlock basicBlock, BitSet jsrTargets) {
-        boolean reduced = true;
-        BasicBlock finallyBB = null;
-
-        for (BasicBlock.ExceptionHandler exceptionHandler : basicBlock.getExceptionHandlers()) {
-            if (exceptionHandler.getInternalThrowableName() == null) {
-                reduced = reduce(visited, exceptionHandler.getBasicBlock(), jsrTargets);
-                finallyBB = exceptionHandler.getBasicBlock();
-                break;
-            }
-        }
-
-        BasicBlock jsrTarget = searchJsrTarget(basicBlock, jsrTargets);
-
-        reduced &= reduce(visited, basicBlock.getNext(), jsrTargets);
-
-        BasicBlock tryBB = basicBlock.getNext();
-
-        if (tryBB.matchType(GROUP_SYNTHETIC)) {
-            return false;
-        }
-
-        int maxOffset = basicBlock.getFromOffset();
-        boolean tryWithResourcesFlag = true;
-        BasicBlock tryWithResourcesBB = null;
-
-        for (BasicBlock.ExceptionHandler exceptionHandler : basicBlock.getExceptionHandlers()) {
-            if (exceptionHandler.getInternalThrowableName() != null) {
-                reduced &= reduce(visited, exceptionHandler.getBasicBlock(), jsrTargets);
-            }
-
-            BasicBlock bb = exceptionHandler.getBasicBlock();
-
-            if (bb.matchType(GROUP_SYNTHETIC)) {
-                return false;
-            }
-
-            if (maxOffset < bb.getFromOffset()) {
-                maxOffset = bb.getFromOffset();
-            }
-
-            if (tryWithResourcesFlag) {
-                Set<BasicBlock> predecessors = bb.getPredecessors();
-
-                if (predecessors.size() == 1) {
-                    tryWithResourcesFlag = false;
-                } else {
-                    assert predecessors.size() == 2;
-
-                    if (tryWithResourcesBB == null) {
-                        for (BasicBlock predecessor : predecessors) {
-                            if (predecessor != basicBlock) {
-                                assert predecessor.getType() == TYPE_TRY_DECLARATION;
-                                tryWithResourcesBB = predecessor;
-                                break;
-                            }
-                        }
-                    } else if (!predecessors.contains(tryWithResourcesBB)) {
-                        tryWithResourcesFlag = false;
-                    }
-                }
-            }
-        }
-
+    protected static boolean updateTryDeclaration(BasicBlock basicBlock, boolean reduced, BasicBlock finallyBB, BasicBlock jsrTarget, BasicBlock tryBB, int maxOffset, boolean tryWithResourcesFlag) {
         if (tryWithResourcesFlag) {
             // One of 'try-with-resources' patterns
             for (BasicBlock.ExceptionHandler exceptionHandler : basicBlock.getExceptionHandlers()) {
@@ -967,10 +860,7 @@ public class ControlFlowGraphReducer {
         }
     }
 
-    protected static boolean reduceJsr(BitSet visited, BasicBlock basicBlock, BitSet jsrTargets) {
-        BasicBlock branch = basicBlock.getBranch();
-        boolean reduced = reduce(visited, basicBlock.getNext(), jsrTargets) & reduce(visited, branch, jsrTargets);
-
+    protected static boolean updateJsr(BasicBlock basicBlock, BasicBlock branch, boolean reduced, BitSet jsrTargets) {
         if ((branch.getIndex() >= 0) && jsrTargets.get(branch.getIndex())) {
             // Reduce JSR
             int delta = basicBlock.getToOffset() - basicBlock.getFromOffset();
@@ -1028,58 +918,6 @@ public class ControlFlowGraphReducer {
         return reduced;
     }
 
-    protected static boolean reduceLoop(BitSet visited, BasicBlock basicBlock, BitSet jsrTargets) {
-        Object clone = visited.clone();
-        boolean reduced = reduce(visited, basicBlock.getSub1(), jsrTargets);
-
-        if (reduced == false) {
-            BitSet visitedMembers = new BitSet();
-            BasicBlock updateBasicBlock = searchUpdateBlockAndCreateContinueLoop(visitedMembers, basicBlock.getSub1());
-
-            visited = (BitSet)((BitSet)clone).clone();
-            reduced = reduce(visited, basicBlock.getSub1(), jsrTargets);
-
-            if (updateBasicBlock != null) {
-                BasicBlock ifBasicBlock = basicBlock.getControlFlowGraph().newBasicBlock(TYPE_IF, basicBlock.getSub1().getFromOffset(), basicBlock.getToOffset());
-
-                ifBasicBlock.setCondition(END);
-                ifBasicBlock.setSub1(basicBlock.getSub1());
-                ifBasicBlock.setNext(updateBasicBlock);
-                updateBasicBlock.getPredecessors().add(ifBasicBlock);
-                basicBlock.setSub1(ifBasicBlock);
-            }
-
-            if (reduced == false) {
-                visitedMembers.clear();
-
-                BasicBlock conditionalBranch = getLastConditionalBranch(visitedMembers, basicBlock.getSub1());
-
-                if ((conditionalBranch != null) && (conditionalBranch.getNext() == LOOP_START)) {
-                    visitedMembers.clear();
-                    visitedMembers.set(conditionalBranch.getIndex());
-                    changeEndLoopToJump(visitedMembers, basicBlock.getNext(), basicBlock.getSub1());
-
-                    BasicBlock newLoopBB = basicBlock.getControlFlowGraph().newBasicBlock(basicBlock);
-                    Set<BasicBlock> predecessors = conditionalBranch.getPredecessors();
-
-                    for (BasicBlock predecessor : predecessors) {
-                        predecessor.replace(conditionalBranch, LOOP_END);
-                    }
-
-                    newLoopBB.setNext(conditionalBranch);
-                    predecessors.clear();
-                    predecessors.add(newLoopBB);
-                    basicBlock.setSub1(newLoopBB);
-
-                    visitedMembers.clear();
-                    reduced = reduce(visitedMembers, newLoopBB, jsrTargets);
-                }
-            }
-        }
-
-        return reduced & reduce(visited, basicBlock.getNext(), jsrTargets);
-    }
-
     protected static BasicBlock getLastConditionalBranch(BitSet visited, BasicBlock basicBlock) {
         if (!basicBlock.matchType(GROUP_END) && (visited.get(basicBlock.getIndex()) == false)) {
             visited.set(basicBlock.getIndex());
@@ -1422,7 +1260,7 @@ public class ControlFlowGraphReducer {
     }
 
     protected static BasicBlock newJumpBasicBlock(BasicBlock bb, BasicBlock target) {
-        HashSet<BasicBlock> predecessors = new HashSet<>();
+        BasicBlockSet predecessors = new BasicBlockSet(1);
 
         predecessors.add(bb);
         target.getPredecessors().remove(bb);
@@ -1438,4 +1276,396 @@ public class ControlFlowGraphReducer {
         bb.setNext(clone);
         return clone;
     }
+
+    /*
+     * Reductions are driven by an explicit stack of frames, not by the thread stack: a frame reduces a sub basic block
+     * by pushing a new frame, and it is resumed with the result once that frame has been popped.
+     */
+    protected static class Reducer {
+        protected BitSet jsrTargets;
+        protected DefaultList<Frame> stack = new DefaultList<>();
+        protected boolean result;
+
+        public Reducer(BitSet jsrTargets) {
+            this.jsrTargets = jsrTargets;
+        }
+
+        public boolean reduce(BitSet visited, BasicBlock basicBlock) {
+            Deadline deadline = basicBlock.getControlFlowGraph().getDeadline();
+
+            call(visited, basicBlock);
+
+            while (!stack.isEmpty()) {
+                deadline.check();
+                stack.getLast().resume(this);
+            }
+
+            return result;
+        }
+
+        protected void call(BitSet visited, BasicBlock basicBlock) {
+            stack.add(new ReduceFrame(visited, basicBlock));
+        }
+
+        protected void replace(Frame frame) {
+            stack.set(stack.size() - 1, frame);
+        }
+
+        protected void ret(boolean result) {
+            this.result = result;
+            stack.removeLast();
+        }
+    }
+
+    protected abstract static class Frame {
+        protected BitSet visited;
+        protected BasicBlock basicBlock;
+        protected int state;
+        protected boolean reduced;
+
+        protected Frame(BitSet visited, BasicBlock basicBlock) {
+            this.visited = visited;
+            this.basicBlock = basicBlock;
+        }
+
+        protected abstract void resume(Reducer reducer);
+    }
+
+    protected static class ReduceFrame extends Frame {
+        protected ReduceFrame(BitSet visited, BasicBlock basicBlock) {
+            super(visited, basicBlock);
+        }
+
+        @Override
+        protected void resume(Reducer reducer) {
+            if (!basicBlock.matchType(GROUP_END) && (visited.get(basicBlock.getIndex()) == false)) {
+                visited.set(basicBlock.getIndex());
+
+                switch (basicBlock.getType()) {
+                    case TYPE_START:
+                    case TYPE_STATEMENTS:
+                    case TYPE_IF:
+                    case TYPE_IF_ELSE:
+                    case TYPE_SWITCH:
+                    case TYPE_TRY:
+                    case TYPE_TRY_JSR:
+                    case TYPE_TRY_ECLIPSE:
+                    case TYPE_GOTO_IN_TERNARY_OPERATOR:
+                        // Tail call
+                        basicBlock = basicBlock.getNext();
+                        return;
+                    case TYPE_CONDITIONAL_BRANCH:
+                    case TYPE_CONDITION:
+                    case TYPE_CONDITION_OR:
+                    case TYPE_CONDITION_AND:
+                    case TYPE_CONDITION_TERNARY_OPERATOR:
+                        reducer.replace(new ConditionalBranchFrame(visited, basicBlock));
+                        return;
+                    case TYPE_SWITCH_DECLARATION:
+                        reducer.replace(new SwitchDeclarationFrame(visited, basicBlock));
+                        return;
+                    case TYPE_TRY_DECLARATION:
+                        reducer.replace(new TryDeclarationFrame(visited, basicBlock));
+                        return;
+                    case TYPE_JSR:
+                        reducer.replace(new JsrFrame(visited, basicBlock));
+                        return;
+                    case TYPE_LOOP:
+                        reducer.replace(new LoopFrame(visited, basicBlock));
+                        return;
+                }
+            }
+
+            reducer.ret(true);
+        }
+    }
+
+    protected static class ConditionalBranchFrame extends Frame {
+        protected ConditionalBranchFrame(BitSet visited, BasicBlock basicBlock) {
+            super(visited, basicBlock);
+        }
+
+        @Override
+        protected void resume(Reducer reducer) {
+            switch (state) {
+                case 0:
+                    while (aggregateConditionalBranches(basicBlock));
+
+                    assert basicBlock.matchType(GROUP_CONDITION);
+
+                    state = 1;
+                    reducer.call(visited, basicBlock.getNext());
+                    break;
+                case 1:
+                    reduced = reducer.result;
+                    state = 2;
+                    reducer.call(visited, basicBlock.getBranch());
+                    break;
+                default:
+                    if (reduced & reducer.result) {
+                        reducer.ret(reduceConditionalBranch(basicBlock));
+                    } else {
+                        reducer.ret(false);
+                    }
+            }
+        }
+    }
+
+    protected static class SwitchDeclarationFrame extends Frame {
+        protected BasicBlock end;
+        protected Iterator<SwitchCase> iterator;
+
+        protected SwitchDeclarationFrame(BitSet visited, BasicBlock basicBlock) {
+            super(visited, basicBlock);
+        }
+
+        @Override
+        protected void resume(Reducer reducer) {
+            switch (state) {
+                case 0:
+                    end = prepareSwitchDeclaration(basicBlock);
+                    reduced = true;
+                    iterator = basicBlock.getSwitchCases().iterator();
+                    state = 1;
+                    break;
+                case 1:
+                    if (iterator.hasNext()) {
+                        state = 2;
+                        reducer.call(visited, iterator.next().getBasicBlock());
+                    } else {
+                        updateSwitchDeclaration(basicBlock, end);
+                        state = 3;
+                        reducer.call(visited, basicBlock.getNext());
+                    }
+                    break;
+                case 2:
+                    reduced &= reducer.result;
+                    state = 1;
+                    break;
+                default:
+                    reducer.ret(reduced & reducer.result);
+            }
+        }
+    }
+
+    protected static class TryDeclarationFrame extends Frame {
+        protected BasicBlock finallyBB;
+        protected BasicBlock jsrTarget;
+        protected BasicBlock tryBB;
+        protected int maxOffset;
+        protected boolean tryWithResourcesFlag;
+        protected BasicBlock tryWithResourcesBB;
+        protected Iterator<ExceptionHandler> iterator;
+        protected ExceptionHandler exceptionHandler;
+
+        protected TryDeclarationFrame(BitSet visited, BasicBlock basicBlock) {
+            super(visited, basicBlock);
+        }
+
+        @Override
+        protected void resume(Reducer reducer) {
+            switch (state) {
+                case 0:
+                    reduced = true;
+
+                    for (ExceptionHandler exceptionHandler : basicBlock.getExceptionHandlers()) {
+                        if (exceptionHandler.getInternalThrowableName() == null) {
+                            this.exceptionHandler = exceptionHandler;
+                            state = 1;
+                            reducer.call(visited, exceptionHandler.getBasicBlock());
+                            return;
+                        }
+                    }
+
+                    state = 2;
+                    break;
+                case 1:
+                    reduced = reducer.result;
+                    finallyBB = exceptionHandler.getBasicBlock();
+                    state = 2;
+                    break;
+                case 2:
+                    jsrTarget = searchJsrTarget(basicBlock, reducer.jsrTargets);
+                    state = 3;
+                    reducer.call(visited, basicBlock.getNext());
+                    break;
+                case 3:
+                    reduced &= reducer.result;
+                    tryBB = basicBlock.getNext();
+
+                    if (tryBB.matchType(GROUP_SYNTHETIC)) {
+                        reducer.ret(false);
+                        return;
+                    }
+
+                    maxOffset = basicBlock.getFromOffset();
+                    tryWithResourcesFlag = true;
+                    iterator = basicBlock.getExceptionHandlers().iterator();
+                    state = 4;
+                    break;
+                case 4:
+                    if (iterator.hasNext()) {
+                        exceptionHandler = iterator.next();
+
+                        if (exceptionHandler.getInternalThrowableName() != null) {
+                            state = 5;
+                            reducer.call(visited, exceptionHandler.getBasicBlock());
+                        } else {
+                            state = 6;
+                        }
+                    } else {
+                        reducer.ret(updateTryDeclaration(basicBlock, reduced, finallyBB, jsrTarget, tryBB, maxOffset, tryWithResourcesFlag));
+                    }
+                    break;
+                case 5:
+                    reduced &= reducer.result;
+                    state = 6;
+                    break;
+                default:
+                    BasicBlock bb = exceptionHandler.getBasicBlock();
+
+                    if (bb.matchType(GROUP_SYNTHETIC)) {
+                        reducer.ret(false);
+                        return;
+                    }
+
+                    if (maxOffset < bb.getFromOffset()) {
+                        maxOffset = bb.getFromOffset();
+                    }
+
+                    if (tryWithResourcesFlag) {
+                        Set<BasicBlock> predecessors = bb.getPredecessors();
+
+                        if (predecessors.size() == 1) {
+                            tryWithResourcesFlag = false;
+                        } else {
+                            assert predecessors.size() == 2;
+
+                            if (tryWithResourcesBB == null) {
+                                for (BasicBlock predecessor : predecessors) {
+                                    if (predecessor != basicBlock) {
+                                        assert predecessor.getType() == TYPE_TRY_DECLARATION;
+                                        tryWithResourcesBB = predecessor;
+                                        break;
+                                    }
+                                }
+                            } else if (!predecessors.contains(tryWithResourcesBB)) {
+                                tryWithResourcesFlag = false;
+                            }
+                        }
+                    }
+                    state = 4;
+            }
+        }
+    }
+
+    protected static class JsrFrame extends Frame {
+        protected BasicBlock branch;
+
+        protected JsrFrame(BitSet visited, BasicBlock basicBlock) {
+            super(visited, basicBlock);
+        }
+
+        @Override
+        protected void resume(Reducer reducer) {
+            switch (state) {
+                case 0:
+                    branch = basicBlock.getBranch();
+                    state = 1;
+                    reducer.call(visited, basicBlock.getNext());
+                    break;
+                case 1:
+                    reduced = reducer.result;
+                    state = 2;
+                    reducer.call(visited, branch);
+                    break;
+                default:
+                    reducer.ret(updateJsr(basicBlock, branch, reduced & reducer.result, reducer.jsrTargets));
+            }
+        }
+    }
+
+    protected static class LoopFrame extends Frame {
+        protected BitSet clone;
+        protected BasicBlock updateBasicBlock;
+
+        protected LoopFrame(BitSet visited, BasicBlock basicBlock) {
+            super(visited, basicBlock);
+        }
+
+        @Override
+        protected void resume(Reducer reducer) {
+            switch (state) {
+                case 0:
+                    clone = (BitSet)visited.clone();
+                    state = 1;
+                    reducer.call(visited, basicBlock.getSub1());
+                    break;
+                case 1:
+                    reduced = reducer.result;
+
+                    if (reduced == false) {
+                        updateBasicBlock = searchUpdateBlockAndCreateContinueLoop(new BitSet(), basicBlock.getSub1());
+                        visited = (BitSet)clone.clone();
+                        state = 2;
+                        reducer.call(visited, basicBlock.getSub1());
+                    } else {
+                        state = 4;
+                    }
+                    break;
+                case 2:
+                    reduced = reducer.result;
+
+                    if (updateBasicBlock != null) {
+                        BasicBlock ifBasicBlock = basicBlock.getControlFlowGraph().newBasicBlock(TYPE_IF, basicBlock.getSub1().getFromOffset(), basicBlock.getToOffset());
+
+                        ifBasicBlock.setCondition(END);
+                        ifBasicBlock.setSub1(basicBlock.getSub1());
+                        ifBasicBlock.setNext(updateBasicBlock);
+                        updateBasicBlock.getPredecessors().add(ifBasicBlock);
+                        basicBlock.setSub1(ifBasicBlock);
+                    }
+
+                    state = 4;
+
+                    if (reduced == false) {
+                        BitSet visitedMembers = new BitSet();
+                        BasicBlock conditionalBranch = getLastConditionalBranch(visitedMembers, basicBlock.getSub1());
+
+                        if ((conditionalBranch != null) && (conditionalBranch.getNext() == LOOP_START)) {
+                            visitedMembers.clear();
+                            visitedMembers.set(conditionalBranch.getIndex());
+                            changeEndLoopToJump(visitedMembers, basicBlock.getNext(), basicBlock.getSub1());
+
+                            BasicBlock newLoopBB = basicBlock.getControlFlowGraph().newBasicBlock(basicBlock);
+                            Set<BasicBlock> predecessors = conditionalBranch.getPredecessors();
+
+                            for (BasicBlock predecessor : predecessors) {
+                                predecessor.replace(conditionalBranch, LOOP_END);
+                            }
+
+                            newLoopBB.setNext(conditionalBranch);
+                            predecessors.clear();
+                            predecessors.add(newLoopBB);
+                            basicBlock.setSub1(newLoopBB);
+
+                            visitedMembers.clear();
+                            state = 3;
+                            reducer.call(visitedMembers, newLoopBB);
+                        }
+                    }
+                    break;
+                case 3:
+                    reduced = reducer.result;
+                    state = 4;
+                    break;
+                case 4:
+                    state = 5;
+                    reducer.call(visited, basicBlock.getNext());
+                    break;
+                default:
+                    reducer.ret(reduced & reducer.result);
+            }
+        }
+    }
 }
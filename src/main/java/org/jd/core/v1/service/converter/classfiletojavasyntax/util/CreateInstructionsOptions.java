@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.service.converter.classfiletojavasyntax.util;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Options of the creation of the method bodies, parsed from the configuration (see UpdateJavaSyntaxTreeProcessor).
+ */
+public class CreateInstructionsOptions {
+    public static final CreateInstructionsOptions DEFAULT = new CreateInstructionsOptions(null, null);
+
+    protected boolean parallelMethods;
+    protected boolean outline;
+    protected Deadline classDeadline;
+    protected long methodTimeout;
+    protected Collection<String> degradedMembers;
+
+    /**
+     * @param configuration   'parallelMethods', 'outline', 'classTimeout' and 'methodTimeout' options, may be null.
+     *                        The time limit of the class starts now.
+     * @param degradedMembers If not null, receives "internalTypeName.nameDescriptor" for each method written as byte
+     *                        code past a deadline; updates are synchronized on the collection.
+     */
+    public CreateInstructionsOptions(Map<String, Object> configuration, Collection<String> degradedMembers) {
+        this.parallelMethods = getBoolean(configuration, "parallelMethods");
+        this.outline = getBoolean(configuration, "outline");
+        this.classDeadline = Deadline.after(getTimeout(configuration, "classTimeout"));
+        this.methodTimeout = getTimeout(configuration, "methodTimeout");
+        this.degradedMembers = degradedMembers;
+    }
+
+    /**
+     * @return true if the bodies of the non-synthetic methods of a type are created in parallel, by the current
+     *         fork/join pool or by the common pool
+     */
+    public boolean isParallelMethods() {
+        return parallelMethods;
+    }
+
+    /**
+     * @return true if byte code is not decompiled: the bodies of the non-abstract methods are replaced by a comment
+     */
+    public boolean isOutline() {
+        return outline;
+    }
+
+    /**
+     * @return the deadline of the bodies of the type, {@link Deadline#NONE} for none
+     */
+    public Deadline getClassDeadline() {
+        return classDeadline;
+    }
+
+    /**
+     * @return the time limit of each body in milliseconds, 0 for none
+     */
+    public long getMethodTimeout() {
+        return methodTimeout;
+    }
+
+    public Collection<String> getDegradedMembers() {
+        return degradedMembers;
+    }
+
+    protected static boolean getBoolean(Map<String, Object> configuration, String key) {
+        Object booleanConfiguration = (configuration == null) ? "false" : configuration.get(key);
+        return (booleanConfiguration == null) ? false : !"false".equals(booleanConfiguration.toString());
+    }
+
+    /**
+     * @return the timeout in milliseconds, 0 if not set or invalid
+     */
+    protected static long getTimeout(Map<String, Object> configuration, String key) {
+        Object timeoutConfiguration = (configuration == null) ? null : configuration.get(key);
+
+        if (timeoutConfiguration instanceof Number) {
+            return ((Number)timeoutConfiguration).longValue();
+        }
+
+        try {
+            return (timeoutConfiguration == null) ? 0 : Long.parseLong(timeoutConfiguration.toString().trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
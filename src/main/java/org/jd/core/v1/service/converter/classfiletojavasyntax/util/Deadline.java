@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.service.converter.classfiletojavasyntax.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time limit of the creation of a method body. The reducers, the statement maker and the local variable maker call
+ * {@link #check()} as they progress; once the time is over, the method is written as byte code (see
+ * CreateInstructionsVisitor).
+ */
+public class Deadline {
+    public static final Deadline NONE = new Deadline(0L);
+
+    protected long nanoTime;
+
+    protected Deadline(long nanoTime) {
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * @param timeout milliseconds, {@link #NONE} if less than or equal to 0
+     */
+    public static Deadline after(long timeout) {
+        return (timeout <= 0) ? NONE : new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout));
+    }
+
+    /**
+     * @return the earliest of this deadline and 'other'
+     */
+    public Deadline min(Deadline other) {
+        if (this == NONE) {
+            return other;
+        }
+        if (other == NONE) {
+            return this;
+        }
+        return (other.nanoTime - nanoTime < 0) ? other : this;
+    }
+
+    public boolean isExceeded() {
+        return (this != NONE) && (System.nanoTime() - nanoTime >= 0);
+    }
+
+    public void check() {
+        if ((this != NONE) && (System.nanoTime() - nanoTime >= 0)) {
+            throw new DeadlineExceededException();
+        }
+    }
+}
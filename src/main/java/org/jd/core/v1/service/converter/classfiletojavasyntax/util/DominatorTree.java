@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.service.converter.classfiletojavasyntax.util;
+
+import org.jd.core.v1.service.converter.classfiletojavasyntax.model.cfg.BasicBlock;
+import org.jd.core.v1.service.converter.classfiletojavasyntax.model.cfg.ControlFlowGraph;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Dominator tree of a control flow graph, built with the algorithm of Cooper, Harvey &amp; Kennedy ("A Simple, Fast
+ * Dominance Algorithm") over reverse postorder int arrays.<br><br>
+ *
+ * Edges are the predecessor relations of the basic blocks; the first basic block is the entry. As with the data flow
+ * formulation, a basic block unreachable from the entry is dominated by all basic blocks.
+ */
+public class DominatorTree {
+    protected static final int UNDEFINED = -1;
+
+    protected int length;
+    // Immediate dominators, by basic block index
+    protected int[] idoms;
+    // Preorder and postorder numbers in the dominator tree: 'a' dominates 'b' if the interval of 'b' is in the one of 'a'
+    protected int[] preorders;
+    protected int[] postorders;
+
+    protected DominatorTree() {}
+
+    public DominatorTree(ControlFlowGraph cfg) {
+        List<BasicBlock> list = cfg.getBasicBlocks();
+
+        length = list.size();
+        idoms = new int[length];
+
+        if (length == 0) {
+            preorders = postorders = idoms;
+            return;
+        }
+
+        // Build successor arrays from predecessor sets
+        int[][] predecessors = new int[length][];
+        int[] successorCounts = new int[length];
+
+        for (int i=0; i<length; i++) {
+            int[] indexes = toIndexes(list.get(i));
+            predecessors[i] = indexes;
+
+            for (int index : indexes) {
+                successorCounts[index]++;
+            }
+        }
+
+        int[][] successors = new int[length][];
+
+        for (int i=0; i<length; i++) {
+            successors[i] = new int[successorCounts[i]];
+            successorCounts[i] = 0;
+        }
+
+        for (int i=0; i<length; i++) {
+            for (int index : predecessors[i]) {
+                successors[index][successorCounts[index]++] = i;
+            }
+        }
+
+        // Number reachable basic blocks in postorder
+        int[] postorderNumbers = new int[length];
+        int[] reversePostorder = new int[length];
+        int count = depthFirstSearch(successors, 0, postorderNumbers, reversePostorder);
+
+        // Compute immediate dominators
+        for (int i=0; i<length; i++) {
+            idoms[i] = UNDEFINED;
+        }
+
+        idoms[0] = 0;
+
+        boolean change;
+
+        do {
+            change = false;
+
+            for (int i=1; i<count; i++) {
+                int index = reversePostorder[i];
+                int newIdom = UNDEFINED;
+
+                for (int predecessor : predecessors[index]) {
+                    if (idoms[predecessor] != UNDEFINED) {
+                        newIdom = (newIdom == UNDEFINED) ? predecessor : intersect(postorderNumbers, predecessor, newIdom);
+                    }
+                }
+
+                if (idoms[index] != newIdom) {
+                    idoms[index] = newIdom;
+                    change = true;
+                }
+            }
+        } while (change);
+
+        // Number the dominator tree
+        int[] childCounts = new int[length];
+
+        for (int i=1; i<length; i++) {
+            if (idoms[i] != UNDEFINED) {
+                childCounts[idoms[i]]++;
+            }
+        }
+
+        int[][] children = new int[length][];
+
+        for (int i=0; i<length; i++) {
+            children[i] = new int[childCounts[i]];
+            childCounts[i] = 0;
+        }
+
+        for (int i=1; i<length; i++) {
+            int idom = idoms[i];
+
+            if (idom != UNDEFINED) {
+                children[idom][childCounts[idom]++] = i;
+            }
+        }
+
+        preorders = new int[length];
+        postorders = new int[length];
+
+        for (int i=0; i<length; i++) {
+            preorders[i] = postorders[i] = UNDEFINED;
+        }
+
+        numberTree(children);
+    }
+
+    /**
+     * @return true if the basic block at index 'dominatorIndex' dominates the basic block at index 'index'.
+     */
+    public boolean dominates(int dominatorIndex, int index) {
+        if (preorders[index] == UNDEFINED) {
+            // Unreachable basic block
+            return true;
+        }
+
+        return (preorders[dominatorIndex] <= preorders[index]) && (postorders[index] <= postorders[dominatorIndex]);
+    }
+
+    public int getImmediateDominatorIndex(int index) {
+        return idoms[index];
+    }
+
+    /**
+     * @return the indexes of the dominators of the basic block at index 'index', 'index' included.
+     */
+    public BitSet getDominatorIndexes(int index) {
+        BitSet dominatorIndexes = new BitSet(length);
+
+        if (idoms[index] == UNDEFINED) {
+            // Unreachable basic block
+            dominatorIndexes.set(0, length);
+        } else {
+            dominatorIndexes.set(index);
+
+            while (index != 0) {
+                index = idoms[index];
+                dominatorIndexes.set(index);
+            }
+        }
+
+        return dominatorIndexes;
+    }
+
+    protected static int[] toIndexes(BasicBlock basicBlock) {
+        int[] indexes = new int[basicBlock.getPredecessors().size()];
+        int i = 0;
+
+        for (BasicBlock predecessor : basicBlock.getPredecessors()) {
+            indexes[i++] = predecessor.getIndex();
+        }
+
+        return indexes;
+    }
+
+    protected int intersect(int[] postorderNumbers, int finger1, int finger2) {
+        // Walk up the dominator tree to the closest common ancestor
+        while (finger1 != finger2) {
+            while (postorderNumbers[finger1] < postorderNumbers[finger2]) {
+                finger1 = idoms[finger1];
+            }
+            while (postorderNumbers[finger2] < postorderNumbers[finger1]) {
+                finger2 = idoms[finger2];
+            }
+        }
+
+        return finger1;
+    }
+
+    /**
+     * Iterative depth first search.
+     *
+     * @return the number of reachable basic blocks
+     */
+    protected static int depthFirstSearch(int[][] successors, int entry, int[] postorderNumbers, int[] reversePostorder) {
+        int length = successors.length;
+        int[] stack = new int[length];
+        int[] nextSuccessors = new int[length];
+        boolean[] visited = new boolean[length];
+        int top = 0;
+        int postorderNumber = 0;
+
+        stack[0] = entry;
+        visited[entry] = true;
+
+        while (top >= 0) {
+            int index = stack[top];
+            int[] indexSuccessors = successors[index];
+
+            if (nextSuccessors[index] < indexSuccessors.length) {
+                int successor = indexSuccessors[nextSuccessors[index]++];
+
+                if (!visited[successor]) {
+                    visited[successor] = true;
+                    stack[++top] = successor;
+                }
+            } else {
+                postorderNumbers[index] = postorderNumber++;
+                top--;
+            }
+        }
+
+        // Reverse postorder
+        for (int i=0; i<length; i++) {
+            if (visited[i]) {
+                reversePostorder[postorderNumber - 1 - postorderNumbers[i]] = i;
+            }
+        }
+
+        return postorderNumber;
+    }
+
+    protected void numberTree(int[][] children) {
+        int[] stack = new int[length];
+        int[] nextChildren = new int[length];
+        int top = 0;
+        int number = 0;
+
+        stack[0] = 0;
+        preorders[0] = number++;
+
+        while (top >= 0) {
+            int index = stack[top];
+            int[] indexChildren = children[index];
+
+            if (nextChildren[index] < indexChildren.length) {
+                int child = indexChildren[nextChildren[index]++];
+                preorders[child] = number++;
+                stack[++top] = child;
+            } else {
+                postorders[index] = number++;
+                top--;
+            }
+        }
+    }
+}
@@ -29,6 +29,11 @@ import java.util.HashSet;
 import java.util.List;
 
 import static org.jd.core.v1.model.javasyntax.declaration.MethodDeclaration.*;
+import static org.jd.core.v1.model.classfile.attribute.Attributes.CODE;
+import static org.jd.core.v1.model.classfile.attribute.Attributes.LOCAL_VARIABLE_TABLE;
+import static org.jd.core.v1.model.classfile.attribute.Attributes.LOCAL_VARIABLE_TYPE_TABLE;
+import static org.jd.core.v1.model.classfile.attribute.Attributes.RUNTIME_INVISIBLE_PARAMETER_ANNOTATIONS;
+import static org.jd.core.v1.model.classfile.attribute.Attributes.RUNTIME_VISIBLE_PARAMETER_ANNOTATIONS;
 
 public class LocalVariableMaker {
     protected LocalVariableSet localVariableSet = new LocalVariableSet();
@@ -43,6 +48,7 @@ public class LocalVariableMaker {
     protected PopulateBlackListNamesVisitor populateBlackListNamesVisitor = new PopulateBlackListNamesVisitor(blackListNames);
     protected CreateParameterVisitor createParameterVisitor;
     protected CreateLocalVariableVisitor createLocalVariableVisitor;
+    protected Deadline deadline = Deadline.NONE;
 
     @SuppressWarnings("unchecked")
     public LocalVariableMaker(TypeMaker typeMaker, ClassFileConstructorOrMethodDeclaration comdwln, boolean constructor, List<Type> parameterTypes) {
@@ -129,8 +135,8 @@ public class LocalVariableMaker {
             // Create list of parameterTypes
             formalParameters = new FormalParameters();
 
-            AttributeParameterAnnotations rvpa = method.getAttribute("RuntimeVisibleParameterAnnotations");
-            AttributeParameterAnnotations ripa = method.getAttribute("RuntimeInvisibleParameterAnnotations");
+            AttributeParameterAnnotations rvpa = method.getAttribute(RUNTIME_VISIBLE_PARAMETER_ANNOTATIONS);
+            AttributeParameterAnnotations ripa = method.getAttribute(RUNTIME_INVISIBLE_PARAMETER_ANNOTATIONS);
 
             if ((rvpa == null) && (ripa == null)) {
                 for (int parameterIndex=0, variableIndex=firstVariableIndex; parameterIndex<=lastParameterIndex; parameterIndex++, variableIndex++) {
@@ -168,11 +174,11 @@ public class LocalVariableMaker {
     }
 
     protected void initLocalVariablesFromAttributes(Method method) {
-        AttributeCode code = method.getAttribute("Code");
+        AttributeCode code = method.getAttribute(CODE);
 
         // Init local variables from attributes
         if (code != null) {
-            AttributeLocalVariableTable localVariableTable = code.getAttribute("LocalVariableTable");
+            AttributeLocalVariableTable localVariableTable = code.getAttribute(LOCAL_VARIABLE_TABLE);
 
             if (localVariableTable != null) {
                 boolean staticFlag = (method.getAccessFlags() & FLAG_STATIC) != 0;
@@ -202,7 +208,7 @@ public class LocalVariableMaker {
                 }
             }
 
-            AttributeLocalVariableTypeTable localVariableTypeTable = code.getAttribute("LocalVariableTypeTable");
+            AttributeLocalVariableTypeTable localVariableTypeTable = code.getAttribute(LOCAL_VARIABLE_TYPE_TABLE);
 
             if (localVariableTypeTable != null) {
                 UpdateTypeVisitor updateTypeVisitor = new UpdateTypeVisitor(localVariableSet);
@@ -218,9 +224,16 @@ public class LocalVariableMaker {
     protected void initLocalVariablesFromParameterTypes(ClassFile classFile, List<Type> parameterTypes, boolean varargs, int firstVariableIndex, int lastParameterIndex) {
         HashMap<Type, Boolean> typeMap = new HashMap<>();
 
-        for (int parameterIndex=0; parameterIndex<=lastParameterIndex; parameterIndex++) {
+        for (int parameterIndex=0, variableIndex=firstVariableIndex; parameterIndex<=lastParameterIndex; parameterIndex++, variableIndex++) {
             Type type = parameterTypes.get(parameterIndex);
-            typeMap.put(type, Boolean.valueOf(typeMap.containsKey(type)));
+
+            if (localVariableSet.root(variableIndex) == null) {
+                // Count the types of the parameters to name only, not the ones of the synthetic parameters
+                typeMap.put(type, Boolean.valueOf(typeMap.containsKey(type)));
+            }
+            if (PrimitiveType.TYPE_LONG.equals(type) || PrimitiveType.TYPE_DOUBLE.equals(type)) {
+                variableIndex++;
+            }
         }
 
         String parameterNamePrefix = "param";
@@ -472,8 +485,14 @@ public class LocalVariableMaker {
         return names.contains(name);
     }
 
+    public void setDeadline(Deadline deadline) {
+        this.deadline = deadline;
+    }
+
     public void make() {
+        deadline.check();
         currentFrame.createNames(blackListNames);
+        deadline.check();
         currentFrame.createDeclarations();
     }
 
@@ -482,6 +501,8 @@ public class LocalVariableMaker {
     }
 
     public void pushFrame(Statements statements) {
+        deadline.check();
+
         Frame parent = currentFrame;
         currentFrame = new Frame(currentFrame, statements);
         parent.addChild(currentFrame);
@@ -38,6 +38,7 @@ import org.jd.core.v1.util.DefaultStack;
 import java.util.*;
 
 import static org.jd.core.v1.service.converter.classfiletojavasyntax.model.cfg.BasicBlock.*;
+import static org.jd.core.v1.model.classfile.attribute.Attributes.CODE;
 
 public class StatementMaker {
     protected static final SwitchCaseComparator SWITCH_CASE_COMPARATOR = new SwitchCaseComparator();
@@ -58,6 +59,8 @@ public class StatementMaker {
     protected MemberVisitor memberVisitor = new MemberVisitor();
     protected boolean removeFinallyStatementsFlag = false;
     protected boolean mergeTryWithResourcesStatementFlag = false;
+    protected Deadline deadline = Deadline.NONE;
+    protected ArrayDeque<Runnable> completions = new ArrayDeque<>();
 
     public StatementMaker(
             TypeMaker typeMaker, LocalVariableMaker localVariableMaker,
@@ -78,6 +81,7 @@ public class StatementMaker {
         Statements jumps = new Statements();
         WatchDog watchdog = new WatchDog();
 
+        deadline = cfg.getDeadline();
         localVariableMaker.pushFrame(statements);
 
         // Generate statements
@@ -118,29 +122,46 @@ public class StatementMaker {
     }
 
     /**
-     * A recursive, next neighbour first, statements builder from basic blocks.
+     * A next neighbour first statements builder from basic blocks. Successive basic blocks are iterated; the work
+     * left to do once the following blocks are built is deferred to 'completions'. Only nested blocks recurse.
      *
      * @param basicBlock Current basic block
      * @param statements List to populate
      */
     @SuppressWarnings("unchecked")
     protected void makeStatements(WatchDog watchdog, BasicBlock basicBlock, Statements statements, Statements jumps) {
+        int completionCount = completions.size();
+
+        while (basicBlock != null) {
+            basicBlock = makeStatement(watchdog, basicBlock, statements, jumps);
+        }
+
+        while (completions.size() > completionCount) {
+            completions.pop().run();
+        }
+    }
+
+    /**
+     * @return the next basic block to build, or null
+     */
+    @SuppressWarnings("unchecked")
+    protected BasicBlock makeStatement(WatchDog watchdog, BasicBlock basicBlock, Statements statements, Statements jumps) {
         Statements subStatements, elseStatements;
         Expression condition, exp1, exp2;
 
+        deadline.check();
+
         switch (basicBlock.getType()) {
             case TYPE_START:
                 watchdog.check(basicBlock, basicBlock.getNext());
-                makeStatements(watchdog, basicBlock.getNext(), statements, jumps);
-                break;
+                return basicBlock.getNext();
             case TYPE_END:
                 break;
             case TYPE_STATEMENTS:
                 watchdog.check(basicBlock, basicBlock.getNext());
             case TYPE_THROW:
                 parseByteCode(basicBlock, statements);
-                makeStatements(watchdog, basicBlock.getNext(), statements, jumps);
-                break;
+                return basicBlock.getNext();
             case TYPE_RETURN:
                 statements.add(ReturnStatement.RETURN);
                 break;
@@ -149,29 +170,23 @@ public class StatementMaker {
                 parseByteCode(basicBlock, statements);
                 break;
             case TYPE_SWITCH:
-                parseSwitch(watchdog, basicBlock, statements, jumps);
-                break;
+                return parseSwitch(watchdog, basicBlock, statements, jumps);
             case TYPE_SWITCH_BREAK:
                 statements.add(BreakStatement.BREAK);
                 break;
             case TYPE_TRY:
-                parseTry(watchdog, basicBlock, statements, jumps, false, false);
-                break;
+                return parseTry(watchdog, basicBlock, statements, jumps, false, false);
             case TYPE_TRY_JSR:
-                parseTry(watchdog, basicBlock, statements, jumps, true, false);
-                break;
+                return parseTry(watchdog, basicBlock, statements, jumps, true, false);
             case TYPE_TRY_ECLIPSE:
-                parseTry(watchdog, basicBlock, statements, jumps, false, true);
-                break;
+                return parseTry(watchdog, basicBlock, statements, jumps, false, true);
             case TYPE_JSR:
-                parseJSR(watchdog, basicBlock, statements, jumps);
-                break;
+                return parseJSR(watchdog, basicBlock, statements, jumps);
             case TYPE_RET:
                 parseByteCode(basicBlock, statements);
                 break;
             case TYPE_IF:
-                parseIf(watchdog, basicBlock, statements, jumps);
-                break;
+                return parseIf(watchdog, basicBlock, statements, jumps);
             case TYPE_IF_ELSE:
                 watchdog.check(basicBlock, basicBlock.getCondition());
                 makeStatements(watchdog, basicBlock.getCondition(), statements, jumps);
@@ -186,8 +201,7 @@ public class StatementMaker {
                 elseStatements = makeSubStatements(watchdog, basicBlock.getSub2(), statements, jumps);
                 statements.add(new IfElseStatement(condition, subStatements, elseStatements));
                 watchdog.check(basicBlock, basicBlock.getNext());
-                makeStatements(watchdog, basicBlock.getNext(), statements, jumps);
-                break;
+                return basicBlock.getNext();
             case TYPE_CONDITION:
                 parseByteCode(basicBlock, statements);
                 break;
@@ -234,11 +248,9 @@ public class StatementMaker {
                 exp2 = makeExpression(watchdog, basicBlock.getSub2(), statements, jumps);
                 stack.push(parseTernaryOperator(basicBlock.getFirstLineNumber(), condition, exp1, exp2));
                 watchdog.check(basicBlock, basicBlock.getNext());
-                makeStatements(watchdog, basicBlock.getNext(), statements, jumps);
-                break;
+                return basicBlock.getNext();
             case TYPE_LOOP:
-                parseLoop(watchdog, basicBlock, statements, jumps);
-                break;
+                return parseLoop(watchdog, basicBlock, statements, jumps);
             case TYPE_LOOP_START:
             case TYPE_LOOP_CONTINUE:
                 statements.add(ContinueStatement.CONTINUE);
@@ -258,6 +270,8 @@ public class StatementMaker {
                 assert false : "Unexpected basic block: " + basicBlock.getTypeName() + ':' + basicBlock.getIndex();
                 break;
         }
+
+        return null;
     }
 
     protected Statements<Statement> makeSubStatements(WatchDog watchdog, BasicBlock basicBlock, Statements<Statement> statements, Statements jumps, Statements<Statement> updateStatements) {
@@ -325,7 +339,7 @@ public class StatementMaker {
         }
     }
 
-    protected void parseSwitch(WatchDog watchdog, BasicBlock basicBlock, Statements<Statement> statements, Statements jumps) {
+    protected BasicBlock parseSwitch(WatchDog watchdog, BasicBlock basicBlock, Statements<Statement> statements, Statements jumps) {
         parseByteCode(basicBlock, statements);
 
         List<SwitchCase> switchCases = basicBlock.getSwitchCases();
@@ -380,11 +394,11 @@ public class StatementMaker {
             SwitchStatementMaker.makeSwitchEnum(bodyDeclaration, switchStatement);
         }
 
-        makeStatements(watchdog, basicBlock.getNext(), statements, jumps);
+        return basicBlock.getNext();
     }
 
     @SuppressWarnings("unchecked")
-    protected void parseTry(WatchDog watchdog, BasicBlock basicBlock, Statements statements, Statements jumps, boolean jsr, boolean eclipse) {
+    protected BasicBlock parseTry(WatchDog watchdog, BasicBlock basicBlock, Statements statements, Statements jumps, boolean jsr, boolean eclipse) {
         Statements tryStatements;
         DefaultList<TryStatement.CatchClause> catchClauses = new DefaultList<>();
         Statements<Statement> finallyStatements = null;
@@ -447,7 +461,7 @@ public class StatementMaker {
                 int index = ByteCodeParser.getExceptionLocalVariableIndex(bb);
                 ObjectType ot = typeMaker.makeFromInternalTypeName(exceptionHandler.getInternalThrowableName());
                 int offset = bb.getFromOffset();
-                byte[] code = bb.getControlFlowGraph().getMethod().<AttributeCode>getAttribute("Code").getCode();
+                byte[] code = bb.getControlFlowGraph().getMethod().<AttributeCode>getAttribute(CODE).getCode();
 
                 if (code[offset] == 58) {
                     offset += 2; // ASTORE
@@ -501,7 +515,7 @@ public class StatementMaker {
         }
 
         statements.add(statement);
-        makeStatements(watchdog, basicBlock.getNext(), statements, jumps);
+        return basicBlock.getNext();
     }
 
     protected void removeExceptionReference(Statements catchStatements) {
@@ -520,25 +534,28 @@ public class StatementMaker {
         }
     }
 
-    protected void parseJSR(WatchDog watchdog, BasicBlock basicBlock, Statements<Statement> statements, Statements jumps) {
+    protected BasicBlock parseJSR(WatchDog watchdog, BasicBlock basicBlock, Statements<Statement> statements, Statements jumps) {
         int statementCount = statements.size();
 
         parseByteCode(basicBlock, statements);
         makeStatements(watchdog, basicBlock.getBranch(), statements, jumps);
-        makeStatements(watchdog, basicBlock.getNext(), statements, jumps);
 
-        // Remove synthetic local variable
-        ExpressionStatement es = (ExpressionStatement)statements.get(statementCount);
-        BinaryOperatorExpression boe = (BinaryOperatorExpression)es.getExpression();
-        ClassFileLocalVariableReferenceExpression vre = (ClassFileLocalVariableReferenceExpression)boe.getLeftExpression();
+        completions.push(() -> {
+            // Remove synthetic local variable
+            ExpressionStatement es = (ExpressionStatement)statements.get(statementCount);
+            BinaryOperatorExpression boe = (BinaryOperatorExpression)es.getExpression();
+            ClassFileLocalVariableReferenceExpression vre = (ClassFileLocalVariableReferenceExpression)boe.getLeftExpression();
 
-        localVariableMaker.removeLocalVariable(vre.getLocalVariable());
-        // Remove first statement (storage of JSR return offset)
-        statements.remove(statementCount);
+            localVariableMaker.removeLocalVariable(vre.getLocalVariable());
+            // Remove first statement (storage of JSR return offset)
+            statements.remove(statementCount);
+        });
+
+        return basicBlock.getNext();
     }
 
     @SuppressWarnings("unchecked")
-    protected void parseIf(WatchDog watchdog, BasicBlock basicBlock, Statements statements, Statements jumps) {
+    protected BasicBlock parseIf(WatchDog watchdog, BasicBlock basicBlock, Statements statements, Statements jumps) {
         BasicBlock condition = basicBlock.getCondition();
 
         if (condition.getType() == BasicBlock.TYPE_CONDITION_AND) {
@@ -571,7 +588,6 @@ public class StatementMaker {
             }
 
             statements.add(new AssertStatement(cond, message));
-            makeStatements(watchdog, basicBlock.getNext(), statements, jumps);
         } else {
             makeStatements(watchdog, basicBlock.getCondition(), statements, jumps);
             Expression cond = stack.pop();
@@ -582,28 +598,31 @@ public class StatementMaker {
             }
             statements.add(new IfStatement(cond, subStatements));
             int index = statements.size();
-            makeStatements(watchdog, basicBlock.getNext(), statements, jumps);
 
-            if ((subStatements.size() == 1) &&
-                    (index+1 == statements.size()) &&
-                    (subStatements.get(0).getClass() == ReturnExpressionStatement.class) &&
-                    (statements.get(index).getClass() == ReturnExpressionStatement.class)) {
-                ReturnExpressionStatement cfres1 = (ReturnExpressionStatement)subStatements.get(0);
+            completions.push(() -> {
+                if ((subStatements.size() == 1) &&
+                        (index+1 == statements.size()) &&
+                        (subStatements.get(0).getClass() == ReturnExpressionStatement.class) &&
+                        (statements.get(index).getClass() == ReturnExpressionStatement.class)) {
+                    ReturnExpressionStatement cfres1 = (ReturnExpressionStatement)subStatements.get(0);
 
-                if (cond.getLineNumber() >= cfres1.getLineNumber()) {
-                    ReturnExpressionStatement cfres2 = (ReturnExpressionStatement)statements.get(index);
+                    if (cond.getLineNumber() >= cfres1.getLineNumber()) {
+                        ReturnExpressionStatement cfres2 = (ReturnExpressionStatement)statements.get(index);
 
-                    if (cfres1.getLineNumber() == cfres2.getLineNumber()) {
-                        statements.subList(index-1, statements.size()).clear();
-                        statements.add(new ReturnExpressionStatement(new TernaryOperatorExpression(cfres1.getLineNumber(), cond, cfres1.getExpression(), cfres2.getExpression())));
+                        if (cfres1.getLineNumber() == cfres2.getLineNumber()) {
+                            statements.subList(index-1, statements.size()).clear();
+                            statements.add(new ReturnExpressionStatement(new TernaryOperatorExpression(cfres1.getLineNumber(), cond, cfres1.getExpression(), cfres2.getExpression())));
+                        }
                     }
                 }
-            }
+            });
         }
+
+        return basicBlock.getNext();
     }
 
     @SuppressWarnings("unchecked")
-    protected void parseLoop(WatchDog watchdog, BasicBlock basicBlock, Statements statements, Statements jumps) {
+    protected BasicBlock parseLoop(WatchDog watchdog, BasicBlock basicBlock, Statements statements, Statements jumps) {
         BasicBlock sub1 = basicBlock.getSub1();
         Statements<Statement> updateStatements = null;
 
@@ -619,8 +638,7 @@ public class StatementMaker {
                 // 'while' or 'for' loop
                 makeStatements(watchdog, ifBB.getCondition(), statements, jumps);
                 statements.add(LoopStatementMaker.makeLoop(localVariableMaker, basicBlock, statements, stack.pop(), makeSubStatements(watchdog, ifBB.getSub1(), statements, jumps, updateStatements), jumps));
-                makeStatements(watchdog, basicBlock.getNext(), statements, jumps);
-                return;
+                return basicBlock.getNext();
             }
 
             if (ifBB.getSub1() == LOOP_END) {
@@ -640,8 +658,7 @@ public class StatementMaker {
                     statements.add(LoopStatementMaker.makeLoop(localVariableMaker, basicBlock, statements, stack.pop(), makeSubStatements(watchdog, ifBB.getNext(), statements, jumps, updateStatements), jumps));
                 }
 
-                makeStatements(watchdog, basicBlock.getNext(), statements, jumps);
-                return;
+                return basicBlock.getNext();
             }
         }
 
@@ -679,7 +696,7 @@ public class StatementMaker {
             statements.add(LoopStatementMaker.makeLoop(basicBlock, statements, makeSubStatements(watchdog, sub1, statements, jumps, updateStatements), jumps));
         }
 
-        makeStatements(watchdog, basicBlock.getNext(), statements, jumps);
+        return basicBlock.getNext();
     }
 
     protected int countStartLoop(BasicBlock bb) {
@@ -875,25 +892,28 @@ public class StatementMaker {
 
     @SuppressWarnings("unchecked")
     protected Expression createObjectTypeReferenceDotClassExpression(int lineNumber, String fieldName, MethodInvocationExpression mie) {
-        // Add SYNTHETIC flags to field
-        memberVisitor.init(fieldName);
-
-        for (ClassFileFieldDeclaration field : bodyDeclaration.getFieldDeclarations()) {
-            field.getFieldDeclarators().accept(memberVisitor);
-            if (memberVisitor.found()) {
-                field.setFlags(field.getFlags() | Constants.ACC_SYNTHETIC);
-                break;
+        // Methods of a type may be created concurrently: lock the body declaration while updating the flags of its members
+        synchronized (bodyDeclaration) {
+            // Add SYNTHETIC flags to field
+            memberVisitor.init(fieldName);
+
+            for (ClassFileFieldDeclaration field : bodyDeclaration.getFieldDeclarations()) {
+                field.getFieldDeclarators().accept(memberVisitor);
+                if (memberVisitor.found()) {
+                    field.setFlags(field.getFlags() | Constants.ACC_SYNTHETIC);
+                    break;
+                }
             }
-        }
 
-        // Add SYNTHETIC flags to method named 'class$'
-        memberVisitor.init("class$");
+            // Add SYNTHETIC flags to method named 'class$'
+            memberVisitor.init("class$");
 
-        for (ClassFileConstructorOrMethodDeclaration member : bodyDeclaration.getMethodDeclarations()) {
-            member.accept(memberVisitor);
-            if (memberVisitor.found()) {
-                member.setFlags(member.getFlags() | Constants.ACC_SYNTHETIC);
-                break;
+            for (ClassFileConstructorOrMethodDeclaration member : bodyDeclaration.getMethodDeclarations()) {
+                member.accept(memberVisitor);
+                if (memberVisitor.found()) {
+                    member.setFlags(member.getFlags() | Constants.ACC_SYNTHETIC);
+                    break;
+                }
             }
         }
 
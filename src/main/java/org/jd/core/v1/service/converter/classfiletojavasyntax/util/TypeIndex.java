@@ -0,0 +1,544 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.service.converter.classfiletojavasyntax.util;
+
+import org.jd.core.v1.api.loader.BatchLoader;
+import org.jd.core.v1.api.loader.ByteBufferLoader;
+import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.model.classfile.ClassFile;
+import org.jd.core.v1.model.classfile.attribute.AttributeInnerClasses;
+import org.jd.core.v1.model.classfile.attribute.Attributes;
+import org.jd.core.v1.model.classfile.attribute.InnerClass;
+import org.jd.core.v1.service.deserializer.classfile.ClassFileFormatException;
+import org.jd.core.v1.service.deserializer.classfile.ClassFileReader;
+import org.jd.core.v1.util.ConcurrentLruCache;
+import org.jd.core.v1.util.DefaultList;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Relations between the types of a loader: access flags, super type, interfaces and entries of the 'InnerClasses'
+ * attribute.<br><br>
+ *
+ * Entries are read on demand from the class files, without decoding the whole constant pool: only the names of the
+ * classes used by these relations are decoded. Instances are thread safe and bounded.<br><br>
+ *
+ * An index can be backed by a {@link TypeIndexFile}, consulted before the loader; entries read from the loader are
+ * then kept to be saved.<br><br>
+ *
+ * With a {@link BatchLoader}, types can be requested before they are needed with {@link #prefetch(Collection)}; at
+ * most {@link #MAX_PENDING_LOADS} loads are pending at once.
+ */
+public class TypeIndex {
+    public static final int DEFAULT_MAX_SIZE = 1024 * 16;
+    public static final int MAX_PENDING_LOADS = 256;
+
+    protected static final Entry NOT_FOUND = new Entry(0, null, null, null);
+    protected static final byte[] INNER_CLASSES = { 'I', 'n', 'n', 'e', 'r', 'C', 'l', 'a', 's', 's', 'e', 's' };
+
+    protected Loader loader;
+    protected ConcurrentLruCache<String, Entry> entries;
+    protected TypeIndexFile file;
+    protected ConcurrentHashMap<String, Entry> newEntries;
+    protected ConcurrentLruCache<String, CompletableFuture<byte[]>> pendingLoads;
+
+    public TypeIndex(Loader loader) {
+        this(loader, null, DEFAULT_MAX_SIZE);
+    }
+
+    public TypeIndex(Loader loader, int maxSize) {
+        this(loader, null, maxSize);
+    }
+
+    public TypeIndex(Loader loader, TypeIndexFile file) {
+        this(loader, file, DEFAULT_MAX_SIZE);
+    }
+
+    public TypeIndex(Loader loader, TypeIndexFile file, int maxSize) {
+        this.loader = loader;
+        this.entries = new ConcurrentLruCache<>(maxSize);
+        this.file = file;
+
+        if (file != null) {
+            this.newEntries = new ConcurrentHashMap<>();
+        }
+
+        if (loader instanceof BatchLoader) {
+            this.pendingLoads = new ConcurrentLruCache<>(Math.min(maxSize, MAX_PENDING_LOADS));
+        }
+    }
+
+    public Loader getLoader() {
+        return loader;
+    }
+
+    /**
+     * @return the entry of the type, or null if the loader can not load it.
+     */
+    public Entry getEntry(String internalTypeName) throws Exception {
+        Entry entry = entries.get(internalTypeName);
+
+        if ((entry == null) && (file != null)) {
+            entry = file.get(internalTypeName);
+
+            if (entry != null) {
+                entries.put(internalTypeName, entry);
+            }
+        }
+
+        if (entry == null) {
+            ClassFileReader reader = newReader(internalTypeName);
+
+            if (reader == null) {
+                entry = NOT_FOUND;
+            } else {
+                entry = read(reader);
+
+                if (newEntries != null) {
+                    newEntries.put(internalTypeName, entry);
+                }
+            }
+
+            entries.put(internalTypeName, entry);
+        }
+
+        return (entry == NOT_FOUND) ? null : entry;
+    }
+
+    /**
+     * @return true if the type is found in the index or if the loader can load it.
+     */
+    public boolean canLoad(String internalTypeName) {
+        Entry entry = entries.get(internalTypeName);
+
+        if (entry != null) {
+            return entry != NOT_FOUND;
+        }
+
+        if ((file != null) && (file.get(internalTypeName) != null)) {
+            return true;
+        }
+
+        if ((pendingLoads != null) && (pendingLoads.get(internalTypeName) != null)) {
+            try {
+                return getEntry(internalTypeName) != null;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        return loader.canLoad(internalTypeName);
+    }
+
+    /**
+     * Index a deserialized class file and its inner class files, so that they are neither prefetched nor loaded again.
+     * These entries are not saved to the backing file: the access flags of the inner types are the ones of the
+     * 'InnerClasses' attribute of their outer type, not the ones of their class files.
+     */
+    public void index(ClassFile classFile) {
+        String internalTypeName = classFile.getInternalTypeName();
+
+        if ((entries.get(internalTypeName) == null) && ((file == null) || (file.get(internalTypeName) == null))) {
+            String[] interfaceTypeNames = classFile.getInterfaceTypeNames();
+            int count = (interfaceTypeNames == null) ? 0 : interfaceTypeNames.length;
+            String[] superClassAndInterfaceNames = new String[count + 1];
+            AttributeInnerClasses aic = classFile.getAttribute(Attributes.INNER_CLASSES);
+
+            superClassAndInterfaceNames[0] = classFile.getSuperTypeName();
+
+            if (count > 0) {
+                System.arraycopy(interfaceTypeNames, 0, superClassAndInterfaceNames, 1, count);
+            }
+
+            if (aic == null) {
+                entries.put(internalTypeName, new Entry(classFile.getAccessFlags(), superClassAndInterfaceNames, null, null));
+            } else {
+                InnerClass[] innerClasses = aic.getInnerClasses();
+                String[] innerTypeNames = new String[innerClasses.length];
+                String[] outerTypeNames = new String[innerClasses.length];
+
+                for (int i=0, len=innerClasses.length; i<len; i++) {
+                    innerTypeNames[i] = innerClasses[i].getInnerTypeName();
+                    outerTypeNames[i] = innerClasses[i].getOuterTypeName();
+                }
+
+                entries.put(internalTypeName, new Entry(classFile.getAccessFlags(), superClassAndInterfaceNames, innerTypeNames, outerTypeNames));
+            }
+        }
+
+        if (classFile.getInnerClassFiles() != null) {
+            for (ClassFile innerClassFile : classFile.getInnerClassFiles()) {
+                index(innerClassFile);
+            }
+        }
+    }
+
+    /**
+     * Start loading the types not yet indexed, if the loader is a {@link BatchLoader}. Names beyond the free slots of
+     * the pending loads are left to be loaded on demand.
+     */
+    public void prefetch(Collection<String> internalTypeNames) {
+        if (pendingLoads != null) {
+            DefaultList<String> names = new DefaultList<>();
+            int freeCount = MAX_PENDING_LOADS - pendingLoads.size();
+
+            for (String internalTypeName : internalTypeNames) {
+                if (names.size() >= freeCount) {
+                    break;
+                }
+                if ((entries.get(internalTypeName) == null) && (pendingLoads.get(internalTypeName) == null) && ((file == null) || (file.get(internalTypeName) == null))) {
+                    names.add(internalTypeName);
+                }
+            }
+
+            if (!names.isEmpty()) {
+                for (Map.Entry<String, CompletableFuture<byte[]>> entry : ((BatchLoader)loader).loadAll(names).entrySet()) {
+                    pendingLoads.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the super type name followed by the interface names, or null if the loader can not load the type.
+     */
+    public String[] getSuperClassAndInterfaceNames(String internalTypeName) throws Exception {
+        Entry entry = getEntry(internalTypeName);
+        return (entry == null) ? null : entry.superClassAndInterfaceNames;
+    }
+
+    /**
+     * @return the name of the type declaring 'internalTypeName', or null if 'internalTypeName' is a top level type.
+     */
+    public String getOuterTypeName(String internalTypeName) throws Exception {
+        Entry entry = getEntry(internalTypeName);
+
+        if ((entry == null) || (entry.innerTypeNames == null)) {
+            return null;
+        }
+
+        String[] innerTypeNames = entry.innerTypeNames;
+
+        for (int i=0, len=innerTypeNames.length; i<len; i++) {
+            if (internalTypeName.equals(innerTypeNames[i])) {
+                String outerTypeName = entry.outerTypeNames[i];
+
+                if (outerTypeName == null) {
+                    // Synthetic inner class -> Search outer class
+                    int lastDollar = internalTypeName.lastIndexOf('$');
+
+                    if (lastDollar != -1) {
+                        outerTypeName = internalTypeName.substring(0, lastDollar);
+
+                        if (declaresInnerType(outerTypeName, internalTypeName)) {
+                            return outerTypeName;
+                        }
+                    }
+
+                    return null;
+                } else {
+                    return outerTypeName;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    public void clear() {
+        entries.clear();
+
+        if (pendingLoads != null) {
+            pendingLoads.clear();
+        }
+    }
+
+    /**
+     * @return true if entries have been read from the loader since the backing file has been opened.
+     */
+    public boolean hasNewEntries() {
+        return (newEntries != null) && !newEntries.isEmpty();
+    }
+
+    /**
+     * Write the entries of the backing file and the new entries to 'path'. The loader of the index must be the loader
+     * of the archive; see {@link #save(Path, Loader)}.
+     */
+    public void save(Path path) throws IOException {
+        save(path, loader);
+    }
+
+    /**
+     * Write the entries of the backing file and the new entries of the types of 'archiveLoader' to 'path': with a
+     * loader searching several archives, the file of an archive receives the types of this archive only.
+     */
+    public void save(Path path, Loader archiveLoader) throws IOException {
+        if (file == null)
+            throw new IllegalStateException("Index without backing file");
+
+        HashMap<String, Entry> map = new HashMap<>(file.size() + newEntries.size());
+
+        file.forEach(map::put);
+
+        for (Map.Entry<String, Entry> entry : newEntries.entrySet()) {
+            if ((archiveLoader == loader) || archiveLoader.canLoad(entry.getKey())) {
+                map.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        TypeIndexFile.write(path, map);
+    }
+
+    protected boolean declaresInnerType(String outerTypeName, String innerTypeName) throws Exception {
+        Entry entry = getEntry(outerTypeName);
+
+        if ((entry != null) && (entry.innerTypeNames != null)) {
+            for (String name : entry.innerTypeNames) {
+                if (innerTypeName.equals(name)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    protected ClassFileReader newReader(String internalTypeName) throws Exception {
+        CompletableFuture<byte[]> future = (pendingLoads == null) ? null : pendingLoads.remove(internalTypeName);
+
+        if (future != null) {
+            byte[] data;
+
+            try {
+                data = future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw (cause instanceof Exception) ? (Exception)cause : e;
+            }
+
+            return (data == null) ? null : new ClassFileReader(data);
+        }
+
+        if (loader instanceof ByteBufferLoader) {
+            ByteBuffer buffer = ((ByteBufferLoader)loader).loadByteBuffer(internalTypeName);
+            return (buffer == null) ? null : new ClassFileReader(buffer);
+        } else {
+            byte[] data = loader.load(internalTypeName);
+            return (data == null) ? null : new ClassFileReader(data);
+        }
+    }
+
+    /**
+     * @return the entry of the class file read by 'reader'
+     */
+    public static Entry read(ClassFileReader reader) throws Exception {
+        int magic = reader.readInt();
+
+        if (magic != ClassFileReader.JAVA_MAGIC_NUMBER)
+            throw new ClassFileFormatException("Invalid CLASS file");
+
+        // Skip 'minorVersion', 'majorVersion'
+        reader.skip(2 * 2);
+
+        int[] constantOffsets = readConstantOffsets(reader);
+        int accessFlags = reader.readUnsignedShort();
+
+        // Skip 'thisClassIndex'
+        reader.skip(2);
+
+        // Read super class and interface names
+        int superClassIndex = reader.readUnsignedShort();
+        int count = reader.readUnsignedShort();
+        String[] superClassAndInterfaceNames = new String[count + 1];
+
+        superClassAndInterfaceNames[0] = readClassName(reader, constantOffsets, superClassIndex);
+
+        for (int i = 1; i <= count; i++) {
+            superClassAndInterfaceNames[i] = readClassName(reader, constantOffsets, reader.readUnsignedShort());
+        }
+
+        // Skip fields & methods
+        skipMembers(reader);
+        skipMembers(reader);
+
+        // Read attribute 'InnerClasses'
+        count = reader.readUnsignedShort();
+
+        for (int i = 0; i < count; i++) {
+            int attributeNameIndex = reader.readUnsignedShort();
+            int attributeLength = reader.readInt();
+
+            if (isInnerClasses(reader, constantOffsets[attributeNameIndex])) {
+                int innerClassCount = reader.readUnsignedShort();
+                int[] indexes = new int[innerClassCount * 2];
+
+                for (int j = 0; j < innerClassCount; j++) {
+                    indexes[j * 2] = reader.readUnsignedShort();
+                    indexes[j * 2 + 1] = reader.readUnsignedShort();
+                    // Skip 'innerNameIndex' & innerAccessFlags'
+                    reader.skip(2 * 2);
+                }
+
+                String[] innerTypeNames = new String[innerClassCount];
+                String[] outerTypeNames = new String[innerClassCount];
+
+                for (int j = 0; j < innerClassCount; j++) {
+                    innerTypeNames[j] = readClassName(reader, constantOffsets, indexes[j * 2]);
+                    outerTypeNames[j] = readClassName(reader, constantOffsets, indexes[j * 2 + 1]);
+                }
+
+                return new Entry(accessFlags, superClassAndInterfaceNames, innerTypeNames, outerTypeNames);
+            } else {
+                reader.skip(attributeLength);
+            }
+        }
+
+        return new Entry(accessFlags, superClassAndInterfaceNames, null, null);
+    }
+
+    protected static int[] readConstantOffsets(ClassFileReader reader) {
+        int count = reader.readUnsignedShort();
+        int[] constantOffsets = new int[count];
+
+        for (int i=1; i<count; i++) {
+            constantOffsets[i] = reader.getOffset();
+
+            int tag = reader.readByte();
+
+            switch (tag) {
+                case 1:
+                    reader.skip(reader.readUnsignedShort());
+                    break;
+                case 7: case 8: case 16: case 19: case 20:
+                    reader.skip(2);
+                    break;
+                case 15:
+                    reader.skip(3);
+                    break;
+                case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18:
+                    reader.skip(4);
+                    break;
+                case 5: case 6:
+                    reader.skip(8);
+                    i++;
+                    break;
+                default:
+                    throw new ClassFileFormatException("Invalid constant pool entry");
+            }
+        }
+
+        return constantOffsets;
+    }
+
+    protected static String readClassName(ClassFileReader reader, int[] constantOffsets, int classIndex) throws Exception {
+        if (classIndex == 0) {
+            return null;
+        }
+
+        int offset = reader.getOffset();
+
+        try {
+            // Skip tag of 'ConstantClass'
+            reader.setOffset(constantOffsets[classIndex] + 1);
+            // Skip tag of 'ConstantUtf8'
+            reader.setOffset(constantOffsets[reader.readUnsignedShort()] + 1);
+            return reader.readUTF8();
+        } finally {
+            reader.setOffset(offset);
+        }
+    }
+
+    protected static boolean isInnerClasses(ClassFileReader reader, int constantOffset) {
+        int offset = reader.getOffset();
+
+        try {
+            // Skip tag of 'ConstantUtf8'
+            reader.setOffset(constantOffset + 1);
+
+            if (reader.readUnsignedShort() != INNER_CLASSES.length) {
+                return false;
+            }
+
+            for (byte b : INNER_CLASSES) {
+                if (reader.readByte() != b) {
+                    return false;
+                }
+            }
+
+            return true;
+        } finally {
+            reader.setOffset(offset);
+        }
+    }
+
+    protected static void skipMembers(ClassFileReader reader) {
+        int count = reader.readUnsignedShort();
+
+        for (int i = 0; i < count; i++) {
+            // skip 'accessFlags', 'nameIndex', 'signatureIndex'
+            reader.skip(3 * 2);
+
+            int attributeCount = reader.readUnsignedShort();
+
+            for (int j = 0; j < attributeCount; j++) {
+                // skip 'attributeNameIndex'
+                reader.skip(2);
+                reader.skip(reader.readInt());
+            }
+        }
+    }
+
+    public static class Entry {
+        protected int accessFlags;
+        protected String[] superClassAndInterfaceNames;
+        protected String[] innerTypeNames;
+        protected String[] outerTypeNames;
+
+        public Entry(int accessFlags, String[] superClassAndInterfaceNames, String[] innerTypeNames, String[] outerTypeNames) {
+            this.accessFlags = accessFlags;
+            this.superClassAndInterfaceNames = superClassAndInterfaceNames;
+            this.innerTypeNames = innerTypeNames;
+            this.outerTypeNames = outerTypeNames;
+        }
+
+        public int getAccessFlags() {
+            return accessFlags;
+        }
+
+        public String getSuperTypeName() {
+            return superClassAndInterfaceNames[0];
+        }
+
+        public String[] getSuperClassAndInterfaceNames() {
+            return superClassAndInterfaceNames;
+        }
+
+        /**
+         * @return the 'inner_class_info' names of the 'InnerClasses' attribute, or null if the attribute is missing.
+         */
+        public String[] getInnerTypeNames() {
+            return innerTypeNames;
+        }
+
+        /**
+         * @return the 'outer_class_info' names of the 'InnerClasses' attribute; null elements for local and anonymous
+         * types.
+         */
+        public String[] getOuterTypeNames() {
+            return outerTypeNames;
+        }
+    }
+}
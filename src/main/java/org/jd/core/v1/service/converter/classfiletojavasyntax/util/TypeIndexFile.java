@@ -0,0 +1,358 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.service.converter.classfiletojavasyntax.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Persistent {@link TypeIndex} entries: a memory mapped table of records, sorted by type name.<br><br>
+ *
+ * Files are keyed by the content hash of the archive they describe:
+ * <pre>
+ * Path path = TypeIndexFile.getPath(cacheDirectory, archivePath);
+ * TypeIndex typeIndex = new TypeIndex(loader, TypeIndexFile.open(path));
+ * ... decompile with 'new TypeMakerCache(typeIndex)' ...
+ * typeIndex.save(path);
+ * </pre>
+ *
+ * Format: magic number, version, record count, record offsets, records. A record contains the type name, the access
+ * flags, the super type and interface names, and the inner and outer names of the 'InnerClasses' attribute. Strings
+ * are UTF-8 encoded, prefixed by their length; 0xFFFF denotes null. Instances are thread safe.
+ */
+public class TypeIndexFile {
+    public static final int MAGIC_NUMBER = 0x4A445449; // "JDTI"
+    public static final int VERSION = 1;
+
+    protected static final int NULL_LENGTH = 0xFFFF;
+    protected static final int HEADER_LENGTH = 3 * 4;
+
+    protected static final TypeIndexFile EMPTY = new TypeIndexFile(null, 0);
+
+    protected ByteBuffer buffer;
+    protected int count;
+
+    protected TypeIndexFile(ByteBuffer buffer, int count) {
+        this.buffer = buffer;
+        this.count = count;
+    }
+
+    /**
+     * @return the path of the index file of 'archive', in 'directory'.
+     */
+    public static Path getPath(Path directory, Path archive) throws IOException {
+        return directory.resolve(hash(archive) + ".jdti");
+    }
+
+    /**
+     * @return the SHA-256 hash of the content of 'archive', in hexadecimal.
+     */
+    public static String hash(Path archive) throws IOException {
+        try (InputStream is = Files.newInputStream(archive)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[1024 * 8];
+            int read = is.read(buffer);
+
+            while (read > 0) {
+                digest.update(buffer, 0, read);
+                read = is.read(buffer);
+            }
+
+            StringBuilder sb = new StringBuilder(64);
+
+            for (byte b : digest.digest()) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * @return the mapped index file, or an empty index if the file does not exist, has an unknown format or is
+     *         truncated.
+     */
+    public static TypeIndexFile open(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return EMPTY;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_LENGTH) {
+                return EMPTY;
+            }
+
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if ((buffer.getInt(0) != MAGIC_NUMBER) || (buffer.getInt(4) != VERSION)) {
+                return EMPTY;
+            }
+
+            int count = buffer.getInt(8);
+
+            if ((count < 0) || (count > (buffer.limit() - HEADER_LENGTH) / 4)) {
+                return EMPTY;
+            }
+
+            TypeIndexFile file = new TypeIndexFile(buffer, count);
+
+            return file.isValid() ? file : EMPTY;
+        }
+    }
+
+    /**
+     * @return true if the record offsets are increasing and the last record is complete: a truncated file ends
+     *         with an incomplete record.
+     */
+    protected boolean isValid() {
+        int previous = HEADER_LENGTH + count * 4 - 1;
+
+        for (int i=0; i<count; i++) {
+            int offset = recordOffset(i);
+
+            if ((offset <= previous) || (offset >= buffer.limit())) {
+                return false;
+            }
+
+            previous = offset;
+        }
+
+        if (count > 0) {
+            try {
+                ByteBuffer reader = buffer.duplicate();
+                ((Buffer)reader).position(previous);
+                readString(reader);
+                readEntry(reader);
+            } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public TypeIndex.Entry get(String internalTypeName) {
+        byte[] key = internalTypeName.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = count - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int offset = recordOffset(middle);
+            int cmp = compare(offset, key);
+
+            if (cmp < 0) {
+                low = middle + 1;
+            } else if (cmp > 0) {
+                high = middle - 1;
+            } else {
+                ByteBuffer reader = buffer.duplicate();
+                ((Buffer)reader).position(offset + 2 + key.length);
+                return readEntry(reader);
+            }
+        }
+
+        return null;
+    }
+
+    public void forEach(BiConsumer<String, TypeIndex.Entry> consumer) {
+        for (int i=0; i<count; i++) {
+            ByteBuffer reader = buffer.duplicate();
+            ((Buffer)reader).position(recordOffset(i));
+            consumer.accept(readString(reader), readEntry(reader));
+        }
+    }
+
+    /**
+     * Write entries to 'path'. The file is replaced atomically.
+     */
+    public static void write(Path path, Map<String, TypeIndex.Entry> entries) throws IOException {
+        // Sort records by UTF-8 encoded names: binary search compares bytes
+        byte[][] names = new byte[entries.size()][];
+        int index = 0;
+
+        for (String name : entries.keySet()) {
+            names[index++] = name.getBytes(StandardCharsets.UTF_8);
+        }
+
+        Arrays.sort(names, TypeIndexFile::compare);
+
+        ByteArrayOutputStream records = new ByteArrayOutputStream(entries.size() * 64);
+        DataOutputStream out = new DataOutputStream(records);
+        int[] offsets = new int[names.length];
+        int start = HEADER_LENGTH + names.length * 4;
+
+        for (int i=0; i<names.length; i++) {
+            byte[] name = names[i];
+            TypeIndex.Entry entry = entries.get(new String(name, StandardCharsets.UTF_8));
+
+            offsets[i] = start + out.size();
+
+            out.writeShort(name.length);
+            out.write(name);
+            out.writeShort(entry.getAccessFlags());
+            writeStrings(out, entry.getSuperClassAndInterfaceNames());
+
+            String[] innerTypeNames = entry.getInnerTypeNames();
+
+            if (innerTypeNames == null) {
+                out.writeShort(NULL_LENGTH);
+            } else {
+                String[] outerTypeNames = entry.getOuterTypeNames();
+
+                out.writeShort(innerTypeNames.length);
+
+                for (int j=0; j<innerTypeNames.length; j++) {
+                    writeString(out, innerTypeNames[j]);
+                    writeString(out, outerTypeNames[j]);
+                }
+            }
+        }
+
+        out.flush();
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporaryPath = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+
+        try {
+            try (DataOutputStream file = new DataOutputStream(Files.newOutputStream(temporaryPath))) {
+                file.writeInt(MAGIC_NUMBER);
+                file.writeInt(VERSION);
+                file.writeInt(names.length);
+
+                for (int offset : offsets) {
+                    file.writeInt(offset);
+                }
+
+                records.writeTo(file);
+            }
+
+            Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryPath);
+        }
+    }
+
+    protected int recordOffset(int index) {
+        return buffer.getInt(HEADER_LENGTH + index * 4);
+    }
+
+    protected int compare(int offset, byte[] key) {
+        int length = buffer.getShort(offset) & 0xFFFF;
+        int min = Math.min(length, key.length);
+
+        offset += 2;
+
+        for (int i=0; i<min; i++) {
+            int cmp = (buffer.get(offset + i) & 0xFF) - (key[i] & 0xFF);
+
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+
+        return length - key.length;
+    }
+
+    protected static int compare(byte[] a, byte[] b) {
+        int min = Math.min(a.length, b.length);
+
+        for (int i=0; i<min; i++) {
+            int cmp = (a[i] & 0xFF) - (b[i] & 0xFF);
+
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+
+        return a.length - b.length;
+    }
+
+    protected static TypeIndex.Entry readEntry(ByteBuffer reader) {
+        int accessFlags = reader.getShort() & 0xFFFF;
+        String[] superClassAndInterfaceNames = readStrings(reader);
+        int length = reader.getShort() & 0xFFFF;
+
+        if (length == NULL_LENGTH) {
+            return new TypeIndex.Entry(accessFlags, superClassAndInterfaceNames, null, null);
+        }
+
+        String[] innerTypeNames = new String[length];
+        String[] outerTypeNames = new String[length];
+
+        for (int i=0; i<length; i++) {
+            innerTypeNames[i] = readString(reader);
+            outerTypeNames[i] = readString(reader);
+        }
+
+        return new TypeIndex.Entry(accessFlags, superClassAndInterfaceNames, innerTypeNames, outerTypeNames);
+    }
+
+    protected static String[] readStrings(ByteBuffer reader) {
+        String[] strings = new String[reader.getShort() & 0xFFFF];
+
+        for (int i=0; i<strings.length; i++) {
+            strings[i] = readString(reader);
+        }
+
+        return strings;
+    }
+
+    protected static String readString(ByteBuffer reader) {
+        int length = reader.getShort() & 0xFFFF;
+
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        reader.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    protected static void writeStrings(DataOutputStream out, String[] strings) throws IOException {
+        out.writeShort(strings.length);
+
+        for (String string : strings) {
+            writeString(out, string);
+        }
+    }
+
+    protected static void writeString(DataOutputStream out, String string) throws IOException {
+        if (string == null) {
+            out.writeShort(NULL_LENGTH);
+        } else {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.writeShort(bytes.length);
+            out.write(bytes);
+        }
+    }
+}
@@ -7,20 +7,25 @@
 
 package org.jd.core.v1.service.converter.classfiletojavasyntax.util;
 
+import org.jd.core.v1.api.loader.BatchLoader;
 import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.loader.PlatformLoader;
 import org.jd.core.v1.model.classfile.ClassFile;
+import org.jd.core.v1.model.classfile.ConstantPool;
 import org.jd.core.v1.model.classfile.Field;
 import org.jd.core.v1.model.classfile.Method;
 import org.jd.core.v1.model.classfile.attribute.AttributeExceptions;
 import org.jd.core.v1.model.classfile.attribute.AttributeSignature;
-import org.jd.core.v1.model.classfile.constant.ConstantClass;
+import org.jd.core.v1.model.classfile.constant.Constant;
 import org.jd.core.v1.model.javasyntax.type.*;
-import org.jd.core.v1.service.deserializer.classfile.ClassFileFormatException;
-import org.jd.core.v1.service.deserializer.classfile.ClassFileReader;
 import org.jd.core.v1.util.DefaultList;
 
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 
+import static org.jd.core.v1.model.classfile.Constants.ACC_ENUM;
+import static org.jd.core.v1.model.classfile.attribute.Attributes.EXCEPTIONS;
+import static org.jd.core.v1.model.classfile.attribute.Attributes.SIGNATURE;
 import static org.jd.core.v1.model.javasyntax.type.ObjectType.TYPE_UNDEFINED_OBJECT;
 
 /*
@@ -29,15 +34,40 @@ import static org.jd.core.v1.model.javasyntax.type.ObjectType.TYPE_UNDEFINED_OBJ
  * https://docs.oracle.com/javase/tutorial/extra/generics/methods.html
  *
  * http://www.angelikalanger.com/GenericsFAQ/JavaGenericsFAQ.html
+ *
+ * Public methods are synchronized: with the configuration option 'parallelMethods', the methods of a type are created
+ * concurrently with the same instance.
  */
 public class TypeMaker {
+    // Types of the running platform, shared by all instances
+    protected static final TypeIndex PLATFORM_TYPE_INDEX = new TypeIndex(new PlatformLoader());
+
     protected HashMap<String, Type> signatureToType = new HashMap<>(1024);
     protected HashMap<String, Type> internalTypeNameFieldNameToType = new HashMap<>(1024);
     protected HashMap<String, MethodTypes> internalTypeNameMethodNameDescriptorToMethodTypes = new HashMap<>(1024);
     protected HashMap<String, MethodTypes> signatureToMethodTypes = new HashMap<>(1024);
 
     public TypeMaker(Loader loader) {
+        this(loader, null);
+    }
+
+    public TypeMaker(TypeMakerCache cache) {
+        this(cache.getLoader(), cache);
+    }
+
+    /**
+     * @param cache shared results, may be null
+     * @throws IllegalArgumentException if 'cache' is bound to another loader
+     */
+    public TypeMaker(Loader loader, TypeMakerCache cache) {
+        if ((cache != null) && (cache.getLoader() != loader)) {
+            throw new IllegalArgumentException("Type maker cache bound to another loader");
+        }
+
         this.loader = loader;
+        this.typeIndex = (cache == null) ? new TypeIndex(loader) : cache.getTypeIndex();
+        this.platformTypeIndex = (cache == null) ? PLATFORM_TYPE_INDEX : cache.getPlatformTypeIndex();
+        this.cache = cache;
 
         signatureToType.put("B", PrimitiveType.TYPE_BYTE);
         signatureToType.put("C", PrimitiveType.TYPE_CHAR);
@@ -52,6 +82,72 @@ public class TypeMaker {
         signatureToType.put("java/lang/String", ObjectType.TYPE_STRING);
     }
 
+    /**
+     * If the loader is a {@link BatchLoader}, index 'classFile' and its inner classes, already loaded, and start
+     * loading their super types, their interfaces and the types referenced by their constant pools, before they are
+     * searched one by one.
+     */
+    public void prefetch(ClassFile classFile) {
+        if (typeIndex.getLoader() instanceof BatchLoader) {
+            // Super types and interfaces first
+            LinkedHashSet<String> internalTypeNames = new LinkedHashSet<>();
+
+            typeIndex.index(classFile);
+            addReferencedTypeNames(classFile, internalTypeNames);
+            removeTypeNames(classFile, internalTypeNames);
+            typeIndex.prefetch(internalTypeNames);
+        }
+    }
+
+    protected static void addReferencedTypeNames(ClassFile classFile, LinkedHashSet<String> internalTypeNames) {
+        internalTypeNames.add(classFile.getInternalTypeName());
+
+        if (classFile.getSuperTypeName() != null) {
+            internalTypeNames.add(classFile.getSuperTypeName());
+        }
+
+        if (classFile.getInterfaceTypeNames() != null) {
+            for (String interfaceTypeName : classFile.getInterfaceTypeNames()) {
+                internalTypeNames.add(interfaceTypeName);
+            }
+        }
+
+        Method[] methods = classFile.getMethods();
+
+        if ((methods != null) && (methods.length > 0)) {
+            // Constant pool shared by the methods
+            ConstantPool constants = methods[0].getConstants();
+
+            for (int i=1, len=constants.size(); i<len; i++) {
+                Constant constant = constants.getConstant(i);
+
+                if ((constant != null) && (constant.getTag() == Constant.CONSTANT_Class)) {
+                    String internalTypeName = constants.getConstantTypeName(i);
+
+                    if (internalTypeName.charAt(0) != '[') {
+                        internalTypeNames.add(internalTypeName);
+                    }
+                }
+            }
+        }
+
+        if (classFile.getInnerClassFiles() != null) {
+            for (ClassFile innerClassFile : classFile.getInnerClassFiles()) {
+                addReferencedTypeNames(innerClassFile, internalTypeNames);
+            }
+        }
+    }
+
+    protected static void removeTypeNames(ClassFile classFile, LinkedHashSet<String> internalTypeNames) {
+        internalTypeNames.remove(classFile.getInternalTypeName());
+
+        if (classFile.getInnerClassFiles() != null) {
+            for (ClassFile innerClassFile : classFile.getInnerClassFiles()) {
+                removeTypeNames(innerClassFile, internalTypeNames);
+            }
+        }
+    }
+
     /**
      * Rules:
      *  ClassSignature: TypeParameters? SuperclassSignature SuperInterfaceSignature*
@@ -59,13 +155,13 @@ public class TypeMaker {
      *  SuperInterfaceSignature: ClassTypeSignature
      */
     @SuppressWarnings("unchecked")
-    public TypeTypes parseClassFileSignature(ClassFile classFile) {
+    public synchronized TypeTypes parseClassFileSignature(ClassFile classFile) {
         TypeTypes typeTypes = new TypeTypes();
         String internalTypeName = classFile.getInternalTypeName();
 
         typeTypes.thisType = makeFromInternalTypeName(internalTypeName);
 
-        AttributeSignature attributeSignature = classFile.getAttribute("Signature");
+        AttributeSignature attributeSignature = classFile.getAttribute(SIGNATURE);
 
         if (attributeSignature == null) {
             // Create 'typeSignature' with classFile start
@@ -121,9 +217,9 @@ public class TypeMaker {
         return typeTypes;
     }
 
-    public MethodTypes parseConstructorSignature(ClassFile classFile, Method method) {
+    public synchronized MethodTypes parseConstructorSignature(ClassFile classFile, Method method) {
         String key = classFile.getInternalTypeName() + ":<init>" + method.getDescriptor();
-        AttributeSignature attributeSignature = method.getAttribute("Signature");
+        AttributeSignature attributeSignature = method.getAttribute(SIGNATURE);
         MethodTypes methodTypes;
 
         if (attributeSignature == null) {
@@ -139,9 +235,11 @@ public class TypeMaker {
                 methodTypes = mt2;
             } else {
                 DefaultList<Type> parameters = new DefaultList<>(mt2.parameterTypes);
+                // Leading synthetic parameterTypes: outer type or enum constant name and index
+                int first = ((classFile.getAccessFlags() & ACC_ENUM) == 0) ? 1 : 2;
 
-                parameters.subList(1, 1+mt1.parameterTypes.size()).clear();
-                parameters.addAll(1, mt1.parameterTypes);
+                parameters.subList(first, first+mt1.parameterTypes.size()).clear();
+                parameters.addAll(first, mt1.parameterTypes);
 
                 MethodTypes mt3 = new MethodTypes();
 
@@ -159,9 +257,9 @@ public class TypeMaker {
         return methodTypes;
     }
 
-    public MethodTypes parseMethodSignature(ClassFile classFile, Method method) {
+    public synchronized MethodTypes parseMethodSignature(ClassFile classFile, Method method) {
         String key = classFile.getInternalTypeName() + ':' + method.getName() + method.getDescriptor();
-        AttributeSignature attributeSignature = method.getAttribute("Signature");
+        AttributeSignature attributeSignature = method.getAttribute(SIGNATURE);
         String signature = (attributeSignature == null) ? method.getDescriptor() : attributeSignature.getSignature();
         MethodTypes methodTypes = parseMethodSignature(signature, method);
 
@@ -170,9 +268,9 @@ public class TypeMaker {
         return methodTypes;
     }
 
-    public Type parseFieldSignature(ClassFile classFile, Field field) {
+    public synchronized Type parseFieldSignature(ClassFile classFile, Field field) {
         String key = classFile.getInternalTypeName() + ':' + field.getName();
-        AttributeSignature attributeSignature = field.getAttribute("Signature");
+        AttributeSignature attributeSignature = field.getAttribute(SIGNATURE);
         String signature = (attributeSignature == null) ? field.getDescriptor() : attributeSignature.getSignature();
         Type type = makeFromSignature(signature);
 
@@ -181,12 +279,23 @@ public class TypeMaker {
         return type;
     }
 
-    public Type makeFromSignature(String signature) {
+    public synchronized Type makeFromSignature(String signature) {
         Type type = signatureToType.get(signature);
 
         if (type == null) {
-            SignatureReader reader = new SignatureReader(signature);
-            type = parseReferenceTypeSignature(reader);
+            if (cache != null) {
+                type = cache.signatureToType.get(signature);
+            }
+
+            if (type == null) {
+                SignatureReader reader = new SignatureReader(signature);
+                type = parseReferenceTypeSignature(reader);
+
+                if ((cache != null) && (type != null)) {
+                    cache.signatureToType.put(signature, type);
+                }
+            }
+
             signatureToType.put(signature, type);
         }
 
@@ -215,7 +324,7 @@ public class TypeMaker {
         boolean containsThrowsSignature = (signature.indexOf('^') != -1);
 
         if (!containsThrowsSignature && (method != null)) {
-            AttributeExceptions attributeExceptions = method.getAttribute("Exceptions");
+            AttributeExceptions attributeExceptions = method.getAttribute(EXCEPTIONS);
 
             if (attributeExceptions != null) {
                 StringBuilder sb = new StringBuilder(signature);
@@ -230,6 +339,14 @@ public class TypeMaker {
 
         MethodTypes methodTypes = signatureToMethodTypes.get(cacheKey);
 
+        if ((methodTypes == null) && (cache != null)) {
+            methodTypes = cache.signatureToMethodTypes.get(cacheKey);
+
+            if (methodTypes != null) {
+                signatureToMethodTypes.put(cacheKey, methodTypes);
+            }
+        }
+
         if (methodTypes == null) {
             SignatureReader reader = new SignatureReader(signature);
 
@@ -271,7 +388,7 @@ public class TypeMaker {
             if (firstException == null) {
                 // Signature does not contain exceptions
                 if (method != null) {
-                    AttributeExceptions attributeExceptions = method.getAttribute("Exceptions");
+                    AttributeExceptions attributeExceptions = method.getAttribute(EXCEPTIONS);
 
                     if (attributeExceptions != null) {
                         String[] exceptionTypeNames = attributeExceptions.getExceptionTypeNames();
@@ -309,6 +426,10 @@ public class TypeMaker {
             }
 
             signatureToMethodTypes.put(cacheKey, methodTypes);
+
+            if (cache != null) {
+                cache.signatureToMethodTypes.put(cacheKey, methodTypes);
+            }
         }
 
         return methodTypes;
@@ -830,12 +951,22 @@ public class TypeMaker {
 
     protected HashMap<String, ObjectType> descriptorToObjectType = new HashMap<>(1024);
     protected HashMap<String, ObjectType> internalTypeNameToObjectType = new HashMap<>(1024);
-    protected HashMap<String, String[]> hierarchy = new HashMap<>(1024);
     protected Loader loader;
+    protected TypeIndex typeIndex;
+    protected TypeIndex platformTypeIndex;
+    protected TypeMakerCache cache;
 
-    public ObjectType makeFromDescriptor(String descriptor) {
+    public synchronized ObjectType makeFromDescriptor(String descriptor) {
         ObjectType ot = descriptorToObjectType.get(descriptor);
 
+        if ((ot == null) && (cache != null)) {
+            ot = cache.descriptorToObjectType.get(descriptor);
+
+            if (ot != null) {
+                descriptorToObjectType.put(descriptor, ot);
+            }
+        }
+
         if (ot == null) {
             if (descriptor.charAt(0) == '[') {
                 int dimension = 1;
@@ -850,6 +981,10 @@ public class TypeMaker {
             }
 
             descriptorToObjectType.put(descriptor, ot);
+
+            if (cache != null) {
+                cache.descriptorToObjectType.put(descriptor, ot);
+            }
         }
 
         return ot;
@@ -865,7 +1000,7 @@ public class TypeMaker {
         return ot;
     }
 
-    public ObjectType makeFromInternalTypeName(String internalTypeName) {
+    public synchronized ObjectType makeFromInternalTypeName(String internalTypeName) {
         assert (internalTypeName != null) && !internalTypeName.endsWith(";") : "ObjectTypeMaker.makeFromInternalTypeName(internalTypeName) : invalid internalTypeName";
 
         ObjectType ot = INTERNALNAME_TO_OBJECTTYPE.get(internalTypeName);
@@ -874,34 +1009,46 @@ public class TypeMaker {
             ot = internalTypeNameToObjectType.get(internalTypeName);
         }
 
+        if ((ot == null) && (cache != null)) {
+            ot = cache.internalTypeNameToObjectType.get(internalTypeName);
+
+            if (ot != null) {
+                internalTypeNameToObjectType.put(internalTypeName, ot);
+            }
+        }
+
         if (ot == null) {
             // Search class file with loader, first
-            ot = loadFromLoader(internalTypeName);
+            ot = loadFromTypeIndex(typeIndex, internalTypeName);
 
             if (ot == null) {
-                // File not found with the loader -> Try to load class with system class loader
-                ot = loadFromClassLoader(internalTypeName);
+                // File not found with the loader -> Search class file of the platform
+                ot = loadFromTypeIndex(platformTypeIndex, internalTypeName);
             }
 
             if (ot == null) {
-                // File not found with the system class loader -> Create type just from 'internalTypeName'
+                // File not found in the platform -> Create type just from 'internalTypeName'
                 ot = create(internalTypeName);
             }
+
+            if (cache != null) {
+                cache.internalTypeNameToObjectType.put(internalTypeName, ot);
+            }
         }
 
         return ot;
     }
 
-    public ObjectType makeFromDescriptorOrInternalTypeName(String descriptorOrInternalTypeName) {
+    public synchronized ObjectType makeFromDescriptorOrInternalTypeName(String descriptorOrInternalTypeName) {
         return (descriptorOrInternalTypeName.charAt(0) == '[') ? makeFromDescriptor(descriptorOrInternalTypeName) : makeFromInternalTypeName(descriptorOrInternalTypeName);
     }
 
-    private ObjectType loadFromLoader(String internalTypeName) {
+    private ObjectType loadFromTypeIndex(TypeIndex typeIndex, String internalTypeName) {
         try {
             ObjectType ot = internalTypeNameToObjectType.get(internalTypeName);
 
-            if ((ot == null) && loader.canLoad(internalTypeName)) {
-                String outerTypeName = getOuterTypeName(internalTypeName);
+            if ((ot == null) && typeIndex.canLoad(internalTypeName)) {
+                String outerTypeName = typeIndex.getOuterTypeName(internalTypeName);
 
                 if (outerTypeName == null) {
                     int lastSlash = internalTypeName.lastIndexOf('/');
@@ -910,7 +1057,7 @@ public class TypeMaker {
 
                     ot = new ObjectType(internalTypeName, qualifiedName, name);
                 } else {
-                    ObjectType outerOT = loadFromLoader(outerTypeName);
+                    ObjectType outerOT = loadFromTypeIndex(typeIndex, outerTypeName);
                     int index;
 
                     assert outerOT != null;
@@ -936,46 +1083,11 @@ public class TypeMaker {
 
             return ot;
         } catch (Exception ignore) {
-            // Class file not found by the system class loader, or invalid class file
+            // Invalid class file
             return null;
         }
     }
 
-    private ObjectType loadFromClassLoader(String internalTypeName) {
-        ObjectType ot = internalTypeNameToObjectType.get(internalTypeName);
-
-        if (ot == null) {
-            try {
-                Class clazz = getClass().getClassLoader().loadClass(internalTypeName.replace('/', '.'));
-                String qualifiedName = clazz.getCanonicalName();
-                String name = clazz.getSimpleName();
-
-                if (clazz.isMemberClass()) {
-                    String outerInternalTypeName;
-
-                    if (name.isEmpty()) {
-                        // Anonymous type
-                        outerInternalTypeName = internalTypeName.substring(0, internalTypeName.lastIndexOf('$'));
-                    } else {
-                        // Inner type
-                        outerInternalTypeName = internalTypeName.substring(0, internalTypeName.length()-name.length()-1);
-                    }
-
-                    ObjectType outerSot = loadFromClassLoader(outerInternalTypeName);
-
-                    ot = new InnerObjectType(internalTypeName, qualifiedName, name, outerSot);
-                } else {
-                    ot = new ObjectType(internalTypeName, qualifiedName, name);
-                }
-            } catch (ClassNotFoundException ignore) {
-            }
-
-            internalTypeNameToObjectType.put(internalTypeName, ot);
-        }
-
-        return ot;
-    }
-
     private ObjectType create(String internalTypeName) {
         int lastSlash = internalTypeName.lastIndexOf('/');
         int lastDollar = internalTypeName.lastIndexOf('$');
@@ -1007,7 +1119,7 @@ public class TypeMaker {
         return ot;
     }
 
-    public boolean isAssignable(ObjectType parent, ObjectType child) {
+    public synchronized boolean isAssignable(ObjectType parent, ObjectType child) {
         if (parent == TYPE_UNDEFINED_OBJECT) {
             return true;
         } else if (parent.getDimension() > 0) {
@@ -1028,21 +1140,16 @@ public class TypeMaker {
         if (childInternalName.equals("java/lang/Object"))
             return false;
 
-        String[] superClassAndInterfaceNames = hierarchy.get(childInternalName);
+        String[] superClassAndInterfaceNames;
 
-        if (superClassAndInterfaceNames == null) {
-            try {
-                if (loader.canLoad(childInternalName)) {
-                    loadFromLoader(childInternalName);
-                    superClassAndInterfaceNames = hierarchy.get(childInternalName);
-                } else {
-                    Class childClazz = getClass().getClassLoader().loadClass(childInternalName.replace('/', '.'));
-                    Class parentClazz = getClass().getClassLoader().loadClass(parentInternalName.replace('/', '.'));
-                    return parentClazz.isAssignableFrom(childClazz);
-                }
-            } catch (Exception ignore) {
-                return false;
+        try {
+            if (typeIndex.canLoad(childInternalName)) {
+                superClassAndInterfaceNames = typeIndex.getSuperClassAndInterfaceNames(childInternalName);
+            } else {
+                superClassAndInterfaceNames = platformTypeIndex.getSuperClassAndInterfaceNames(childInternalName);
             }
+        } catch (Exception ignore) {
+            return false;
         }
 
         if (superClassAndInterfaceNames != null) {
@@ -1060,212 +1167,11 @@ public class TypeMaker {
         return false;
     }
 
-    private String getOuterTypeName(String internalTypeName) throws Exception {
-        return loadTypeAndApplyFunction(internalTypeName, null, searchOuterTypeName);
-    }
-
-    private Object[] constants = new Object[1000];
-
-    @FunctionalInterface
-    private interface Function {
-        String apply(ClassFileReader reader, String typeName, String innerTypeName) throws Exception;
-    }
-
-    private Function checkInnerTypeName = (reader, typeName, innerTypeName) -> {
-        int count = reader.readUnsignedShort();
-
-        for(int i=0; i < count; i++) {
-            int innerTypeIndex = reader.readUnsignedShort();
-
-            // Skip 'outerTypeIndex', 'innerNameIndex' & innerAccessFlags'
-            reader.skip(3 * 2);
-
-            ConstantClass cc = (ConstantClass)constants[innerTypeIndex];
-            String innerInternalTypeName = (String)constants[cc.getNameIndex()];
-
-            if (innerTypeName.equals(innerInternalTypeName)) {
-                return typeName;
-            }
-        }
-
-        return null;
-    };
-
-    private Function searchOuterTypeName = (reader, typeName, innerTypeName) -> {
-        int count = reader.readUnsignedShort();
-
-        for(int i=0; i < count; i++) {
-            int innerTypeIndex = reader.readUnsignedShort();
-            int outerTypeIndex = reader.readUnsignedShort();
-
-            // Skip 'innerNameIndex' & innerAccessFlags'
-            reader.skip(2 * 2);
-
-            ConstantClass cc = (ConstantClass)constants[innerTypeIndex];
-            innerTypeName = (String)constants[cc.getNameIndex()];
-
-            if (innerTypeName.equals(typeName)) {
-                if (outerTypeIndex == 0) {
-                    // Synthetic inner class -> Search outer class
-                    int lastDollar = typeName.lastIndexOf('$');
-
-                    if (lastDollar != -1) {
-                        String outerTypeName = typeName.substring(0, lastDollar);
-                        return loadTypeAndApplyFunction(outerTypeName, typeName, checkInnerTypeName);
-                    }
-
-                    return null;
-                } else {
-                    // Return 'outerTypeName'
-                    cc = (ConstantClass)constants[outerTypeIndex];
-                    return (String)constants[cc.getNameIndex()];
-                }
-            }
-        }
-
-        return null;
-    };
-
-    private String loadTypeAndApplyFunction(String typeName, String innerTypeName, Function function) throws Exception {
-        byte[] data = loader.load(typeName);
-
-        if (data == null) {
-            return null;
-        } else {
-            ClassFileReader reader = new ClassFileReader(data);
-
-            int magic = reader.readInt();
-
-            if (magic != ClassFileReader.JAVA_MAGIC_NUMBER)
-                throw new ClassFileFormatException("Invalid CLASS file");
-
-            // Skip 'minorVersion', 'majorVersion'
-            reader.skip(2 * 2);
-
-            Object[] constants = loadConstants(reader);
-
-            // Skip 'accessFlags' & 'thisClassIndex'
-            reader.skip(2 * 2);
-
-            // Load super class name
-            int superClassIndex = reader.readUnsignedShort();
-            String superClassName;
-
-            if (superClassIndex == 0) {
-                superClassName = null;
-            } else {
-                ConstantClass cc = (ConstantClass)constants[superClassIndex];
-                superClassName = (String)constants[cc.getNameIndex()];
-            }
-
-            // Load interface blackListNames
-            int count = reader.readUnsignedShort();
-            String[] superClassAndInterfaceNames = new String[count + 1];
-
-            superClassAndInterfaceNames[0] = superClassName;
-
-            for (int i = 1; i <= count; i++) {
-                int interfaceIndex = reader.readUnsignedShort();
-                ConstantClass cc = (ConstantClass)constants[interfaceIndex];
-                superClassAndInterfaceNames[i] = (String)constants[cc.getNameIndex()];
-            }
-
-            hierarchy.put(typeName, superClassAndInterfaceNames);
-
-            // Skip fields
-            count = reader.readUnsignedShort();
-            for (int i = 0; i < count; i++) {
-                // skip 'accessFlags', 'nameIndex', 'signatureIndex'
-                reader.skip(3 * 2);
-                skipAttributes(reader);
-            }
-
-            // Skip methods
-            count = reader.readUnsignedShort();
-            for (int i = 0; i < count; i++) {
-                // skip 'accessFlags', 'nameIndex', 'signatureIndex'
-                reader.skip(3 * 2);
-                skipAttributes(reader);
-            }
-
-            // Load attributes
-            count = reader.readUnsignedShort();
-            for (int i = 0; i < count; i++) {
-                int attributeNameIndex = reader.readUnsignedShort();
-                int attributeLength = reader.readInt();
-
-                String name = (String)constants[attributeNameIndex];
-
-                if ("InnerClasses".equals(name)) {
-                    return function.apply(reader, typeName, innerTypeName);
-                } else {
-                    reader.skip(attributeLength);
-                }
-            }
-
-            return null;
-        }
-    }
-
-    private Object[] loadConstants(ClassFileReader reader) throws Exception {
-        int count = reader.readUnsignedShort();
-
-        if (count == 0)
-            return null;
-
-        if (constants.length < count) {
-            constants = new Object[count];
-        }
-
-        for (int i=1; i<count; i++) {
-            int tag = reader.readByte();
-
-            switch (tag) {
-                case 1:
-                    constants[i] = reader.readUTF8();
-                    break;
-                case 7:
-                    constants[i] = new ConstantClass(reader.readUnsignedShort());
-                    break;
-                case 8: case 16: case 19: case 20:
-                    reader.skip(2);
-                    break;
-                case 15:
-                    reader.skip(3);
-                    break;
-                case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18:
-                    reader.skip(4);
-                    break;
-                case 5: case 6:
-                    reader.skip(8);
-                    i++;
-                    break;
-                default:
-                    throw new ClassFileFormatException("Invalid constant pool entry");
-            }
-        }
-
-        return constants;
-    }
-
-    private static void skipAttributes(ClassFileReader reader) {
-        int count = reader.readUnsignedShort();
-
-        for (int i = 0; i < count; i++) {
-            // skip 'attributeNameIndex'
-            reader.skip(2);
-
-            int attributeLength = reader.readInt();
-
-            reader.skip(attributeLength);
-        }
-    }
-
-    public MethodTypes makeMethodTypes(String descriptor) {
+    public synchronized MethodTypes makeMethodTypes(String descriptor) {
         return parseMethodSignature(descriptor, null);
     }
 
-    public MethodTypes makeMethodTypes(ObjectType objectType, String methodName, String descriptor) {
+    public synchronized MethodTypes makeMethodTypes(ObjectType objectType, String methodName, String descriptor) {
         if (objectType.getDimension() == 0) {
             String key = objectType.getInternalName() + ':' + methodName + descriptor;
 
@@ -1286,7 +1192,7 @@ public class TypeMaker {
         return parseMethodSignature(descriptor, null);
     }
 
-    public Type makeFieldType(ObjectType objectType, String fieldName, String descriptor) {
+    public synchronized Type makeFieldType(ObjectType objectType, String fieldName, String descriptor) {
         if (objectType.getDimension() == 0) {
             String key = objectType.getInternalName() + ':' + fieldName;
 
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.service.converter.classfiletojavasyntax.util;
+
+import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.model.javasyntax.type.ObjectType;
+import org.jd.core.v1.model.javasyntax.type.Type;
+import org.jd.core.v1.util.ConcurrentLruCache;
+
+/**
+ * Type resolution results shared by the {@link TypeMaker}s of several decompilations.<br><br>
+ *
+ * A cache is bound to a loader: build it once per loader (or class path), then pass it with the configuration key
+ * "typeMakerCache" to each call of {@link org.jd.core.v1.api.Decompiler#decompile} with this loader; other loaders
+ * are rejected. Instances are thread safe and bounded; least recently used entries are evicted. To reuse type
+ * relations across runs, build the cache on a {@link TypeIndex} backed by a {@link TypeIndexFile}.
+ */
+public class TypeMakerCache {
+    public static final int DEFAULT_MAX_SIZE = 1024 * 16;
+
+    protected Loader loader;
+    protected TypeIndex typeIndex;
+    protected TypeIndex platformTypeIndex;
+
+    protected ConcurrentLruCache<String, Type> signatureToType;
+    protected ConcurrentLruCache<String, TypeMaker.MethodTypes> signatureToMethodTypes;
+    protected ConcurrentLruCache<String, ObjectType> descriptorToObjectType;
+    protected ConcurrentLruCache<String, ObjectType> internalTypeNameToObjectType;
+
+    public TypeMakerCache(Loader loader) {
+        this(loader, DEFAULT_MAX_SIZE);
+    }
+
+    public TypeMakerCache(Loader loader, int maxSize) {
+        this(new TypeIndex(loader, maxSize), maxSize);
+    }
+
+    public TypeMakerCache(TypeIndex typeIndex) {
+        this(typeIndex, DEFAULT_MAX_SIZE);
+    }
+
+    public TypeMakerCache(TypeIndex typeIndex, int maxSize) {
+        this(typeIndex, TypeMaker.PLATFORM_TYPE_INDEX, maxSize);
+    }
+
+    /**
+     * @param platformTypeIndex Index of the types not found by the loader of 'typeIndex', usually built on a
+     *                          {@link org.jd.core.v1.loader.PlatformLoader}.
+     */
+    public TypeMakerCache(TypeIndex typeIndex, TypeIndex platformTypeIndex, int maxSize) {
+        this.loader = typeIndex.getLoader();
+        this.typeIndex = typeIndex;
+        this.platformTypeIndex = platformTypeIndex;
+        this.signatureToType = new ConcurrentLruCache<>(maxSize);
+        this.signatureToMethodTypes = new ConcurrentLruCache<>(maxSize);
+        this.descriptorToObjectType = new ConcurrentLruCache<>(maxSize);
+        this.internalTypeNameToObjectType = new ConcurrentLruCache<>(maxSize);
+    }
+
+    public Loader getLoader() {
+        return loader;
+    }
+
+    public TypeIndex getTypeIndex() {
+        return typeIndex;
+    }
+
+    public TypeIndex getPlatformTypeIndex() {
+        return platformTypeIndex;
+    }
+
+    public void clear() {
+        signatureToType.clear();
+        signatureToMethodTypes.clear();
+        descriptorToObjectType.clear();
+        internalTypeNameToObjectType.clear();
+        typeIndex.clear();
+    }
+}
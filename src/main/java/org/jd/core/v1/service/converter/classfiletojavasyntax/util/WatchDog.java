@@ -9,46 +9,83 @@ package org.jd.core.v1.service.converter.classfiletojavasyntax.util;
 
 import org.jd.core.v1.service.converter.classfiletojavasyntax.model.cfg.BasicBlock;
 
-import java.util.HashSet;
+import java.util.Arrays;
 
 public class WatchDog {
-    protected HashSet<Link> links = new HashSet<>();
+    // Links are packed in longs, 'parent index' in the high bits and 'child index' in the low bits
+    protected static final long FREE = Long.MIN_VALUE;
+
+    protected long[] links = newLinks(16);
+    protected int size;
 
     public void clear() {
-        links.clear();
+        if (size > 0) {
+            Arrays.fill(links, FREE);
+            size = 0;
+        }
     }
 
     public void check(BasicBlock parent, BasicBlock child) {
         if (!child.matchType(BasicBlock.GROUP_END)) {
-            Link link = new Link(parent, child);
-
-            if (links.contains(link)) {
+            if (!add(link(parent, child))) {
                 throw new RuntimeException("CFG watchdog: parent=" + parent + ", child=" + child);
             }
-
-            links.add(link);
         }
     }
 
-    protected static class Link {
-        protected int parentIndex;
-        protected int childIndex;
+    protected static long link(BasicBlock parent, BasicBlock child) {
+        return ((long)parent.getIndex() << 32) | (child.getIndex() & 0xFFFFFFFFL);
+    }
 
-        public Link(BasicBlock parent, BasicBlock child) {
-            this.parentIndex = parent.getIndex();
-            this.childIndex = child.getIndex();
+    protected boolean add(long link) {
+        long[] links = this.links;
+        int mask = links.length - 1;
+        int i = hash(link) & mask;
+
+        while (links[i] != FREE) {
+            if (links[i] == link) {
+                return false;
+            }
+            i = (i + 1) & mask;
         }
 
-        @Override
-        public int hashCode() {
-            return parentIndex + 31 * childIndex;
+        links[i] = link;
+
+        if (++size > (links.length >> 1)) {
+            rehash();
         }
 
-        @Override
-        public boolean equals(Object o) {
-            Link other = (Link)o;
+        return true;
+    }
+
+    protected void rehash() {
+        long[] oldLinks = links;
+        long[] newLinks = newLinks(oldLinks.length << 1);
+        int mask = newLinks.length - 1;
+
+        for (long link : oldLinks) {
+            if (link != FREE) {
+                int i = hash(link) & mask;
+
+                while (newLinks[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
 
-            return (parentIndex == other.parentIndex) && (childIndex == other.childIndex);
+                newLinks[i] = link;
+            }
         }
+
+        links = newLinks;
+    }
+
+    protected static long[] newLinks(int capacity) {
+        long[] links = new long[capacity];
+        Arrays.fill(links, FREE);
+        return links;
+    }
+
+    protected static int hash(long link) {
+        long h = link * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32));
     }
 }
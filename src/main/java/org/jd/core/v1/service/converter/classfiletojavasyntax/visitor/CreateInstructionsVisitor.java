@@ -12,22 +12,46 @@ import org.jd.core.v1.model.classfile.Method;
 import org.jd.core.v1.model.javasyntax.AbstractJavaSyntaxVisitor;
 import org.jd.core.v1.model.javasyntax.declaration.*;
 import org.jd.core.v1.model.javasyntax.statement.ByteCodeStatement;
+import org.jd.core.v1.model.javasyntax.statement.CommentStatement;
 import org.jd.core.v1.model.javasyntax.type.ObjectType;
 import org.jd.core.v1.model.javasyntax.type.Type;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.model.cfg.ControlFlowGraph;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.model.javasyntax.declaration.ClassFileBodyDeclaration;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.model.javasyntax.declaration.ClassFileConstructorOrMethodDeclaration;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.util.*;
+import org.jd.core.v1.util.DefaultList;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ForkJoinTask;
 
+import static org.jd.core.v1.model.classfile.Constants.ACC_ABSTRACT;
+import static org.jd.core.v1.model.classfile.Constants.ACC_ENUM;
+import static org.jd.core.v1.model.classfile.Constants.ACC_NATIVE;
+import static org.jd.core.v1.model.classfile.attribute.Attributes.CODE;
 import static org.jd.core.v1.model.javasyntax.declaration.Declaration.*;
 
 public class CreateInstructionsVisitor extends AbstractJavaSyntaxVisitor {
+    protected static final CommentStatement COMPILED_CODE = new CommentStatement("/* compiled code */");
+
     protected TypeMaker typeMaker;
+    protected boolean parallelMethods;
+    protected boolean outline;
+    protected Deadline classDeadline;
+    protected long methodTimeout;
+    protected Collection<String> degradedMembers;
 
     public CreateInstructionsVisitor(TypeMaker typeMaker) {
+        this(typeMaker, CreateInstructionsOptions.DEFAULT);
+    }
+
+    public CreateInstructionsVisitor(TypeMaker typeMaker, CreateInstructionsOptions options) {
         this.typeMaker = typeMaker;
+        this.parallelMethods = options.isParallelMethods();
+        this.outline = options.isOutline();
+        this.classDeadline = options.getClassDeadline();
+        this.methodTimeout = options.getMethodTimeout();
+        this.degradedMembers = options.getDegradedMembers();
     }
 
     @Override
@@ -39,6 +63,11 @@ public class CreateInstructionsVisitor extends AbstractJavaSyntaxVisitor {
     public void visit(BodyDeclaration declaration) {
         ClassFileBodyDeclaration bodyDeclaration = (ClassFileBodyDeclaration)declaration;
 
+        if (outline && (bodyDeclaration.getInnerTypeDeclarations() != null)) {
+            // Anonymous and local types are declared in method bodies
+            bodyDeclaration.getInnerTypeDeclarations().removeIf(td -> (((TypeDeclaration)td).getFlags() & FLAG_SYNTHETIC) != 0);
+        }
+
         // Parse byte code
         List<ClassFileConstructorOrMethodDeclaration> methods = bodyDeclaration.getMethodDeclarations();
 
@@ -64,12 +93,31 @@ public class CreateInstructionsVisitor extends AbstractJavaSyntaxVisitor {
                 }
             }
 
-            for (ClassFileConstructorOrMethodDeclaration method : methods) {
+            if (parallelMethods) {
+                acceptInParallel(methods);
+            } else {
+                for (ClassFileConstructorOrMethodDeclaration method : methods) {
+                    if ((method.getFlags() & (FLAG_SYNTHETIC|FLAG_BRIDGE)) == 0) {
+                        method.accept(this);
+                    }
+                }
+            }
+        }
+    }
+
+    protected void acceptInParallel(List<ClassFileConstructorOrMethodDeclaration> methods) {
+        DefaultList<ForkJoinTask<?>> tasks = new DefaultList<>(methods.size());
+
+        for (ClassFileConstructorOrMethodDeclaration method : methods) {
+            // Synthetic and bridge methods have been created by the first pass
+            tasks.add(ForkJoinTask.adapt(() -> {
                 if ((method.getFlags() & (FLAG_SYNTHETIC|FLAG_BRIDGE)) == 0) {
                     method.accept(this);
                 }
-            }
+            }));
         }
+
+        ForkJoinTask.invokeAll(tasks);
     }
 
     @Override
@@ -93,6 +141,11 @@ public class CreateInstructionsVisitor extends AbstractJavaSyntaxVisitor {
 
     @Override
     public void visit(StaticInitializerDeclaration declaration) {
+        if (outline && ((((ClassFileConstructorOrMethodDeclaration)declaration).getClassFile().getAccessFlags() & ACC_ENUM) == 0)) {
+            // Static initializers are not part of the outline, except the ones of the enums, declaring the constants
+            return;
+        }
+
         ClassFileConstructorOrMethodDeclaration comdwln = (ClassFileConstructorOrMethodDeclaration)declaration;
         LocalVariableMaker localVariableMaker = new LocalVariableMaker(typeMaker, comdwln, false, null);
 
@@ -103,33 +156,83 @@ public class CreateInstructionsVisitor extends AbstractJavaSyntaxVisitor {
         ClassFile classFile = comdwln.getClassFile();
         ClassFileBodyDeclaration bodyDeclaration = comdwln.getBodyDeclaration();
         Method method = comdwln.getMethod();
-        Type returnedType = comdwln.getReturnedType();
-        StatementMaker statementMaker = new StatementMaker(typeMaker, localVariableMaker, classFile, bodyDeclaration, returnedType);
+
+        if ((outline && !isDecompiledInOutline(method)) || (method.getAttribute(CODE) == null)) {
+            // Byte code not decompiled or not loaded
+            if ((method.getAccessFlags() & (ACC_ABSTRACT|ACC_NATIVE)) == 0) {
+                comdwln.setStatements(COMPILED_CODE);
+            }
+            localVariableMaker.make();
+        } else if (!createStatements(comdwln, localVariableMaker)) {
+            // Byte code written: the local variables of the statements are dropped
+            localVariableMaker = new LocalVariableMaker(typeMaker, comdwln, comdwln instanceof ConstructorDeclaration, comdwln.getParameterTypes());
+            localVariableMaker.make();
+        }
+
+        if ((classFile.getAccessFlags() & FLAG_INTERFACE) != 0) {
+            // Flags of members may be updated concurrently (see 'parallelMethods')
+            synchronized (bodyDeclaration) {
+                comdwln.setFlags(comdwln.getFlags() & ~(FLAG_PUBLIC|FLAG_ABSTRACT));
+            }
+        }
+
+        comdwln.setFormalParameters(localVariableMaker.getFormalParameters());
+    }
+
+    /**
+     * @return true for the constructors and the static initializers: in outline mode, their byte code is only loaded
+     *         for the default constructors and the static initializers of the enums
+     */
+    protected static boolean isDecompiledInOutline(Method method) {
+        String name = method.getName();
+        return "<init>".equals(name) || "<clinit>".equals(name);
+    }
+
+    /**
+     * @return false if the method has been written as byte code
+     */
+    protected boolean createStatements(ClassFileConstructorOrMethodDeclaration comdwln, LocalVariableMaker localVariableMaker) {
+        Method method = comdwln.getMethod();
+        StatementMaker statementMaker = new StatementMaker(typeMaker, localVariableMaker, comdwln.getClassFile(), comdwln.getBodyDeclaration(), comdwln.getReturnedType());
+        Deadline deadline = classDeadline.min(Deadline.after(methodTimeout));
+        boolean degraded = false;
 
         try {
+            deadline.check();
+
             ControlFlowGraph cfg = ControlFlowGraphMaker.make(method);
 
-            if (cfg != null) {
-                ControlFlowGraphGotoReducer.reduce(cfg);
-                ControlFlowGraphLoopReducer.reduce(cfg);
+            if (cfg == null) {
+                localVariableMaker.make();
+                return true;
+            }
 
-                if (ControlFlowGraphReducer.reduce(cfg)) {
-                    comdwln.setStatements(statementMaker.make(cfg));
-                } else {
-                    comdwln.setStatements(new ByteCodeStatement(ByteCodeWriter.write("// ", method)));
-                }
+            cfg.setDeadline(deadline);
+            localVariableMaker.setDeadline(deadline);
+            ControlFlowGraphGotoReducer.reduce(cfg);
+            ControlFlowGraphLoopReducer.reduce(cfg);
+
+            if (ControlFlowGraphReducer.reduce(cfg)) {
+                comdwln.setStatements(statementMaker.make(cfg));
+                localVariableMaker.make();
+                return true;
             }
+        } catch (DeadlineExceededException e) {
+            // Time limit exceeded
+            degraded = true;
         } catch (Exception e) {
             assert ExceptionUtil.printStackTrace(e);
-            comdwln.setStatements(new ByteCodeStatement(ByteCodeWriter.write("// ", method)));
         }
 
-        if ((classFile.getAccessFlags() & FLAG_INTERFACE) != 0) {
-            comdwln.setFlags(comdwln.getFlags() & ~(FLAG_PUBLIC|FLAG_ABSTRACT));
+        comdwln.setStatements(new ByteCodeStatement(ByteCodeWriter.write("// ", method)));
+
+        if (degraded && (degradedMembers != null)) {
+            synchronized (degradedMembers) {
+                degradedMembers.add(comdwln.getClassFile().getInternalTypeName() + '.' + method.getName() + method.getDescriptor());
+            }
         }
 
-        localVariableMaker.make();
-        comdwln.setFormalParameters(localVariableMaker.getFormalParameters());
+        return false;
     }
 
     @Override
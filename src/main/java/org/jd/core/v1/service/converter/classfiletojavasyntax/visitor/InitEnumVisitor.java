@@ -60,6 +60,13 @@ public class InitEnumVisitor extends AbstractJavaSyntaxVisitor {
                 // Fix flags
                 cfcd.setFlags(0);
             }
+        } else if (cfcd.getFormalParameters() != null) {
+            // Body not decompiled (see 'outline' configuration) or written as byte code
+            FormalParameters parameters = (FormalParameters)cfcd.getFormalParameters();
+            // Remove name & index parameterTypes
+            parameters.subList(0, 2).clear();
+            // Fix flags
+            cfcd.setFlags(0);
         } else {
             cfcd.setFlags(FLAG_SYNTHETIC);
         }
@@ -9,6 +9,7 @@ package org.jd.core.v1.service.converter.classfiletojavasyntax.visitor;
 
 import org.jd.core.v1.model.classfile.ClassFile;
 import org.jd.core.v1.model.classfile.Constants;
+import org.jd.core.v1.model.classfile.Field;
 import org.jd.core.v1.model.javasyntax.AbstractJavaSyntaxVisitor;
 import org.jd.core.v1.model.javasyntax.declaration.*;
 import org.jd.core.v1.model.javasyntax.expression.*;
@@ -112,6 +113,9 @@ public class InitInnerClassVisitor extends AbstractJavaSyntaxVisitor {
 
                 iterator.remove();
             }
+        } else if ((cfcd.getFormalParameters() != null) && hasOuterThisField(cfcd.getClassFile())) {
+            // Body not decompiled (see 'outline' configuration): the first parameter is the outer instance
+            outerType = (ObjectType)cfcd.getFormalParameters().getFirst().getType();
         }
 
         // Remove synthetic parameterTypes
@@ -172,6 +176,18 @@ public class InitInnerClassVisitor extends AbstractJavaSyntaxVisitor {
         }
     }
 
+    protected static boolean hasOuterThisField(ClassFile classFile) {
+        if ((classFile.getOuterClassFile() != null) && ((classFile.getAccessFlags() & Constants.ACC_STATIC) == 0) && (classFile.getFields() != null)) {
+            for (Field field : classFile.getFields()) {
+                if (((field.getAccessFlags() & Constants.ACC_SYNTHETIC) != 0) && field.getName().startsWith("this$")) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
     @Override public void visit(MethodDeclaration declaration) {}
     @Override public void visit(StaticInitializerDeclaration declaration) {}
 
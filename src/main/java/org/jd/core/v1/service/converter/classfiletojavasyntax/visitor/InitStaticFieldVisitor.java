@@ -84,7 +84,7 @@ public class InitStaticFieldVisitor extends AbstractJavaSyntaxVisitor {
     public void visit(StaticInitializerDeclaration declaration) {
         staticDeclaration = (ClassFileStaticInitializerDeclaration) declaration;
 
-        if (!staticDeclaration.getStatements().isList()) {
+        if ((staticDeclaration.getStatements() == null) || !staticDeclaration.getStatements().isList()) {
             return;
         }
 
@@ -26,6 +26,17 @@ import java.util.List;
 public class RemoveDefaultConstructorVisitor extends AbstractJavaSyntaxVisitor {
     protected int constructorCounter;
     protected ClassFileMemberDeclaration constructor;
+    protected boolean keepTopLevelConstructor;
+
+    public RemoveDefaultConstructorVisitor() {}
+
+    /**
+     * @param keepTopLevelConstructor if true, the empty default constructor of the top-level type is kept; 'super();'
+     *                                is removed anyway.
+     */
+    public RemoveDefaultConstructorVisitor(boolean keepTopLevelConstructor) {
+        this.keepTopLevelConstructor = keepTopLevelConstructor;
+    }
 
     @Override
     public void visit(AnnotationDeclaration declaration) {
@@ -41,7 +52,7 @@ public class RemoveDefaultConstructorVisitor extends AbstractJavaSyntaxVisitor {
         constructorCounter = 0;
         safeAcceptListDeclaration(methods);
 
-        if ((constructorCounter == 1) && (constructor != null)) {
+        if ((constructorCounter == 1) && (constructor != null) && !(keepTopLevelConstructor && (bodyDeclaration.getOuterBodyDeclaration() == null))) {
             // Remove empty default constructor
             methods.remove(constructor);
         }
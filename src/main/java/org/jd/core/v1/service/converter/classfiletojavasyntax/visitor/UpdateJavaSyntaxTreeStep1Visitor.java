@@ -10,6 +10,7 @@ package org.jd.core.v1.service.converter.classfiletojavasyntax.visitor;
 import org.jd.core.v1.model.javasyntax.AbstractJavaSyntaxVisitor;
 import org.jd.core.v1.model.javasyntax.declaration.*;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.model.javasyntax.declaration.ClassFileBodyDeclaration;
+import org.jd.core.v1.service.converter.classfiletojavasyntax.util.CreateInstructionsOptions;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.util.TypeMaker;
 
 public class UpdateJavaSyntaxTreeStep1Visitor extends AbstractJavaSyntaxVisitor {
@@ -18,7 +19,11 @@ public class UpdateJavaSyntaxTreeStep1Visitor extends AbstractJavaSyntaxVisitor
     protected CreateInstructionsVisitor createInstructionsVisitor;
 
     public UpdateJavaSyntaxTreeStep1Visitor(TypeMaker typeMaker) {
-        createInstructionsVisitor = new CreateInstructionsVisitor(typeMaker);
+        this(typeMaker, CreateInstructionsOptions.DEFAULT);
+    }
+
+    public UpdateJavaSyntaxTreeStep1Visitor(TypeMaker typeMaker, CreateInstructionsOptions options) {
+        createInstructionsVisitor = new CreateInstructionsVisitor(typeMaker, options);
     }
 
     @Override
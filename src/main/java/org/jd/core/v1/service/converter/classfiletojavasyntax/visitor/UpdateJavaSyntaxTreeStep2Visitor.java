@@ -24,6 +24,28 @@ public class UpdateJavaSyntaxTreeStep2Visitor extends AbstractJavaSyntaxVisitor
     protected RemoveDefaultConstructorVisitor removeDefaultConstructorVisitor = new RemoveDefaultConstructorVisitor();
 
     protected TypeDeclaration typeDeclaration;
+    protected boolean member;
+    protected boolean outline;
+
+    public UpdateJavaSyntaxTreeStep2Visitor() {}
+
+    /**
+     * @param member if true, the top-level type is decompiled for one of its members: its member types, loaded for
+     *               their declarations only, are removed, and its empty default constructor is kept.
+     */
+    public UpdateJavaSyntaxTreeStep2Visitor(boolean member) {
+        this.member = member;
+        this.removeDefaultConstructorVisitor = new RemoveDefaultConstructorVisitor(member);
+    }
+
+    /**
+     * @param outline if true, the static initializers of the enums, decompiled for the arguments of the constants, are
+     *                removed once the constants are initialized.
+     */
+    public UpdateJavaSyntaxTreeStep2Visitor(boolean member, boolean outline) {
+        this(member);
+        this.outline = outline;
+    }
 
     @Override
     public void visit(BodyDeclaration declaration) {
@@ -42,8 +64,18 @@ public class UpdateJavaSyntaxTreeStep2Visitor extends AbstractJavaSyntaxVisitor
         // Visit declaration
         initInnerClassStep2Visitor.visit(declaration);
         initStaticFieldVisitor.visit(declaration);
+
+        if (outline && (bodyDeclaration.getMethodDeclarations() != null)) {
+            bodyDeclaration.getMethodDeclarations().removeIf(m -> m instanceof StaticInitializerDeclaration);
+        }
+
         initInstanceFieldVisitor.visit(declaration);
         removeDefaultConstructorVisitor.visit(declaration);
+
+        if (member && (bodyDeclaration.getOuterBodyDeclaration() == null) && (bodyDeclaration.getInnerTypeDeclarations() != null)) {
+            // Local types have been moved to statements; anonymous types are synthetic
+            bodyDeclaration.getInnerTypeDeclarations().removeIf(td -> (((TypeDeclaration)td).getFlags() & Declaration.FLAG_SYNTHETIC) == 0);
+        }
         AGGREGATE_FIELDS_VISITOR.visit(declaration);
         SORT_MEMBERS_VISITOR.visit(declaration);
 
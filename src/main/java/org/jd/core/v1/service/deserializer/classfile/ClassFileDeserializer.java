@@ -7,6 +7,8 @@
 
 package org.jd.core.v1.service.deserializer.classfile;
 
+import org.jd.core.v1.api.loader.BatchLoader;
+import org.jd.core.v1.api.loader.ByteBufferLoader;
 import org.jd.core.v1.api.loader.Loader;
 import org.jd.core.v1.model.classfile.ClassFile;
 import org.jd.core.v1.model.classfile.ConstantPool;
@@ -17,75 +19,239 @@ import org.jd.core.v1.model.classfile.constant.*;
 import org.jd.core.v1.util.DefaultList;
 
 import java.io.UTFDataFormatException;
-import java.util.HashMap;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
-import static org.jd.core.v1.model.classfile.Constants.ACC_SYNTHETIC;
+import static org.jd.core.v1.model.classfile.Constants.*;
+import static org.jd.core.v1.model.classfile.attribute.Attributes.ENCLOSING_METHOD;
+import static org.jd.core.v1.model.classfile.attribute.Attributes.INNER_CLASSES;
 
 
 public class ClassFileDeserializer {
+    protected static final int CODE_KEPT = 0;
+    protected static final int CODE_SKIPPED = 1;
+    protected static final int CODE_KEPT_IF_DEFAULT_CONSTRUCTOR = 2;
+
+    protected boolean lazyAttributes;
+    protected boolean lazyConstantPool;
+    protected Utf8InternTable internTable;
+    protected boolean skipCode;
+
+    public ClassFileDeserializer() {}
+
+    /**
+     * @param lazyAttributes if true, attributes are recorded as slices of the class file and are decoded the first
+     *                       time they are read.
+     */
+    public ClassFileDeserializer(boolean lazyAttributes) {
+        this.lazyAttributes = lazyAttributes;
+    }
+
+    /**
+     * @param lazyAttributes   if true, attributes are recorded as slices of the class file and are decoded the first
+     *                         time they are read.
+     * @param lazyConstantPool if true, UTF8 constants are decoded the first time they are read.
+     * @param internTable      table sharing the ASCII strings of the constant pools, may be null
+     */
+    public ClassFileDeserializer(boolean lazyAttributes, boolean lazyConstantPool, Utf8InternTable internTable) {
+        this(lazyAttributes, lazyConstantPool, internTable, false);
+    }
+
+    /**
+     * @param lazyAttributes   if true, attributes are recorded as slices of the class file and are decoded the first
+     *                         time they are read.
+     * @param lazyConstantPool if true, UTF8 constants are decoded the first time they are read.
+     * @param internTable      table sharing the ASCII strings of the constant pools, may be null
+     * @param skipCode         if true, 'Code' attributes are skipped: methods are loaded without their byte code,
+     *                         except the default constructors, to be removed, and the static initializers of the
+     *                         enums, declaring the arguments of the constants.
+     */
+    public ClassFileDeserializer(boolean lazyAttributes, boolean lazyConstantPool, Utf8InternTable internTable, boolean skipCode) {
+        this.lazyAttributes = lazyAttributes;
+        this.lazyConstantPool = lazyConstantPool;
+        this.internTable = internTable;
+        this.skipCode = skipCode;
+    }
 
     public ClassFile loadClassFile(Loader loader, String internalTypeName) throws Exception {
         return innerLoadClassFile(loader, internalTypeName);
     }
 
     public ClassFile innerLoadClassFile(Loader loader, String internalTypeName) throws Exception {
-        byte[] data = loader.load(internalTypeName);
+        ClassFileReader reader = newReader(loader, internalTypeName);
+        return (reader == null) ? null : innerLoadClassFile(loader, internalTypeName, reader);
+    }
 
-        if (data == null) {
-            return null;
+    protected ClassFileReader newReader(Loader loader, String internalTypeName) throws Exception {
+        if (loader instanceof ByteBufferLoader) {
+            ByteBuffer buffer = ((ByteBufferLoader)loader).loadByteBuffer(internalTypeName);
+            return (buffer == null) ? null : new ClassFileReader(buffer);
+        } else {
+            byte[] data = loader.load(internalTypeName);
+            return (data == null) ? null : new ClassFileReader(data);
+        }
+    }
+
+    protected ClassFileReader newReader(CompletableFuture<byte[]> future) throws Exception {
+        byte[] data;
+
+        try {
+            data = future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw (cause instanceof Exception) ? (Exception)cause : e;
         }
 
-        ClassFileReader reader = new ClassFileReader(data);
+        return (data == null) ? null : new ClassFileReader(data);
+    }
+
+    protected ClassFile innerLoadClassFile(Loader loader, String internalTypeName, CompletableFuture<byte[]> future) throws Exception {
+        ClassFileReader reader = newReader(future);
+        return (reader == null) ? null : innerLoadClassFile(loader, internalTypeName, reader);
+    }
 
+    protected ClassFile innerLoadClassFile(Loader loader, String internalTypeName, ClassFileReader reader) throws Exception {
         // Load main type
-        ClassFile classFile = loadClassFile(reader);
+        ClassFile classFile = loadClassFile(reader, null);
 
         // Load inner types
-        AttributeInnerClasses aic = classFile.getAttribute("InnerClasses");
+        loadInnerClassFiles(loader, internalTypeName, classFile, null);
+
+        return classFile;
+    }
+
+    /**
+     * Load 'internalTypeName' with the members needed to decompile one of its members only: the member, the synthetic
+     * fields and methods (accessors, lambda bodies of the member, ...) and the anonymous and local types declared by
+     * these methods. Member types are loaded without byte code and without their own inner types.
+     *
+     * @param memberDescriptor descriptor of the member, null to select all the members named 'memberName'
+     * @return null if the type is not found
+     */
+    public ClassFile loadClassFile(Loader loader, String internalTypeName, String memberName, String memberDescriptor) throws Exception {
+        ClassFileReader reader = newReader(loader, internalTypeName);
+
+        if (reader == null) {
+            return null;
+        }
+
+        MemberSelection selection = new MemberSelection(memberName, memberDescriptor);
+        ClassFile classFile = loadClassFile(reader, selection);
+
+        loadInnerClassFiles(loader, internalTypeName, classFile, selection);
+
+        return classFile;
+    }
+
+    /**
+     * @param selection selection of the members and of the inner types, null to load all of them
+     */
+    protected void loadInnerClassFiles(Loader loader, String internalTypeName, ClassFile classFile, MemberSelection selection) throws Exception {
+        AttributeInnerClasses aic = classFile.getAttribute(INNER_CLASSES);
 
         if (aic != null) {
-            DefaultList<ClassFile> innerClassFiles = new DefaultList<>();
+            DefaultList<InnerClass> innerClasses = new DefaultList<>();
             String innerTypePrefix = internalTypeName + '$';
 
             for (InnerClass ic : aic.getInnerClasses()) {
                 if (!internalTypeName.equals(ic.getInnerTypeName())) {
                     if (internalTypeName.equals(ic.getOuterTypeName()) || ic.getInnerTypeName().startsWith(innerTypePrefix)) {
-                        ClassFile innerClassFile = innerLoadClassFile(loader, ic.getInnerTypeName());
-                        int flags = ic.getInnerAccessFlags();
-                        int length;
-
-                        if (ic.getInnerTypeName().startsWith(innerTypePrefix)) {
-                            length = internalTypeName.length() + 1;
-                        } else {
-                            length = ic.getInnerTypeName().indexOf('$') + 1;
-                        }
-
-                        if (Character.isDigit(ic.getInnerTypeName().charAt(length))) {
-                            flags |= ACC_SYNTHETIC;
-                        }
-
-                        if (innerClassFile == null) {
-                            // Inner class not found. Create an empty one.
-                            innerClassFile = new ClassFile(classFile.getMajorVersion(), classFile.getMinorVersion(), 0, internalTypeName, "java/lang/Object", null, null, null, null);
-                        }
-
-                        innerClassFile.setOuterClassFile(classFile);
-                        innerClassFile.setAccessFlags(flags);
-                        innerClassFiles.add(innerClassFile);
+                        innerClasses.add(ic);
                     }
                 }
             }
 
+            // Request all inner types at once
+            Map<String, CompletableFuture<byte[]>> futures = null;
+
+            if ((loader instanceof BatchLoader) && !innerClasses.isEmpty()) {
+                HashSet<String> innerTypeNames = new HashSet<>();
+
+                for (InnerClass ic : innerClasses) {
+                    innerTypeNames.add(ic.getInnerTypeName());
+                }
+
+                futures = ((BatchLoader)loader).loadAll(innerTypeNames);
+            }
+
+            DefaultList<ClassFile> innerClassFiles = new DefaultList<>();
+
+            for (InnerClass ic : innerClasses) {
+                boolean anonymousOrLocal = isAnonymousOrLocal(internalTypeName, ic.getInnerTypeName());
+                ClassFile innerClassFile;
+
+                if ((selection != null) && !anonymousOrLocal) {
+                    // Member type: declarations only, used to resolve its instantiations
+                    innerClassFile = loadDeclarations(loader, ic.getInnerTypeName(), (futures == null) ? null : futures.get(ic.getInnerTypeName()));
+                } else {
+                    innerClassFile = (futures == null) ?
+                        innerLoadClassFile(loader, ic.getInnerTypeName()) :
+                        innerLoadClassFile(loader, ic.getInnerTypeName(), futures.get(ic.getInnerTypeName()));
+                }
+
+                int flags = ic.getInnerAccessFlags();
+
+                if (anonymousOrLocal) {
+                    flags |= ACC_SYNTHETIC;
+                }
+
+                if (innerClassFile == null) {
+                    // Inner class not found. Create an empty one.
+                    innerClassFile = new ClassFile(classFile.getMajorVersion(), classFile.getMinorVersion(), 0, internalTypeName, "java/lang/Object", null, null, null, null);
+                }
+
+                if ((selection != null) && !selection.isSelected(innerClassFile)) {
+                    // Declared by another member
+                    continue;
+                }
+
+                innerClassFile.setOuterClassFile(classFile);
+                innerClassFile.setAccessFlags(flags);
+                innerClassFiles.add(innerClassFile);
+            }
 
             if (!innerClassFiles.isEmpty()) {
                 classFile.setInnerClassFiles(innerClassFiles);
             }
         }
+    }
 
-        return classFile;
+    /**
+     * @param future pending load of the type, may be null
+     * @return the type without byte code and without inner types, null if the type is not found
+     */
+    protected ClassFile loadDeclarations(Loader loader, String internalTypeName, CompletableFuture<byte[]> future) throws Exception {
+        ClassFileReader reader = (future == null) ? newReader(loader, internalTypeName) : newReader(future);
+
+        return (reader == null) ? null : new ClassFileDeserializer(lazyAttributes, lazyConstantPool, internTable, true).loadClassFile(reader, null);
+    }
+
+    /**
+     * @return true if the simple name of the inner type starts with a digit
+     */
+    protected static boolean isAnonymousOrLocal(String internalTypeName, String innerTypeName) {
+        int length;
+
+        if (innerTypeName.startsWith(internalTypeName) && (innerTypeName.length() > internalTypeName.length()) && (innerTypeName.charAt(internalTypeName.length()) == '$')) {
+            length = internalTypeName.length() + 1;
+        } else {
+            length = innerTypeName.indexOf('$') + 1;
+        }
+
+        return (length < innerTypeName.length()) && Character.isDigit(innerTypeName.charAt(length));
     }
 
     protected ClassFile loadClassFile(ClassFileReader reader) throws UTFDataFormatException {
+        return loadClassFile(reader, null);
+    }
+
+    /**
+     * @param selection selection of the fields and methods, null to load all of them
+     */
+    protected ClassFile loadClassFile(ClassFileReader reader, MemberSelection selection) throws UTFDataFormatException {
         int magic = reader.readInt();
 
         if (magic != ClassFileReader.JAVA_MAGIC_NUMBER)
@@ -94,7 +260,7 @@ public class ClassFileDeserializer {
         int minorVersion = reader.readUnsignedShort();
         int majorVersion = reader.readUnsignedShort();
 
-        ConstantPool constants = new ConstantPool(loadConstants(reader));
+        ConstantPool constants = lazyConstantPool ? loadLazyConstantPool(reader) : new ConstantPool(loadConstants(reader));
 
         int accessFlags = reader.readUnsignedShort();
         int thisClassIndex = reader.readUnsignedShort();
@@ -104,8 +270,13 @@ public class ClassFileDeserializer {
         String superTypeName = (superClassIndex == 0) ? null : constants.getConstantTypeName(superClassIndex);
         String[] interfaceTypeNames = loadInterfaces(reader, constants);
         Field[] fields = loadFields(reader, constants);
-        Method[] methods = loadMethods(reader, constants);
-        HashMap<String, Attribute> attributes = loadAttributes(reader, constants);
+        Method[] methods = loadMethods(reader, constants, accessFlags);
+        Attributes attributes = loadAttributes(reader, constants);
+
+        if (selection != null) {
+            fields = selection.select(fields);
+            methods = selection.select(methods);
+        }
 
         return new ClassFile(majorVersion, minorVersion, accessFlags, internalTypeName, superTypeName, interfaceTypeNames, fields, methods, attributes);
     }
@@ -118,12 +289,40 @@ public class ClassFileDeserializer {
 
         Constant[] constants = new Constant[count];
 
-        for (int i=1; i<count; i++) {
+        loadConstants(reader, constants, null);
+
+        return constants;
+    }
+
+    protected ConstantPool loadLazyConstantPool(ClassFileReader reader) throws UTFDataFormatException {
+        int count = reader.readUnsignedShort();
+
+        if (count == 0)
+            return new ConstantPool(null);
+
+        Constant[] constants = new Constant[count];
+        int[] utf8Offsets = new int[count];
+
+        loadConstants(reader, constants, utf8Offsets);
+
+        return new LazyConstantPool(constants, reader.buffer, utf8Offsets, internTable);
+    }
+
+    /**
+     * @param utf8Offsets if not null, UTF8 entries are skipped and their offsets are stored in this array
+     */
+    protected void loadConstants(ClassFileReader reader, Constant[] constants, int[] utf8Offsets) throws UTFDataFormatException {
+        for (int i=1, count=constants.length; i<count; i++) {
             int tag = reader.readByte();
 
             switch (tag) {
                 case 1:
-                    constants[i] = new ConstantUtf8(reader.readUTF8());
+                    if (utf8Offsets == null) {
+                        constants[i] = new ConstantUtf8(reader.readUTF8(internTable));
+                    } else {
+                        utf8Offsets[i] = reader.getOffset();
+                        reader.skip(reader.readUnsignedShort());
+                    }
                     break;
                 case 3:
                     constants[i] = new ConstantInteger(reader.readInt());
@@ -159,8 +358,6 @@ public class ClassFileDeserializer {
                     throw new ClassFileFormatException("Invalid constant pool entry");
             }
         }
-
-        return constants;
     }
 
     protected String[] loadInterfaces(ClassFileReader reader, ConstantPool constants) {
@@ -189,7 +386,7 @@ public class ClassFileDeserializer {
             int accessFlags = reader.readUnsignedShort();
             int nameIndex = reader.readUnsignedShort();
             int signatureIndex = reader.readUnsignedShort();
-            HashMap<String, Attribute> attributes = loadAttributes(reader, constants);
+            Attributes attributes = loadAttributes(reader, constants);
 
             String name = constants.getConstantUtf8(nameIndex);
             String signature = constants.getConstantUtf8(signatureIndex);
@@ -200,7 +397,7 @@ public class ClassFileDeserializer {
         return fields;
     }
 
-    protected Method[] loadMethods(ClassFileReader reader, ConstantPool constants) {
+    protected Method[] loadMethods(ClassFileReader reader, ConstantPool constants, int classAccessFlags) {
         int count = reader.readUnsignedShort();
         if (count == 0)
             return null;
@@ -211,9 +408,9 @@ public class ClassFileDeserializer {
             int accessFlags = reader.readUnsignedShort();
             int nameIndex = reader.readUnsignedShort();
             int signatureIndex = reader.readUnsignedShort();
-            HashMap<String, Attribute> attributes = loadAttributes(reader, constants);
-
             String name = constants.getConstantUtf8(nameIndex);
+            Attributes attributes = loadAttributes(reader, constants, getCodeSelection(name, classAccessFlags));
+
             String signature = constants.getConstantUtf8(signatureIndex);
 
             methods[i] = new Method(accessFlags, name, signature, attributes, constants);
@@ -222,118 +419,224 @@ public class ClassFileDeserializer {
         return methods;
     }
 
-    protected HashMap<String, Attribute> loadAttributes(ClassFileReader reader, ConstantPool constants) {
+    protected int getCodeSelection(String methodName, int classAccessFlags) {
+        if (!skipCode) {
+            return CODE_KEPT;
+        }
+        if ("<init>".equals(methodName)) {
+            return CODE_KEPT_IF_DEFAULT_CONSTRUCTOR;
+        }
+        if (((classAccessFlags & ACC_ENUM) != 0) && "<clinit>".equals(methodName)) {
+            return CODE_KEPT;
+        }
+        return CODE_SKIPPED;
+    }
+
+    protected Attributes loadAttributes(ClassFileReader reader, ConstantPool constants) {
+        return loadAttributes(reader, constants, CODE_KEPT);
+    }
+
+    protected Attributes loadAttributes(ClassFileReader reader, ConstantPool constants, int codeSelection) {
         int count = reader.readUnsignedShort();
         if (count == 0)
             return null;
 
-        HashMap<String, Attribute> attributes = new HashMap<>();
+        if (lazyAttributes) {
+            LazyAttributes attributes = new LazyAttributes(reader.buffer, constants, count);
+
+            for (int i=0; i<count; i++) {
+                String name = loadAttributeName(reader, constants);
+                int attributeLength = reader.readInt();
+
+                if (!"Code".equals(name) || isCodeKept(reader, constants, codeSelection))
+                    attributes.add(name, reader.getOffset(), attributeLength);
+                reader.skip(attributeLength);
+            }
+
+            return attributes;
+        }
+
+        Attributes attributes = new Attributes(count);
 
         for (int i=0; i<count; i++) {
-            int attributeNameIndex = reader.readUnsignedShort();
+            String name = loadAttributeName(reader, constants);
             int attributeLength = reader.readInt();
 
-            Constant constant = constants.getConstant(attributeNameIndex);
-
-            if (constant.getTag() == Constant.CONSTANT_Utf8) {
-                String name = ((ConstantUtf8)constant).getValue();
-
-                switch (name) {
-                    case "AnnotationDefault":
-                        attributes.put(name, new AttributeAnnotationDefault(loadElementValue(reader, constants)));
-                        break;
-                    case "BootstrapMethods":
-                        attributes.put(name, new AttributeBootstrapMethods(loadBootstrapMethods(reader)));
-                        break;
-                    case "Code":
-                        attributes.put(name, new AttributeCode(
-                                reader.readUnsignedShort(), reader.readUnsignedShort(),
-                                loadCode(reader), loadCodeExceptions(reader), loadAttributes(reader, constants)));
-                        break;
-                    case "ConstantValue":
-                        if (attributeLength != 2)
-                            throw new ClassFileFormatException("Invalid attribute length");
-                        attributes.put(name, new AttributeConstantValue(loadConstantValue(reader, constants)));
-                        break;
-                    case "Deprecated":
-                        if (attributeLength != 0)
-                            throw new ClassFileFormatException("Invalid attribute length");
-                        attributes.put(name, new AttributeDeprecated());
-                        break;
-                    case "Exceptions":
-                        attributes.put(name, new AttributeExceptions(loadExceptionTypeNames(reader, constants)));
-                        break;
-                    case "InnerClasses":
-                        attributes.put(name, new AttributeInnerClasses(loadInnerClasses(reader, constants)));
-                        break;
-                    case "LocalVariableTable":
-                        LocalVariable[] localVariables = loadLocalVariables(reader, constants);
-                        if (localVariables != null)
-                            attributes.put(name, new AttributeLocalVariableTable(localVariables));
-                        break;
-                    case "LocalVariableTypeTable":
-                        attributes.put(name, new AttributeLocalVariableTypeTable(loadLocalVariableTypes(reader, constants)));
-                        break;
-                    case "LineNumberTable":
-                        attributes.put(name, new AttributeLineNumberTable(loadLineNumbers(reader)));
-                        break;
-                    case "MethodParameters":
-                        attributes.put(name, new AttributeMethodParameters(loadParameters(reader, constants)));
-                        break;
-                    case "Module":
-                        attributes.put(name, new AttributeModule(
-                                constants.getConstantTypeName(reader.readUnsignedShort()),
-                                reader.readUnsignedShort(),
-                                constants.getConstantUtf8(reader.readUnsignedShort()),
-                                loadModuleInfos(reader, constants),
-                                loadPackageInfos(reader, constants),
-                                loadPackageInfos(reader, constants),
-                                loadConstantClassNames(reader, constants),
-                                loadServiceInfos(reader, constants)));
-                        break;
-                    case "ModulePackages":
-                        attributes.put(name, new AttributeModulePackages(loadConstantClassNames(reader, constants)));
-                        break;
-                    case "ModuleMainClass":
-                        attributes.put(name, new AttributeModuleMainClass(constants.getConstant(reader.readUnsignedShort())));
-                        break;
-                    case "RuntimeInvisibleAnnotations":
-                    case "RuntimeVisibleAnnotations":
-                        Annotation[] annotations = loadAnnotations(reader, constants);
-                        if (annotations != null)
-                            attributes.put(name, new Annotations(annotations));
-                        break;
-                    case "RuntimeInvisibleParameterAnnotations":
-                    case "RuntimeVisibleParameterAnnotations":
-                        attributes.put(name, new AttributeParameterAnnotations(loadParameterAnnotations(reader, constants)));
-                        break;
-                    case "Signature":
-                        if (attributeLength != 2)
-                            throw new ClassFileFormatException("Invalid attribute length");
-                        attributes.put(name, new AttributeSignature(constants.getConstantUtf8(reader.readUnsignedShort())));
-                        break;
-                    case "SourceFile":
-                        if (attributeLength != 2)
-                            throw new ClassFileFormatException("Invalid attribute length");
-                        attributes.put(name, new AttributeSourceFile(constants.getConstantUtf8(reader.readUnsignedShort())));
-                        break;
-                    case "Synthetic":
-                        if (attributeLength != 0)
-                            throw new ClassFileFormatException("Invalid attribute length");
-                        attributes.put(name, new AttributeSynthetic());
-                        break;
-                    default:
-                        attributes.put(name, new UnknownAttribute());
-                        reader.skip(attributeLength);
-                }
-            } else {
-                throw new ClassFileFormatException("Invalid attributes");
+            if ("Code".equals(name) && !isCodeKept(reader, constants, codeSelection)) {
+                reader.skip(attributeLength);
+                continue;
             }
+
+            Attribute attribute = loadAttribute(reader, constants, name, attributeLength);
+
+            if (attribute != null)
+                attributes.add(name, attribute);
         }
 
         return attributes;
     }
 
+    /**
+     * @param reader        reader positioned on the content of a 'Code' attribute
+     * @param codeSelection CODE_KEPT, CODE_SKIPPED or CODE_KEPT_IF_DEFAULT_CONSTRUCTOR
+     */
+    protected boolean isCodeKept(ClassFileReader reader, ConstantPool constants, int codeSelection) {
+        switch (codeSelection) {
+            case CODE_KEPT:
+                return true;
+            case CODE_SKIPPED:
+                return false;
+            default:
+                return isDefaultConstructorCode(reader.buffer, reader.getOffset(), constants);
+        }
+    }
+
+    /**
+     * @return true if the byte code only loads 'this' and the parameters, stores into synthetic fields, calls one
+     *         constructor and returns: the body of a default constructor
+     */
+    protected static boolean isDefaultConstructorCode(ByteBuffer buffer, int offset, ConstantPool constants) {
+        // Skip 'max_stack' and 'max_locals'
+        int codeLength = buffer.getInt(offset + 4);
+        int start = offset + 8;
+        int end = start + codeLength;
+        int invocationCount = 0;
+
+        offset = start;
+
+        while (offset < end) {
+            int opcode = buffer.get(offset++) & 255;
+
+            switch (opcode) {
+                case 21: case 25: // iload, aload
+                    offset++;
+                    break;
+                case 26: case 27: case 28: case 29: // iload_<n>
+                case 42: case 43: case 44: case 45: // aload_<n>
+                    break;
+                case 181: // putfield
+                    ConstantMemberRef constantMemberRef = constants.getConstant(buffer.getShort(offset) & 0xffff);
+                    ConstantNameAndType constantNameAndType = constants.getConstant(constantMemberRef.getNameAndTypeIndex());
+                    String name = constants.getConstantUtf8(constantNameAndType.getNameIndex());
+
+                    if (!name.startsWith("this$") && !name.startsWith("val$")) {
+                        return false;
+                    }
+                    offset += 2;
+                    break;
+                case 183: // invokespecial
+                    invocationCount++;
+                    offset += 2;
+                    break;
+                case 177: // return
+                    return (offset == end) && (invocationCount == 1);
+                default:
+                    return false;
+            }
+        }
+
+        return false;
+    }
+
+    protected String loadAttributeName(ClassFileReader reader, ConstantPool constants) {
+        int attributeNameIndex = reader.readUnsignedShort();
+        Constant constant = constants.getConstant(attributeNameIndex);
+
+        if (constant.getTag() == Constant.CONSTANT_Utf8) {
+            return ((ConstantUtf8)constant).getValue();
+        } else {
+            throw new ClassFileFormatException("Invalid attributes");
+        }
+    }
+
+    protected Attribute loadAttribute(ClassFileReader reader, ConstantPool constants, String name, int attributeLength) {
+        switch (name) {
+            case "AnnotationDefault":
+                return new AttributeAnnotationDefault(loadElementValue(reader, constants));
+            case "BootstrapMethods":
+                return new AttributeBootstrapMethods(loadBootstrapMethods(reader));
+            case "Code":
+                return new AttributeCode(
+                        reader.readUnsignedShort(), reader.readUnsignedShort(),
+                        loadCode(reader), loadCodeExceptions(reader), loadAttributes(reader, constants));
+            case "ConstantValue":
+                if (attributeLength != 2)
+                    throw new ClassFileFormatException("Invalid attribute length");
+                return new AttributeConstantValue(loadConstantValue(reader, constants));
+            case "Deprecated":
+                if (attributeLength != 0)
+                    throw new ClassFileFormatException("Invalid attribute length");
+                return new AttributeDeprecated();
+            case "EnclosingMethod":
+                if (attributeLength != 4)
+                    throw new ClassFileFormatException("Invalid attribute length");
+                return loadEnclosingMethod(reader, constants);
+            case "Exceptions":
+                return new AttributeExceptions(loadExceptionTypeNames(reader, constants));
+            case "InnerClasses":
+                return new AttributeInnerClasses(loadInnerClasses(reader, constants));
+            case "LocalVariableTable":
+                LocalVariable[] localVariables = loadLocalVariables(reader, constants);
+                return (localVariables == null) ? null : new AttributeLocalVariableTable(localVariables);
+            case "LocalVariableTypeTable":
+                return new AttributeLocalVariableTypeTable(loadLocalVariableTypes(reader, constants));
+            case "LineNumberTable":
+                return new AttributeLineNumberTable(loadLineNumbers(reader));
+            case "MethodParameters":
+                return new AttributeMethodParameters(loadParameters(reader, constants));
+            case "Module":
+                return new AttributeModule(
+                        constants.getConstantTypeName(reader.readUnsignedShort()),
+                        reader.readUnsignedShort(),
+                        constants.getConstantUtf8(reader.readUnsignedShort()),
+                        loadModuleInfos(reader, constants),
+                        loadPackageInfos(reader, constants),
+                        loadPackageInfos(reader, constants),
+                        loadConstantClassNames(reader, constants),
+                        loadServiceInfos(reader, constants));
+            case "ModulePackages":
+                return new AttributeModulePackages(loadConstantClassNames(reader, constants));
+            case "ModuleMainClass":
+                return new AttributeModuleMainClass(constants.getConstant(reader.readUnsignedShort()));
+            case "RuntimeInvisibleAnnotations":
+            case "RuntimeVisibleAnnotations":
+                Annotation[] annotations = loadAnnotations(reader, constants);
+                return (annotations == null) ? null : new Annotations(annotations);
+            case "RuntimeInvisibleParameterAnnotations":
+            case "RuntimeVisibleParameterAnnotations":
+                return new AttributeParameterAnnotations(loadParameterAnnotations(reader, constants));
+            case "Signature":
+                if (attributeLength != 2)
+                    throw new ClassFileFormatException("Invalid attribute length");
+                return new AttributeSignature(constants.getConstantUtf8(reader.readUnsignedShort()));
+            case "SourceFile":
+                if (attributeLength != 2)
+                    throw new ClassFileFormatException("Invalid attribute length");
+                return new AttributeSourceFile(constants.getConstantUtf8(reader.readUnsignedShort()));
+            case "Synthetic":
+                if (attributeLength != 0)
+                    throw new ClassFileFormatException("Invalid attribute length");
+                return new AttributeSynthetic();
+
+            default:
+                reader.skip(attributeLength);
+                return new UnknownAttribute();
+        }
+    }
+
+    protected AttributeEnclosingMethod loadEnclosingMethod(ClassFileReader reader, ConstantPool constants) {
+        String internalTypeName = constants.getConstantTypeName(reader.readUnsignedShort());
+        int methodIndex = reader.readUnsignedShort();
+
+        if (methodIndex == 0) {
+            return new AttributeEnclosingMethod(internalTypeName, null, null);
+        }
+
+        ConstantNameAndType cnat = constants.getConstant(methodIndex);
+
+        return new AttributeEnclosingMethod(internalTypeName, constants.getConstantUtf8(cnat.getNameIndex()), constants.getConstantUtf8(cnat.getDescriptorIndex()));
+    }
+
     protected ElementValue loadElementValue(ClassFileReader reader, ConstantPool constants) {
         int type = reader.readByte();
 
@@ -674,4 +977,146 @@ public class ClassFileDeserializer {
 
         return parameterAnnotations;
     }
+
+    /**
+     * Members retained to decompile one member: the member, the synthetic fields and methods, except the lambda bodies
+     * of other members, and the static methods whose name contains '$', accessors of old compilers for example. The
+     * retained members, other than the member and the bridge methods, are flagged synthetic.
+     */
+    protected static class MemberSelection {
+        protected String name;
+        protected String descriptor;
+        protected String lambdaPrefix;
+
+        public MemberSelection(String name, String descriptor) {
+            this.name = name;
+            this.descriptor = descriptor;
+
+            // Name of the lambda bodies created by javac: 'lambda$' + method name + '$' + index
+            if ("<init>".equals(name)) {
+                this.lambdaPrefix = "lambda$new$";
+            } else if ("<clinit>".equals(name)) {
+                this.lambdaPrefix = "lambda$static$";
+            } else {
+                this.lambdaPrefix = "lambda$" + name + '$';
+            }
+        }
+
+        public boolean isSelected(String name, String descriptor) {
+            return this.name.equals(name) && ((this.descriptor == null) || this.descriptor.equals(descriptor));
+        }
+
+        public Field[] select(Field[] fields) {
+            if (fields == null) {
+                return null;
+            }
+
+            DefaultList<Field> list = new DefaultList<>();
+
+            for (Field field : fields) {
+                if (isSelected(field.getName(), field.getDescriptor())) {
+                    list.add(field);
+                } else if (((field.getAccessFlags() & ACC_SYNTHETIC) != 0) || (field.getName().indexOf('$') != -1)) {
+                    // Not printed, even if not flagged by old compilers
+                    field.setAccessFlags(field.getAccessFlags() | ACC_SYNTHETIC);
+                    list.add(field);
+                }
+            }
+
+            return list.isEmpty() ? null : list.toArray(new Field[0]);
+        }
+
+        public Method[] select(Method[] methods) {
+            if (methods == null) {
+                return null;
+            }
+
+            DefaultList<Method> list = new DefaultList<>();
+
+            for (Method method : methods) {
+                if (isSelected(method.getName(), method.getDescriptor())) {
+                    list.add(method);
+                } else if (isSynthetic(method)) {
+                    if ((method.getAccessFlags() & ACC_BRIDGE) == 0) {
+                        // Not printed, even if not flagged by old compilers
+                        method.setAccessFlags(method.getAccessFlags() | ACC_SYNTHETIC);
+                    }
+                    list.add(method);
+                }
+            }
+
+            return list.isEmpty() ? null : list.toArray(new Method[0]);
+        }
+
+        /**
+         * @return false if the type is declared by another member
+         */
+        public boolean isSelected(ClassFile innerClassFile) {
+            AttributeEnclosingMethod aem = innerClassFile.getAttribute(ENCLOSING_METHOD);
+
+            if ((aem == null) || (aem.getName() == null)) {
+                // Unknown, or declared by an initializer
+                return true;
+            }
+
+            String name = aem.getName();
+
+            return isSelected(name, aem.getDescriptor()) || (name.startsWith("lambda$") && isSelectedLambda(name));
+        }
+
+        protected boolean isSynthetic(Method method) {
+            String name = method.getName();
+
+            if (name.startsWith("lambda$")) {
+                return isSelectedLambda(name);
+            }
+
+            return ((method.getAccessFlags() & (ACC_SYNTHETIC|ACC_BRIDGE)) != 0) || (((method.getAccessFlags() & ACC_STATIC) != 0) && (name.indexOf('$') != -1));
+        }
+
+        protected boolean isSelectedLambda(String name) {
+            // Lambda bodies of javac 8 nested in other lambda bodies are named 'lambda$null$' + index, the ones of
+            // Eclipse 'lambda$' + index
+            return name.startsWith(lambdaPrefix) || name.startsWith("lambda$null$") || ((name.length() > 7) && Character.isDigit(name.charAt(7)));
+        }
+    }
+
+    /*
+     * Attributes decoded on demand. Attributes of a class are shared by the methods converted in parallel: decodings
+     * are synchronized.
+     */
+    protected class LazyAttributes extends Attributes {
+        protected ByteBuffer buffer;
+        protected ConstantPool constants;
+        protected int[] offsets;
+        protected int[] lengths;
+
+        public LazyAttributes(ByteBuffer buffer, ConstantPool constants, int capacity) {
+            super(capacity);
+            this.buffer = buffer;
+            this.constants = constants;
+            this.offsets = new int[capacity];
+            this.lengths = new int[capacity];
+        }
+
+        public void add(String name, int offset, int length) {
+            int index = add(name, null);
+
+            offsets[index] = offset;
+            lengths[index] = length;
+        }
+
+        @Override
+        public synchronized Attribute getAttributeAt(int index) {
+            if (lengths[index] != -1) {
+                ClassFileReader reader = new ClassFileReader(buffer);
+
+                reader.setOffset(offsets[index]);
+                attributes[index] = loadAttribute(reader, constants, getNameAt(index), lengths[index]);
+                lengths[index] = -1;
+            }
+
+            return attributes[index];
+        }
+    }
 }
@@ -8,15 +8,42 @@
 package org.jd.core.v1.service.deserializer.classfile;
 
 import java.io.UTFDataFormatException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 public class ClassFileReader {
     public static final int JAVA_MAGIC_NUMBER = 0xCafeBabe;
 
-    protected byte[] data;
-    protected int    offset = 0;
+    protected ByteBuffer buffer;
+    protected int        offset = 0;
 
     public ClassFileReader(byte[] data) {
-        this.data = data;
+        this.buffer = ByteBuffer.wrap(data);
+    }
+
+    /**
+     * Read the remaining bytes of a heap or direct buffer, without copying them. The buffer is not modified.
+     */
+    public ClassFileReader(ByteBuffer buffer) {
+        // Big endian, whatever the order of the given buffer
+        this.buffer = buffer.slice();
+    }
+
+    /**
+     * Read a buffer already sliced by another reader, from the given offset.
+     */
+    ClassFileReader(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public void setOffset(int offset) {
+        this.offset = offset;
     }
 
     public void skip(int length) {
@@ -24,19 +51,23 @@ public class ClassFileReader {
     }
 
     public byte readByte() {
-        return data[offset++];
+        return buffer.get(offset++);
     }
 
     public int readUnsignedByte() {
-        return (data[offset++] & 0xff);
+        return (buffer.get(offset++) & 0xff);
     }
 
     public int readUnsignedShort() {
-        return ((data[offset++] & 0xff) << 8) | (data[offset++] & 0xff);
+        int value = buffer.getShort(offset) & 0xffff;
+        offset += 2;
+        return value;
     }
 
     public final int readInt() {
-        return ((data[offset++] & 0xff) << 24) | ((data[offset++] & 0xff) << 16) | ((data[offset++] & 0xff) << 8) | (data[offset++] & 0xff);
+        int value = buffer.getInt(offset);
+        offset += 4;
+        return value;
     }
 
     public final float readFloat() {
@@ -44,9 +75,9 @@ public class ClassFileReader {
     }
 
     public long readLong() {
-        long hi  = ((data[offset++] & 0xff) << 24) | ((data[offset++] & 0xff) << 16) | ((data[offset++] & 0xff) << 8) | (data[offset++] & 0xff);
-        long low = ((data[offset++] & 0xff) << 24) | ((data[offset++] & 0xff) << 16) | ((data[offset++] & 0xff) << 8) | (data[offset++] & 0xff);
-        return ((hi & 0xffffffffL) << 32) | (low  & 0xffffffffL);
+        long value = buffer.getLong(offset);
+        offset += 8;
+        return value;
     }
 
     public double readDouble() {
@@ -54,21 +85,36 @@ public class ClassFileReader {
     }
 
     public void readFully(byte target[]) {
-        int length = target.length;
-        System.arraycopy(data, offset, target, 0, length);
-        offset += length;
+        ByteBuffer duplicate = buffer.duplicate();
+        ((Buffer)duplicate).position(offset);
+        duplicate.get(target);
+        offset += target.length;
     }
 
     public String readUTF8() throws UTFDataFormatException {
+        return readUTF8(null);
+    }
+
+    /**
+     * @param internTable table sharing the ASCII strings, may be null
+     */
+    public String readUTF8(Utf8InternTable internTable) throws UTFDataFormatException {
         int utflenx = readUnsignedShort();
 
+        // Fast path: most strings of class files are ASCII
+        if (isAscii(offset, utflenx)) {
+            String string = (internTable == null) ? newAsciiString(buffer, offset, utflenx) : internTable.intern(buffer, offset, utflenx);
+            offset += utflenx;
+            return string;
+        }
+
         char[] charArray = new char[utflenx];
         int maxOffset = offset + utflenx;
         int c, char2, char3;
         int charArrayOffset = 0;
 
         while (offset < maxOffset) {
-            c = (int) data[offset++] & 0xff;
+            c = (int) buffer.get(offset++) & 0xff;
             switch (c >> 4) {
                 case 0: case 1: case 2: case 3: case 4: case 5: case 6: case 7:
                     /* 0xxxxxxx*/
@@ -78,7 +124,7 @@ public class ClassFileReader {
                     /* 110x xxxx   10xx xxxx*/
                     if (offset+1 > maxOffset)
                         throw new UTFDataFormatException("malformed input: partial character at end");
-                    char2 = (int)data[offset++];
+                    char2 = (int)buffer.get(offset++);
                     if ((char2 & 0xC0) != 0x80)
                         throw new UTFDataFormatException("malformed input around byte " + offset);
                     charArray[charArrayOffset++] = (char)(((c & 0x1F) << 6) | (char2 & 0x3F));
@@ -87,8 +133,8 @@ public class ClassFileReader {
                     /* 1110 xxxx  10xx xxxx  10xx xxxx */
                     if (offset+2 > maxOffset)
                         throw new UTFDataFormatException("malformed input: partial character at end");
-                    char2 = (int)data[offset++];
-                    char3 = (int)data[offset++];
+                    char2 = (int)buffer.get(offset++);
+                    char3 = (int)buffer.get(offset++);
                     if (((char2 & 0xC0) != 0x80) || ((char3 & 0xC0) != 0x80))
                         throw new UTFDataFormatException("malformed input around byte " + (offset-1));
                     charArray[charArrayOffset++] = (char)(((c & 0x0F) << 12) | ((char2 & 0x3F) << 6) | ((char3 & 0x3F) << 0));
@@ -102,4 +148,26 @@ public class ClassFileReader {
         // The number of chars produced may be less than utflen
         return new String(charArray, 0, charArrayOffset);
     }
+
+    protected boolean isAscii(int offset, int length) {
+        for (int i=offset, end=offset+length; i<end; i++) {
+            if (buffer.get(i) < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    static String newAsciiString(ByteBuffer buffer, int offset, int length) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + offset, length, StandardCharsets.ISO_8859_1);
+        }
+
+        byte[] bytes = new byte[length];
+        ByteBuffer duplicate = buffer.duplicate();
+        ((Buffer)duplicate).position(offset);
+        duplicate.get(bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
 }
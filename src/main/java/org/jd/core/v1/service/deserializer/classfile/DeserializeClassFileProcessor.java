@@ -12,19 +12,44 @@ import org.jd.core.v1.model.classfile.ClassFile;
 import org.jd.core.v1.model.message.Message;
 import org.jd.core.v1.model.processor.Processor;
 
+import java.util.Map;
+
 /**
  * Create a ClassFile model from a loader and a internal lastType name.<br><br>
  *
+ * If the configuration option 'lazyAttributes' is set, attributes are decoded the first time they are read.<br>
+ * If the configuration option 'lazyConstantPool' is set, UTF8 constants are decoded the first time they are read.<br>
+ * The configuration option 'utf8InternTable' may hold a {@link Utf8InternTable} shared by the class files of a
+ * batch.<br>
+ * If the configuration option 'outline' is set, 'Code' attributes are skipped, except the ones of the default
+ * constructors and of the static initializers of the enums.<br>
+ * If the configuration option 'memberName' is set, only the members needed to decompile the members with this name,
+ * and this descriptor if the option 'memberDescriptor' is set, are loaded (see
+ * {@link ClassFileDeserializer#loadClassFile(Loader, String, String, String)}).<br><br>
+ *
  * Input:  -<br>
  * Output: {@link org.jd.core.v1.model.classfile.ClassFile}<br>
  */
 public class DeserializeClassFileProcessor extends ClassFileDeserializer implements Processor {
-
     @Override
     public void process(Message message) throws Exception {
         Loader loader = message.getHeader("loader");
         String internalTypeName = message.getHeader("mainInternalTypeName");
-        ClassFile classFile = loadClassFile(loader, internalTypeName);
+        Map<String, Object> configuration = message.getHeader("configuration");
+        Object lazyAttributesConfiguration = (configuration == null) ? "false" : configuration.get("lazyAttributes");
+        boolean lazyAttributes = (lazyAttributesConfiguration == null) ? false : !"false".equals(lazyAttributesConfiguration.toString());
+        Object lazyConstantPoolConfiguration = (configuration == null) ? "false" : configuration.get("lazyConstantPool");
+        boolean lazyConstantPool = (lazyConstantPoolConfiguration == null) ? false : !"false".equals(lazyConstantPoolConfiguration.toString());
+        Object internTableConfiguration = (configuration == null) ? null : configuration.get("utf8InternTable");
+        Utf8InternTable internTable = (internTableConfiguration instanceof Utf8InternTable) ? (Utf8InternTable)internTableConfiguration : null;
+        Object outlineConfiguration = (configuration == null) ? "false" : configuration.get("outline");
+        boolean outline = (outlineConfiguration == null) ? false : !"false".equals(outlineConfiguration.toString());
+        ClassFileDeserializer deserializer = (lazyAttributes || lazyConstantPool || (internTable != null) || outline) ? new ClassFileDeserializer(lazyAttributes, lazyConstantPool, internTable, outline) : this;
+        Object memberName = (configuration == null) ? null : configuration.get("memberName");
+        Object memberDescriptor = (configuration == null) ? null : configuration.get("memberDescriptor");
+        ClassFile classFile = (memberName == null) ?
+            deserializer.loadClassFile(loader, internalTypeName) :
+            deserializer.loadClassFile(loader, internalTypeName, memberName.toString(), (memberDescriptor == null) ? null : memberDescriptor.toString());
 
         message.setBody(classFile);
     }
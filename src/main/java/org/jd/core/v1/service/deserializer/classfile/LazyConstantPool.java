@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.service.deserializer.classfile;
+
+import org.jd.core.v1.model.classfile.ConstantPool;
+import org.jd.core.v1.model.classfile.constant.Constant;
+import org.jd.core.v1.model.classfile.constant.ConstantUtf8;
+
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+
+/**
+ * Constant pool recording the offsets of the UTF8 entries: strings are decoded the first time they are read. The
+ * other entries are small and are decoded by the deserializer.<br><br>
+ *
+ * Decoded entries are published without lock: a race only decodes a string twice, and {@link ConstantUtf8} is
+ * immutable.
+ */
+public class LazyConstantPool extends ConstantPool {
+    protected ByteBuffer buffer;
+    protected int[] utf8Offsets;
+    protected Utf8InternTable internTable;
+
+    /**
+     * @param utf8Offsets offsets of the UTF8 entries in the buffer, 0 for the other entries
+     * @param internTable table sharing the ASCII strings, may be null
+     */
+    public LazyConstantPool(Constant[] constants, ByteBuffer buffer, int[] utf8Offsets, Utf8InternTable internTable) {
+        super(constants);
+        this.buffer = buffer;
+        this.utf8Offsets = utf8Offsets;
+        this.internTable = internTable;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends Constant> T getConstant(int index) {
+        Constant constant = constants[index];
+
+        if ((constant == null) && (utf8Offsets[index] != 0)) {
+            try {
+                constant = new ConstantUtf8(new ClassFileReader(buffer, utf8Offsets[index]).readUTF8(internTable));
+            } catch (UTFDataFormatException e) {
+                throw new ClassFileFormatException(e.getMessage());
+            }
+
+            constants[index] = constant;
+        }
+
+        return (T)constant;
+    }
+}
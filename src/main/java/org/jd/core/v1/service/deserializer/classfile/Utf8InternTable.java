@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.service.deserializer.classfile;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Bounded table of the ASCII constant pool strings, shared by the class files of a batch. Type names, descriptors
+ * and member names are repeated in most class files: the table returns the same String instance for equal
+ * strings.<br><br>
+ *
+ * The table is a direct-mapped cache: a new string replaces the previous one of its slot, and the memory used is
+ * bounded by the number of slots. Instances are thread safe without lock: slots hold immutable strings and a lost
+ * update only costs a duplicate string.<br><br>
+ *
+ * Pass an instance with the configuration key "utf8InternTable" to each call of
+ * {@link org.jd.core.v1.api.Decompiler#decompile}.
+ */
+public class Utf8InternTable {
+    protected static final int DEFAULT_CAPACITY = 1 << 14;
+    protected static final int MAX_LENGTH = 256;
+
+    protected final String[] slots;
+    protected final int mask;
+
+    public Utf8InternTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity maximum number of strings, rounded up to a power of two
+     */
+    public Utf8InternTable(int capacity) {
+        int length = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+
+        this.slots = new String[length];
+        this.mask = length - 1;
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * @param buffer buffer containing only ASCII characters between 'offset' and 'offset + length'
+     * @return a string equal to the ASCII characters, shared with the previous calls when possible
+     */
+    public String intern(ByteBuffer buffer, int offset, int length) {
+        if (length > MAX_LENGTH) {
+            return ClassFileReader.newAsciiString(buffer, offset, length);
+        }
+
+        // Same value as String.hashCode() for ASCII strings
+        int hashCode = 0;
+
+        for (int i=offset, end=offset+length; i<end; i++) {
+            hashCode = 31 * hashCode + buffer.get(i);
+        }
+
+        int index = (hashCode ^ (hashCode >>> 16)) & mask;
+        String string = slots[index];
+
+        if ((string == null) || (string.hashCode() != hashCode) || !equals(string, buffer, offset, length)) {
+            string = ClassFileReader.newAsciiString(buffer, offset, length);
+            slots[index] = string;
+        }
+
+        return string;
+    }
+
+    protected static boolean equals(String string, ByteBuffer buffer, int offset, int length) {
+        if (string.length() != length) {
+            return false;
+        }
+
+        for (int i=0; i<length; i++) {
+            if (string.charAt(i) != buffer.get(offset + i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
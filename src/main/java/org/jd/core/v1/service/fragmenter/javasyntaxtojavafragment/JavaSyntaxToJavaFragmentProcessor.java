@@ -8,6 +8,7 @@
 package org.jd.core.v1.service.fragmenter.javasyntaxtojavafragment;
 
 import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.model.fragment.Fragment;
 import org.jd.core.v1.model.javafragment.ImportsFragment;
 import org.jd.core.v1.model.javasyntax.CompilationUnit;
 import org.jd.core.v1.model.message.Message;
@@ -15,9 +16,15 @@ import org.jd.core.v1.model.processor.Processor;
 import org.jd.core.v1.service.fragmenter.javasyntaxtojavafragment.visitor.CompilationUnitVisitor;
 import org.jd.core.v1.service.fragmenter.javasyntaxtojavafragment.visitor.SearchImportsVisitor;
 
+import java.util.List;
+import java.util.function.Consumer;
+
 /**
  * Convert a Java syntax model to a list of fragments.<br><br>
  *
+ * If the header 'fragmentConsumer' is set, the fragments of each top-level member are passed to the consumer as soon
+ * as they are built, and are released from the output list.<br><br>
+ *
  * Input:  {@link org.jd.core.v1.model.javasyntax.CompilationUnit}<br>
  * Output: List<{@link org.jd.core.v1.model.fragment.Fragment}><br>
  */
@@ -34,8 +41,10 @@ public class JavaSyntaxToJavaFragmentProcessor implements Processor {
         ImportsFragment importsFragment = importsVisitor.getImportsFragment();
         message.setHeader("maxLineNumber", importsVisitor.getMaxLineNumber());
 
-        CompilationUnitVisitor visitor = new CompilationUnitVisitor(loader, mainInternalTypeName, majorVersion, importsFragment);
+        Consumer<List<Fragment>> fragmentConsumer = message.getHeader("fragmentConsumer");
+        CompilationUnitVisitor visitor = new CompilationUnitVisitor(loader, mainInternalTypeName, majorVersion, importsFragment, fragmentConsumer);
         visitor.visit(compilationUnit);
+        visitor.flush();
         message.setBody(visitor.getFragments());
     }
 }
@@ -8,6 +8,7 @@
 package org.jd.core.v1.service.fragmenter.javasyntaxtojavafragment.visitor;
 
 import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.model.fragment.Fragment;
 import org.jd.core.v1.model.javafragment.*;
 import org.jd.core.v1.model.javasyntax.AbstractJavaSyntaxVisitor;
 import org.jd.core.v1.model.javasyntax.CompilationUnit;
@@ -23,6 +24,7 @@ import org.jd.core.v1.service.fragmenter.javasyntaxtojavafragment.util.JavaFragm
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.jd.core.v1.model.javasyntax.declaration.Declaration.*;
 
@@ -48,10 +50,45 @@ public class CompilationUnitVisitor extends StatementVisitor {
     protected AnnotationVisitor annotationVisitor = new AnnotationVisitor();
     protected SingleLineStatementVisitor singleLineStatementVisitor = new SingleLineStatementVisitor();
     protected String mainInternalName;
+    protected Consumer<List<Fragment>> fragmentConsumer;
+    protected int memberDeclarationsDepth;
+    protected int flushedFragmentCount;
 
     public CompilationUnitVisitor(Loader loader, String mainInternalTypeName, int majorVersion, ImportsFragment importsFragment) {
+        this(loader, mainInternalTypeName, majorVersion, importsFragment, null);
+    }
+
+    /**
+     * @param fragmentConsumer if not null, receives the fragments of each top-level member as soon as they are built;
+     *                         flushed fragments are removed from the list of fragments.
+     */
+    public CompilationUnitVisitor(Loader loader, String mainInternalTypeName, int majorVersion, ImportsFragment importsFragment, Consumer<List<Fragment>> fragmentConsumer) {
         super(loader, mainInternalTypeName, majorVersion, importsFragment);
         this.mainInternalName = mainInternalTypeName;
+        this.fragmentConsumer = fragmentConsumer;
+    }
+
+    public void flush() {
+        if ((fragmentConsumer != null) && !fragments.isEmpty()) {
+            fragmentConsumer.accept(fragments);
+            // Release flushed fragments: positions of pending fragments are counted from the first fragment built
+            flushedFragmentCount += fragments.size();
+            fragments.clear();
+        }
+    }
+
+    /**
+     * @return the count of fragments built, flushed fragments included
+     */
+    protected int getFragmentCount() {
+        return flushedFragmentCount + fragments.size();
+    }
+
+    /**
+     * Remove pending fragments between two counts returned by {@link #getFragmentCount()}.
+     */
+    protected void removeFragments(int fromCount, int toCount) {
+        fragments.subList(fromCount - flushedFragmentCount, toCount - flushedFragmentCount).clear();
     }
 
     @Override
@@ -70,9 +107,9 @@ public class CompilationUnitVisitor extends StatementVisitor {
                 tokens.add(TextToken.SPACE);
                 tokens.add(TextToken.LEFTRIGHTCURLYBRACKETS);
             } else {
-                int fragmentCount1 = fragments.size();
+                int fragmentCount1 = getFragmentCount();
                 StartBodyFragment start = JavaFragmentFactory.addStartTypeBody(fragments);
-                int fragmentCount2 = fragments.size();
+                int fragmentCount2 = getFragmentCount();
 
                 storeContext();
                 currentInternalTypeName = declaration.getInternalName();
@@ -90,8 +127,8 @@ public class CompilationUnitVisitor extends StatementVisitor {
 
                 restoreContext();
 
-                if (fragmentCount2 == fragments.size()) {
-                    fragments.subList(fragmentCount1, fragmentCount2).clear();
+                if (fragmentCount2 == getFragmentCount()) {
+                    removeFragments(fragmentCount1, fragmentCount2);
                     tokens.add(TextToken.SPACE);
                     tokens.add(TextToken.LEFTRIGHTCURLYBRACKETS);
                 } else {
@@ -258,9 +295,9 @@ public class CompilationUnitVisitor extends StatementVisitor {
                 tokens.add(TextToken.SPACE);
                 tokens.add(TextToken.LEFTRIGHTCURLYBRACKETS);
             } else {
-                int fragmentCount1 = fragments.size();
+                int fragmentCount1 = getFragmentCount();
                 StartBodyFragment start = JavaFragmentFactory.addStartTypeBody(fragments);
-                int fragmentCount2 = fragments.size();
+                int fragmentCount2 = getFragmentCount();
 
                 storeContext();
                 currentInternalTypeName = declaration.getInternalName();
@@ -268,8 +305,8 @@ public class CompilationUnitVisitor extends StatementVisitor {
                 bodyDeclaration.accept(this);
                 restoreContext();
 
-                if (fragmentCount2 == fragments.size()) {
-                    fragments.subList(fragmentCount1, fragmentCount2).clear();
+                if (fragmentCount2 == getFragmentCount()) {
+                    removeFragments(fragmentCount1, fragmentCount2);
                     tokens.add(TextToken.SPACE);
                     tokens.add(TextToken.LEFTRIGHTCURLYBRACKETS);
                 } else {
@@ -285,6 +322,8 @@ public class CompilationUnitVisitor extends StatementVisitor {
     public void visit(CompilationUnit compilationUnit) {
         // Init
         fragments.clear();
+        memberDeclarationsDepth = 0;
+        flushedFragmentCount = 0;
         contextStack.clear();
         currentInternalTypeName = null;
 
@@ -388,7 +427,7 @@ public class CompilationUnitVisitor extends StatementVisitor {
                 statements.accept(singleLineStatementVisitor);
 
                 boolean singleLineStatement = singleLineStatementVisitor.isSingleLineStatement();
-                int fragmentCount1 = fragments.size();
+                int fragmentCount1 = getFragmentCount();
                 StartBodyFragment start;
 
                 if (singleLineStatement) {
@@ -397,12 +436,12 @@ public class CompilationUnitVisitor extends StatementVisitor {
                     start = JavaFragmentFactory.addStartMethodBody(fragments);
                 }
 
-                int fragmentCount2 = fragments.size();
+                int fragmentCount2 = getFragmentCount();
 
                 statements.accept(this);
 
-                if (fragmentCount2 == fragments.size()) {
-                    fragments.subList(fragmentCount1, fragmentCount2).clear();
+                if (fragmentCount2 == getFragmentCount()) {
+                    removeFragments(fragmentCount1, fragmentCount2);
                     tokens.add(TextToken.SPACE);
                     tokens.add(TextToken.LEFTRIGHTCURLYBRACKETS);
                 } else if (singleLineStatement) {
@@ -529,17 +568,17 @@ public class CompilationUnitVisitor extends StatementVisitor {
 
             if (bodyDeclaration != null) {
                 if ((constants != null) && (!constants.isEmpty())) {
-                    Fragments f = fragments;
+                    int fragmentCount1 = getFragmentCount();
+
+                    JavaFragmentFactory.addSpacerBetweenMembers(fragments);
+
+                    int fragmentCount2 = getFragmentCount();
 
-                    fragments = new Fragments();
                     bodyDeclaration.accept(this);
 
-                    if (!fragments.isEmpty()) {
-                        JavaFragmentFactory.addSpacerBetweenMembers(f);
-                        f.addAll(fragments);
+                    if (fragmentCount2 == getFragmentCount()) {
+                        removeFragments(fragmentCount1, fragmentCount2);
                     }
-
-                    fragments = f;
                 } else {
                     bodyDeclaration.accept(this);
                 }
@@ -788,9 +827,9 @@ public class CompilationUnitVisitor extends StatementVisitor {
                 tokens.add(TextToken.SPACE);
                 tokens.add(TextToken.LEFTRIGHTCURLYBRACKETS);
             } else {
-                int fragmentCount1 = fragments.size();
+                int fragmentCount1 = getFragmentCount();
                 StartBodyFragment start = JavaFragmentFactory.addStartTypeBody(fragments);
-                int fragmentCount2 = fragments.size();
+                int fragmentCount2 = getFragmentCount();
 
                 storeContext();
                 currentInternalTypeName = declaration.getInternalName();
@@ -798,8 +837,8 @@ public class CompilationUnitVisitor extends StatementVisitor {
                 bodyDeclaration.accept(this);
                 restoreContext();
 
-                if (fragmentCount2 == fragments.size()) {
-                    fragments.subList(fragmentCount1, fragmentCount2).clear();
+                if (fragmentCount2 == getFragmentCount()) {
+                    removeFragments(fragmentCount1, fragmentCount2);
                     tokens.add(TextToken.SPACE);
                     tokens.add(TextToken.LEFTRIGHTCURLYBRACKETS);
                 } else {
@@ -1043,27 +1082,39 @@ public class CompilationUnitVisitor extends StatementVisitor {
         int size = list.size();
 
         if (size > 0) {
-            int fragmentCount2 = fragments.size();
+            int fragmentCount2 = getFragmentCount();
             Iterator<MemberDeclaration> iterator = list.iterator();
 
+            memberDeclarationsDepth++;
             iterator.next().accept(this);
+            flushTopLevelMember(fragmentCount2);
 
             if (size > 1) {
                 int fragmentCount1 = -1;
 
                 for (int i = 1; i < size; i++) {
-                    if (fragmentCount2 < fragments.size()) {
-                        fragmentCount1 = fragments.size();
+                    if (fragmentCount2 < getFragmentCount()) {
+                        fragmentCount1 = getFragmentCount();
                         JavaFragmentFactory.addSpacerBetweenMembers(fragments);
-                        fragmentCount2 = fragments.size();
+                        fragmentCount2 = getFragmentCount();
                     }
                     iterator.next().accept(this);
+                    flushTopLevelMember(fragmentCount2);
                 }
 
-                if ((fragmentCount1 != -1) && (fragmentCount2 == fragments.size())) {
-                    fragments.subList(fragmentCount1, fragments.size()).clear();
+                if ((fragmentCount1 != -1) && (fragmentCount2 == getFragmentCount())) {
+                    removeFragments(fragmentCount1, getFragmentCount());
                 }
             }
+
+            memberDeclarationsDepth--;
+        }
+    }
+
+    protected void flushTopLevelMember(int fragmentCount) {
+        // Flush once the member has produced fragments: a pending spacer between members may still be removed
+        if ((memberDeclarationsDepth == 1) && (fragmentCount < getFragmentCount())) {
+            flush();
         }
     }
 
@@ -1155,7 +1206,7 @@ public class CompilationUnitVisitor extends StatementVisitor {
                 statements.accept(singleLineStatementVisitor);
 
                 boolean singleLineStatement = singleLineStatementVisitor.isSingleLineStatement();
-                int fragmentCount1 = fragments.size();
+                int fragmentCount1 = getFragmentCount();
                 StartBodyFragment start;
 
                 if (singleLineStatement) {
@@ -1164,12 +1215,12 @@ public class CompilationUnitVisitor extends StatementVisitor {
                     start = JavaFragmentFactory.addStartMethodBody(fragments);
                 }
 
-                int fragmentCount2 = fragments.size();
+                int fragmentCount2 = getFragmentCount();
 
                 statements.accept(this);
 
-                if (fragmentCount2 == fragments.size()) {
-                    fragments.subList(fragmentCount1, fragmentCount2).clear();
+                if (fragmentCount2 == getFragmentCount()) {
+                    removeFragments(fragmentCount1, fragmentCount2);
                     tokens.add(TextToken.SPACE);
                     tokens.add(TextToken.LEFTRIGHTCURLYBRACKETS);
                 } else if (singleLineStatement) {
@@ -1227,10 +1278,12 @@ public class CompilationUnitVisitor extends StatementVisitor {
             Iterator<TypeDeclaration> iterator = declaration.iterator();
 
             iterator.next().accept(this);
+            flush();
 
             while (iterator.hasNext()) {
                 JavaFragmentFactory.addSpacerBetweenMembers(fragments);
                 iterator.next().accept(this);
+                flush();
             }
         }
     }
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.service.writer;
+
+import org.jd.core.v1.api.printer.Printer;
+import org.jd.core.v1.model.fragment.Fragment;
+import org.jd.core.v1.model.javafragment.JavaFragment;
+import org.jd.core.v1.model.message.Message;
+import org.jd.core.v1.model.token.AbstractNopTokenVisitor;
+import org.jd.core.v1.model.token.NewLineToken;
+import org.jd.core.v1.model.token.Token;
+import org.jd.core.v1.service.tokenizer.javafragmenttotoken.visitor.TokenizeJavaFragmentVisitor;
+import org.jd.core.v1.service.writer.visitor.PrintTokenVisitor;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Tokenize fragments and write them to a {@link org.jd.core.v1.api.printer.Printer} as they are received.<br><br>
+ *
+ * Streaming alternative to {@link org.jd.core.v1.service.tokenizer.javafragmenttotoken.JavaFragmentToTokenProcessor}
+ * and {@link WriteTokenProcessor}, for fragments which are not laid out. Line numbers are searched between two new
+ * lines: tokens are written up to the last new line received, and the written tokens are released.
+ */
+public class WriteJavaFragmentStream implements Consumer<List<Fragment>> {
+    protected Message message;
+    protected Printer printer;
+    protected TokenizeJavaFragmentVisitor tokenizer = new TokenizeJavaFragmentVisitor(1024);
+    protected StreamPrintTokenVisitor visitor = new StreamPrintTokenVisitor();
+    protected SearchNewLineVisitor searchNewLineVisitor = new SearchNewLineVisitor();
+    protected boolean started;
+
+    public WriteJavaFragmentStream(Message message) {
+        this.message = message;
+        this.printer = message.getHeader("printer");
+    }
+
+    @Override
+    public void accept(List<Fragment> fragments) {
+        for (Fragment fragment : fragments) {
+            ((JavaFragment)fragment).accept(tokenizer);
+        }
+
+        List<Token> tokens = tokenizer.getTokens();
+        int index = tokens.size();
+
+        // Search the last new line
+        while (index-- > visitor.getIndex()) {
+            searchNewLineVisitor.found = false;
+            tokens.get(index).accept(searchNewLineVisitor);
+
+            if (searchNewLineVisitor.found) {
+                write(index + 1);
+                // Keep the last new line for the backward searches of line numbers
+                visitor.release(index);
+                break;
+            }
+        }
+    }
+
+    public void end() {
+        write(tokenizer.getTokens().size());
+        visitor.end();
+        printer.end();
+    }
+
+    protected void write(int toIndex) {
+        List<Token> tokens = tokenizer.getTokens();
+
+        if (!started) {
+            int maxLineNumber = message.getHeader("maxLineNumber");
+            int majorVersion = message.getHeader("majorVersion");
+            int minorVersion = message.getHeader("minorVersion");
+
+            printer.start(maxLineNumber, majorVersion, minorVersion);
+            visitor.start(printer, tokens);
+            started = true;
+        }
+
+        for (int i=visitor.getIndex(); i<toIndex; i++) {
+            tokens.get(i).accept(visitor);
+        }
+    }
+
+    protected static class StreamPrintTokenVisitor extends PrintTokenVisitor {
+        public int getIndex() {
+            return index;
+        }
+
+        public void release(int count) {
+            tokens.subList(0, count).clear();
+            index -= count;
+        }
+    }
+
+    protected static class SearchNewLineVisitor extends AbstractNopTokenVisitor {
+        protected boolean found;
+
+        @Override
+        public void visit(NewLineToken token) {
+            found = true;
+        }
+    }
+}
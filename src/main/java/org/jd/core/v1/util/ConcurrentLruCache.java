@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thread safe and bounded map. Entries are spread over striped segments; each segment is locked independently and
+ * evicts its least recently used entries when it exceeds its share of the maximum size.
+ */
+@SuppressWarnings("unchecked")
+public class ConcurrentLruCache<K, V> {
+    protected static final int SEGMENT_COUNT = 16;
+
+    protected Segment<K, V>[] segments = new Segment[SEGMENT_COUNT];
+
+    public ConcurrentLruCache(int maxSize) {
+        int segmentMaxSize = Math.max(1, maxSize / SEGMENT_COUNT);
+
+        for (int i=0; i<SEGMENT_COUNT; i++) {
+            segments[i] = new Segment<>(segmentMaxSize);
+        }
+    }
+
+    public V get(K key) {
+        Segment<K, V> segment = segment(key);
+
+        synchronized (segment) {
+            return segment.get(key);
+        }
+    }
+
+    public void put(K key, V value) {
+        Segment<K, V> segment = segment(key);
+
+        synchronized (segment) {
+            segment.put(key, value);
+        }
+    }
+
+    public V putIfAbsent(K key, V value) {
+        Segment<K, V> segment = segment(key);
+
+        synchronized (segment) {
+            V previous = segment.get(key);
+
+            if (previous == null) {
+                segment.put(key, value);
+                return value;
+            } else {
+                return previous;
+            }
+        }
+    }
+
+    public V remove(K key) {
+        Segment<K, V> segment = segment(key);
+
+        synchronized (segment) {
+            return segment.remove(key);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+
+        return size;
+    }
+
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    protected Segment<K, V> segment(K key) {
+        int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & (SEGMENT_COUNT - 1)];
+    }
+
+    protected static class Segment<K, V> extends LinkedHashMap<K, V> {
+        protected int maxSize;
+
+        public Segment(int maxSize) {
+            super(16, 0.75F, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
+    }
+}
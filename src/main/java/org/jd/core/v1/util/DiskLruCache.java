@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.util;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Directory of files bounded in total size: a file per key, the least recently used files are deleted beyond the
+ * maximum size. Recency survives restarts through the modification times of the files.<br><br>
+ *
+ * Files are written to temporary files then moved: readers never see a partial file. Instances are thread safe.
+ * Keys must be valid file names, hexadecimal digests for example.
+ */
+public class DiskLruCache {
+    protected static final String TEMPORARY_SUFFIX = ".tmp";
+
+    protected Path directory;
+    protected long maxSize;
+    protected long size;
+    protected LinkedHashMap<String, Long> fileSizes = new LinkedHashMap<>(16, 0.75F, true);
+    protected AtomicLong temporaryFileCounter = new AtomicLong();
+
+    public DiskLruCache(Path directory, long maxSize) throws IOException {
+        this.directory = directory;
+        this.maxSize = maxSize;
+
+        Files.createDirectories(directory);
+
+        // Index existing files, least recently used first
+        try (Stream<Path> stream = Files.list(directory)) {
+            Iterator<Path> iterator = stream.sorted((p1, p2) -> getLastModifiedTime(p1).compareTo(getLastModifiedTime(p2))).iterator();
+
+            while (iterator.hasNext()) {
+                Path path = iterator.next();
+                String name = path.getFileName().toString();
+
+                if (name.endsWith(TEMPORARY_SUFFIX)) {
+                    // Left by a crash
+                    Files.deleteIfExists(path);
+                } else if (Files.isRegularFile(path)) {
+                    long fileSize = Files.size(path);
+
+                    fileSizes.put(name, fileSize);
+                    size += fileSize;
+                }
+            }
+        }
+
+        synchronized (this) {
+            trim();
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return the total size of the files
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    public synchronized boolean contains(String key) {
+        return fileSizes.containsKey(key);
+    }
+
+    /**
+     * @return the content of the file, null if not found
+     */
+    public byte[] get(String key) {
+        Path path = directory.resolve(key);
+
+        synchronized (this) {
+            if (fileSizes.get(key) == null) {
+                return null;
+            }
+        }
+
+        try {
+            byte[] data = Files.readAllBytes(path);
+
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+            return data;
+        } catch (IOException e) {
+            // Deleted by another process
+            remove(key);
+            return null;
+        }
+    }
+
+    public void put(String key, byte[] data) throws IOException {
+        Path path = directory.resolve(key);
+        Path temporaryPath = directory.resolve(key + '.' + temporaryFileCounter.incrementAndGet() + TEMPORARY_SUFFIX);
+
+        Files.write(temporaryPath, data);
+
+        synchronized (this) {
+            try {
+                Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.deleteIfExists(temporaryPath);
+                throw e;
+            }
+
+            Long previousSize = fileSizes.put(key, (long)data.length);
+
+            if (previousSize != null) {
+                size -= previousSize;
+            }
+
+            size += data.length;
+            trim();
+        }
+    }
+
+    public synchronized void remove(String key) {
+        Long fileSize = fileSizes.remove(key);
+
+        if (fileSize != null) {
+            size -= fileSize;
+
+            try {
+                Files.deleteIfExists(directory.resolve(key));
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        for (String key : fileSizes.keySet().toArray(new String[0])) {
+            remove(key);
+        }
+    }
+
+    protected void trim() {
+        Iterator<Map.Entry<String, Long>> iterator = fileSizes.entrySet().iterator();
+
+        while ((size > maxSize) && iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+
+            try {
+                Files.deleteIfExists(directory.resolve(entry.getKey()));
+            } catch (IOException ignore) {
+            }
+
+            size -= entry.getValue();
+            iterator.remove();
+        }
+    }
+
+    protected static FileTime getLastModifiedTime(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
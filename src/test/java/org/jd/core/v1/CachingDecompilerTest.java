@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1;
+
+import junit.framework.TestCase;
+import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.api.loader.LoaderException;
+import org.jd.core.v1.loader.ZipLoader;
+import org.jd.core.v1.printer.PlainTextMetaPrinter;
+import org.jd.core.v1.printer.PlainTextPrinter;
+import org.jd.core.v1.printer.RecordingPrinter;
+import org.jd.core.v1.util.DiskLruCache;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+public class CachingDecompilerTest extends TestCase {
+
+    @Test
+    public void testJdk180() throws Exception {
+        Path directory = Files.createTempDirectory("jd-core-cache-");
+
+        try (InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.8.0.zip")) {
+            ZipLoader loader = new ZipLoader(is);
+            ClassFileToJavaSourceDecompiler decompiler = new ClassFileToJavaSourceDecompiler();
+            CachingDecompiler cachingDecompiler = new CachingDecompiler(decompiler, new DiskLruCache(directory, 1024 * 1024), "test");
+            Map<String, Object> configuration = Collections.singletonMap("realignLineNumbers", "true");
+            ArrayList<String> internalNames = new ArrayList<>();
+
+            for (String path : loader.getMap().keySet()) {
+                if (path.endsWith(".class") && (path.indexOf('$') == -1)) {
+                    internalNames.add(path.substring(0, path.length() - 6)); // 6 = ".class".length()
+                }
+            }
+
+            for (int pass=0; pass<2; pass++) {
+                for (String internalName : internalNames) {
+                    PlainTextMetaPrinter expected = new PlainTextMetaPrinter();
+                    PlainTextMetaPrinter printer = new PlainTextMetaPrinter();
+
+                    decompiler.decompile(loader, expected, internalName, configuration);
+                    cachingDecompiler.decompile(loader, printer, internalName, configuration);
+
+                    assertEquals(expected.toString(), printer.toString());
+                }
+            }
+
+            assertEquals(internalNames.size(), cachingDecompiler.getMissCount());
+            assertEquals(internalNames.size(), cachingDecompiler.getHitCount());
+
+            // Other configuration, other key
+            PlainTextPrinter printer = new PlainTextPrinter();
+
+            cachingDecompiler.decompile(loader, printer, "org/jd/core/test/Basic");
+            assertEquals(internalNames.size() + 1, cachingDecompiler.getMissCount());
+
+            // Restart with a smaller cache: least recently used files are deleted
+            DiskLruCache cache = new DiskLruCache(directory, 1024 * 8);
+
+            assertTrue(cache.size() <= 1024 * 8);
+            assertTrue(cache.size() > 0);
+
+            try (Stream<Path> stream = Files.list(directory)) {
+                assertEquals(cache.size(), stream.mapToLong(p -> p.toFile().length()).sum());
+            }
+
+            cache.clear();
+            assertEquals(0, cache.size());
+        } finally {
+            try (Stream<Path> stream = Files.list(directory)) {
+                stream.forEach(p -> p.toFile().delete());
+            }
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void testCorruptedEntry() throws Exception {
+        Path directory = Files.createTempDirectory("jd-core-cache-");
+
+        try (InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.8.0.zip")) {
+            ZipLoader loader = new ZipLoader(is);
+            ClassFileToJavaSourceDecompiler decompiler = new ClassFileToJavaSourceDecompiler();
+            CachingDecompiler cachingDecompiler = new CachingDecompiler(decompiler, new DiskLruCache(directory, 1024 * 1024), "test");
+            PlainTextPrinter expected = new PlainTextPrinter();
+
+            decompiler.decompile(loader, expected, "org/jd/core/test/Basic");
+            cachingDecompiler.decompile(loader, new PlainTextPrinter(), "org/jd/core/test/Basic");
+
+            Path path;
+
+            try (Stream<Path> stream = Files.list(directory)) {
+                path = stream.findFirst().get();
+            }
+
+            // Valid calls, then a string of negative length, with a valid checksum
+            RecordingPrinter recorder = new RecordingPrinter();
+
+            recorder.start(0, 52, 0);
+            recorder.printKeyword("class");
+            recorder.printText(" Basic");
+
+            byte[] data = Files.readAllBytes(path);
+            byte[] valid = recorder.toByteArray();
+            int offset = valid.length - 4;
+            byte[] corrupted = Arrays.copyOf(valid, offset + 7 + 4);
+            CRC32 crc = new CRC32();
+
+            corrupted[offset] = 3; // TEXT
+            corrupted[offset+1] = 1; // NEW_STRING
+            corrupted[offset+2] = (byte)0xFF;
+            corrupted[offset+3] = (byte)0xFF;
+            corrupted[offset+4] = (byte)0xFF;
+            corrupted[offset+5] = (byte)0xFF;
+            corrupted[offset+6] = 0x0F;
+            crc.update(corrupted, 0, offset + 7);
+            ByteBuffer.wrap(corrupted, offset + 7, 4).putInt((int)crc.getValue());
+            Files.write(path, corrupted);
+
+            PlainTextPrinter printer = new PlainTextPrinter();
+
+            cachingDecompiler.decompile(loader, printer, "org/jd/core/test/Basic");
+
+            assertEquals(expected.toString(), printer.toString());
+            assertEquals(2, cachingDecompiler.getMissCount());
+            assertEquals(0, cachingDecompiler.getHitCount());
+            assertTrue(Arrays.equals(data, Files.readAllBytes(path)));
+
+            // Truncated entry
+            Files.write(path, Arrays.copyOf(data, data.length - 5));
+            printer = new PlainTextPrinter();
+            cachingDecompiler.decompile(loader, printer, "org/jd/core/test/Basic");
+
+            assertEquals(expected.toString(), printer.toString());
+            assertEquals(3, cachingDecompiler.getMissCount());
+
+            // Entry stored again
+            printer = new PlainTextPrinter();
+            cachingDecompiler.decompile(loader, printer, "org/jd/core/test/Basic");
+
+            assertEquals(expected.toString(), printer.toString());
+            assertEquals(1, cachingDecompiler.getHitCount());
+        } finally {
+            try (Stream<Path> stream = Files.list(directory)) {
+                stream.forEach(p -> p.toFile().delete());
+            }
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void testDegradedDecompilation() throws Exception {
+        Path directory = Files.createTempDirectory("jd-core-cache-");
+
+        try (InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.8.0.zip")) {
+            ZipLoader loader = new ZipLoader(is);
+            CachingDecompiler cachingDecompiler = new CachingDecompiler(new ClassFileToJavaSourceDecompiler(), new DiskLruCache(directory, 1024 * 1024), "test");
+            HashMap<String, Object> configuration = new HashMap<>();
+
+            // Slow loader: the budget of the class is exceeded while the first bodies are created
+            Loader slowLoader = new Loader() {
+                @Override
+                public boolean canLoad(String internalName) {
+                    return loader.canLoad(internalName);
+                }
+
+                @Override
+                public byte[] load(String internalName) throws LoaderException {
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException ignore) {
+                    }
+                    return loader.load(internalName);
+                }
+            };
+
+            configuration.put("classTimeout", "1");
+
+            // Degraded output not kept: decompiled again
+            for (int i=1; i<=2; i++) {
+                PlainTextPrinter printer = new PlainTextPrinter();
+
+                cachingDecompiler.decompile(slowLoader, printer, "org/jd/core/test/OuterClass", configuration);
+
+                assertTrue(printer.toString().indexOf("// Byte code:") != -1);
+                assertEquals(i, cachingDecompiler.getMissCount());
+                assertEquals(0, cachingDecompiler.getHitCount());
+                assertEquals(0, cachingDecompiler.getCache().size());
+            }
+        } finally {
+            try (Stream<Path> stream = Files.list(directory)) {
+                stream.forEach(p -> p.toFile().delete());
+            }
+            Files.delete(directory);
+        }
+    }
+}
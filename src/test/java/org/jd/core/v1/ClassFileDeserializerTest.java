@@ -8,19 +8,36 @@
 package org.jd.core.v1;
 
 import junit.framework.TestCase;
+import org.jd.core.v1.api.loader.ByteBufferLoader;
+import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.api.loader.LoaderException;
+import org.jd.core.v1.loader.AsyncLoader;
 import org.jd.core.v1.loader.ZipLoader;
 import org.jd.core.v1.model.classfile.ClassFile;
+import org.jd.core.v1.model.classfile.ConstantPool;
 import org.jd.core.v1.model.classfile.Field;
-import org.jd.core.v1.model.classfile.attribute.Annotations;
-import org.jd.core.v1.model.classfile.attribute.ElementValueAnnotationValue;
-import org.jd.core.v1.model.classfile.attribute.ElementValuePrimitiveType;
+import org.jd.core.v1.model.classfile.Method;
+import org.jd.core.v1.model.classfile.attribute.*;
 import org.jd.core.v1.model.classfile.constant.ConstantInteger;
 import org.jd.core.v1.model.classfile.constant.ConstantUtf8;
 import org.jd.core.v1.model.message.Message;
+import org.jd.core.v1.printer.PlainTextPrinter;
+import org.jd.core.v1.service.converter.classfiletojavasyntax.util.TypeIndex;
+import org.jd.core.v1.service.deserializer.classfile.ClassFileDeserializer;
+import org.jd.core.v1.service.deserializer.classfile.ClassFileReader;
 import org.jd.core.v1.service.deserializer.classfile.DeserializeClassFileProcessor;
+import org.jd.core.v1.service.deserializer.classfile.Utf8InternTable;
 import org.junit.Test;
 
 import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class ClassFileDeserializerTest extends TestCase {
 
@@ -104,4 +121,249 @@ public class ClassFileDeserializerTest extends TestCase {
         assertEquals("()V", classFile.getMethods()[0].getDescriptor());
         assertNotNull(classFile.getMethods()[0].getAttribute("Code"));
     }
+
+    @Test
+    public void testAttributes() throws Exception {
+        InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.7.0.zip");
+        ZipLoader loader = new ZipLoader(is);
+        ClassFile classFile = new ClassFileDeserializer().loadClassFile(loader, "org/jd/core/test/AnnotatedClass");
+        Method method = classFile.getMethods()[0];
+        AttributeCode code = method.getAttribute(Attributes.CODE);
+
+        assertNotNull(code);
+        assertSame(code, method.getAttribute("Code"));
+        assertSame(code.getAttribute(Attributes.LINE_NUMBER_TABLE), code.getAttribute("LineNumberTable"));
+        assertSame(classFile.getAttribute(Attributes.RUNTIME_INVISIBLE_ANNOTATIONS), classFile.getAttribute("RuntimeInvisibleAnnotations"));
+        assertNull(method.getAttribute(Attributes.SIGNATURE));
+
+        // Unknown attributes are searched by name
+        Attributes attributes = new Attributes(1);
+        UnknownAttribute custom = new UnknownAttribute();
+        AttributeDeprecated deprecated = new AttributeDeprecated();
+
+        assertEquals(0, attributes.add("Custom", custom));
+        assertEquals(1, attributes.add("Deprecated", deprecated));
+        assertEquals(1, attributes.add("Deprecated", deprecated));
+        assertEquals(2, attributes.size());
+        assertEquals("Custom", attributes.getNameAt(0));
+        assertEquals("Deprecated", attributes.getNameAt(1));
+        assertSame(custom, attributes.get("Custom"));
+        assertSame(deprecated, attributes.get(Attributes.DEPRECATED));
+        assertNull(attributes.get("Other"));
+        assertNull(attributes.get(Attributes.CODE));
+    }
+
+    @Test
+    public void testLazyAttributes() throws Exception {
+        InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.7.0.zip");
+        ZipLoader loader = new ZipLoader(is);
+        ClassFile classFile = new ClassFileDeserializer().loadClassFile(loader, "org/jd/core/test/AnnotatedClass");
+        CountingClassFileDeserializer lazyDeserializer = new CountingClassFileDeserializer();
+        ClassFile lazyClassFile = lazyDeserializer.loadClassFile(loader, "org/jd/core/test/AnnotatedClass");
+
+        // Attributes are decoded when they are read
+        int counter = lazyDeserializer.counter;
+
+        assertNotNull(lazyClassFile.getMethods()[0].getAttribute("Code"));
+        assertEquals(counter + 1, lazyDeserializer.counter);
+
+        Annotations annotations = lazyClassFile.getAttribute("RuntimeInvisibleAnnotations");
+        assertEquals(2, annotations.getAnnotations().length);
+
+        for (int i=0; i<classFile.getMethods().length; i++) {
+            Method method = classFile.getMethods()[i];
+            Method lazyMethod = lazyClassFile.getMethods()[i];
+            AttributeCode code = method.getAttribute("Code");
+            AttributeCode lazyCode = lazyMethod.getAttribute("Code");
+
+            assertEquals(method.getName(), lazyMethod.getName());
+            assertTrue(Arrays.equals(code.getCode(), lazyCode.getCode()));
+            assertEquals(code.getMaxLocals(), lazyCode.getMaxLocals());
+
+            AttributeLineNumberTable lineNumbers = code.getAttribute("LineNumberTable");
+            AttributeLineNumberTable lazyLineNumbers = lazyCode.getAttribute("LineNumberTable");
+
+            assertEquals(lineNumbers.getLineNumberTable().length, lazyLineNumbers.getLineNumberTable().length);
+        }
+
+        // Decoded attributes are kept
+        counter = lazyDeserializer.counter;
+
+        assertSame(lazyClassFile.getMethods()[0].getAttribute("Code"), lazyClassFile.getMethods()[0].getAttribute("Code"));
+        assertNull(lazyClassFile.getMethods()[0].getAttribute("Unknown"));
+        assertEquals(counter, lazyDeserializer.counter);
+    }
+
+    @Test
+    public void testByteBufferLoader() throws Exception {
+        InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.7.0.zip");
+        ZipLoader loader = new ZipLoader(is);
+        DirectByteBufferLoader bufferLoader = new DirectByteBufferLoader(loader);
+        ClassFileToJavaSourceDecompiler decompiler = new ClassFileToJavaSourceDecompiler();
+
+        for (String path : loader.getMap().keySet()) {
+            if (path.endsWith(".class") && (path.indexOf('$') == -1)) {
+                String internalName = path.substring(0, path.length() - 6); // 6 = ".class".length()
+                PlainTextPrinter printer = new PlainTextPrinter();
+                PlainTextPrinter bufferPrinter = new PlainTextPrinter();
+
+                decompiler.decompile(loader, printer, internalName);
+                decompiler.decompile(bufferLoader, bufferPrinter, internalName, Collections.singletonMap("lazyAttributes", "true"));
+
+                assertEquals(printer.toString(), bufferPrinter.toString());
+            }
+        }
+
+        assertTrue(bufferLoader.counter > 0);
+    }
+
+    @Test
+    public void testLazyConstantPool() throws Exception {
+        InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.8.0.zip");
+        ZipLoader loader = new ZipLoader(is);
+        DirectByteBufferLoader bufferLoader = new DirectByteBufferLoader(loader);
+        ClassFileToJavaSourceDecompiler decompiler = new ClassFileToJavaSourceDecompiler();
+        Utf8InternTable internTable = new Utf8InternTable(1024);
+        HashMap<String, Object> configuration = new HashMap<>();
+
+        configuration.put("lazyConstantPool", "true");
+        configuration.put("utf8InternTable", internTable);
+
+        for (String path : loader.getMap().keySet()) {
+            if (path.endsWith(".class") && (path.indexOf('$') == -1)) {
+                String internalName = path.substring(0, path.length() - 6); // 6 = ".class".length()
+                PlainTextPrinter printer = new PlainTextPrinter();
+                PlainTextPrinter lazyPrinter = new PlainTextPrinter();
+                PlainTextPrinter bufferPrinter = new PlainTextPrinter();
+
+                decompiler.decompile(loader, printer, internalName);
+                decompiler.decompile(loader, lazyPrinter, internalName, configuration);
+                decompiler.decompile(bufferLoader, bufferPrinter, internalName, configuration);
+
+                assertEquals(printer.toString(), lazyPrinter.toString());
+                assertEquals(printer.toString(), bufferPrinter.toString());
+            }
+        }
+
+        // Strings are shared between class files
+        ClassFileDeserializer deserializer = new ClassFileDeserializer(false, true, internTable);
+        ClassFile classFile1 = deserializer.loadClassFile(loader, "org/jd/core/test/Basic");
+        ClassFile classFile2 = deserializer.loadClassFile(bufferLoader, "org/jd/core/test/AnnotatedClass");
+        ClassFile classFile3 = deserializer.loadClassFile(loader, "org/jd/core/test/AnnotatedClass");
+
+        assertEquals(1024, internTable.getCapacity());
+        assertEquals("<init>", classFile1.getMethods()[0].getName());
+        assertSame(classFile1.getMethods()[0].getName(), classFile2.getMethods()[0].getName());
+        assertSame(classFile2.getInternalTypeName(), classFile3.getInternalTypeName());
+    }
+
+    @Test
+    public void testBatchLoader() throws Exception {
+        InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.8.0.zip");
+        ZipLoader loader = new ZipLoader(is);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        RecordingAsyncLoader asyncLoader = new RecordingAsyncLoader(loader, executor);
+        ClassFileToJavaSourceDecompiler decompiler = new ClassFileToJavaSourceDecompiler();
+
+        try {
+            for (String path : loader.getMap().keySet()) {
+                if (path.endsWith(".class") && (path.indexOf('$') == -1)) {
+                    String internalName = path.substring(0, path.length() - 6); // 6 = ".class".length()
+                    PlainTextPrinter printer = new PlainTextPrinter();
+                    PlainTextPrinter asyncPrinter = new PlainTextPrinter();
+
+                    decompiler.decompile(loader, printer, internalName);
+                    decompiler.decompile(asyncLoader, asyncPrinter, internalName);
+
+                    assertEquals(printer.toString(), asyncPrinter.toString());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Inner types requested at once, then referenced types prefetched
+        assertTrue(asyncLoader.batches.stream().anyMatch(batch -> batch.containsAll(Arrays.asList("org/jd/core/test/OuterClass$InnerClass", "org/jd/core/test/OuterClass$StaticInnerClass"))));
+        assertTrue(asyncLoader.batches.stream().anyMatch(batch -> batch.contains("java/lang/Object")));
+
+        // Loaded inner types are not prefetched again, and pending loads are bounded
+        assertFalse(asyncLoader.batches.stream().anyMatch(batch -> batch.contains("java/lang/Object") && batch.contains("org/jd/core/test/OuterClass$InnerClass")));
+        assertTrue(asyncLoader.batches.stream().allMatch(batch -> batch.size() <= TypeIndex.MAX_PENDING_LOADS));
+
+        // Only the main types are loaded one by one
+        assertFalse(asyncLoader.loadedTypeNames.stream().anyMatch(name -> name.indexOf('$') != -1));
+    }
+
+    protected static class RecordingAsyncLoader extends AsyncLoader {
+        protected List<Set<String>> batches = Collections.synchronizedList(new ArrayList<>());
+        protected Set<String> loadedTypeNames = Collections.synchronizedSet(new HashSet<>());
+
+        public RecordingAsyncLoader(Loader loader, Executor executor) {
+            super(loader, executor);
+        }
+
+        @Override
+        public byte[] load(String internalName) throws LoaderException {
+            loadedTypeNames.add(internalName);
+            return super.load(internalName);
+        }
+
+        @Override
+        public Map<String, CompletableFuture<byte[]>> loadAll(Collection<String> internalNames) {
+            batches.add(new HashSet<>(internalNames));
+            return super.loadAll(internalNames);
+        }
+    }
+
+    protected static class DirectByteBufferLoader implements ByteBufferLoader {
+        protected ZipLoader loader;
+        protected int counter;
+
+        public DirectByteBufferLoader(ZipLoader loader) {
+            this.loader = loader;
+        }
+
+        @Override
+        public boolean canLoad(String internalName) {
+            return loader.canLoad(internalName);
+        }
+
+        @Override
+        public byte[] load(String internalName) throws LoaderException {
+            throw new LoaderException("Unexpected copy");
+        }
+
+        @Override
+        public ByteBuffer loadByteBuffer(String internalName) throws LoaderException {
+            byte[] data = loader.load(internalName);
+
+            if (data == null) {
+                return null;
+            }
+
+            // Direct, little endian, read-only buffer, with a non-zero position
+            ByteBuffer buffer = ByteBuffer.allocateDirect(data.length + 7).order(ByteOrder.LITTLE_ENDIAN);
+
+            ((Buffer)buffer).position(7);
+            buffer.put(data);
+            ((Buffer)buffer).position(7);
+            counter++;
+
+            return buffer.asReadOnlyBuffer();
+        }
+    }
+
+    protected static class CountingClassFileDeserializer extends ClassFileDeserializer {
+        protected int counter;
+
+        public CountingClassFileDeserializer() {
+            super(true);
+        }
+
+        @Override
+        protected Attribute loadAttribute(ClassFileReader reader, ConstantPool constants, String name, int attributeLength) {
+            counter++;
+            return super.loadAttribute(reader, constants, name, attributeLength);
+        }
+    }
 }
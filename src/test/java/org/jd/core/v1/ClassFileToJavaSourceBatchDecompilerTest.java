@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1;
+
+import junit.framework.TestCase;
+import org.jd.core.v1.api.printer.Printer;
+import org.jd.core.v1.api.printer.PrinterFactory;
+import org.jd.core.v1.loader.ZipLoader;
+import org.jd.core.v1.printer.PlainTextPrinter;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ClassFileToJavaSourceBatchDecompilerTest extends TestCase {
+
+    @Test
+    public void testJdk180Archive() throws Exception {
+        Path archivePath = Paths.get(this.getClass().getResource("/zip/data-java-jdk-1.8.0.zip").toURI());
+        CollectingPrinterFactory printerFactory = new CollectingPrinterFactory();
+
+        new ClassFileToJavaSourceBatchDecompiler(4, 2).decompile(archivePath, printerFactory);
+
+        assertTrue(printerFactory.failures.isEmpty());
+        assertFalse(printerFactory.sources.isEmpty());
+        assertFalse(printerFactory.sources.keySet().stream().anyMatch(name -> name.indexOf('$') != -1));
+
+        // Compare with sequential decompilations
+        try (InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.8.0.zip")) {
+            ZipLoader loader = new ZipLoader(is);
+            ClassFileToJavaSourceDecompiler decompiler = new ClassFileToJavaSourceDecompiler();
+
+            for (Map.Entry<String, String> entry : printerFactory.sources.entrySet()) {
+                PlainTextPrinter printer = new PlainTextPrinter();
+
+                decompiler.decompile(loader, printer, entry.getKey());
+
+                assertEquals(printer.toString(), entry.getValue());
+            }
+        }
+    }
+
+    @Test
+    public void testJdk170Types() throws Exception {
+        try (InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.7.0.zip")) {
+            ZipLoader loader = new ZipLoader(is);
+            ArrayList<String> internalNames = new ArrayList<>();
+            CollectingPrinterFactory printerFactory = new CollectingPrinterFactory();
+
+            for (String path : loader.getMap().keySet()) {
+                if (path.endsWith(".class") && (path.indexOf('$') == -1)) {
+                    internalNames.add(path.substring(0, path.length() - 6)); // 6 = ".class".length()
+                }
+            }
+
+            internalNames.add("org/unknown/Class");
+
+            new ClassFileToJavaSourceBatchDecompiler(3).decompile(loader, printerFactory, internalNames);
+
+            assertEquals(internalNames.size() - 1, printerFactory.sources.size());
+            assertEquals(1, printerFactory.failures.size());
+            assertTrue(printerFactory.failures.containsKey("org/unknown/Class"));
+            assertTrue(printerFactory.sources.get("org/jd/core/test/Basic").indexOf("serialVersionUID = 9506606333927794L;") != -1);
+        }
+    }
+
+    @Test
+    public void testJdk180ParallelMethods() throws Exception {
+        try (InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.8.0.zip")) {
+            ZipLoader loader = new ZipLoader(is);
+            ClassFileToJavaSourceDecompiler decompiler = new ClassFileToJavaSourceDecompiler();
+            HashMap<String, Object> configuration = new HashMap<>();
+
+            configuration.put("parallelMethods", "true");
+
+            for (String path : loader.getMap().keySet()) {
+                if (path.endsWith(".class") && (path.indexOf('$') == -1)) {
+                    String internalName = path.substring(0, path.length() - 6); // 6 = ".class".length()
+                    PlainTextPrinter sequentialPrinter = new PlainTextPrinter();
+                    PlainTextPrinter parallelPrinter = new PlainTextPrinter();
+
+                    decompiler.decompile(loader, sequentialPrinter, internalName);
+                    decompiler.decompile(loader, parallelPrinter, internalName, configuration);
+
+                    assertEquals(sequentialPrinter.toString(), parallelPrinter.toString());
+                }
+            }
+        }
+    }
+
+    protected static class CollectingPrinterFactory implements PrinterFactory {
+        protected Map<String, String> sources = new ConcurrentHashMap<>();
+        protected Map<String, Throwable> failures = new ConcurrentHashMap<>();
+
+        @Override
+        public Printer newPrinter(String internalName) {
+            return new PlainTextPrinter();
+        }
+
+        @Override
+        public void done(String internalName, Printer printer, Throwable failure) {
+            if (failure == null) {
+                sources.put(internalName, printer.toString());
+            } else {
+                failures.put(internalName, failure);
+            }
+        }
+    }
+}
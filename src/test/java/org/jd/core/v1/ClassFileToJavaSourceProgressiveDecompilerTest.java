@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1;
+
+import junit.framework.TestCase;
+import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.api.printer.MemberPrinterFactory;
+import org.jd.core.v1.api.printer.Printer;
+import org.jd.core.v1.compiler.CompilerUtil;
+import org.jd.core.v1.compiler.JavaSourceFileObject;
+import org.jd.core.v1.loader.CompilerLoader;
+import org.jd.core.v1.loader.ZipLoader;
+import org.jd.core.v1.printer.PlainTextPrinter;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+public class ClassFileToJavaSourceProgressiveDecompilerTest extends TestCase {
+
+    @Test
+    public void testJdk180() throws Exception {
+        try (InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.8.0.zip")) {
+            ZipLoader loader = new ZipLoader(is);
+            ClassFileToJavaSourceDecompiler decompiler = new ClassFileToJavaSourceDecompiler();
+            ClassFileToJavaSourceProgressiveDecompiler progressiveDecompiler = new ClassFileToJavaSourceProgressiveDecompiler(3);
+
+            for (String internalName : Arrays.asList("org/jd/core/test/OuterClass", "org/jd/core/test/AnonymousClass", "org/jd/core/test/Lambda", "org/jd/core/test/Interface")) {
+                PlainTextPrinter printer = new PlainTextPrinter();
+                CollectingMemberPrinterFactory memberPrinterFactory = new CollectingMemberPrinterFactory();
+
+                progressiveDecompiler.decompile(loader, printer, memberPrinterFactory, internalName).get(1, TimeUnit.MINUTES);
+
+                // Declarations: the outline of the type
+                PlainTextPrinter outlinePrinter = new PlainTextPrinter();
+
+                decompiler.decompile(loader, outlinePrinter, internalName, Collections.singletonMap("outline", "true"));
+                assertEquals(outlinePrinter.toString(), printer.toString());
+
+                // Bodies: the members decompiled one by one
+                assertTrue(memberPrinterFactory.failures.isEmpty());
+
+                for (Map.Entry<String, String> entry : memberPrinterFactory.sources.entrySet()) {
+                    String[] nameAndDescriptor = entry.getKey().split(" ");
+                    PlainTextPrinter memberPrinter = new PlainTextPrinter();
+
+                    decompiler.decompileMember(loader, memberPrinter, internalName, nameAndDescriptor[0], nameAndDescriptor[1], null);
+                    assertEquals(memberPrinter.toString(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testJdk180Bodies() throws Exception {
+        try (InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.8.0.zip")) {
+            ZipLoader loader = new ZipLoader(is);
+            PlainTextPrinter printer = new PlainTextPrinter();
+            CollectingMemberPrinterFactory memberPrinterFactory = new CollectingMemberPrinterFactory();
+
+            new ClassFileToJavaSourceProgressiveDecompiler().decompile(loader, printer, memberPrinterFactory, "org/jd/core/test/Lambda").get(1, TimeUnit.MINUTES);
+
+            String source = printer.toString();
+
+            assertTrue(source.indexOf("public void printListItems3(List<String> paramList, int paramInt) { /* compiled code */ }") != -1);
+
+            // Constructor and methods, not the lambda methods
+            assertEquals(9, memberPrinterFactory.sources.size());
+            assertFalse(memberPrinterFactory.sources.keySet().stream().anyMatch(key -> key.startsWith("lambda$")));
+
+            String body = memberPrinterFactory.sources.get("printListItems3 (Ljava/util/List;I)V");
+
+            assertTrue(body.indexOf("Predicate<String> filter = s -> (s.length() == length);") != -1);
+            assertTrue(body.indexOf("printListItems2") == -1);
+        }
+    }
+
+    @Test
+    public void testEnumBodies() throws Exception {
+        String source = "public enum Planet { MERCURY(1), EARTH(3); static final int COUNT; static { COUNT = 2; } private final int rank; " +
+                "Planet(int rank) { this.rank = rank; } public int getRank() { return rank; } " +
+                "public static Planet valueOf(int index) { return values()[index]; } }";
+
+        assertTrue(CompilerUtil.compile("1.8", new JavaSourceFileObject("Planet", source)));
+
+        Loader loader = new CompilerLoader();
+        PlainTextPrinter printer = new PlainTextPrinter();
+        CollectingMemberPrinterFactory memberPrinterFactory = new CollectingMemberPrinterFactory();
+
+        new ClassFileToJavaSourceProgressiveDecompiler().decompile(loader, printer, memberPrinterFactory, "Planet").get(1, TimeUnit.MINUTES);
+
+        // Constructor and declared methods, not the static initializer nor 'values' and 'valueOf' generated by javac
+        assertTrue(memberPrinterFactory.failures.isEmpty());
+        assertEquals(new HashSet<>(Arrays.asList("<init> (Ljava/lang/String;II)V", "getRank ()I", "valueOf (I)LPlanet;")), memberPrinterFactory.sources.keySet());
+    }
+
+    protected static class CollectingMemberPrinterFactory implements MemberPrinterFactory {
+        protected Map<String, String> sources = new ConcurrentHashMap<>();
+        protected Map<String, Throwable> failures = new ConcurrentHashMap<>();
+
+        @Override
+        public Printer newPrinter(String internalName, String name, String descriptor) {
+            return new PlainTextPrinter();
+        }
+
+        @Override
+        public void done(String internalName, String name, String descriptor, Printer printer, Throwable failure) {
+            if (failure == null) {
+                sources.put(name + ' ' + descriptor, printer.toString());
+            } else {
+                failures.put(name + ' ' + descriptor, failure);
+            }
+        }
+    }
+}
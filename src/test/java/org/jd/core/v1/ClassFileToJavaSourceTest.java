@@ -9,9 +9,12 @@ package org.jd.core.v1;
 
 import junit.framework.TestCase;
 import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.api.loader.LoaderException;
 import org.jd.core.v1.compiler.CompilerUtil;
 import org.jd.core.v1.compiler.JavaSourceFileObject;
+import org.jd.core.v1.loader.CompilerLoader;
 import org.jd.core.v1.loader.ZipLoader;
+import org.jd.core.v1.model.fragment.Fragment;
 import org.jd.core.v1.model.message.Message;
 import org.jd.core.v1.printer.PlainTextPrinter;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.ClassFileToJavaSyntaxProcessor;
@@ -19,15 +22,14 @@ import org.jd.core.v1.service.deserializer.classfile.DeserializeClassFileProcess
 import org.jd.core.v1.service.fragmenter.javasyntaxtojavafragment.JavaSyntaxToJavaFragmentProcessor;
 import org.jd.core.v1.service.layouter.LayoutFragmentProcessor;
 import org.jd.core.v1.service.tokenizer.javafragmenttotoken.JavaFragmentToTokenProcessor;
+import org.jd.core.v1.service.writer.WriteJavaFragmentStream;
 import org.jd.core.v1.service.writer.WriteTokenProcessor;
 import org.jd.core.v1.regex.PatternMaker;
 import org.junit.Test;
 
 import java.io.InputStream;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.function.Consumer;
 
 public class ClassFileToJavaSourceTest extends TestCase {
     protected DeserializeClassFileProcessor deserializer = new DeserializeClassFileProcessor();
@@ -2653,6 +2655,265 @@ public class ClassFileToJavaSourceTest extends TestCase {
         }
     }
 
+    @Test
+    public void testJdk170StreamWriter() throws Exception {
+        String internalClassName = "org/jd/core/test/Basic";
+        InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.7.0.zip");
+        Loader loader = new ZipLoader(is);
+        PlainTextPrinter printer = new PlainTextPrinter();
+
+        Message message = new Message();
+        message.setHeader("mainInternalTypeName", internalClassName);
+        message.setHeader("loader", loader);
+        message.setHeader("printer", printer);
+
+        deserializer.process(message);
+        converter.process(message);
+
+        Object compilationUnit = message.getBody();
+
+        fragmenter.process(message);
+        layouter.process(message);
+        tokenizer.process(message);
+        writer.process(message);
+
+        String source = printer.toString();
+
+        // Stream the same compilation unit
+        PlainTextPrinter streamPrinter = new PlainTextPrinter();
+
+        message.setHeader("printer", streamPrinter);
+
+        WriteJavaFragmentStream stream = new WriteJavaFragmentStream(message);
+        ArrayList<Integer> chunkSizes = new ArrayList<>();
+
+        message.setHeader("fragmentConsumer", (Consumer<List<Fragment>>)fragments -> {
+            chunkSizes.add(fragments.size());
+            stream.accept(fragments);
+        });
+        message.setBody(compilationUnit);
+
+        fragmenter.process(message);
+        stream.end();
+
+        assertTrue(chunkSizes.size() > 10);
+        assertEquals(source, streamPrinter.toString());
+
+        // Flushed fragments are released
+        List<Fragment> fragments = message.getBody();
+
+        assertTrue(fragments.isEmpty());
+    }
+
+    @Test
+    public void testJdk180Outline() throws Exception {
+        InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.8.0.zip");
+        Loader loader = new ZipLoader(is);
+        Map<String, Object> configuration = Collections.singletonMap("outline", "true");
+        StringBuilder sources = new StringBuilder();
+
+        for (String internalClassName : Arrays.asList("org/jd/core/test/OuterClass", "org/jd/core/test/AnonymousClass", "org/jd/core/test/Enum", "org/jd/core/test/InterfaceWithDefaultMethods")) {
+            PlainTextPrinter printer = new PlainTextPrinter();
+
+            Message message = new Message();
+            message.setHeader("mainInternalTypeName", internalClassName);
+            message.setHeader("loader", loader);
+            message.setHeader("printer", printer);
+            message.setHeader("configuration", configuration);
+
+            deserializer.process(message);
+            converter.process(message);
+            fragmenter.process(message);
+            layouter.process(message);
+            tokenizer.process(message);
+            writer.process(message);
+
+            sources.append(printer.toString());
+        }
+
+        String source = sources.toString();
+
+        printSource(source);
+
+        // Check decompiled source code
+        assertTrue(source.indexOf("public void method(int paramInt, String[] paramArrayOfString) { /* compiled code */ }") != -1);
+        assertTrue(source.indexOf("public InnerClass(int param1Int, String... param1VarArgs) { /* compiled code */ }") != -1);
+        assertTrue(source.indexOf("public class InnerInnerClass {}") != -1);
+        assertTrue(source.indexOf("SUNDAY, MONDAY, TUESDAY, WEDNESDAY, THURSDAY, FRIDAY, SATURDAY;") != -1);
+        assertTrue(source.indexOf("MERCURY(3.303E23D, 2439700.0D),") != -1);
+        assertTrue(source.indexOf("NEPTUNE(1.024E26D, 2.4746E7D);") != -1);
+        assertTrue(source.indexOf("Planet(double param1Double1, double param1Double2) { /* compiled code */ }") != -1);
+        assertTrue(source.indexOf("EnumWithTwoConstructors(int param1Int) { /* compiled code */ }") != -1);
+        assertTrue(source.indexOf("void setTime(int paramInt1, int paramInt2, int paramInt3);") != -1);
+        assertTrue(source.indexOf("default ZonedDateTime getZonedDateTime(String paramString) { /* compiled code */ }") != -1);
+        assertTrue(source.indexOf("import java.time.ZonedDateTime;") != -1);
+
+        // No byte code, no anonymous classes, no static initializers
+        assertTrue(source.indexOf("this$0") == -1);
+        assertTrue(source.indexOf("new ") == -1);
+        assertTrue(source.indexOf("import java.util.Iterator;") == -1);
+        assertTrue(source.indexOf("static {") == -1);
+    }
+
+    @Test
+    public void testJdk180Member() throws Exception {
+        InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.8.0.zip");
+        Loader loader = new ZipLoader(is);
+        ClassFileToJavaSourceDecompiler decompiler = new ClassFileToJavaSourceDecompiler();
+
+        // Method with local and anonymous classes, using member types
+        PlainTextPrinter printer = new PlainTextPrinter();
+
+        decompiler.decompileMember(loader, printer, "org/jd/core/test/OuterClass", "method", "(I[Ljava/lang/String;)V", null);
+
+        String source = printer.toString();
+
+        printSource(source);
+
+        assertTrue(source.indexOf("InnerClass innerClass = new InnerClass(param1, param2);") != -1);
+        assertTrue(source.indexOf("InnerClass anonymousClass = new InnerClass(param1, param2) {") != -1);
+        assertTrue(source.indexOf("OuterClass.this.outerField1 = param1;") != -1);
+        assertTrue(source.indexOf("class LocalClass {") != -1);
+        assertTrue(source.indexOf("public class InnerClass") == -1);
+        assertTrue(source.indexOf("public OuterClass()") == -1);
+        assertTrue(source.indexOf("Comparator") == -1);
+
+        // Method with lambdas, synthetic methods of other lambdas not decompiled
+        printer = new PlainTextPrinter();
+        decompiler.decompileMember(loader, printer, "org/jd/core/test/Lambda", "printListItems3", null, null);
+        source = printer.toString();
+
+        printSource(source);
+
+        assertTrue(source.indexOf("Predicate<String> filter = s -> (s.length() == length);") != -1);
+        assertTrue(source.indexOf("printListItems2") == -1);
+        assertTrue(source.indexOf("lambda$") == -1);
+        assertTrue(source.indexOf("import java.util.Map;") == -1);
+
+        // Anonymous class of the member only
+        printer = new PlainTextPrinter();
+        decompiler.decompileMember(loader, printer, "org/jd/core/test/AnonymousClass", "anonymousImplInterface", null, null);
+        source = printer.toString();
+
+        printSource(source);
+
+        assertTrue(source.indexOf("Enumeration e = new Enumeration() {") != -1);
+        assertTrue(source.indexOf("AnonymousClass.this.time = System.currentTimeMillis();") != -1);
+        assertTrue(source.indexOf("public void test(") == -1);
+        assertTrue(source.indexOf("StringWrapper") == -1);
+
+        // Unknown member: declaration of the type only
+        printer = new PlainTextPrinter();
+        decompiler.decompileMember(loader, printer, "org/jd/core/test/OuterClass", "unknown", null, null);
+
+        assertTrue(printer.toString().indexOf("public class OuterClass {}") != -1);
+    }
+
+    @Test
+    public void testJdk180TimeBudget() throws Exception {
+        InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.8.0.zip");
+        ZipLoader zipLoader = new ZipLoader(is);
+        ClassFileToJavaSourceDecompiler decompiler = new ClassFileToJavaSourceDecompiler();
+        String internalClassName = "org/jd/core/test/OuterClass";
+
+        // Large budgets: nothing degraded
+        HashMap<String, Object> configuration = new HashMap<>();
+        PlainTextPrinter expectedPrinter = new PlainTextPrinter();
+        PlainTextPrinter printer = new PlainTextPrinter();
+
+        configuration.put("classTimeout", 60000);
+        configuration.put("methodTimeout", "60000");
+
+        decompiler.decompile(zipLoader, expectedPrinter, internalClassName);
+
+        Message message = new Message();
+        message.setHeader("mainInternalTypeName", internalClassName);
+        message.setHeader("configuration", configuration);
+        message.setHeader("loader", zipLoader);
+        message.setHeader("printer", printer);
+
+        decompiler.decompile(message);
+
+        List<String> degradedMembers = message.getHeader("degradedMembers");
+
+        assertEquals(expectedPrinter.toString(), printer.toString());
+        assertTrue(degradedMembers.isEmpty());
+
+        // Slow loader: the budget of the class is exceeded while the first bodies are created
+        Loader slowLoader = new Loader() {
+            @Override
+            public boolean canLoad(String internalName) {
+                return zipLoader.canLoad(internalName);
+            }
+
+            @Override
+            public byte[] load(String internalName) throws LoaderException {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException ignore) {
+                }
+                return zipLoader.load(internalName);
+            }
+        };
+
+        printer = new PlainTextPrinter();
+        configuration.put("classTimeout", "1");
+
+        message = new Message();
+        message.setHeader("mainInternalTypeName", internalClassName);
+        message.setHeader("configuration", configuration);
+        message.setHeader("loader", slowLoader);
+        message.setHeader("printer", printer);
+
+        decompiler.decompile(message);
+
+        String source = printer.toString();
+
+        degradedMembers = message.getHeader("degradedMembers");
+
+        printSource(source);
+
+        assertFalse(degradedMembers.isEmpty());
+        assertTrue(degradedMembers.contains("org/jd/core/test/OuterClass.method(I[Ljava/lang/String;)V"));
+        assertTrue(source.indexOf("public void method(int param1, String[] param2) {") != -1);
+        assertTrue(source.indexOf("// Byte code:") != -1);
+        assertTrue(source.indexOf("InnerClass innerClass = new InnerClass(param1, param2);") == -1);
+    }
+
+    @Test
+    public void testLongIfSequenceWithSmallStack() throws Exception {
+        StringBuilder sb = new StringBuilder("public class IfSequence {\n  public int sum(int i) {\n    int result = 0;\n");
+
+        for (int k=0; k<3000; k++) {
+            sb.append("    if (i == ").append(k).append(") {\n      result += ").append(k * 3).append(";\n    }\n");
+        }
+
+        sb.append("    return result;\n  }\n}\n");
+
+        assertTrue(CompilerUtil.compile("1.8", new JavaSourceFileObject("IfSequence", sb.toString())));
+
+        Loader loader = new CompilerLoader();
+        PlainTextPrinter printer = new PlainTextPrinter();
+        Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(null, () -> {
+            try {
+                new ClassFileToJavaSourceDecompiler().decompile(loader, printer, "IfSequence");
+            } catch (Throwable t) {
+                failure[0] = t;
+            }
+        }, "decompiler", 512 * 1024);
+
+        thread.start();
+        thread.join();
+
+        assertNull(failure[0]);
+
+        String source = printer.toString();
+
+        assertEquals(3000, source.split("if \\(").length - 1);
+        assertTrue(source.indexOf(" == 2999)") != -1);
+    }
+
     protected void printSource(String source) {
         System.out.println("- - - - - - - - ");
         System.out.println(source);
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1;
+
+import junit.framework.TestCase;
+import org.jd.core.v1.api.loader.IndexedLoader;
+import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.loader.CompositeLoader;
+import org.jd.core.v1.loader.JarLoader;
+import org.jd.core.v1.loader.PlatformLoader;
+import org.jd.core.v1.loader.ZipFileLoader;
+import org.jd.core.v1.loader.ZipLoader;
+import org.jd.core.v1.printer.PlainTextPrinter;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipOutputStream;
+
+public class CompositeLoaderTest extends TestCase {
+
+    @Test
+    public void testRouting() throws Exception {
+        ArrayList<Loader> loaders = new ArrayList<>();
+
+        for (int i=0; i<200; i++) {
+            loaders.add(new PackageLoader("org/library" + i));
+        }
+
+        try (InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.8.0.zip");
+             ZipFileLoader zipFileLoader = new ZipFileLoader(Paths.get(this.getClass().getResource("/zip/data-java-jdk-1.8.0.zip").toURI()))) {
+            ZipLoader zipLoader = new ZipLoader(is);
+
+            // Not indexed: searched for all packages
+            loaders.add(new PackageLoader("org/unindexed").toUnindexed());
+            loaders.add(zipFileLoader);
+
+            CompositeLoader loader = new CompositeLoader(loaders, 1024);
+
+            assertTrue(loader.canLoad("org/library150/Type"));
+            assertEquals(1, loader.getProbeCount());
+            assertTrue(loader.canLoad("org/unindexed/Type"));
+            assertEquals(2, loader.getProbeCount());
+            assertFalse(loader.canLoad("org/library150/Unknown"));
+            assertEquals(4, loader.getProbeCount());
+
+            // Memoized
+            assertFalse(loader.canLoad("org/library150/Unknown"));
+            assertTrue(loader.canLoad("org/library150/Type"));
+            assertEquals(4, loader.getProbeCount());
+            assertEquals(3, loader.getHitCount());
+            assertEquals(2, loader.getMissCount());
+
+            // Same output as the archive loader
+            ClassFileToJavaSourceDecompiler decompiler = new ClassFileToJavaSourceDecompiler();
+
+            for (String internalName : zipFileLoader.getTopLevelTypeNames()) {
+                PlainTextPrinter expected = new PlainTextPrinter();
+                PlainTextPrinter printer = new PlainTextPrinter();
+
+                decompiler.decompile(zipLoader, expected, internalName);
+                decompiler.decompile(loader, printer, internalName);
+
+                assertEquals(expected.toString(), printer.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testRoutingWithJarAndPlatformLoaders() throws Exception {
+        try (InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.8.0.zip")) {
+            Map<String, byte[]> map = new ZipLoader(is).getMap();
+            ByteArrayOutputStream jar = new ByteArrayOutputStream();
+
+            try (ZipOutputStream zos = new ZipOutputStream(jar)) {
+                JarLoaderTest.putClasses(zos, map, "org/jd/core/test/OuterClass", "");
+            }
+
+            Path path = Files.createTempFile("jd-core-", ".jar");
+
+            try {
+                Files.write(path, jar.toByteArray());
+
+                ArrayList<Loader> loaders = new ArrayList<>();
+
+                for (int i=0; i<200; i++) {
+                    loaders.add(new PackageLoader("org/library" + i));
+                }
+
+                PlatformLoader platformLoader = new PlatformLoader();
+                JarLoader jarLoader = new JarLoader(path, 8);
+
+                assertTrue(platformLoader.getPackageNames().contains("java/lang"));
+                assertFalse(platformLoader.getPackageNames().contains("org/jd/core/test"));
+                assertEquals(Collections.singleton("org/jd/core/test"), jarLoader.getPackageNames());
+
+                loaders.add(platformLoader);
+                loaders.add(jarLoader);
+
+                try (CompositeLoader loader = new CompositeLoader(loaders, 1024)) {
+                    // One probe per type: no loader is searched for all packages
+                    assertTrue(loader.canLoad("java/lang/String"));
+                    assertEquals(1, loader.getProbeCount());
+                    assertTrue(loader.canLoad("org/jd/core/test/OuterClass$InnerClass"));
+                    assertEquals(2, loader.getProbeCount());
+                    assertTrue(loader.canLoad("org/library7/Type"));
+                    assertEquals(3, loader.getProbeCount());
+                    assertFalse(loader.canLoad("org/unknown/Type"));
+                    assertEquals(3, loader.getProbeCount());
+                    assertTrue(Arrays.equals(map.get("org/jd/core/test/OuterClass.class"), loader.load("org/jd/core/test/OuterClass")));
+                }
+            } finally {
+                Files.delete(path);
+            }
+        }
+    }
+
+    protected static class PackageLoader implements IndexedLoader {
+        protected String packageName;
+
+        public PackageLoader(String packageName) {
+            this.packageName = packageName;
+        }
+
+        public Loader toUnindexed() {
+            PackageLoader indexed = this;
+
+            return new Loader() {
+                @Override public boolean canLoad(String internalName) { return indexed.canLoad(internalName); }
+                @Override public byte[] load(String internalName) { return indexed.load(internalName); }
+            };
+        }
+
+        @Override
+        public Set<String> getPackageNames() {
+            return Collections.singleton(packageName);
+        }
+
+        @Override
+        public boolean canLoad(String internalName) {
+            return internalName.equals(packageName + "/Type");
+        }
+
+        @Override
+        public byte[] load(String internalName) {
+            return null;
+        }
+    }
+}
@@ -9,13 +9,18 @@ package org.jd.core.v1;
 
 import junit.framework.TestCase;
 import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.compiler.CompilerUtil;
+import org.jd.core.v1.compiler.JavaSourceFileObject;
 import org.jd.core.v1.loader.ClassPathLoader;
+import org.jd.core.v1.loader.CompilerLoader;
 import org.jd.core.v1.loader.ZipLoader;
+import org.jd.core.v1.model.classfile.ClassFile;
 import org.jd.core.v1.model.classfile.Method;
 import org.jd.core.v1.model.javasyntax.CompilationUnit;
 import org.jd.core.v1.model.javasyntax.declaration.*;
 import org.jd.core.v1.model.message.Message;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.model.cfg.BasicBlock;
+import org.jd.core.v1.service.converter.classfiletojavasyntax.model.cfg.BasicBlockSet;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.model.cfg.ControlFlowGraph;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.model.cfg.Loop;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.model.javasyntax.declaration.*;
@@ -28,9 +33,7 @@ import org.junit.Test;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.BitSet;
-import java.util.HashSet;
-import java.util.List;
+import java.util.*;
 
 import static org.jd.core.v1.service.converter.classfiletojavasyntax.model.cfg.BasicBlock.*;
 
@@ -2394,6 +2397,190 @@ public class ControlFlowGraphTest extends TestCase {
         checkCFGReduction(searchMethod(getResource("zip/data-java-jdk-1.3.1.zip"), "org/jd/core/test/TryCatchFinally", "methodTryTryFinallyFinallyTryFinally"));
     }
 
+    @Test
+    public void testReduceLongChainWithSmallStack() throws Exception {
+        ControlFlowGraph cfg = new ControlFlowGraph(null);
+        BasicBlock previous = cfg.newBasicBlock(TYPE_START, 0, 0);
+
+        for (int i=0; i<100000; i++) {
+            BasicBlock basicBlock = cfg.newBasicBlock(TYPE_STATEMENTS, i, i+1);
+            previous.setNext(basicBlock);
+            basicBlock.getPredecessors().add(previous);
+            previous = basicBlock;
+        }
+
+        BasicBlock returnBB = cfg.newBasicBlock(TYPE_RETURN, 100000, 100001);
+        previous.setNext(returnBB);
+        returnBB.getPredecessors().add(previous);
+
+        boolean[] reduced = new boolean[1];
+        Thread thread = new Thread(null, () -> reduced[0] = ControlFlowGraphReducer.reduce(new BitSet(), cfg.getStart(), new BitSet()), "reducer", 128 * 1024);
+
+        thread.start();
+        thread.join();
+
+        assertTrue(reduced[0]);
+    }
+
+    @Test
+    public void testBasicBlockSet() throws Exception {
+        ControlFlowGraph cfg = new ControlFlowGraph(null);
+        ArrayList<BasicBlock> basicBlocks = new ArrayList<>();
+
+        for (int i=0; i<40; i++) {
+            basicBlocks.add(cfg.newBasicBlock(TYPE_STATEMENTS, i, i+1));
+        }
+
+        // Insertion order, below and past the indexed size
+        BasicBlockSet set = new BasicBlockSet();
+        ArrayList<BasicBlock> expected = new ArrayList<>();
+
+        for (int i=0; i<40; i++) {
+            BasicBlock basicBlock = basicBlocks.get((i * 7) % 40);
+
+            assertTrue(set.add(basicBlock));
+            assertFalse(set.add(basicBlock));
+            expected.add(basicBlock);
+            assertEquals(expected, new ArrayList<>(set));
+        }
+
+        for (BasicBlock basicBlock : basicBlocks) {
+            assertTrue(set.contains(basicBlock));
+        }
+
+        // Removals keep the order of the remaining elements
+        for (Iterator<BasicBlock> iterator = set.iterator(); iterator.hasNext(); ) {
+            if ((iterator.next().getIndex() % 3) == 0) {
+                iterator.remove();
+            }
+        }
+
+        assertTrue(set.remove(basicBlocks.get(1)));
+        assertFalse(set.remove(basicBlocks.get(1)));
+        expected.removeIf(bb -> ((bb.getIndex() % 3) == 0) || (bb.getIndex() == 1));
+
+        assertEquals(expected, new ArrayList<>(set));
+
+        for (BasicBlock basicBlock : basicBlocks) {
+            assertEquals(expected.contains(basicBlock), set.contains(basicBlock));
+        }
+
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(basicBlocks.get(2)));
+        assertTrue(set.add(basicBlocks.get(2)));
+    }
+
+    @Test
+    public void testDominatorTreeOnArchives() throws Exception {
+        for (String zipName : Arrays.asList("zip/data-java-jdk-1.8.0.zip", "zip/data-java-jdk-1.7.0.zip", "zip/data-java-eclipse-java-compiler-3.13.0.zip")) {
+            try (InputStream is = getResource(zipName)) {
+                ZipLoader loader = new ZipLoader(is);
+
+                for (String path : loader.getMap().keySet()) {
+                    if (path.endsWith(".class")) {
+                        for (Method method : deserialize(loader, path.substring(0, path.length()-6)).getMethods()) {
+                            ControlFlowGraph cfg = ControlFlowGraphMaker.make(method);
+
+                            if (cfg != null) {
+                                ControlFlowGraphGotoReducer.reduce(cfg);
+                                checkDominatorIndexes(cfg);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDominatorTreeOnStateMachine() throws Exception {
+        StringBuilder sb = new StringBuilder("public class StateMachine { public int run(int[] input) { int state = 0, i = 0, result = 0; while (state >= 0) { switch (state) {");
+
+        for (int i=0; i<1000; i++) {
+            sb.append(" case ").append(i).append(": if (input[i++] > ").append(i).append(") { result += ").append(i)
+              .append("; state = ").append((i * 7 + 3) % 1000).append("; } else { state = ").append((i + 1) % 1000).append("; } break;");
+        }
+
+        sb.append(" default: state = -1; } } return result; } }");
+
+        assertTrue(CompilerUtil.compile("1.8", new JavaSourceFileObject("StateMachine", sb.toString())));
+
+        Loader loader = new CompilerLoader();
+        ControlFlowGraph cfg = ControlFlowGraphMaker.make(searchMethod(loader, new TypeMaker(loader), "StateMachine", "run", null));
+
+        ControlFlowGraphGotoReducer.reduce(cfg);
+        checkDominatorIndexes(cfg);
+    }
+
+    protected ClassFile deserialize(Loader loader, String internalTypeName) throws Exception {
+        Message message = new Message();
+        message.setHeader("mainInternalTypeName", internalTypeName);
+        message.setHeader("loader", loader);
+
+        deserializer.process(message);
+
+        return message.getBody();
+    }
+
+    protected static void checkDominatorIndexes(ControlFlowGraph cfg) {
+        // Compare with the iterative data flow formulation
+        BitSet[] expected = buildDataFlowDominatorIndexes(cfg);
+        DominatorTree dominatorTree = new DominatorTree(cfg);
+
+        for (int i=0, length=cfg.getBasicBlocks().size(); i<length; i++) {
+            assertEquals(expected[i], dominatorTree.getDominatorIndexes(i));
+        }
+    }
+
+    protected static void checkDominators(ControlFlowGraph cfg) {
+        // Compare with the iterative data flow formulation
+        BitSet[] expected = buildDataFlowDominatorIndexes(cfg);
+        int length = cfg.getBasicBlocks().size();
+        DominatorTree dominatorTree = new DominatorTree(cfg);
+
+        for (int i=0; i<length; i++) {
+            assertEquals(expected[i], dominatorTree.getDominatorIndexes(i));
+
+            for (int j=0; j<length; j++) {
+                assertEquals(expected[i].get(j), dominatorTree.dominates(j, i));
+            }
+        }
+    }
+
+    protected static BitSet[] buildDataFlowDominatorIndexes(ControlFlowGraph cfg) {
+        List<BasicBlock> list = cfg.getBasicBlocks();
+        int length = list.size();
+        BitSet[] expected = new BitSet[length];
+
+        for (int i=0; i<length; i++) {
+            expected[i] = new BitSet(length);
+            expected[i].set(0, (i == 0) ? 1 : length);
+        }
+
+        boolean change;
+
+        do {
+            change = false;
+
+            for (BasicBlock basicBlock : list) {
+                BitSet dominatorIndexes = (BitSet)expected[basicBlock.getIndex()].clone();
+
+                for (BasicBlock predecessor : basicBlock.getPredecessors()) {
+                    dominatorIndexes.and(expected[predecessor.getIndex()]);
+                }
+
+                dominatorIndexes.set(basicBlock.getIndex());
+
+                if (!dominatorIndexes.equals(expected[basicBlock.getIndex()])) {
+                    expected[basicBlock.getIndex()] = dominatorIndexes;
+                    change = true;
+                }
+            }
+        } while (change);
+
+        return expected;
+    }
 
     protected ControlFlowGraph checkCFGReduction(Method method) throws Exception {
         ControlFlowGraph cfg = ControlFlowGraphMaker.make(method);
@@ -2412,6 +2599,9 @@ public class ControlFlowGraphTest extends TestCase {
         plantuml = ControlFlowGraphPlantUMLWriter.write(cfg);
         System.out.println("Step 1: " + ControlFlowGraphPlantUMLWriter.writePlantUMLUrl(plantuml));
 
+        // --- Test dominators --- //
+        checkDominators(cfg);
+
         // --- Test natural loops --- //
         BitSet[] dominators = ControlFlowGraphLoopReducer.buildDominatorIndexes(cfg);
         List<Loop> naturalLoops = ControlFlowGraphLoopReducer.identifyNaturalLoops(cfg, dominators);
@@ -2610,17 +2800,7 @@ public class ControlFlowGraphTest extends TestCase {
 
     protected static class SilentWatchDog extends WatchDog {
         public boolean silentCheck(BasicBlock parent, BasicBlock child) {
-            if (!child.matchType(BasicBlock.GROUP_END)) {
-                Link link = new Link(parent, child);
-
-                if (links.contains(link)) {
-                    return false;
-                }
-
-                links.add(link);
-            }
-
-            return true;
+            return child.matchType(BasicBlock.GROUP_END) || add(link(parent, child));
         }
     }
 
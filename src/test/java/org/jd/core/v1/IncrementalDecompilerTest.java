@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1;
+
+import junit.framework.TestCase;
+import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.api.loader.LoaderException;
+import org.jd.core.v1.api.printer.Printer;
+import org.jd.core.v1.api.printer.PrinterFactory;
+import org.jd.core.v1.loader.AsyncLoader;
+import org.jd.core.v1.loader.ZipLoader;
+import org.jd.core.v1.printer.PlainTextPrinter;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class IncrementalDecompilerTest extends TestCase {
+
+    @Test
+    public void testJdk180() throws Exception {
+        try (InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.8.0.zip")) {
+            ZipLoader loader = new ZipLoader(is);
+            ClassFileToJavaSourceDecompiler decompiler = new ClassFileToJavaSourceDecompiler();
+            IncrementalDecompiler incrementalDecompiler = new IncrementalDecompiler(decompiler, "test");
+            TreeMap<String, String> sources = new TreeMap<>();
+            SourceFactory factory = new SourceFactory(sources);
+            ArrayList<String> internalNames = new ArrayList<>();
+
+            for (String path : loader.getMap().keySet()) {
+                if (path.endsWith(".class") && (path.indexOf('$') == -1)) {
+                    internalNames.add(path.substring(0, path.length() - 6)); // 6 = ".class".length()
+                }
+            }
+
+            Collections.sort(internalNames);
+
+            // First snapshot
+            assertEquals(internalNames, incrementalDecompiler.decompile(loader, factory, internalNames, null));
+            assertEquals(0, factory.failureCount);
+
+            // Same snapshot, records saved then loaded
+            Path path = Files.createTempFile("jd-core-dependencies-", ".jddd");
+
+            try {
+                incrementalDecompiler.save(path);
+                incrementalDecompiler = new IncrementalDecompiler(decompiler, "test");
+                incrementalDecompiler.load(path);
+            } finally {
+                Files.delete(path);
+            }
+
+            assertTrue(incrementalDecompiler.decompile(loader, factory, internalNames, null).isEmpty());
+
+            // Other configuration: all types
+            Map<String, Object> configuration = Collections.singletonMap("realignLineNumbers", "true");
+
+            assertEquals(internalNames, incrementalDecompiler.decompile(loader, new SourceFactory(new HashMap<>()), internalNames, configuration));
+            assertEquals(internalNames, incrementalDecompiler.decompile(loader, factory, internalNames, null));
+
+            // Own class file changed, relations unchanged: the type only
+            String changedName = "org/jd/core/test/Basic";
+            byte[] data = loader.getMap().get(changedName + ".class");
+
+            loader.getMap().put(changedName + ".class", Arrays.copyOf(data, data.length + 1));
+            assertEquals(Collections.singletonList(changedName), incrementalDecompiler.decompile(loader, factory, internalNames, null));
+            assertTrue(incrementalDecompiler.isUpToDate(loader, changedName, null));
+
+            // Type removed: the types having consulted it
+            String removedName = null;
+            HashSet<String> dependentNames = new HashSet<>();
+
+            for (String internalName : internalNames) {
+                dependentNames.clear();
+
+                for (String name : internalNames) {
+                    if (!name.equals(internalName) && incrementalDecompiler.getDependencies(name).contains(internalName)) {
+                        dependentNames.add(name);
+                    }
+                }
+
+                if (!dependentNames.isEmpty()) {
+                    removedName = internalName;
+                    break;
+                }
+            }
+
+            assertNotNull(removedName);
+            loader.getMap().remove(removedName + ".class");
+            internalNames.remove(removedName);
+            sources.remove(removedName);
+
+            List<String> decompiledNames = incrementalDecompiler.decompile(loader, factory, internalNames, null);
+
+            assertEquals(dependentNames, new HashSet<>(decompiledNames));
+            assertTrue(decompiledNames.size() < internalNames.size());
+            assertNull(incrementalDecompiler.getDependencies(removedName));
+
+            // Sources kept from previous snapshots are the sources of the last snapshot
+            for (String internalName : internalNames) {
+                PlainTextPrinter printer = new PlainTextPrinter();
+
+                decompiler.decompile(loader, printer, internalName);
+                assertEquals(internalName, printer.toString(), sources.get(internalName));
+            }
+
+            assertEquals(0, factory.failureCount);
+        }
+    }
+
+    @Test
+    public void testDegradedDecompilation() throws Exception {
+        try (InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.8.0.zip")) {
+            ZipLoader loader = new ZipLoader(is);
+            IncrementalDecompiler incrementalDecompiler = new IncrementalDecompiler(new ClassFileToJavaSourceDecompiler(), "test");
+            HashMap<String, Object> configuration = new HashMap<>();
+
+            // Slow loader: the budget of the class is exceeded while the first bodies are created
+            Loader slowLoader = new Loader() {
+                @Override
+                public boolean canLoad(String internalName) {
+                    return loader.canLoad(internalName);
+                }
+
+                @Override
+                public byte[] load(String internalName) throws LoaderException {
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException ignore) {
+                    }
+                    return loader.load(internalName);
+                }
+            };
+
+            configuration.put("classTimeout", "1");
+
+            // Degraded output not recorded: decompiled again
+            for (int i=0; i<2; i++) {
+                PlainTextPrinter printer = new PlainTextPrinter();
+
+                assertTrue(incrementalDecompiler.decompile(slowLoader, printer, "org/jd/core/test/OuterClass", configuration));
+                assertTrue(printer.toString().indexOf("// Byte code:") != -1);
+                assertNull(incrementalDecompiler.getDependencies("org/jd/core/test/OuterClass"));
+            }
+        }
+    }
+
+    @Test
+    public void testBatchLoader() throws Exception {
+        try (InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.8.0.zip")) {
+            ZipLoader loader = new ZipLoader(is);
+            IncrementalDecompiler incrementalDecompiler = new IncrementalDecompiler(new ClassFileToJavaSourceDecompiler(), "test");
+            Set<String> batchNames = ConcurrentHashMap.newKeySet();
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+
+            try {
+                // Inner classes loaded in one batch
+                AsyncLoader asyncLoader = new AsyncLoader(loader, executor) {
+                    @Override
+                    public Map<String, CompletableFuture<byte[]>> loadAll(Collection<String> internalNames) {
+                        batchNames.addAll(internalNames);
+                        return super.loadAll(internalNames);
+                    }
+                };
+
+                assertTrue(incrementalDecompiler.decompile(asyncLoader, new PlainTextPrinter(), "org/jd/core/test/OuterClass", null));
+            } finally {
+                executor.shutdown();
+            }
+
+            assertTrue(batchNames.contains("org/jd/core/test/OuterClass$InnerClass"));
+            assertTrue(incrementalDecompiler.getDependencies("org/jd/core/test/OuterClass").containsAll(batchNames));
+        }
+    }
+
+    protected static class SourceFactory implements PrinterFactory {
+        protected Map<String, String> sources;
+        protected int failureCount;
+
+        public SourceFactory(Map<String, String> sources) {
+            this.sources = sources;
+        }
+
+        @Override
+        public Printer newPrinter(String internalName) {
+            return new PlainTextPrinter();
+        }
+
+        @Override
+        public void done(String internalName, Printer printer, Throwable failure) {
+            if (failure == null) {
+                sources.put(internalName, printer.toString());
+            } else {
+                failureCount++;
+            }
+        }
+    }
+}
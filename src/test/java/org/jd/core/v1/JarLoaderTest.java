@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1;
+
+import junit.framework.TestCase;
+import org.jd.core.v1.loader.JarLoader;
+import org.jd.core.v1.loader.ZipLoader;
+import org.jd.core.v1.printer.PlainTextPrinter;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class JarLoaderTest extends TestCase {
+    protected static final String MULTI_RELEASE_MANIFEST = "Manifest-Version: 1.0\r\nMulti-Release: true\r\n\r\n";
+
+    @Test
+    public void testFatJar() throws Exception {
+        try (InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.8.0.zip")) {
+            ZipLoader zipLoader = new ZipLoader(is);
+            Map<String, byte[]> map = zipLoader.getMap();
+
+            // Multi-release library, stored as Spring Boot requires
+            ByteArrayOutputStream library1 = new ByteArrayOutputStream();
+
+            try (ZipOutputStream zos = new ZipOutputStream(library1)) {
+                put(zos, "META-INF/MANIFEST.MF", MULTI_RELEASE_MANIFEST.getBytes(StandardCharsets.UTF_8), false);
+                putClasses(zos, map, "org/jd/core/test/OuterClass", "");
+                put(zos, "META-INF/versions/9/org/jd/core/test/OuterClass.class", map.get("org/jd/core/test/Basic.class"), false);
+                put(zos, "META-INF/versions/11/org/jd/core/test/OuterClass.class", map.get("org/jd/core/test/Array.class"), false);
+            }
+
+            // Deflated library
+            ByteArrayOutputStream library2 = new ByteArrayOutputStream();
+
+            try (ZipOutputStream zos = new ZipOutputStream(library2)) {
+                putClasses(zos, map, "org/jd/core/test/AnonymousClass", "");
+            }
+
+            Path path = Files.createTempFile("jd-core-", ".jar");
+
+            try {
+                ByteArrayOutputStream fatJar = new ByteArrayOutputStream();
+
+                // Launch script preceding the archive
+                fatJar.write("#!/bin/bash\nexec java -jar \"$0\" \"$@\"\n".getBytes(StandardCharsets.UTF_8));
+
+                try (ZipOutputStream zos = new ZipOutputStream(fatJar)) {
+                    putClasses(zos, map, "org/jd/core/test/Basic", "BOOT-INF/classes/");
+                    put(zos, "BOOT-INF/lib/library1.jar", library1.toByteArray(), true);
+                    put(zos, "BOOT-INF/lib/library2.jar", library2.toByteArray(), false);
+                }
+
+                Files.write(path, fatJar.toByteArray());
+
+                JarLoader loader = new JarLoader(path, 8);
+
+                assertEquals(Arrays.asList("org/jd/core/test/Basic"), loader.getTopLevelTypeNames());
+                assertTrue(loader.canLoad("org/jd/core/test/Basic"));
+                assertTrue(loader.canLoad("org/jd/core/test/OuterClass$InnerClass"));
+                assertTrue(loader.canLoad("org/jd/core/test/AnonymousClass$1"));
+                assertFalse(loader.canLoad("org/jd/core/test/Unknown"));
+                assertFalse(loader.canLoad("BOOT-INF/classes/org/jd/core/test/Basic"));
+                assertNull(loader.load("org/jd/core/test/Unknown"));
+
+                assertEquals(Collections.singleton("org/jd/core/test"), loader.getPackageNames());
+
+                // Nested jars opened on demand
+                CountingJarLoader countingLoader = new CountingJarLoader(path);
+
+                assertTrue(countingLoader.canLoad("org/jd/core/test/Basic"));
+                assertEquals(0, countingLoader.getOpenedLibraryCount());
+                assertTrue(countingLoader.canLoad("org/jd/core/test/OuterClass"));
+                assertEquals(1, countingLoader.getOpenedLibraryCount());
+                assertFalse(countingLoader.canLoad("org/jd/core/other/Unknown"));
+                assertEquals(2, countingLoader.getOpenedLibraryCount());
+                assertTrue(countingLoader.canLoad("org/jd/core/test/AnonymousClass"));
+
+                assertTrue(Arrays.equals(map.get("org/jd/core/test/OuterClass.class"), loader.load("org/jd/core/test/OuterClass")));
+                assertTrue(Arrays.equals(map.get("org/jd/core/test/Basic.class"), new JarLoader(path, 9).load("org/jd/core/test/OuterClass")));
+                assertTrue(Arrays.equals(map.get("org/jd/core/test/Array.class"), new JarLoader(path, 17).load("org/jd/core/test/OuterClass")));
+
+                // Same output as the eager loader
+                ClassFileToJavaSourceDecompiler decompiler = new ClassFileToJavaSourceDecompiler();
+
+                for (String internalName : Arrays.asList("org/jd/core/test/Basic", "org/jd/core/test/OuterClass", "org/jd/core/test/AnonymousClass")) {
+                    PlainTextPrinter expected = new PlainTextPrinter();
+                    PlainTextPrinter printer = new PlainTextPrinter();
+
+                    decompiler.decompile(zipLoader, expected, internalName);
+                    decompiler.decompile(loader, printer, internalName);
+
+                    assertEquals(expected.toString(), printer.toString());
+                }
+
+                loader.close();
+            } finally {
+                Files.delete(path);
+            }
+        }
+    }
+
+    protected static class CountingJarLoader extends JarLoader {
+        public CountingJarLoader(Path path) throws IOException {
+            super(path, 8);
+        }
+
+        public int getOpenedLibraryCount() {
+            return openedLibraryCount;
+        }
+    }
+
+    protected static void putClasses(ZipOutputStream zos, Map<String, byte[]> map, String internalName, String directory) throws IOException {
+        for (Map.Entry<String, byte[]> entry : map.entrySet()) {
+            String name = entry.getKey();
+
+            if (name.equals(internalName + ".class") || name.startsWith(internalName + '$')) {
+                put(zos, directory + name, entry.getValue(), false);
+            }
+        }
+    }
+
+    protected static void put(ZipOutputStream zos, String name, byte[] data, boolean stored) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+
+        if (stored) {
+            CRC32 crc = new CRC32();
+
+            crc.update(data);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(data.length);
+            entry.setCompressedSize(data.length);
+            entry.setCrc(crc.getValue());
+        }
+
+        zos.putNextEntry(entry);
+        zos.write(data);
+        zos.closeEntry();
+    }
+}
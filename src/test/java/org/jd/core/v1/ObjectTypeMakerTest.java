@@ -8,13 +8,25 @@
 package org.jd.core.v1;
 
 import junit.framework.TestCase;
+import org.jd.core.v1.api.loader.LoaderException;
 import org.jd.core.v1.loader.ClassPathLoader;
+import org.jd.core.v1.loader.CompositeLoader;
+import org.jd.core.v1.loader.NopLoader;
+import org.jd.core.v1.loader.PlatformLoader;
 import org.jd.core.v1.loader.ZipLoader;
+import org.jd.core.v1.model.classfile.Constants;
 import org.jd.core.v1.model.javasyntax.type.ObjectType;
+import org.jd.core.v1.service.converter.classfiletojavasyntax.util.TypeIndex;
+import org.jd.core.v1.service.converter.classfiletojavasyntax.util.TypeIndexFile;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.util.TypeMaker;
+import org.jd.core.v1.service.converter.classfiletojavasyntax.util.TypeMakerCache;
 import org.junit.Test;
 
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 
 public class ObjectTypeMakerTest extends TestCase {
 
@@ -197,4 +209,206 @@ public class ObjectTypeMakerTest extends TestCase {
         assertNotNull(child);
         assertFalse(typeMaker.isAssignable(parent, child));
     }
+
+    @Test
+    public void testSharedTypeMakerCache() throws Exception {
+        InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.7.0.zip");
+        CountingZipLoader loader = new CountingZipLoader(is);
+        TypeMakerCache cache = new TypeMakerCache(loader);
+
+        TypeMaker typeMaker1 = new TypeMaker(cache);
+        ObjectType parent1 = typeMaker1.makeFromInternalTypeName("java/util/Comparator");
+        ObjectType child1 = typeMaker1.makeFromInternalTypeName("org/jd/core/test/OuterClass$SafeNumberComparator");
+
+        assertTrue(typeMaker1.isAssignable(parent1, child1));
+
+        int loadCounter = loader.loadCounter;
+
+        assertTrue(loadCounter > 0);
+
+        TypeMaker typeMaker2 = new TypeMaker(cache);
+        ObjectType parent2 = typeMaker2.makeFromInternalTypeName("java/util/Comparator");
+        ObjectType child2 = typeMaker2.makeFromInternalTypeName("org/jd/core/test/OuterClass$SafeNumberComparator");
+
+        assertTrue(typeMaker2.isAssignable(parent2, child2));
+        assertSame(child1, child2);
+        assertEquals("org.jd.core.test.OuterClass.SafeNumberComparator", child2.getQualifiedName());
+        assertEquals(loadCounter, loader.loadCounter);
+    }
+
+    @Test
+    public void testSharedTypeMakerCacheOfAnotherLoader() throws Exception {
+        InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.7.0.zip");
+        ZipLoader loader = new ZipLoader(is);
+        TypeMakerCache cache = new TypeMakerCache(loader);
+
+        assertNotNull(new TypeMaker(loader, cache));
+
+        try {
+            new TypeMaker(new NopLoader(), cache);
+            fail("Cache bound to another loader accepted");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testSharedTypeMakerCacheEviction() throws Exception {
+        InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.7.0.zip");
+        ZipLoader loader = new ZipLoader(is);
+        TypeMakerCache cache = new TypeMakerCache(loader, 16);
+
+        for (int i=0; i<100; i++) {
+            new TypeMaker(cache).makeFromInternalTypeName("org/unknown/Class" + i);
+        }
+
+        TypeMaker typeMaker = new TypeMaker(cache);
+        ObjectType parent = typeMaker.makeFromInternalTypeName("org/jd/core/test/OuterClass$NumberComparator");
+        ObjectType child = typeMaker.makeFromInternalTypeName("org/jd/core/test/OuterClass$SafeNumberComparator");
+
+        assertTrue(typeMaker.isAssignable(parent, child));
+
+        for (int i=0; i<100; i++) {
+            new TypeMaker(cache).makeFromInternalTypeName("org/unknown/Class" + i);
+        }
+
+        // Hierarchy evicted from shared cache -> Reloaded
+        typeMaker = new TypeMaker(cache);
+        parent = typeMaker.makeFromInternalTypeName("org/jd/core/test/OuterClass$NumberComparator");
+        child = typeMaker.makeFromInternalTypeName("org/jd/core/test/OuterClass$SafeNumberComparator");
+
+        assertTrue(typeMaker.isAssignable(parent, child));
+    }
+
+    @Test
+    public void testTypeIndex() throws Exception {
+        InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.7.0.zip");
+        CountingZipLoader loader = new CountingZipLoader(is);
+        TypeIndex typeIndex = new TypeIndex(loader);
+
+        assertNull(typeIndex.getOuterTypeName("org/jd/core/test/OuterClass"));
+        assertEquals("org/jd/core/test/OuterClass", typeIndex.getOuterTypeName("org/jd/core/test/OuterClass$InnerClass"));
+        // Anonymous class -> Outer type found with the 'InnerClasses' attribute of 'OuterClass'
+        assertEquals("org/jd/core/test/OuterClass", typeIndex.getOuterTypeName("org/jd/core/test/OuterClass$1"));
+        assertNull(typeIndex.getOuterTypeName("org/unknown/Class"));
+
+        TypeIndex.Entry entry = typeIndex.getEntry("org/jd/core/test/OuterClass$SafeNumberComparator");
+        String[] superClassAndInterfaceNames = entry.getSuperClassAndInterfaceNames();
+
+        assertEquals("org/jd/core/test/OuterClass$NumberComparator", entry.getSuperTypeName());
+        assertEquals(1, superClassAndInterfaceNames.length);
+        assertEquals(Constants.ACC_SUPER, entry.getAccessFlags() & Constants.ACC_SUPER);
+
+        int loadCounter = loader.loadCounter;
+
+        // Entries are read once
+        typeIndex.getOuterTypeName("org/jd/core/test/OuterClass$1");
+        typeIndex.getEntry("org/jd/core/test/OuterClass$SafeNumberComparator");
+        assertNull(typeIndex.getEntry("org/unknown/Class"));
+
+        assertEquals(loadCounter, loader.loadCounter);
+    }
+
+    @Test
+    public void testPersistentTypeIndex() throws Exception {
+        Path archivePath = Paths.get(this.getClass().getResource("/zip/data-java-jdk-1.7.0.zip").toURI());
+        Path directory = Files.createTempDirectory("jd-core-test");
+        Path path = TypeIndexFile.getPath(directory, archivePath);
+
+        try {
+            assertEquals(0, TypeIndexFile.open(path).size());
+
+            // First run -> Read types with the loader
+            try (InputStream is = Files.newInputStream(archivePath)) {
+                CountingZipLoader loader = new CountingZipLoader(is);
+                TypeIndex typeIndex = new TypeIndex(new CompositeLoader(loader, new PlatformLoader()), TypeIndexFile.open(path));
+                TypeMaker typeMaker = new TypeMaker(new TypeMakerCache(typeIndex));
+
+                ObjectType parent = typeMaker.makeFromInternalTypeName("org/jd/core/test/OuterClass$NumberComparator");
+                ObjectType child = typeMaker.makeFromInternalTypeName("org/jd/core/test/OuterClass$SafeNumberComparator");
+
+                assertTrue(typeMaker.isAssignable(parent, child));
+                assertNull(typeMaker.makeFromInternalTypeName("org/jd/core/test/OuterClass$1").getQualifiedName());
+                assertTrue(loader.loadCounter > 0);
+                assertTrue(typeIndex.hasNewEntries());
+                assertNotNull(typeIndex.getEntry("java/lang/String"));
+
+                // Types of the archive only
+                typeIndex.save(path, loader);
+            }
+
+            // Second run -> Read types with the index file
+            try (InputStream is = Files.newInputStream(archivePath)) {
+                CountingZipLoader loader = new CountingZipLoader(is);
+                TypeIndexFile file = TypeIndexFile.open(path);
+                TypeIndex typeIndex = new TypeIndex(loader, file);
+                TypeMaker typeMaker = new TypeMaker(new TypeMakerCache(typeIndex));
+                ObjectType parent = typeMaker.makeFromInternalTypeName("org/jd/core/test/OuterClass$NumberComparator");
+                ObjectType child = typeMaker.makeFromInternalTypeName("org/jd/core/test/OuterClass$SafeNumberComparator");
+
+                assertTrue(file.size() > 0);
+                assertNull(file.get("org/unknown/Class"));
+                assertNull(file.get("java/lang/String"));
+                assertEquals("org.jd.core.test.OuterClass.SafeNumberComparator", child.getQualifiedName());
+                assertTrue(typeMaker.isAssignable(parent, child));
+                assertEquals(0, loader.loadCounter);
+                assertFalse(typeIndex.hasNewEntries());
+            }
+
+            // Truncated file -> No index
+            byte[] data = Files.readAllBytes(path);
+
+            Files.write(path, Arrays.copyOf(data, data.length - 3));
+            assertEquals(0, TypeIndexFile.open(path).size());
+            Files.write(path, Arrays.copyOf(data, 20));
+            assertEquals(0, TypeIndexFile.open(path).size());
+        } finally {
+            Files.deleteIfExists(path);
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void testPlatformLoader() throws Exception {
+        PlatformLoader loader = new PlatformLoader();
+
+        assertTrue(loader.canLoad("java/lang/String"));
+        assertTrue(loader.canLoad("java/util/Map$Entry"));
+        assertFalse(loader.canLoad("org/unknown/Class"));
+        assertFalse(loader.canLoad("java/lang/Unknown"));
+        assertNull(loader.load("org/unknown/Class"));
+
+        byte[] data = loader.load("java/lang/Thread$State");
+
+        assertNotNull(data);
+        assertEquals(0xCA, data[0] & 0xFF);
+        assertEquals(0xFE, data[1] & 0xFF);
+    }
+
+    @Test
+    public void testPlatformTypes() throws Exception {
+        // Types unknown by the loader -> Read from the platform
+        TypeMaker typeMaker = new TypeMaker(new NopLoader());
+        ObjectType entry = typeMaker.makeFromInternalTypeName("java/util/Map$Entry");
+        ObjectType list = typeMaker.makeFromInternalTypeName("java/util/List");
+        ObjectType arrayList = typeMaker.makeFromInternalTypeName("java/util/ArrayList");
+
+        assertEquals("java.util.Map.Entry", entry.getQualifiedName());
+        assertEquals("Entry", entry.getName());
+        assertTrue(typeMaker.isAssignable(list, arrayList));
+        assertFalse(typeMaker.isAssignable(arrayList, list));
+    }
+
+    protected static class CountingZipLoader extends ZipLoader {
+        protected int loadCounter;
+
+        public CountingZipLoader(InputStream is) throws LoaderException {
+            super(is);
+        }
+
+        @Override
+        public byte[] load(String internalName) throws LoaderException {
+            loadCounter++;
+            return super.load(internalName);
+        }
+    }
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1;
+
+import junit.framework.TestCase;
+import org.jd.core.v1.loader.ZipLoader;
+import org.jd.core.v1.printer.Utf8Printer;
+import org.jd.core.v1.printer.WriterPrinter;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class TextPrinterTest extends TestCase {
+
+    @Test
+    public void testJdk180() throws Exception {
+        try (InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.8.0.zip")) {
+            ZipLoader loader = new ZipLoader(is);
+            ClassFileToJavaSourceDecompiler decompiler = new ClassFileToJavaSourceDecompiler();
+            Utf8Printer utf8Printer = new Utf8Printer();
+            Utf8Printer streamPrinter = new Utf8Printer(new byte[7], null);
+
+            for (String path : loader.getMap().keySet()) {
+                if (path.endsWith(".class") && (path.indexOf('$') == -1)) {
+                    String internalName = path.substring(0, path.length() - 6); // 6 = ".class".length()
+                    StringWriter writer = new StringWriter();
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+                    decompiler.decompile(loader, new WriterPrinter(writer), internalName);
+
+                    // Reused printers
+                    utf8Printer.reset(null);
+                    decompiler.decompile(loader, utf8Printer, internalName);
+                    streamPrinter.reset(out);
+                    decompiler.decompile(loader, streamPrinter, internalName);
+
+                    String source = writer.toString();
+
+                    assertTrue(source.startsWith("package org.jd.core.test"));
+                    assertTrue(source.indexOf("\n    ") != -1);
+                    assertEquals(source, utf8Printer.toString());
+                    assertEquals(source, new String(out.toByteArray(), StandardCharsets.UTF_8));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testUtf8() throws Exception {
+        String text = "aé€😀\uD800b";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Utf8Printer printer = new Utf8Printer(new byte[5], out, "\t", "\r\n");
+
+        printer.start(0, 52, 0);
+        for (int i=0; i<20; i++)
+            printer.indent();
+        printer.startLine(1);
+        printer.printText(text);
+        printer.endLine();
+        printer.end();
+
+        String expected = "\t\t\t\t\t\t\t\t\t\t\t\t\t\t\t\t\t\t\t\t" + text + "\r\n";
+
+        // Same bytes as String.getBytes(), unpaired surrogate included
+        assertTrue(Arrays.equals(expected.getBytes(StandardCharsets.UTF_8), out.toByteArray()));
+
+        Utf8Printer memoryPrinter = new Utf8Printer();
+
+        memoryPrinter.printText(text);
+
+        ByteBuffer buffer = memoryPrinter.toByteBuffer();
+        byte[] bytes = new byte[buffer.remaining()];
+
+        buffer.get(bytes);
+        assertTrue(Arrays.equals(text.getBytes(StandardCharsets.UTF_8), bytes));
+    }
+}
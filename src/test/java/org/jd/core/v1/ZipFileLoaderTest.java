@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1;
+
+import junit.framework.TestCase;
+import org.jd.core.v1.loader.ZipFileLoader;
+import org.jd.core.v1.loader.ZipLoader;
+import org.jd.core.v1.printer.PlainTextPrinter;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+public class ZipFileLoaderTest extends TestCase {
+
+    @Test
+    public void testJdk180Archive() throws Exception {
+        File file = new File(this.getClass().getResource("/zip/data-java-jdk-1.8.0.zip").toURI());
+        CountingZipFile zipFile = new CountingZipFile(file);
+
+        try (ZipFileLoader loader = new ZipFileLoader(zipFile, 32);
+             InputStream is = this.getClass().getResourceAsStream("/zip/data-java-jdk-1.8.0.zip")) {
+            ZipLoader zipLoader = new ZipLoader(is);
+
+            // Answered from the index
+            assertTrue(loader.canLoad("org/jd/core/test/OuterClass"));
+            assertTrue(loader.canLoad("org/jd/core/test/OuterClass$InnerClass"));
+            assertFalse(loader.canLoad("org/jd/core/test/Unknown"));
+            assertFalse(loader.canLoad("META-INF/MANIFEST"));
+            assertEquals(0, zipFile.inflatedEntryCount);
+
+            assertNull(loader.load("org/jd/core/test/Unknown"));
+            assertTrue(Arrays.equals(zipLoader.load("org/jd/core/test/Basic"), loader.load("org/jd/core/test/Basic")));
+            assertEquals(1, zipFile.inflatedEntryCount);
+
+            // Cached: not inflated twice, and callers get their own copy
+            byte[] data = loader.load("org/jd/core/test/Basic");
+            data[0] = 0;
+            ByteBuffer buffer = loader.loadByteBuffer("org/jd/core/test/Basic");
+            assertEquals((byte)0xCA, buffer.get(0));
+            assertTrue(buffer.isReadOnly());
+            assertEquals(1, zipFile.inflatedEntryCount);
+
+            // Same output as the eager loader
+            ClassFileToJavaSourceDecompiler decompiler = new ClassFileToJavaSourceDecompiler();
+
+            for (String internalName : loader.getTopLevelTypeNames()) {
+                PlainTextPrinter expected = new PlainTextPrinter();
+                PlainTextPrinter printer = new PlainTextPrinter();
+
+                decompiler.decompile(zipLoader, expected, internalName);
+                decompiler.decompile(loader, printer, internalName);
+
+                assertEquals(expected.toString(), printer.toString());
+            }
+        }
+    }
+
+    protected static class CountingZipFile extends ZipFile {
+        public int inflatedEntryCount;
+
+        public CountingZipFile(File file) throws IOException {
+            super(file);
+        }
+
+        @Override
+        public synchronized InputStream getInputStream(ZipEntry entry) throws IOException {
+            inflatedEntryCount++;
+            return super.getInputStream(entry);
+        }
+    }
+}
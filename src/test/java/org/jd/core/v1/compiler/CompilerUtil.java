@@ -14,7 +14,7 @@ import java.util.Arrays;
 import java.util.List;
 
 public class CompilerUtil {
-    protected static final File DESTINATION_DIRECTORY = new File("build/test-recompiled");
+    public static final File DESTINATION_DIRECTORY = new File("build/test-recompiled");
     protected static final String DESTINATION_DIRECTORY_PATH = DESTINATION_DIRECTORY.getAbsolutePath();
 
     public static boolean compile(String preferredJavaVersion, JavaFileObject... javaFileObjects) throws Exception {
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2008, 2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.core.v1.loader;
+
+import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.api.loader.LoaderException;
+import org.jd.core.v1.compiler.CompilerUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Load the classes compiled by {@link CompilerUtil}.
+ */
+public class CompilerLoader implements Loader {
+    @Override
+    public byte[] load(String internalName) throws LoaderException {
+        File file = getFile(internalName);
+
+        if (file.exists()) {
+            try {
+                return Files.readAllBytes(file.toPath());
+            } catch (IOException e) {
+                throw new LoaderException(e);
+            }
+        } else {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean canLoad(String internalName) {
+        return getFile(internalName).exists();
+    }
+
+    protected File getFile(String internalName) {
+        return new File(CompilerUtil.DESTINATION_DIRECTORY, internalName + ".class");
+    }
+}